@@ -48,4 +48,15 @@ public final class AppUtils {
         return DigestUtils.shaHex(collectListValues);
     }
 
+    /**
+     * Method joins a List of Strings by null characters and retrieves a hexadecimal String from the resulting
+     * input String using the SHA-256 hash algorithm. Unlike {@link #getHashSHA(List)} the case of the entries
+     * is kept, entries differing only in case or in the position of blank spaces result in different hashes.
+     * @param valueList List of Strings.
+     * @return Hexadecimal String of the SHA-256 encoded input Strings.
+     */
+    public static String getHashSHA256(final List<String> valueList) {
+        return DigestUtils.sha256Hex(String.join("\u0000", valueList));
+    }
+
 }
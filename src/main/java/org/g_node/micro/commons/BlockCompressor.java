@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Class compressing blocks of data of a fixed maximum size, every block as a complete stream of the compression
+ * format. The dictionary of the xz format is limited to the block size, the default dictionary of 8 MB would
+ * only cost memory and time to allocate for every block.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class BlockCompressor {
+    /**
+     * Name of the compression format used by commons-compress.
+     */
+    private final String compressor;
+    /**
+     * Maximum size of a block in bytes.
+     */
+    private final int blockSize;
+
+    /**
+     * Constructor.
+     * @param compressorName Name of the compression format used by commons-compress, e.g.
+     *  {@link CompressorStreamFactory#GZIP}.
+     * @param blockBytes Maximum size of a block in bytes.
+     */
+    BlockCompressor(final String compressorName, final int blockBytes) {
+        this.compressor = compressorName;
+        this.blockSize = blockBytes;
+    }
+
+    /**
+     * Method compresses a block as a complete stream of the compression format.
+     * @param data Block containing the data.
+     * @param size Number of bytes of the block that are compressed.
+     * @return Compressed block.
+     * @throws IOException If the compression format is not supported.
+     */
+    byte[] compress(final byte[] data, final int size) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(size / 2 + 1);
+        try (OutputStream c = this.compressorStream(compressed)) {
+            c.write(data, 0, size);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Method creates the stream compressing a single block.
+     * @param compressed Stream receiving the compressed block.
+     * @return Compressing stream.
+     * @throws IOException If the compression format is not supported.
+     */
+    private OutputStream compressorStream(final OutputStream compressed) throws IOException {
+        if (CompressorStreamFactory.XZ.equalsIgnoreCase(this.compressor)) {
+            final LZMA2Options options = new LZMA2Options();
+            options.setDictSize(Math.max(LZMA2Options.DICT_SIZE_MIN, Math.min(options.getDictSize(), this.blockSize)));
+            return new XZOutputStream(compressed, options);
+        }
+        try {
+            return new CompressorStreamFactory().createCompressorOutputStream(this.compressor, compressed);
+        } catch (CompressorException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+}
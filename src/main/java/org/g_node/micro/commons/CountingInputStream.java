@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream wrapper counting the number of bytes that have been read from the wrapped stream.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class CountingInputStream extends FilterInputStream {
+    /**
+     * Number of bytes read so far.
+     */
+    private long count;
+
+    /**
+     * Constructor.
+     * @param in Input stream that is to be wrapped.
+     */
+    public CountingInputStream(final InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Method returns the number of bytes that have been read from the wrapped stream.
+     * @return Number of bytes read.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+        if (b != -1) {
+            this.count += 1;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int n = super.read(b, off, len);
+        if (n > 0) {
+            this.count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(n);
+        this.count += skipped;
+        return skipped;
+    }
+
+}
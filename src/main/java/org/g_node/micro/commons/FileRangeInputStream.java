@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Input stream reading a byte range of a file using positional reads on a shared {@link FileChannel}.
+ * Several streams can read different ranges of the same channel concurrently. Closing the stream
+ * does not close the underlying channel.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class FileRangeInputStream extends InputStream {
+    /**
+     * Mask converting a signed byte to an unsigned int value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+    /**
+     * Channel of the file the range is read from.
+     */
+    private final FileChannel channel;
+    /**
+     * Position after the last byte of the range.
+     */
+    private final long end;
+    /**
+     * Position of the next byte that will be read.
+     */
+    private long position;
+
+    /**
+     * Constructor.
+     * @param fileChannel Channel of the file the range is read from.
+     * @param start Position of the first byte of the range.
+     * @param stop Position after the last byte of the range.
+     */
+    public FileRangeInputStream(final FileChannel fileChannel, final long start, final long stop) {
+        this.channel = fileChannel;
+        this.position = start;
+        this.end = stop;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] single = new byte[1];
+        final int n = this.read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & FileRangeInputStream.BYTE_MASK;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (this.position >= this.end) {
+            return -1;
+        }
+        final int toRead = (int) Math.min(len, this.end - this.position);
+        final int n = this.channel.read(ByteBuffer.wrap(b, off, toRead), this.position);
+        if (n > 0) {
+            this.position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) {
+        final long skipped = Math.max(0, Math.min(n, this.end - this.position));
+        this.position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, this.end - this.position);
+    }
+
+}
@@ -14,8 +14,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.log4j.Logger;
 
 /**
@@ -28,9 +31,15 @@ public final class FileService {
      * Access to the main LOGGER.
      */
     private static final Logger LOGGER = Logger.getLogger(FileService.class.getName());
+    /**
+     * Upper case file extensions of supported compression formats.
+     */
+    private static final Set<String> COMPRESSION_EXTENSIONS = Collections.unmodifiableSet(
+            Stream.of("GZ", "BZ2", "XZ").collect(Collectors.toSet()));
 
     /**
-     * Method for validating that the provided file is of a supported file extension.
+     * Method for validating that the provided file is of a supported file extension. The extension
+     * of a supported compression format is skipped, e.g. the extension of "data.ttl.gz" is "ttl".
      * @param checkFile Filename of the provided file.
      * @param fileExtensions List containing all supported file extensions.
      * @return True if the file ends with a supported file extension, false otherwise.
@@ -39,9 +48,10 @@ public final class FileService {
 
         boolean correctFileType = false;
 
-        final int i = checkFile.lastIndexOf('.');
+        final String uncompressedFile = FileService.stripCompressionExtension(checkFile);
+        final int i = uncompressedFile.lastIndexOf('.');
         if (i > 0) {
-            final String checkExtension = checkFile.substring(i + 1);
+            final String checkExtension = uncompressedFile.substring(i + 1);
             correctFileType = fileExtensions.contains(checkExtension.toUpperCase(Locale.ENGLISH));
         }
 
@@ -67,6 +77,36 @@ public final class FileService {
         return correctFileType;
     }
 
+    /**
+     * Method returns the extension of the compression format of a file.
+     * @param checkFile Filename of the provided file.
+     * @return Upper case extension of a supported compression format ("GZ", "BZ2" or "XZ"),
+     *  null if the file does not end with the extension of a supported compression format.
+     */
+    public static String getCompressionExtension(final String checkFile) {
+        final int i = checkFile.lastIndexOf('.');
+        if (i > 0) {
+            final String checkExtension = checkFile.substring(i + 1).toUpperCase(Locale.ENGLISH);
+            if (FileService.COMPRESSION_EXTENSIONS.contains(checkExtension)) {
+                return checkExtension;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method removes the extension of a supported compression format from a filename.
+     * @param checkFile Filename of the provided file.
+     * @return Filename without the compression extension, e.g. "data.ttl" for "data.ttl.gz".
+     *  The filename is returned unchanged, if it does not end with a supported compression extension.
+     */
+    public static String stripCompressionExtension(final String checkFile) {
+        if (FileService.getCompressionExtension(checkFile) == null) {
+            return checkFile;
+        }
+        return checkFile.substring(0, checkFile.lastIndexOf('.'));
+    }
+
     /**
      * Creates a backup file with a timestamp and the string "backup" in its name.
      * @param file Name of the file that is to be copied.
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Class checking whether a text contains any of several keywords, ignoring the case of US-ASCII letters
+ * like a Java regular expression with the CASE_INSENSITIVE flag. All keywords are compiled into a single
+ * Aho-Corasick automaton, a text is checked in a single pass over its characters, independent
+ * of the number of keywords.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class KeywordMatcher {
+    /**
+     * Number of different characters.
+     */
+    private static final int CHARACTERS = Character.MAX_VALUE + 1;
+    /**
+     * Offset between upper and lower case US-ASCII letters.
+     */
+    private static final int CASE_OFFSET = 'a' - 'A';
+
+    /**
+     * Keywords of the matcher.
+     */
+    private final List<String> keywords;
+    /**
+     * Column of every character in the transition table, 0 for characters not contained in any keyword.
+     */
+    private final int[] columns = new int[KeywordMatcher.CHARACTERS];
+    /**
+     * Next state by state and character column.
+     */
+    private final int[][] transitions;
+    /**
+     * Whether a keyword ends in a state.
+     */
+    private final boolean[] accepting;
+
+    /**
+     * Constructor builds the automaton of the keywords.
+     * @param words Keywords, empty keywords are ignored.
+     */
+    public KeywordMatcher(final List<String> words) {
+        final List<String> valid = new ArrayList<>();
+        for (final String word : words) {
+            if (!word.isEmpty()) {
+                valid.add(word);
+            }
+        }
+        this.keywords = Collections.unmodifiableList(valid);
+
+        final int stateCount = 1 + this.assignColumns();
+        int columnCount = 0;
+        for (final int column : this.columns) {
+            columnCount = Math.max(columnCount, column);
+        }
+
+        final int[][] trie = new int[stateCount][columnCount + 1];
+        final boolean[] ends = new boolean[stateCount];
+        int states = 1;
+        for (final String word : valid) {
+            int state = 0;
+            for (int i = 0; i < word.length(); i += 1) {
+                final int column = this.columns[KeywordMatcher.fold(word.charAt(i))];
+                if (trie[state][column] == 0) {
+                    trie[state][column] = states;
+                    states += 1;
+                }
+                state = trie[state][column];
+            }
+            ends[state] = true;
+        }
+
+        this.transitions = Arrays.copyOf(trie, states);
+        this.accepting = Arrays.copyOf(ends, states);
+        this.link();
+    }
+
+    /**
+     * Method returns the keywords of the matcher.
+     * @return Non-empty keywords.
+     */
+    public List<String> getKeywords() {
+        return this.keywords;
+    }
+
+    /**
+     * Method checks whether a text contains any of the keywords.
+     * @param text Text that is checked.
+     * @return True if the text contains at least one keyword.
+     */
+    public boolean matches(final CharSequence text) {
+        if (this.keywords.isEmpty()) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i += 1) {
+            state = this.transitions[state][this.columns[KeywordMatcher.fold(text.charAt(i))]];
+            if (this.accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method assigns a column of the transition table to every character contained in a keyword.
+     * @return Total length of all keywords, the upper bound of the number of trie states besides the root.
+     */
+    private int assignColumns() {
+        int columnCount = 1;
+        int length = 0;
+        for (final String word : this.keywords) {
+            length += word.length();
+            for (int i = 0; i < word.length(); i += 1) {
+                final char c = KeywordMatcher.fold(word.charAt(i));
+                if (this.columns[c] == 0) {
+                    this.columns[c] = columnCount;
+                    columnCount += 1;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Method turns the trie of the keywords into the automaton: missing transitions follow the longest
+     * suffix of the current state that is also a prefix of a keyword, states accept if any of their
+     * suffixes accepts. States are visited in breadth-first order, suffix states are complete before
+     * they are used.
+     */
+    private void link() {
+        final int[] suffix = new int[this.transitions.length];
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < this.transitions[0].length; column += 1) {
+            if (this.transitions[0][column] != 0) {
+                queue.add(this.transitions[0][column]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            this.accepting[state] |= this.accepting[suffix[state]];
+            for (int column = 0; column < this.transitions[state].length; column += 1) {
+                final int next = this.transitions[state][column];
+                if (next == 0) {
+                    this.transitions[state][column] = this.transitions[suffix[state]][column];
+                } else {
+                    suffix[next] = this.transitions[suffix[state]][column];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method converts US-ASCII letters to lower case, all other characters are kept.
+     * @param c Character that is converted.
+     * @return Lower case character.
+     */
+    private static char fold(final char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + KeywordMatcher.CASE_OFFSET) : c;
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream reading a byte range of a file from memory mapped regions instead of using read system calls.
+ * The range is mapped in consecutive windows, so files larger than the maximum size of a single mapping
+ * are supported. A window is released as soon as it has been read completely. Closing the stream
+ * only closes the underlying channel, if the channel was opened via {@link #open(Path)}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class MappedFileInputStream extends InputStream {
+    /**
+     * Default size of a single mapped window.
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+    /**
+     * Mask converting a signed byte to an unsigned int value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Channel of the file the range is read from.
+     */
+    private final FileChannel channel;
+    /**
+     * Position after the last byte of the range.
+     */
+    private final long end;
+    /**
+     * Maximum size of a single mapped window.
+     */
+    private final long windowSize;
+    /**
+     * File position of the start of the next window that will be mapped.
+     */
+    private long nextWindow;
+    /**
+     * Currently mapped window, null if no window is mapped.
+     */
+    private MappedByteBuffer window;
+    /**
+     * True if the channel was opened by this stream and is closed when the stream is closed.
+     */
+    private boolean ownsChannel;
+
+    /**
+     * Constructor mapping a range of a file using the default window size.
+     * @param fileChannel Channel of the file the range is read from.
+     * @param start Position of the first byte of the range.
+     * @param stop Position after the last byte of the range.
+     */
+    public MappedFileInputStream(final FileChannel fileChannel, final long start, final long stop) {
+        this(fileChannel, start, stop, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param fileChannel Channel of the file the range is read from.
+     * @param start Position of the first byte of the range.
+     * @param stop Position after the last byte of the range.
+     * @param maxWindowSize Maximum size of a single mapped window, at most {@link Integer#MAX_VALUE}.
+     */
+    public MappedFileInputStream(final FileChannel fileChannel, final long start, final long stop,
+                                 final long maxWindowSize) {
+        this.channel = fileChannel;
+        this.nextWindow = start;
+        this.end = stop;
+        this.windowSize = Math.min(maxWindowSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Open a file and create a stream reading the whole file from memory mapped regions.
+     * The file channel is closed when the returned stream is closed.
+     * @param file Path of the file.
+     * @return Stream reading the whole file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static MappedFileInputStream open(final Path file) throws IOException {
+        final FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+        final MappedFileInputStream in = new MappedFileInputStream(fc, 0, fc.size());
+        in.ownsChannel = true;
+        return in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.ensureWindow()) {
+            return -1;
+        }
+        return this.window.get() & MappedFileInputStream.BYTE_MASK;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!this.ensureWindow()) {
+            return -1;
+        }
+        final int n = Math.min(len, this.window.remaining());
+        this.window.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        final long mapped = this.window == null ? 0 : this.window.remaining();
+        return (int) Math.min(Integer.MAX_VALUE, mapped + this.end - this.nextWindow);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.nextWindow = this.end;
+        if (this.ownsChannel) {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Method makes sure that a window with remaining bytes is mapped.
+     * @return True if bytes are available, false if the end of the range has been reached.
+     * @throws IOException If the next window cannot be mapped.
+     */
+    private boolean ensureWindow() throws IOException {
+        if (this.window != null && this.window.hasRemaining()) {
+            return true;
+        }
+        this.window = null;
+        if (this.nextWindow >= this.end) {
+            return false;
+        }
+        final long size = Math.min(this.windowSize, this.end - this.nextWindow);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.nextWindow, size);
+        this.nextWindow += size;
+        return true;
+    }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Channel compressing the written data on a thread pool. The data is cut into blocks of a fixed size, every
+ * block is compressed independently as a complete stream of the compression format and the compressed blocks
+ * are written to the wrapped channel in order. The output is a concatenation of compressed streams, which
+ * gzip, bzip2 and xz decompress as a single file. Compression therefore runs on all cores, while the memory
+ * used is bounded by the block size and the number of blocks compressed at the same time, see
+ * {@link BlockCompressor}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ParallelCompressorChannel implements WritableByteChannel {
+    /**
+     * Default size of the blocks that are compressed independently in bytes.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    /**
+     * Threads compressing the blocks of all channels.
+     */
+    private static final ExecutorService COMPRESSORS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), ParallelCompressorChannel::newThread);
+
+    /**
+     * Channel the compressed blocks are written to.
+     */
+    private final WritableByteChannel out;
+    /**
+     * Compressor of the blocks.
+     */
+    private final BlockCompressor compressor;
+    /**
+     * Size of the blocks that are compressed independently.
+     */
+    private final int blockSize;
+    /**
+     * Maximum number of blocks compressed but not yet written to the wrapped channel.
+     */
+    private final int maxPending;
+    /**
+     * Blocks submitted for compression in the order they are written.
+     */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    /**
+     * Block currently filled with written data.
+     */
+    private byte[] block;
+    /**
+     * Number of bytes of the current block filled with written data.
+     */
+    private int length;
+    /**
+     * True after the first block has been submitted for compression.
+     */
+    private boolean submitted;
+    /**
+     * True until this channel is closed.
+     */
+    private boolean open = true;
+
+    /**
+     * Constructor.
+     * @param channel Channel the compressed data is written to, will be closed if this channel is closed.
+     * @param compressorName Name of the compression format used by commons-compress, e.g.
+     *  {@link org.apache.commons.compress.compressors.CompressorStreamFactory#GZIP}.
+     * @param blockBytes Size of the blocks that are compressed independently in bytes.
+     * @param maxPendingBlocks Maximum number of blocks compressed at the same time.
+     */
+    public ParallelCompressorChannel(final WritableByteChannel channel, final String compressorName,
+                                     final int blockBytes, final int maxPendingBlocks) {
+        this.out = channel;
+        this.compressor = new BlockCompressor(compressorName, blockBytes);
+        this.blockSize = blockBytes;
+        this.maxPending = maxPendingBlocks;
+        this.block = new byte[blockBytes];
+    }
+
+    /**
+     * Constructor using the default block size, compressing two blocks per core at the same time.
+     * @param channel Channel the compressed data is written to, will be closed if this channel is closed.
+     * @param compressorName Name of the compression format used by commons-compress.
+     */
+    public ParallelCompressorChannel(final WritableByteChannel channel, final String compressorName) {
+        this(channel, compressorName, ParallelCompressorChannel.DEFAULT_BLOCK_SIZE,
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+        final int written = src.remaining();
+        while (src.hasRemaining()) {
+            final int n = Math.min(src.remaining(), this.blockSize - this.length);
+            src.get(this.block, this.length, n);
+            this.length += n;
+            if (this.length == this.blockSize) {
+                this.submit();
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Method compresses the last block, writes all compressed blocks and closes the wrapped channel.
+     * An empty channel is written as a single compressed stream without content.
+     * @throws IOException If a block cannot be compressed or the wrapped channel cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.open = false;
+        try {
+            if (this.length > 0 || !this.submitted) {
+                this.submit();
+            }
+            while (!this.pending.isEmpty()) {
+                this.writeNext();
+            }
+        } finally {
+            this.pending.forEach(f -> f.cancel(true));
+            this.pending.clear();
+            this.block = null;
+            this.out.close();
+        }
+    }
+
+    /**
+     * Method submits the current block for compression and starts a new block. If too many blocks
+     * are pending, the oldest blocks are written to the wrapped channel first.
+     * @throws IOException If a block cannot be compressed or the wrapped channel cannot be written.
+     */
+    private void submit() throws IOException {
+        final byte[] data = this.block;
+        final int size = this.length;
+        this.pending.add(ParallelCompressorChannel.COMPRESSORS.submit(() -> this.compressor.compress(data, size)));
+        this.submitted = true;
+        this.length = 0;
+        while (this.pending.size() > this.maxPending) {
+            this.writeNext();
+        }
+        this.block = this.open ? new byte[this.blockSize] : null;
+    }
+
+    /**
+     * Method waits for the oldest pending block and writes it to the wrapped channel.
+     * @throws IOException If the block cannot be compressed or the wrapped channel cannot be written.
+     */
+    private void writeNext() throws IOException {
+        final ByteBuffer compressed;
+        try {
+            compressed = ByteBuffer.wrap(this.pending.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing the output.");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                    : new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        while (compressed.hasRemaining()) {
+            this.out.write(compressed);
+        }
+    }
+
+    /**
+     * Method creates a compressing thread, compressing threads do not keep the application running.
+     * @param r Task run by the thread.
+     * @return Daemon thread.
+     */
+    private static Thread newThread(final Runnable r) {
+        final Thread t = new Thread(r, "block-compressor");
+        t.setDaemon(true);
+        return t;
+    }
+
+}
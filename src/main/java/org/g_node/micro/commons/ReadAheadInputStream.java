@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Input stream reading a wrapped stream on a separate thread. The reading thread fills blocks of bytes into a
+ * bounded queue, which is drained by the consumer of this stream. Expensive work done by the wrapped stream,
+ * e.g. decompression, therefore runs on a different core than the consumer. If the queue is full, the reading
+ * thread waits until the consumer has caught up, the memory used is bounded by the block size and queue depth.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ReadAheadInputStream extends InputStream {
+    /**
+     * Default size of the blocks handed from the reading thread to the consumer in bytes.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    /**
+     * Default number of blocks the reading thread may read ahead of the consumer.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 16;
+    /**
+     * Marker block signalling the end of the wrapped stream or a read error.
+     */
+    private static final byte[] END = new byte[0];
+    /**
+     * Mask converting a signed byte to an unsigned int value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Wrapped input stream, only accessed by the reading thread.
+     */
+    private final InputStream source;
+    /**
+     * Blocks read by the reading thread and not yet consumed.
+     */
+    private final BlockingQueue<byte[]> queue;
+    /**
+     * Thread reading the wrapped stream.
+     */
+    private final Thread reader;
+    /**
+     * Size of the blocks read from the wrapped stream.
+     */
+    private final int blockSize;
+    /**
+     * Task reading the wrapped stream, completes with any error or exception thrown while reading.
+     */
+    private final FutureTask<Void> task;
+    /**
+     * True after this stream has been closed.
+     */
+    private volatile boolean closed;
+    /**
+     * Block currently consumed, null if no block has been taken from the queue yet.
+     */
+    private byte[] current;
+    /**
+     * Position of the next byte to be consumed within the current block.
+     */
+    private int pos;
+
+    /**
+     * Constructor, starts the reading thread.
+     * @param in Input stream that is to be read on a separate thread.
+     * @param blockBytes Size of the blocks handed to the consumer in bytes.
+     * @param queueDepth Maximum number of blocks read ahead of the consumer.
+     */
+    public ReadAheadInputStream(final InputStream in, final int blockBytes, final int queueDepth) {
+        this.source = in;
+        this.blockSize = blockBytes;
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.task = new FutureTask<Void>(this::readSource) {
+            @Override
+            protected void done() {
+                ReadAheadInputStream.this.endQueue();
+            }
+        };
+        this.reader = new Thread(this.task, "read-ahead");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Constructor using the default block size and queue depth, starts the reading thread.
+     * @param in Input stream that is to be read on a separate thread.
+     */
+    public ReadAheadInputStream(final InputStream in) {
+        this(in, ReadAheadInputStream.DEFAULT_BLOCK_SIZE, ReadAheadInputStream.DEFAULT_QUEUE_DEPTH);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.nextBlock()) {
+            return -1;
+        }
+        final int b = this.current[this.pos] & ReadAheadInputStream.BYTE_MASK;
+        this.pos += 1;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!this.nextBlock()) {
+            return -1;
+        }
+        final int n = Math.min(len, this.current.length - this.pos);
+        System.arraycopy(this.current, this.pos, b, off, n);
+        this.pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return this.current == null ? 0 : this.current.length - this.pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.reader.interrupt();
+        this.queue.clear();
+        this.source.close();
+    }
+
+    /**
+     * Method makes sure the current block contains unconsumed bytes, taking the next block from the queue
+     * if required.
+     * @return True if bytes are available, false if the end of the wrapped stream has been reached.
+     * @throws IOException If the wrapped stream could not be read or the consumer was interrupted.
+     */
+    private boolean nextBlock() throws IOException {
+        if (this.current == ReadAheadInputStream.END) {
+            return false;
+        }
+        if (this.current != null && this.pos < this.current.length) {
+            return true;
+        }
+        try {
+            this.current = this.queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for input", e);
+        }
+        this.pos = 0;
+        if (this.current == ReadAheadInputStream.END) {
+            this.checkFailure();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method rethrows the error that stopped the reading thread, if any.
+     * @throws IOException If the wrapped stream could not be read or the reading thread failed otherwise.
+     */
+    private void checkFailure() throws IOException {
+        try {
+            this.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for input", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Reading the input failed", e.getCause());
+        }
+    }
+
+    /**
+     * Body of the reading thread, fills the queue with blocks of the wrapped stream until the end of the
+     * stream is reached, an error occurs or this stream is closed. The end of the queue is marked by the
+     * task, whichever way this method ends.
+     * @return Nothing.
+     * @throws IOException If the wrapped stream cannot be read.
+     */
+    private Void readSource() throws IOException {
+        try {
+            byte[] block = this.readBlock();
+            while (!this.closed && block != null) {
+                this.queue.put(block);
+                block = this.readBlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Method appends the end marker to the queue once the reading task has completed, normally or not,
+     * unless this stream has been closed.
+     */
+    private void endQueue() {
+        try {
+            if (!this.closed) {
+                this.queue.put(ReadAheadInputStream.END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method reads the next block from the wrapped stream. The block is only shorter than the
+     * block size, if the end of the wrapped stream has been reached.
+     * @return Next block, null if the end of the wrapped stream has been reached.
+     * @throws IOException If the wrapped stream cannot be read.
+     */
+    private byte[] readBlock() throws IOException {
+        final byte[] block = new byte[this.blockSize];
+        int filled = 0;
+        int n = this.source.read(block, 0, block.length);
+        while (n > 0) {
+            filled += n;
+            n = filled < block.length ? this.source.read(block, filled, block.length - filled) : 0;
+        }
+        if (filled == 0) {
+            return null;
+        }
+        return filled < block.length ? Arrays.copyOf(block, filled) : block;
+    }
+
+}
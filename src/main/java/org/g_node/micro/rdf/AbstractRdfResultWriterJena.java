@@ -0,0 +1,626 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.util.NodeToLabelMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.ParallelCompressorChannel;
+
+/**
+ * Base class of the writers saving a {@link ResultSet} to a file. The rows are pulled from the result set
+ * one at a time and encoded to UTF-8 directly into a large byte buffer, which is written to a
+ * {@link FileChannel} whenever it is full. The result set is never held in memory.
+ *
+ * Values are the URIs of resources, the lexical forms of literals and the labels of blank nodes.
+ * ASCII characters of a value are escaped using a table of escape sequences of the output format,
+ * characters without an escape sequence are copied as they are. Unpaired surrogates are written as '?'.
+ *
+ * A writer reuses its buffer for all result sets it writes and must not be used by more than one
+ * thread at a time.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public abstract class AbstractRdfResultWriterJena {
+    /**
+     * Default size of the output buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    /**
+     * Escape sequence of characters that require a value to be quoted, see
+     * {@link #writeText(String, byte[][], byte[][])}.
+     */
+    protected static final byte[] QUOTE_VALUE = new byte[0];
+    /**
+     * Quote character enclosing quoted values.
+     */
+    protected static final byte QUOTE = '"';
+    /**
+     * Number of ASCII characters, the size of escape tables.
+     */
+    protected static final int ASCII = 0x80;
+    /**
+     * Constructors of the writers by output format.
+     */
+    private static final Map<String, IntFunction<AbstractRdfResultWriterJena>> WRITERS = new HashMap<>();
+    /**
+     * ASCII characters with an escape sequence in any escape table. Characters that are not marked
+     * are copied without looking up the escape table of the output format.
+     */
+    private static final boolean[] ESCAPED = new boolean[AbstractRdfResultWriterJena.ASCII];
+    /**
+     * Replacement of characters that cannot be encoded, i.e. unpaired surrogates.
+     */
+    private static final byte REPLACEMENT = '?';
+    /**
+     * Maximum number of bytes written for a single character, the longest escape sequence of an
+     * ASCII character. Other characters are encoded as at most three bytes per character.
+     */
+    private static final int MAX_CHAR_BYTES = 6;
+    /**
+     * Minimum size of the output buffer in bytes, values longer than the buffer are written in chunks
+     * of at least two characters.
+     */
+    private static final int MIN_BUFFER_SIZE = 32;
+    /**
+     * First code point encoded as three bytes.
+     */
+    private static final int THREE_BYTES = 0x800;
+    /**
+     * First code point encoded as four bytes.
+     */
+    private static final int FOUR_BYTES = 0x10000;
+    /**
+     * Marker of the leading byte of a two byte sequence.
+     */
+    private static final int LEAD_TWO = 0xC0;
+    /**
+     * Marker of the leading byte of a three byte sequence.
+     */
+    private static final int LEAD_THREE = 0xE0;
+    /**
+     * Marker of the leading byte of a four byte sequence.
+     */
+    private static final int LEAD_FOUR = 0xF0;
+    /**
+     * Marker of a continuation byte.
+     */
+    private static final int CONTINUATION = 0x80;
+    /**
+     * Mask of the code point bits of a continuation byte.
+     */
+    private static final int CONTINUATION_MASK = 0x3F;
+    /**
+     * Shift of the code point bits of the last continuation byte but one.
+     */
+    private static final int SHIFT_ONE = 6;
+    /**
+     * Shift of the code point bits of the last continuation byte but two.
+     */
+    private static final int SHIFT_TWO = 12;
+    /**
+     * Shift of the code point bits of the leading byte of a four byte sequence.
+     */
+    private static final int SHIFT_THREE = 18;
+
+    static {
+        AbstractRdfResultWriterJena.WRITERS.put("CSV", RdfCsvWriterJena::new);
+        AbstractRdfResultWriterJena.WRITERS.put("TSV", RdfTsvWriterJena::new);
+        AbstractRdfResultWriterJena.WRITERS.put("JSONL", RdfJsonLinesWriterJena::new);
+    }
+
+    /**
+     * Output buffer, reused for all written result sets.
+     */
+    private final byte[] bytes;
+    /**
+     * Buffer wrapping the output buffer when it is written to the channel.
+     */
+    private final ByteBuffer view;
+    /**
+     * Characters of the value that is currently written, grows to the longest written value.
+     */
+    private char[] chars = new char[AbstractRdfResultWriterJena.MIN_BUFFER_SIZE];
+    /**
+     * Number of bytes in the output buffer that have not been written to the channel yet.
+     */
+    private int position;
+    /**
+     * Channel the result set is currently written to.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Constructor.
+     * @param bufferSize Size of the output buffer in bytes, at least {@link #MIN_BUFFER_SIZE} bytes.
+     */
+    protected AbstractRdfResultWriterJena(final int bufferSize) {
+        this.bytes = new byte[Math.max(bufferSize, AbstractRdfResultWriterJena.MIN_BUFFER_SIZE)];
+        this.view = ByteBuffer.wrap(this.bytes);
+    }
+
+    /**
+     * Method creates a writer of an output format with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     * @param format Output format, an entry of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     * @return New writer of the format, null if the format is not supported.
+     */
+    public static AbstractRdfResultWriterJena forFormat(final String format) {
+        return AbstractRdfResultWriterJena.forFormat(format, AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Method creates a writer of an output format.
+     * @param format Output format, an entry of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     * @param bufferSize Size of the output buffer in bytes.
+     * @return New writer of the format, null if the format is not supported.
+     */
+    public static AbstractRdfResultWriterJena forFormat(final String format, final int bufferSize) {
+        final IntFunction<AbstractRdfResultWriterJena> writer =
+                AbstractRdfResultWriterJena.WRITERS.get(format.toUpperCase(Locale.ENGLISH));
+        return writer == null ? null : writer.apply(bufferSize);
+    }
+
+    /**
+     * Method writes all rows of a result set to a file, an existing file is replaced. If the filename ends
+     * with the extension of a supported compression format, the file is compressed on a thread pool,
+     * see {@link ParallelCompressorChannel}.
+     * @param result Result set that is written, the result set is consumed.
+     * @param file Path of the output file.
+     * @return Number of written rows.
+     * @throws IOException If the file cannot be written.
+     */
+    public final long write(final ResultSet result, final Path file) throws IOException {
+        return this.write(result, file, 0);
+    }
+
+    /**
+     * Method writes all rows of a result set to a file, see {@link #write(ResultSet, Path)}. If a flush
+     * interval is set, the buffered rows are also written to the file, if the interval has passed since
+     * they have last been written. The first row is written as soon as it is bound, further rows at the latest
+     * when the interval has passed at the next row. A compressed file receives the rows per compressed block.
+     * @param result Result set that is written, the result set is consumed.
+     * @param file Path of the output file.
+     * @param flushMillis Interval of writing buffered rows in milliseconds, 0 to only write full buffers.
+     * @return Number of written rows.
+     * @throws IOException If the file cannot be written.
+     */
+    public final long write(final ResultSet result, final Path file, final long flushMillis) throws IOException {
+        try (WritableByteChannel out = AbstractRdfResultWriterJena.openFile(
+                file, false, ParallelCompressorChannel.DEFAULT_BLOCK_SIZE)) {
+            return this.write(result, out, flushMillis);
+        }
+    }
+
+    /**
+     * Method writes all rows of a result set to a channel. The channel is not closed.
+     * @param result Result set that is written, the result set is consumed.
+     * @param out Channel the rows are written to.
+     * @return Number of written rows.
+     * @throws IOException If the channel cannot be written.
+     */
+    public final long write(final ResultSet result, final WritableByteChannel out) throws IOException {
+        return this.write(result, out, 0);
+    }
+
+    /**
+     * Method writes all rows of a result set to a channel, see {@link #write(ResultSet, Path, long)}.
+     * The channel is not closed.
+     * @param result Result set that is written, the result set is consumed.
+     * @param out Channel the rows are written to.
+     * @param flushMillis Interval of writing buffered rows in milliseconds, 0 to only write full buffers.
+     * @return Number of written rows.
+     * @throws IOException If the channel cannot be written.
+     */
+    public final long write(final ResultSet result, final WritableByteChannel out, final long flushMillis)
+            throws IOException {
+        try {
+            final List<String> names = result.getResultVars();
+            final Var[] vars = names.stream().map(Var::alloc).toArray(Var[]::new);
+            this.start(names, out);
+
+            final NodeToLabelMap blankNodes = new NodeToLabelMap();
+            final long interval = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+            long flushed = System.nanoTime() - interval;
+            long rows = 0;
+            while (result.hasNext()) {
+                this.writeRow(result.nextBinding(), vars, blankNodes);
+                rows += 1;
+                if (interval > 0 && System.nanoTime() - flushed >= interval) {
+                    this.flush();
+                    flushed = System.nanoTime();
+                }
+            }
+            this.suspend();
+            return rows;
+        } finally {
+            this.channel = null;
+            this.position = 0;
+        }
+    }
+
+    /**
+     * Method opens an output file. If the filename ends with the extension of a supported compression format,
+     * the file is compressed on a thread pool, see {@link ParallelCompressorChannel}. Data appended to
+     * a compressed file is compressed as further streams of the compression format.
+     * @param file Path of the output file.
+     * @param append True to append to an existing file, false to replace an existing file.
+     * @param blockSize Size of the blocks compressed independently in bytes.
+     * @return Channel writing to the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    static WritableByteChannel openFile(final Path file, final boolean append, final int blockSize)
+            throws IOException {
+        final FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        final String compression = FileService.getCompressionExtension(file.toString());
+        return compression == null ? out : new ParallelCompressorChannel(out,
+                RdfInputJena.compressorName(compression), blockSize, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Method starts writing a result set to a channel, see {@link #writeRow(Binding, Var[], NodeToLabelMap)}.
+     * @param names Names of the variables of the result set.
+     * @param out Channel the rows are written to.
+     * @throws IOException If the channel cannot be written.
+     */
+    final void start(final List<String> names, final WritableByteChannel out) throws IOException {
+        this.channel = out;
+        this.position = 0;
+        this.writeHeader(names);
+    }
+
+    /**
+     * Method continues writing a result set to a channel after writing has been suspended,
+     * see {@link #suspend()}.
+     * @param out Channel the following rows are written to.
+     */
+    final void resume(final WritableByteChannel out) {
+        this.channel = out;
+        this.position = 0;
+    }
+
+    /**
+     * Method writes all buffered rows to the channel and releases the channel, which can be closed afterwards.
+     * @throws IOException If the channel cannot be written.
+     */
+    final void suspend() throws IOException {
+        this.flush();
+        this.channel = null;
+    }
+
+    /**
+     * Method writes the start of the output before the first row, e.g. a header line.
+     * @param names Names of the variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected abstract void writeHeader(List<String> names) throws IOException;
+
+    /**
+     * Method writes a value of a row including the separator from the previous value.
+     * @param column Index of the variable of the value.
+     * @param value Text of the value, null if the variable is not bound.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected abstract void writeValue(int column, String value) throws IOException;
+
+    /**
+     * Method writes the end of a row.
+     * @param columns Number of variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected abstract void endRow(int columns) throws IOException;
+
+    /**
+     * Method creates an escape table, a table without escape sequences.
+     * @return Escape sequences by ASCII character, null for characters that are copied.
+     */
+    protected static byte[][] escapeTable() {
+        return new byte[AbstractRdfResultWriterJena.ASCII][];
+    }
+
+    /**
+     * Method sets the escape sequence of an ASCII character in an escape table.
+     * @param escapes Escape table of an output format.
+     * @param c ASCII character.
+     * @param escape Escape sequence or {@link #QUOTE_VALUE}.
+     */
+    protected static void setEscape(final byte[][] escapes, final char c, final byte[] escape) {
+        escapes[c] = escape;
+        AbstractRdfResultWriterJena.ESCAPED[c] = true;
+    }
+
+    /**
+     * Method returns a sequence of ASCII characters as bytes.
+     * @param sequence ASCII characters.
+     * @return Sequence as bytes.
+     */
+    protected static byte[] ascii(final String sequence) {
+        return sequence.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Method writes a single ASCII character.
+     * @param b Character that is written.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected final void put(final byte b) throws IOException {
+        if (this.position == this.bytes.length) {
+            this.flush();
+        }
+        this.bytes[this.position] = b;
+        this.position += 1;
+    }
+
+    /**
+     * Method writes a sequence of bytes, e.g. a separator or an encoded name.
+     * @param sequence Bytes that are written.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected final void put(final byte[] sequence) throws IOException {
+        if (sequence.length > this.bytes.length - this.position) {
+            this.flush();
+        }
+        if (sequence.length > this.bytes.length) {
+            final ByteBuffer large = ByteBuffer.wrap(sequence);
+            while (large.hasRemaining()) {
+                this.channel.write(large);
+            }
+            return;
+        }
+        System.arraycopy(sequence, 0, this.bytes, this.position, sequence.length);
+        this.position += sequence.length;
+    }
+
+    /**
+     * Method writes a value to the output. ASCII characters are replaced by their escape sequences.
+     * If a value contains a character with the escape sequence {@link #QUOTE_VALUE}, the value is
+     * enclosed in quotes and escaped using the quoted escape table instead. Values are encoded with
+     * the escape table first and encoded again only if they have to be quoted.
+     * @param value Text of the value.
+     * @param escapes Escape sequences by ASCII character.
+     * @param quotedEscapes Escape sequences by ASCII character within quoted values, null if
+     *  the escape table does not contain {@link #QUOTE_VALUE}.
+     * @throws IOException If the channel cannot be written.
+     */
+    protected final void writeText(final String value, final byte[][] escapes, final byte[][] quotedEscapes)
+            throws IOException {
+        final int length = value.length();
+        if (length > this.chars.length) {
+            this.chars = new char[Math.max(length, 2 * this.chars.length)];
+        }
+        value.getChars(0, length, this.chars, 0);
+
+        final int maxBytes = length * AbstractRdfResultWriterJena.MAX_CHAR_BYTES + 2;
+        if (maxBytes > this.bytes.length - this.position) {
+            this.flush();
+        }
+        if (maxBytes > this.bytes.length) {
+            this.writeChunked(length, escapes, quotedEscapes);
+            return;
+        }
+        int end = this.encode(this.position, length, 0, escapes);
+        if (end < 0) {
+            this.bytes[this.position] = AbstractRdfResultWriterJena.QUOTE;
+            end = this.encode(this.position + 1, length, 0, quotedEscapes);
+            this.bytes[end] = AbstractRdfResultWriterJena.QUOTE;
+            end += 1;
+        }
+        this.position = end;
+    }
+
+    /**
+     * Method writes the values of a row of the result set.
+     * @param binding Row of the result set.
+     * @param vars Variables of the result set.
+     * @param blankNodes Labels of the blank nodes written so far.
+     * @throws IOException If the channel cannot be written.
+     */
+    final void writeRow(final Binding binding, final Var[] vars, final NodeToLabelMap blankNodes)
+            throws IOException {
+        for (int i = 0; i < vars.length; i += 1) {
+            final Node node = binding.get(vars[i]);
+            this.writeValue(i, node == null ? null : AbstractRdfResultWriterJena.valueOf(node, blankNodes));
+        }
+        this.endRow(vars.length);
+    }
+
+    /**
+     * Method returns the text of a node written to the output.
+     * @param node Bound node.
+     * @param blankNodes Labels of the blank nodes written so far.
+     * @return Lexical form of a literal, URI of a resource or label of a blank node.
+     */
+    static String valueOf(final Node node, final NodeToLabelMap blankNodes) {
+        if (node.isLiteral()) {
+            return node.getLiteralLexicalForm();
+        } else if (node.isURI()) {
+            return node.getURI();
+        } else if (node.isBlank()) {
+            return blankNodes.asString(node);
+        }
+        return "?";
+    }
+
+    /**
+     * Method writes a value longer than the output buffer in chunks, flushing the buffer between chunks.
+     * Surrogate pairs are not split.
+     * @param length Number of characters of the value.
+     * @param escapes Escape sequences by ASCII character.
+     * @param quotedEscapes Escape sequences by ASCII character within quoted values.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void writeChunked(final int length, final byte[][] escapes, final byte[][] quotedEscapes)
+            throws IOException {
+        final boolean quoted = this.needsQuotes(length, escapes);
+        if (quoted) {
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+        }
+        final int chunk = (this.bytes.length - 1) / AbstractRdfResultWriterJena.MAX_CHAR_BYTES;
+        int from = 0;
+        while (from < length) {
+            int to = Math.min(length, from + chunk);
+            if (to < length && Character.isHighSurrogate(this.chars[to - 1])) {
+                to -= 1;
+            }
+            if ((to - from) * AbstractRdfResultWriterJena.MAX_CHAR_BYTES > this.bytes.length - this.position) {
+                this.flush();
+            }
+            this.position = this.encode(this.position, to, from, quoted ? quotedEscapes : escapes);
+            from = to;
+        }
+        if (quoted) {
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+        }
+    }
+
+    /**
+     * Method checks whether the current value contains a character that requires quotes.
+     * @param length Number of characters of the value.
+     * @param escapes Escape sequences by ASCII character.
+     * @return True if the value has to be quoted.
+     */
+    private boolean needsQuotes(final int length, final byte[][] escapes) {
+        for (int i = 0; i < length; i += 1) {
+            final char c = this.chars[i];
+            if (c < AbstractRdfResultWriterJena.ASCII && escapes[c] == AbstractRdfResultWriterJena.QUOTE_VALUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method encodes characters of the current value to UTF-8 into the output buffer, which has to have
+     * room for {@link #MAX_CHAR_BYTES} bytes per character.
+     * @param start Position in the output buffer the characters are encoded to.
+     * @param to Index after the last encoded character.
+     * @param from Index of the first encoded character.
+     * @param escapes Escape sequences by ASCII character.
+     * @return Position in the output buffer after the encoded characters, -1 if a character with
+     *  the escape sequence {@link #QUOTE_VALUE} is found.
+     */
+    private int encode(final int start, final int to, final int from, final byte[][] escapes) {
+        final byte[] buf = this.bytes;
+        final char[] value = this.chars;
+        int pos = start;
+        int i = from;
+        while (i < to) {
+            final char c = value[i];
+            i += 1;
+            if (c < AbstractRdfResultWriterJena.ASCII && !AbstractRdfResultWriterJena.ESCAPED[c]) {
+                buf[pos] = (byte) c;
+                pos += 1;
+            } else if (c < AbstractRdfResultWriterJena.ASCII) {
+                pos = AbstractRdfResultWriterJena.encodeEscaped(buf, pos, c, escapes[c]);
+                if (pos < 0) {
+                    return pos;
+                }
+            } else if (Character.isHighSurrogate(c) && i < to && Character.isLowSurrogate(value[i])) {
+                pos = AbstractRdfResultWriterJena.encodeCodePoint(buf, pos, Character.toCodePoint(c, value[i]));
+                i += 1;
+            } else {
+                pos = AbstractRdfResultWriterJena.encodeCodePoint(buf, pos, c);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Method encodes an ASCII character that has an escape sequence in any escape table.
+     * @param buf Buffer the character is encoded into.
+     * @param start Position of the character in the buffer.
+     * @param c ASCII character.
+     * @param escape Escape sequence of the character in the current escape table, null if it is copied.
+     * @return Position after the encoded character, -1 if the escape sequence is {@link #QUOTE_VALUE}.
+     */
+    private static int encodeEscaped(final byte[] buf, final int start, final char c, final byte[] escape) {
+        if (escape == null) {
+            buf[start] = (byte) c;
+            return start + 1;
+        } else if (escape == AbstractRdfResultWriterJena.QUOTE_VALUE) {
+            return -1;
+        }
+        System.arraycopy(escape, 0, buf, start, escape.length);
+        return start + escape.length;
+    }
+
+    /**
+     * Method encodes a code point of two or more bytes. Unpaired surrogates are replaced.
+     * @param buf Output buffer.
+     * @param start Position in the output buffer the code point is encoded to.
+     * @param codePoint Code point of at least {@link #ASCII}.
+     * @return Position in the output buffer after the encoded code point.
+     */
+    private static int encodeCodePoint(final byte[] buf, final int start, final int codePoint) {
+        int pos = start;
+        if (codePoint < AbstractRdfResultWriterJena.THREE_BYTES) {
+            buf[pos] = (byte) (AbstractRdfResultWriterJena.LEAD_TWO
+                    | codePoint >> AbstractRdfResultWriterJena.SHIFT_ONE);
+        } else if (codePoint < AbstractRdfResultWriterJena.FOUR_BYTES && Character.isSurrogate((char) codePoint)) {
+            buf[pos] = AbstractRdfResultWriterJena.REPLACEMENT;
+            return pos + 1;
+        } else if (codePoint < AbstractRdfResultWriterJena.FOUR_BYTES) {
+            buf[pos] = (byte) (AbstractRdfResultWriterJena.LEAD_THREE
+                    | codePoint >> AbstractRdfResultWriterJena.SHIFT_TWO);
+            pos += 1;
+            buf[pos] = AbstractRdfResultWriterJena.continuation(codePoint >> AbstractRdfResultWriterJena.SHIFT_ONE);
+        } else {
+            buf[pos] = (byte) (AbstractRdfResultWriterJena.LEAD_FOUR
+                    | codePoint >> AbstractRdfResultWriterJena.SHIFT_THREE);
+            pos += 1;
+            buf[pos] = AbstractRdfResultWriterJena.continuation(codePoint >> AbstractRdfResultWriterJena.SHIFT_TWO);
+            pos += 1;
+            buf[pos] = AbstractRdfResultWriterJena.continuation(codePoint >> AbstractRdfResultWriterJena.SHIFT_ONE);
+        }
+        buf[pos + 1] = AbstractRdfResultWriterJena.continuation(codePoint);
+        return pos + 2;
+    }
+
+    /**
+     * Method returns a continuation byte containing the lowest six bits of a value.
+     * @param value Shifted code point.
+     * @return Continuation byte.
+     */
+    private static byte continuation(final int value) {
+        return (byte) (AbstractRdfResultWriterJena.CONTINUATION
+                | value & AbstractRdfResultWriterJena.CONTINUATION_MASK);
+    }
+
+    /**
+     * Method writes the content of the output buffer to the channel and empties the buffer.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void flush() throws IOException {
+        this.view.clear();
+        this.view.limit(this.position);
+        while (this.view.hasRemaining()) {
+            this.channel.write(this.view);
+        }
+        this.position = 0;
+    }
+
+}
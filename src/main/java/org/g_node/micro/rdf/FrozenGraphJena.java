@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.GraphStatisticsHandler;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.impl.GraphBase;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.PrefixMapping;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.util.iterator.NiceIterator;
+import com.hp.hpl.jena.util.iterator.WrappedIterator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, dictionary encoded graph for reporting on data that does not change after it has been loaded.
+ * Every node of the graph is mapped to an int id by a {@link NodeDictionaryJena}. The triples are kept as three
+ * int columns and three sorted permutations of the triples (SPO, POS and OSP). Each permutation has an offset
+ * array pointing to the first triple of every leading node id, triple patterns are therefore answered by a direct
+ * lookup of the first bound node and a binary search on the remaining bound nodes. Compared to the default
+ * in-memory graph, no per-triple objects and hash indexes are kept, triples are only created while they are
+ * iterated. Nodes are matched by term equality, literals with the same value but a different lexical form are
+ * different nodes. Adding or deleting triples is not supported.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class FrozenGraphJena extends GraphBase {
+    /**
+     * Pattern position matching any node.
+     */
+    private static final int ANY = -1;
+    /**
+     * Pattern position containing a node that is not part of the graph.
+     */
+    private static final int UNKNOWN = -2;
+
+    /**
+     * Dictionary of all nodes of the graph.
+     */
+    private final NodeDictionaryJena dictionary = new NodeDictionaryJena();
+    /**
+     * Subject, predicate and object ids of all triples.
+     */
+    private final int[][] columns;
+    /**
+     * Triples sorted by subject, predicate and object.
+     */
+    private final Index spo;
+    /**
+     * Triples sorted by predicate, object and subject.
+     */
+    private final Index pos;
+    /**
+     * Triples sorted by object, subject and predicate.
+     */
+    private final Index osp;
+
+    /**
+     * Constructor creating the frozen copy of a graph.
+     * @param source Graph that is copied, the graph is not changed.
+     */
+    public FrozenGraphJena(final Graph source) {
+        final int size = source.size();
+        final int[] s = new int[size];
+        final int[] p = new int[size];
+        final int[] o = new int[size];
+
+        int i = 0;
+        final Iterator<Triple> it = source.find(Node.ANY, Node.ANY, Node.ANY);
+        while (it.hasNext()) {
+            final Triple t = it.next();
+            s[i] = this.dictionary.add(t.getSubject());
+            p[i] = this.dictionary.add(t.getPredicate());
+            o[i] = this.dictionary.add(t.getObject());
+            i += 1;
+        }
+        this.dictionary.trim();
+        this.columns = new int[][] {s, p, o};
+
+        final int nodeCount = this.dictionary.size();
+        this.spo = new Index(new int[][] {s, p, o}, nodeCount);
+        this.pos = new Index(new int[][] {p, o, s}, nodeCount);
+        this.osp = new Index(new int[][] {o, s, p}, nodeCount);
+
+        this.getPrefixMapping().setNsPrefixes(source.getPrefixMapping());
+    }
+
+    /**
+     * Method replaces the graph of a model by a frozen copy. The original model is closed afterwards.
+     * @param model Model that is frozen.
+     * @return Read-only model backed by a {@link FrozenGraphJena}.
+     */
+    public static Model freeze(final Model model) {
+        final Model frozen = ModelFactory.createModelForGraph(new FrozenGraphJena(model.getGraph()));
+        model.close();
+        return frozen;
+    }
+
+    /**
+     * Method returns the number of distinct nodes of the graph.
+     * @return Number of nodes.
+     */
+    public int nodeCount() {
+        return this.dictionary.size();
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(final Triple pattern) {
+        final Range range = this.range(pattern);
+        if (range == null) {
+            return NiceIterator.emptyIterator();
+        }
+        return WrappedIterator.createNoRemove(new RangeIterator(range));
+    }
+
+    @Override
+    protected int graphBaseSize() {
+        return this.columns[0].length;
+    }
+
+    @Override
+    protected GraphStatisticsHandler createStatisticsHandler() {
+        return (subject, predicate, object) -> {
+            final Range range = this.range(Triple.createMatch(subject, predicate, object));
+            return range == null ? 0 : range.end - range.start;
+        };
+    }
+
+    @Override
+    protected PrefixMapping createPrefixMapping() {
+        return PrefixMapping.Factory.create();
+    }
+
+    /**
+     * Method returns the positions of the triples matching a pattern within the permutation that starts with
+     * the bound nodes of the pattern.
+     * @param pattern Triple pattern, {@link Node#ANY} or variables match any node.
+     * @return Range of matching triples, null if a bound node of the pattern is not part of the graph.
+     */
+    private Range range(final Triple pattern) {
+        final int s = this.lookup(pattern.getMatchSubject());
+        final int p = this.lookup(pattern.getMatchPredicate());
+        final int o = this.lookup(pattern.getMatchObject());
+        if (s == FrozenGraphJena.UNKNOWN || p == FrozenGraphJena.UNKNOWN || o == FrozenGraphJena.UNKNOWN) {
+            return null;
+        }
+
+        if (s >= 0 && p < 0 && o >= 0) {
+            return this.osp.range(o, s, FrozenGraphJena.ANY);
+        } else if (s >= 0) {
+            return this.spo.range(s, p, o);
+        } else if (p >= 0) {
+            return this.pos.range(p, o, FrozenGraphJena.ANY);
+        } else if (o >= 0) {
+            return this.osp.range(o, FrozenGraphJena.ANY, FrozenGraphJena.ANY);
+        }
+        return new Range(this.spo.permutation, 0, this.spo.permutation.length);
+    }
+
+    /**
+     * Method returns the id of a node of a triple pattern.
+     * @param node Node of a triple pattern, null or a variable if the position matches any node.
+     * @return Id of the node, -1 if the position matches any node, -2 if the node is not part of the graph.
+     */
+    private int lookup(final Node node) {
+        if (node == null || node.isVariable()) {
+            return FrozenGraphJena.ANY;
+        }
+        final int id = this.dictionary.id(node);
+        return id < 0 ? FrozenGraphJena.UNKNOWN : id;
+    }
+
+    /**
+     * Permutation of all triples sorted by three columns, with offsets pointing to the first triple
+     * of every node id of the leading column.
+     */
+    private static final class Index {
+        /**
+         * Columns of the sort keys in the order of the permutation.
+         */
+        private final int[][] keys;
+        /**
+         * Triple positions sorted by the sort keys.
+         */
+        private final int[] permutation;
+        /**
+         * Index of the first entry of the permutation for every node id of the leading column,
+         * the last entry is the number of triples.
+         */
+        private final int[] offsets;
+
+        /**
+         * Constructor, sorts the triples by a stable counting sort on each column starting with the last column.
+         * @param sortKeys Columns of the sort keys in the order of the permutation.
+         * @param nodeCount Number of distinct node ids.
+         */
+        Index(final int[][] sortKeys, final int nodeCount) {
+            this.keys = sortKeys;
+            this.offsets = new int[nodeCount + 1];
+            int[] order = new int[sortKeys[0].length];
+            for (int i = 0; i < order.length; i += 1) {
+                order[i] = i;
+            }
+            for (int k = sortKeys.length - 1; k >= 0; k -= 1) {
+                order = Index.countingSort(order, sortKeys[k], this.offsets);
+            }
+            this.permutation = order;
+        }
+
+        /**
+         * Method returns the range of the permutation matching the provided node ids.
+         * @param first Node id of the leading column, has to be bound.
+         * @param second Node id of the second column or -1 to match any node.
+         * @param third Node id of the third column or -1, only used if the second column is bound.
+         * @return Range of matching triples.
+         */
+        Range range(final int first, final int second, final int third) {
+            int start = this.offsets[first];
+            int end = this.offsets[first + 1];
+            if (second >= 0) {
+                final int from = this.bound(this.keys[1], second, start, end, false);
+                end = this.bound(this.keys[1], second, from, end, true);
+                start = from;
+                if (third >= 0) {
+                    final int thirdFrom = this.bound(this.keys[2], third, start, end, false);
+                    end = this.bound(this.keys[2], third, thirdFrom, end, true);
+                    start = thirdFrom;
+                }
+            }
+            return new Range(this.permutation, start, end);
+        }
+
+        /**
+         * Method searches the first entry within a sorted part of the permutation, which is larger than or
+         * equal to (respectively larger than) the provided node id.
+         * @param column Column the part of the permutation is sorted by.
+         * @param value Node id that is searched.
+         * @param from Index of the first entry of the sorted part.
+         * @param to Index after the last entry of the sorted part.
+         * @param upper False to search the first entry not smaller, true to search the first entry larger.
+         * @return Index of the entry within the permutation.
+         */
+        private int bound(final int[] column, final int value, final int from, final int to, final boolean upper) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                final int key = column[this.permutation[mid]];
+                if (key < value || upper && key == value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Method sorts triple positions by a column keeping the order of positions with equal keys.
+         * @param order Triple positions in their current order.
+         * @param key Column used as sort key.
+         * @param offsets Array receiving the index of the first sorted position of every node id.
+         * @return Sorted triple positions.
+         */
+        private static int[] countingSort(final int[] order, final int[] key, final int[] offsets) {
+            final int[] counts = new int[offsets.length];
+            for (final int t : order) {
+                counts[key[t] + 1] += 1;
+            }
+            for (int i = 1; i < counts.length; i += 1) {
+                counts[i] += counts[i - 1];
+            }
+            System.arraycopy(counts, 0, offsets, 0, counts.length);
+
+            final int[] sorted = new int[order.length];
+            for (final int t : order) {
+                sorted[counts[key[t]]] = t;
+                counts[key[t]] += 1;
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Range of a permutation containing the triples that match a triple pattern.
+     */
+    private static final class Range {
+        /**
+         * Permutation containing the triple positions.
+         */
+        private final int[] permutation;
+        /**
+         * Index of the first matching entry of the permutation.
+         */
+        private final int start;
+        /**
+         * Index after the last matching entry of the permutation.
+         */
+        private final int end;
+
+        /**
+         * Constructor.
+         * @param perm Permutation containing the triple positions.
+         * @param from Index of the first matching entry.
+         * @param to Index after the last matching entry.
+         */
+        Range(final int[] perm, final int from, final int to) {
+            this.permutation = perm;
+            this.start = from;
+            this.end = to;
+        }
+    }
+
+    /**
+     * Iterator creating the triples of a range while iterating.
+     */
+    private final class RangeIterator implements Iterator<Triple> {
+        /**
+         * Range that is iterated.
+         */
+        private final Range range;
+        /**
+         * Index of the next entry of the range.
+         */
+        private int next;
+
+        /**
+         * Constructor.
+         * @param matches Range that is iterated.
+         */
+        RangeIterator(final Range matches) {
+            this.range = matches;
+            this.next = matches.start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.range.end;
+        }
+
+        @Override
+        public Triple next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int t = this.range.permutation[this.next];
+            this.next += 1;
+            final NodeDictionaryJena dict = FrozenGraphJena.this.dictionary;
+            final int[][] c = FrozenGraphJena.this.columns;
+            return Triple.create(dict.node(c[0][t]), dict.node(c[1][t]), dict.node(c[2][t]));
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import java.util.Arrays;
+
+/**
+ * Dictionary mapping RDF nodes to consecutive int ids. The ids are kept in an open addressing hash table
+ * of ints instead of a map of boxed values, the dictionary therefore needs only a few bytes per node in
+ * addition to the nodes themselves. Nodes are compared by term equality.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class NodeDictionaryJena {
+    /**
+     * Initial number of slots of the hash table, has to be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Multiplier spreading the hash codes of the nodes over the hash table.
+     */
+    private static final int HASH_SPREAD = 0x9E3779B9;
+
+    /**
+     * Nodes of the dictionary, the index of a node is its id.
+     */
+    private Node[] nodes = new Node[NodeDictionaryJena.INITIAL_CAPACITY / 2];
+    /**
+     * Hash table containing the id + 1 of the node hashed to a slot, 0 for empty slots.
+     */
+    private int[] table = new int[NodeDictionaryJena.INITIAL_CAPACITY];
+    /**
+     * Number of nodes of the dictionary.
+     */
+    private int size;
+
+    /**
+     * Method returns the id of a node, adding the node to the dictionary if it is new.
+     * @param node Node that is added.
+     * @return Id of the node.
+     */
+    int add(final Node node) {
+        final int slot = this.slot(node);
+        if (this.table[slot] != 0) {
+            return this.table[slot] - 1;
+        }
+        if (this.size == this.nodes.length) {
+            this.nodes = Arrays.copyOf(this.nodes, this.nodes.length * 2);
+        }
+        this.nodes[this.size] = node;
+        this.size += 1;
+        this.table[slot] = this.size;
+        if (this.size * 2 > this.table.length) {
+            this.rehash(this.table.length * 2);
+        }
+        return this.size - 1;
+    }
+
+    /**
+     * Method returns the id of a node.
+     * @param node Node that is looked up.
+     * @return Id of the node, -1 if the node is not part of the dictionary.
+     */
+    int id(final Node node) {
+        return this.table[this.slot(node)] - 1;
+    }
+
+    /**
+     * Method returns the node of an id.
+     * @param id Id of a node of the dictionary.
+     * @return Node of the id.
+     */
+    Node node(final int id) {
+        return this.nodes[id];
+    }
+
+    /**
+     * Method returns the number of nodes of the dictionary.
+     * @return Number of nodes.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Method releases memory reserved for nodes that have not been added.
+     */
+    void trim() {
+        this.nodes = Arrays.copyOf(this.nodes, this.size);
+    }
+
+    /**
+     * Method returns the slot of the hash table, which contains the node or where the node is inserted.
+     * @param node Node that is looked up.
+     * @return Index of the slot.
+     */
+    private int slot(final Node node) {
+        final int mask = this.table.length - 1;
+        int slot = (node.hashCode() * NodeDictionaryJena.HASH_SPREAD) & mask;
+        while (this.table[slot] != 0 && !this.nodes[this.table[slot] - 1].equals(node)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Method moves all entries of the hash table to a new table.
+     * @param capacity Number of slots of the new table, has to be a power of two.
+     */
+    private void rehash(final int capacity) {
+        this.table = new int[capacity];
+        for (int id = 0; id < this.size; id += 1) {
+            this.table[this.slot(this.nodes[id])] = id + 1;
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.jena.riot.lang.BlankNodeAllocator;
+import org.apache.jena.riot.lang.BlankNodeAllocatorFixedSeedHash;
+import org.apache.jena.riot.lang.BlankNodeAllocatorHash;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.MapWithScope;
+
+/**
+ * Blank node allocator of the RDF parsers, deriving labelled blank nodes from a fixed seed and creating
+ * blank nodes without a label from a fresh seed. Data parsed in several parts using the same seed, e.g.
+ * data appended to a file or chunks of a file, therefore shares the blank nodes of identical labels,
+ * while blank nodes without a label, e.g. "[]" or collections in Turtle, are distinct in every part.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class RdfBlankNodeAllocatorJena implements MapWithScope.Allocator<String, Node, Node> {
+    /**
+     * Allocator of blank nodes with a label.
+     */
+    private final BlankNodeAllocator labelled;
+    /**
+     * Allocator of blank nodes without a label.
+     */
+    private final BlankNodeAllocator anonymous = new BlankNodeAllocatorHash();
+
+    /**
+     * Constructor.
+     * @param seed Seed used to allocate blank nodes from their labels.
+     */
+    private RdfBlankNodeAllocatorJena(final UUID seed) {
+        this.labelled = new BlankNodeAllocatorFixedSeedHash(seed);
+    }
+
+    /**
+     * Method creates the label mapping of a parser, using a single scope for all labels of the parsed data.
+     * @param seed Seed used to allocate blank nodes from their labels.
+     * @return Label mapping to be set on the profile of a parser.
+     */
+    static LabelToNode labelToNode(final UUID seed) {
+        return new LabelToNode(new DocumentScope(), new RdfBlankNodeAllocatorJena(seed));
+    }
+
+    @Override
+    public Node alloc(final Node scope, final String label) {
+        return this.labelled.alloc(label);
+    }
+
+    @Override
+    public Node create() {
+        return this.anonymous.create();
+    }
+
+    @Override
+    public void reset() {
+        this.labelled.reset();
+        this.anonymous.reset();
+    }
+
+    /**
+     * Scope of blank node labels spanning the whole parsed data.
+     */
+    private static final class DocumentScope implements MapWithScope.ScopePolicy<String, Node, Node> {
+        /**
+         * Blank nodes allocated for the labels parsed so far.
+         */
+        private final Map<String, Node> labels = new HashMap<>();
+
+        @Override
+        public Map<String, Node> getScope(final Node scope) {
+            return this.labels;
+        }
+
+        @Override
+        public void clear() {
+            this.labels.clear();
+        }
+    }
+
+}
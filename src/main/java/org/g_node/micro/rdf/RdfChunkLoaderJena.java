@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.GraphUtil;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotNotFoundException;
+import org.apache.jena.riot.SysRIOT;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.FileRangeInputStream;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.MappedFileInputStream;
+
+/**
+ * Class loading line based RDF files (N-Triples, N-Quads) in parallel. The file is split into byte ranges
+ * at line boundaries, every range is parsed into a separate graph on a fork-join pool and the partial
+ * graphs are merged pairwise into the final model. All ranges are parsed using the same blank node
+ * label seed, identical blank node labels in different ranges therefore result in the same blank node.
+ * Positions reported in parser errors are relative to the start of the range containing the error.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfChunkLoaderJena {
+    /**
+     * Default size of the byte ranges the file is split into.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 16L * 1024 * 1024;
+    /**
+     * Size of the buffer used to find the next line boundary.
+     */
+    private static final int BOUNDARY_BUFFER_SIZE = 8192;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfChunkLoaderJena.class.getName());
+
+    /**
+     * Channel of the file that is loaded.
+     */
+    private final FileChannel channel;
+    /**
+     * RDF language of the file that is loaded.
+     */
+    private final Lang lang;
+    /**
+     * Base IRI used by the parser.
+     */
+    private final String base;
+    /**
+     * Blank node label seed shared by all ranges of the file.
+     */
+    private final UUID blankNodeSeed = UUID.randomUUID();
+    /**
+     * Start positions of the byte ranges, the last entry contains the size of the file.
+     */
+    private final long[] boundaries;
+    /**
+     * True if the byte ranges are read from memory mapped regions.
+     */
+    private boolean memoryMapped;
+
+    /**
+     * Constructor is private, use {@link #loadModel(String, RdfLoadOptions)}.
+     * @param fileChannel Channel of the file that is loaded.
+     * @param fileName Path and filename of the file that is loaded.
+     * @param chunkSize Approximate size of the byte ranges.
+     * @throws IOException If the file cannot be read.
+     */
+    private RdfChunkLoaderJena(final FileChannel fileChannel, final String fileName, final long chunkSize)
+            throws IOException {
+        this.channel = fileChannel;
+        this.lang = RDFLanguages.filenameToLang(fileName);
+        this.base = SysRIOT.chooseBaseIRI(fileName);
+        this.boundaries = this.findBoundaries(chunkSize);
+    }
+
+    /**
+     * Method checks if a file can be loaded by this class, which is the case for local files
+     * of a line based RDF format that are not compressed.
+     * @param fileName Path and filename of an RDF file.
+     * @return True if the file is a local file with an N-Triples or N-Quads file extension, false otherwise.
+     */
+    public static boolean isChunkable(final String fileName) {
+        final Lang fileLang = RDFLanguages.filenameToLang(fileName);
+        return (RDFLanguages.NTRIPLES.equals(fileLang) || RDFLanguages.NQUADS.equals(fileLang))
+                && FileService.getCompressionExtension(fileName) == null
+                && Files.isRegularFile(Paths.get(fileName));
+    }
+
+    /**
+     * Load a line based RDF file in parallel using all available processors and the default chunk size.
+     * @param fileName Path and filename of an N-Triples or N-Quads file.
+     * @param options Settings used to load the file.
+     * @return Model created from the data within the provided RDF file.
+     * @throws RiotException If the file cannot be found, read or parsed.
+     */
+    public static Model loadModel(final String fileName, final RdfLoadOptions options) {
+        return RdfChunkLoaderJena.loadModel(fileName, Runtime.getRuntime().availableProcessors(),
+                RdfChunkLoaderJena.DEFAULT_CHUNK_SIZE, options);
+    }
+
+    /**
+     * Load a line based RDF file in parallel. Only triples of the default graph are added to the model.
+     * @param fileName Path and filename of an N-Triples or N-Quads file.
+     * @param parallelism Number of threads used to parse the file.
+     * @param chunkSize Approximate size of the byte ranges the file is split into.
+     * @param options Settings used to load the file.
+     * @return Model created from the data within the provided RDF file.
+     * @throws RiotException If the file cannot be found, read or parsed.
+     */
+    public static Model loadModel(final String fileName, final int parallelism, final long chunkSize,
+                                  final RdfLoadOptions options) {
+        final Path file = Paths.get(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new RiotNotFoundException(String.join("", "Not found: ", fileName));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            final RdfChunkLoaderJena loader = new RdfChunkLoaderJena(fc, fileName, chunkSize);
+            loader.memoryMapped = options.isMemoryMapped();
+            final int chunks = loader.boundaries.length - 1;
+            RdfChunkLoaderJena.LOGGER.info(
+                    String.join("", "Loading file in ", String.valueOf(chunks), " chunks using ",
+                            String.valueOf(parallelism), " threads...\t(", fileName, ")"));
+
+            final Graph graph = pool.invoke(loader.new ChunkTask(0, chunks));
+            return ModelFactory.createModelForGraph(graph);
+        } catch (IOException e) {
+            throw new RiotException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Method splits the file into byte ranges of approximately the provided size, each range
+     * starting at the beginning of a line.
+     * @param chunkSize Approximate size of the byte ranges.
+     * @return Start positions of the ranges, the last entry contains the size of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private long[] findBoundaries(final long chunkSize) throws IOException {
+        final long size = this.channel.size();
+        final List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+
+        long next = chunkSize;
+        while (next < size) {
+            final long lineStart = this.findLineStart(next);
+            if (lineStart >= size) {
+                break;
+            }
+            starts.add(lineStart);
+            next = lineStart + chunkSize;
+        }
+        starts.add(size);
+
+        return starts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Method returns the position of the first byte after the next line feed at or after the provided position.
+     * @param from Position where the search starts.
+     * @return Position of the start of the next line, the size of the file if there is no further line.
+     * @throws IOException If the file cannot be read.
+     */
+    private long findLineStart(final long from) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(RdfChunkLoaderJena.BOUNDARY_BUFFER_SIZE);
+        long position = from;
+        int n = this.channel.read(buffer, position);
+        while (n > 0) {
+            for (int i = 0; i < n; i += 1) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+            buffer.clear();
+            n = this.channel.read(buffer, position);
+        }
+        return this.channel.size();
+    }
+
+    /**
+     * Method parses a single byte range of the file into a new graph.
+     * @param chunk Index of the byte range.
+     * @return Graph containing the triples of the byte range.
+     */
+    private Graph parseChunk(final int chunk) {
+        final Graph graph = GraphFactory.createDefaultGraph();
+
+        final long start = this.boundaries[chunk];
+        final long stop = this.boundaries[chunk + 1];
+        final InputStream in = this.memoryMapped
+                ? new MappedFileInputStream(this.channel, start, stop)
+                : new FileRangeInputStream(this.channel, start, stop);
+        RdfInputJena.parse(in, this.base, this.lang, this.blankNodeSeed, StreamRDFLib.graph(graph));
+
+        return graph;
+    }
+
+    /**
+     * Fork-join task parsing a range of chunks and merging the resulting graphs.
+     */
+    private final class ChunkTask extends RecursiveTask<Graph> {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Index of the first chunk of this task.
+         */
+        private final int from;
+        /**
+         * Index after the last chunk of this task.
+         */
+        private final int to;
+
+        /**
+         * Constructor.
+         * @param fromChunk Index of the first chunk of this task.
+         * @param toChunk Index after the last chunk of this task.
+         */
+        ChunkTask(final int fromChunk, final int toChunk) {
+            this.from = fromChunk;
+            this.to = toChunk;
+        }
+
+        @Override
+        protected Graph compute() {
+            if (this.to - this.from <= 1) {
+                return RdfChunkLoaderJena.this.parseChunk(this.from);
+            }
+
+            final int mid = (this.from + this.to) >>> 1;
+            final ChunkTask left = new ChunkTask(this.from, mid);
+            left.fork();
+            final Graph right = new ChunkTask(mid, this.to).compute();
+            final Graph leftGraph = left.join();
+
+            if (leftGraph.size() >= right.size()) {
+                GraphUtil.addInto(leftGraph, right);
+                return leftGraph;
+            }
+            GraphUtil.addInto(right, leftGraph);
+            return right;
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.ARQ;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.shared.PrefixMapping;
+import com.hp.hpl.jena.sparql.algebra.Algebra;
+import com.hp.hpl.jena.sparql.algebra.Op;
+import com.hp.hpl.jena.sparql.algebra.op.OpOrder;
+import com.hp.hpl.jena.sparql.algebra.op.OpProject;
+import com.hp.hpl.jena.sparql.core.DatasetGraph;
+import com.hp.hpl.jena.sparql.core.DatasetGraphFactory;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.BindingComparator;
+import com.hp.hpl.jena.sparql.engine.main.OpExecutor;
+import com.hp.hpl.jena.sparql.engine.main.QC;
+import com.hp.hpl.jena.sparql.util.Context;
+
+/**
+ * Class containing a parsed SPARQL query together with its compiled and optimized algebra expression.
+ * Instances are created by the {@link RdfQueryRegistryJena} and are immutable, they can be executed
+ * any number of times and from different threads without parsing or optimizing the query again.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfCompiledQueryJena {
+    /**
+     * Hash of the query text, used as key of the query registry.
+     */
+    private final String key;
+    /**
+     * Parsed SPARQL query.
+     */
+    private final Query query;
+    /**
+     * Optimized algebra expression of the query.
+     */
+    private final Op plan;
+
+    /**
+     * Constructor compiles and optimizes a parsed query.
+     * @param queryKey Hash of the query text.
+     * @param parsedQuery Parsed SPARQL query.
+     */
+    RdfCompiledQueryJena(final String queryKey, final Query parsedQuery) {
+        this.key = queryKey;
+        this.query = parsedQuery;
+        this.plan = Algebra.optimize(Algebra.compile(parsedQuery));
+    }
+
+    /**
+     * Method returns the hash of the query text.
+     * @return Key of the query within the query registry.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Method returns the parsed SPARQL query.
+     * @return Parsed query.
+     */
+    public Query getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Method returns the optimized algebra expression of the query.
+     * @return Compiled query plan.
+     */
+    public Op getPlan() {
+        return this.plan;
+    }
+
+    /**
+     * Method returns whether the query is a SELECT query, only SELECT queries can be saved as a report.
+     * @return True if the query is a SELECT query, false otherwise.
+     */
+    public boolean isSelect() {
+        return this.query.isSelectType();
+    }
+
+    /**
+     * Method executes the compiled query plan on an RDF model. The query has to be a SELECT query.
+     * @param model RDF model that is queried.
+     * @return Results of the query, the rows are evaluated while the {@link ResultSet} is iterated.
+     */
+    public ResultSet execSelect(final Model model) {
+        return this.execSelect(model, new RdfReportOptions());
+    }
+
+    /**
+     * Method executes the compiled query plan on an RDF model within the limits of a query, using the
+     * default options of a report otherwise, see {@link #execSelect(Model, RdfReportOptions)}.
+     * @param model RDF model that is queried.
+     * @param limits Limits of the query, see {@link RdfQueryGuardJena}.
+     * @return Results of the query, the rows are evaluated while the {@link ResultSet} is iterated.
+     */
+    public ResultSet execSelect(final Model model, final RdfQueryLimits limits) {
+        return this.execSelect(model, new RdfReportOptions().setQueryLimits(limits));
+    }
+
+    /**
+     * Method executes the compiled query plan on an RDF model using the options of a report.
+     * The query has to be a SELECT query. If the query exceeds a limit of the options, it is cancelled and
+     * reading the next row throws a {@link RdfQueryLimitException}. If the rows of the query are projected
+     * from ordered rows, the rows are sorted by a {@link RdfExternalSortJena} within the sort memory budget
+     * of the options.
+     * @param model RDF model that is queried.
+     * @param options Options of the report containing the limits of the query, see {@link RdfQueryGuardJena}.
+     * @return Results of the query, the rows are evaluated while the {@link ResultSet} is iterated.
+     */
+    public ResultSet execSelect(final Model model, final RdfReportOptions options) {
+        return this.execSelect(model, options, null);
+    }
+
+    /**
+     * Method executes the compiled query plan on an RDF model using the options of a report, see
+     * {@link #execSelect(Model, RdfReportOptions)}. If a profile is provided, the operators of the plan
+     * update the profile while the rows are iterated. If the options stream or page the rows, a plan
+     * of the changed query is evaluated instead, see {@link #pagedPlan(RdfReportOptions)}.
+     * @param model RDF model that is queried.
+     * @param options Options of the report containing the limits of the query, see {@link RdfQueryGuardJena}.
+     * @param profile Profile of the evaluation, null if the evaluation is not profiled.
+     * @return Results of the query, the rows are evaluated while the {@link ResultSet} is iterated.
+     */
+    public ResultSet execSelect(final Model model, final RdfReportOptions options,
+                                final RdfQueryProfileJena profile) {
+        final Op op = options.isPaged() ? this.pagedPlan(options) : this.plan;
+        QueryIterator rows;
+        if (options.getSortRunRows() > 0 && op instanceof OpProject
+                && ((OpProject) op).getSubOp() instanceof OpOrder) {
+            // The projection only hides variables, the result set only reads the result variables.
+            final OpOrder order = (OpOrder) ((OpProject) op).getSubOp();
+            rows = new RdfExternalSortJena(this.exec(order.getSubOp(), model, profile),
+                    new BindingComparator(order.getConditions()), options.getSortRunRows(),
+                    options.getSortSpillDir());
+        } else {
+            rows = this.exec(op, model, profile);
+        }
+        final RdfQueryLimits limits = options.getQueryLimits();
+        return new ResultSetStream(this.query.getResultVars(), model,
+                limits.isUnlimited() ? rows : new RdfQueryGuardJena(rows, limits));
+    }
+
+    /**
+     * Method compiles the plan of a streamed or paged query. If the query is streamed, its ORDER BY is dropped,
+     * the rows are evaluated and returned in the order they are bound and none of them waits for the last row.
+     * The order of the rows then depends on the evaluation order, which is the same for the same data.
+     * Queries with their own LIMIT or OFFSET keep their ORDER BY, since it selects which rows they return.
+     * The page of the options is taken from the rows of the query: its offset is added to the OFFSET of the query
+     * and it ends at the LIMIT of the query at the latest. Only the rows of the page are evaluated, ordered
+     * queries keep the sorted rows of the page in memory only.
+     * @param options Options of the report.
+     * @return Optimized algebra expression of the changed query.
+     */
+    private Op pagedPlan(final RdfReportOptions options) {
+        final Query paged = this.query.cloneQuery();
+        if (options.isStreamed() && paged.hasOrderBy() && !paged.hasLimit() && !paged.hasOffset()) {
+            paged.getOrderBy().clear();
+        }
+        long offset = options.getOffset();
+        long limit = options.getLimit() > 0 ? options.getLimit() : Query.NOLIMIT;
+        if (paged.hasLimit()) {
+            final long remaining = Math.max(0, paged.getLimit() - offset);
+            limit = limit == Query.NOLIMIT ? remaining : Math.min(limit, remaining);
+        }
+        if (paged.hasOffset()) {
+            offset += paged.getOffset();
+        }
+        paged.setOffset(offset > 0 ? offset : Query.NOLIMIT);
+        paged.setLimit(limit);
+        return Algebra.optimize(Algebra.compile(paged));
+    }
+
+    /**
+     * Method describes the query: the algebra expression of the parsed query, the optimized plan and how
+     * the plan is evaluated, see {@link RdfQueryProfileJena#explain(Op, PrefixMapping)}.
+     * @return Description of the query.
+     */
+    public String explain() {
+        final PrefixMapping prefixes = this.query.getPrefixMapping();
+        return String.join("",
+                "Parsed algebra:\n", Algebra.compile(this.query).toString(prefixes),
+                "Optimized plan:\n", this.plan.toString(prefixes),
+                "Evaluation:\n", RdfQueryProfileJena.explain(this.plan, prefixes));
+    }
+
+    /**
+     * Method evaluates an algebra expression on an RDF model. The expression is executed as it is,
+     * it has already been optimized when it was compiled.
+     * @param op Algebra expression.
+     * @param model RDF model that is queried.
+     * @param profile Profile of the evaluation, null if the evaluation is not profiled.
+     * @return Rows of the expression.
+     */
+    private QueryIterator exec(final Op op, final Model model, final RdfQueryProfileJena profile) {
+        if (profile != null) {
+            return profile.exec(op, model.getGraph(), this.query.getPrefixMapping());
+        }
+        final DatasetGraph dataset = DatasetGraphFactory.createOneGraph(model.getGraph());
+        final Context context = Context.setupContext(ARQ.getContext(), dataset);
+        final ExecutionContext execCxt =
+                new ExecutionContext(context, model.getGraph(), dataset, QC.getFactory(context));
+        return QC.execute(op, OpExecutor.createRootQueryIterator(execCxt), execCxt);
+    }
+
+}
@@ -64,4 +64,12 @@ public final class RdfConstants {
      * G-Node ontology namespace prefix.
      */
     public static final String RDF_NS_GN_ONT_ABR = "gn";
+    /**
+     * Namespace of the SPARQL functions provided by the reporter.
+     */
+    public static final String RDF_NS_REPORT = "https://github.com/G-Node/rdf-to-report/functions#";
+    /**
+     * Reporter function namespace prefix.
+     */
+    public static final String RDF_NS_REPORT_ABR = "report";
 }
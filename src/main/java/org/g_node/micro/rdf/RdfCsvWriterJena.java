@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Class writing a {@link com.hp.hpl.jena.query.ResultSet} to a CSV file,
+ * see {@link AbstractRdfResultWriterJena}.
+ * Values containing commas, quotes or line breaks are quoted, quotes within quoted values are doubled.
+ *
+ * The output is the same as the one of Jena's ResultSetFormatter.outputAsCSV: a header line with
+ * the names of the variables, one line per row separated by CRLF, URIs and the lexical forms of literals
+ * as values, blank nodes labelled in the order they appear and unbound variables as empty values.
+ * Empty strings are written as a pair of quotes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfCsvWriterJena extends AbstractRdfResultWriterJena {
+    /**
+     * Separator between the values of a line.
+     */
+    private static final byte SEPARATOR = ',';
+    /**
+     * Line break ending a line.
+     */
+    private static final byte[] LINE_BREAK = AbstractRdfResultWriterJena.ascii("\r\n");
+    /**
+     * Escape sequences of unquoted values, characters that require quotes.
+     */
+    private static final byte[][] ESCAPES = AbstractRdfResultWriterJena.escapeTable();
+    /**
+     * Escape sequences of quoted values, doubled quotes.
+     */
+    private static final byte[][] QUOTED_ESCAPES = AbstractRdfResultWriterJena.escapeTable();
+
+    static {
+        for (final char c : new char[] {',', '"', '\r', '\n'}) {
+            AbstractRdfResultWriterJena.setEscape(RdfCsvWriterJena.ESCAPES, c, AbstractRdfResultWriterJena.QUOTE_VALUE);
+        }
+        AbstractRdfResultWriterJena.setEscape(RdfCsvWriterJena.QUOTED_ESCAPES, '"',
+                AbstractRdfResultWriterJena.ascii("\"\""));
+    }
+
+    /**
+     * Constructor, creates a writer with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     */
+    public RdfCsvWriterJena() {
+        this(AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param bufferSize Size of the output buffer in bytes.
+     */
+    public RdfCsvWriterJena(final int bufferSize) {
+        super(bufferSize);
+    }
+
+    /**
+     * Method writes the header line containing the names of the variables.
+     * @param names Names of the variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void writeHeader(final List<String> names) throws IOException {
+        for (int i = 0; i < names.size(); i += 1) {
+            this.writeValue(i, names.get(i));
+        }
+        this.endRow(names.size());
+    }
+
+    /**
+     * Method writes a value, quoted if necessary, unbound variables are written as empty values.
+     * @param column Index of the variable of the value.
+     * @param value Text of the value, null if the variable is not bound.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void writeValue(final int column, final String value) throws IOException {
+        if (column > 0) {
+            this.put(RdfCsvWriterJena.SEPARATOR);
+        }
+        if (value == null) {
+            return;
+        } else if (value.isEmpty()) {
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+        } else {
+            this.writeText(value, RdfCsvWriterJena.ESCAPES, RdfCsvWriterJena.QUOTED_ESCAPES);
+        }
+    }
+
+    /**
+     * Method ends a line with CRLF.
+     * @param columns Number of variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void endRow(final int columns) throws IOException {
+        this.put(RdfCsvWriterJena.LINE_BREAK);
+    }
+
+}
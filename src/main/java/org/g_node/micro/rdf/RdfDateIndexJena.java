@@ -0,0 +1,512 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.util.Symbol;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.WeakHashMap;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+/**
+ * Class indexing the date values of a property. Every xsd:dateTime and xsd:date literal of the property
+ * is parsed once to milliseconds since the epoch, the dates of each owner are stored in sorted primitive
+ * arrays. The owner of a date is the subject of the date property, or, if a link property is given,
+ * every resource linking to that subject, e.g. the subject of all log entries with a start date.
+ * First, last and range lookups are answered with a binary search instead of comparing literals.
+ * Dates without a timezone are indexed as UTC. Literals of other datatypes are not indexed.
+ *
+ * Indexes are built once per graph and kept until the graph is garbage collected or its size changes,
+ * see {@link #index(Graph, Node, Node)}. Property functions resolve an index once per query execution,
+ * see {@link #index(ExecutionContext, Node, Node)}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfDateIndexJena {
+    /**
+     * Built indexes by graph, the key of an index consists of its link and date property.
+     */
+    private static final Map<Graph, Map<List<Node>, RdfDateIndexJena>> INDEXES = new WeakHashMap<>();
+    /**
+     * Symbol of the indexes resolved by a query execution, stored in the context of the execution.
+     */
+    private static final Symbol RESOLVED = Symbol.create(String.join("", RdfConstants.RDF_NS_REPORT, "dateIndexes"));
+    /**
+     * Number of decimal digits of milliseconds, used to check the precision of fractional seconds.
+     */
+    private static final int MILLIS_DIGITS = 3;
+    /**
+     * Factory parsing date literals.
+     */
+    private static final DatatypeFactory DATATYPES;
+
+    static {
+        try {
+            DATATYPES = DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Size of the graph when the index was built.
+     */
+    private final long graphSize;
+    /**
+     * Sorted dates by owner.
+     */
+    private final Map<Node, Dates> owners;
+    /**
+     * Sorted dates of all owners.
+     */
+    private final Dates all;
+
+    /**
+     * Constructor.
+     * @param size Size of the graph when the index was built.
+     * @param ownerDates Sorted dates by owner.
+     * @param allDates Sorted dates of all owners.
+     */
+    private RdfDateIndexJena(final long size, final Map<Node, Dates> ownerDates, final Dates allDates) {
+        this.graphSize = size;
+        this.owners = ownerDates;
+        this.all = allDates;
+    }
+
+    /**
+     * Method returns the date index of a graph, the index is built if it does not exist yet
+     * or if the size of the graph has changed since it was built.
+     * @param graph Graph containing the dates.
+     * @param linkProperty Property linking an owner to the subject of the date property,
+     *  null if the subject of the date property is the owner.
+     * @param dateProperty Property of the indexed dates.
+     * @return Date index of the graph.
+     */
+    public static RdfDateIndexJena index(final Graph graph, final Node linkProperty, final Node dateProperty) {
+        final List<Node> key = Arrays.asList(linkProperty, dateProperty);
+        synchronized (RdfDateIndexJena.INDEXES) {
+            final RdfDateIndexJena cached = RdfDateIndexJena.find(graph, key);
+            if (cached != null) {
+                return cached;
+            }
+            final RdfDateIndexJena built = RdfDateIndexJena.build(graph, linkProperty, dateProperty);
+            RdfDateIndexJena.INDEXES.computeIfAbsent(graph, g -> new HashMap<>()).put(key, built);
+            return built;
+        }
+    }
+
+    /**
+     * Method returns the date index of the active graph of a query execution. The index is resolved
+     * by {@link #index(Graph, Node, Node)} on the first call of the execution, later calls of the same
+     * execution return it without locking the indexes or checking the size of the graph.
+     * @param execCxt Context of the query execution.
+     * @param linkProperty Property linking an owner to the subject of the date property,
+     *  null if the subject of the date property is the owner.
+     * @param dateProperty Property of the indexed dates.
+     * @return Date index of the active graph.
+     */
+    public static RdfDateIndexJena index(final ExecutionContext execCxt, final Node linkProperty,
+                                         final Node dateProperty) {
+        Resolved resolved = (Resolved) execCxt.getContext().get(RdfDateIndexJena.RESOLVED);
+        if (resolved == null) {
+            resolved = new Resolved();
+            execCxt.getContext().set(RdfDateIndexJena.RESOLVED, resolved);
+        }
+        final Graph graph = execCxt.getActiveGraph();
+        return resolved.computeIfAbsent(Arrays.asList(graph, linkProperty, dateProperty),
+                k -> RdfDateIndexJena.index(graph, linkProperty, dateProperty));
+    }
+
+    /**
+     * Method returns the date index of a graph, if it has already been built.
+     * @param graph Graph containing the dates.
+     * @param linkProperty Property linking an owner to the subject of the date property,
+     *  null if the subject of the date property is the owner.
+     * @param dateProperty Property of the indexed dates.
+     * @return Date index of the graph, null if it has not been built or the graph has changed since.
+     */
+    public static RdfDateIndexJena get(final Graph graph, final Node linkProperty, final Node dateProperty) {
+        synchronized (RdfDateIndexJena.INDEXES) {
+            return RdfDateIndexJena.find(graph, Arrays.asList(linkProperty, dateProperty));
+        }
+    }
+
+    /**
+     * Method parses a date literal to milliseconds since the epoch.
+     * @param date Literal of datatype xsd:dateTime or xsd:date.
+     * @return Milliseconds since the epoch, null if the node is not a valid date literal.
+     */
+    public static Long epochMillis(final Node date) {
+        final XMLGregorianCalendar calendar = RdfDateIndexJena.calendar(date);
+        return calendar == null ? null : RdfDateIndexJena.millis(calendar);
+    }
+
+    /**
+     * Method returns the earliest date of an owner.
+     * @param owner Node of the owner.
+     * @return Earliest date, null if the owner has no indexed dates or the earliest date cannot
+     *  be determined the same way as by comparing the literals, see {@link #isComparable(Node)}.
+     */
+    public Node first(final Node owner) {
+        final Dates dates = this.owners.get(owner);
+        return dates == null || !dates.comparable ? null : dates.single(0);
+    }
+
+    /**
+     * Method returns the latest date of an owner.
+     * @param owner Node of the owner.
+     * @return Latest date, null if the owner has no indexed dates or the latest date cannot
+     *  be determined the same way as by comparing the literals, see {@link #isComparable(Node)}.
+     */
+    public Node last(final Node owner) {
+        final Dates dates = this.owners.get(owner);
+        return dates == null || !dates.comparable ? null : dates.single(dates.epochs.length - 1);
+    }
+
+    /**
+     * Method returns whether the dates of an owner are completely indexed and can be compared by their
+     * epoch values: all dates of the owner are valid literals of the same datatype, either all or none
+     * of them have a timezone and none of them is more precise than milliseconds.
+     * @param owner Node of the owner.
+     * @return True if first and last date of the owner are the same as by comparing the literals.
+     */
+    public boolean isComparable(final Node owner) {
+        final Dates dates = this.owners.get(owner);
+        return dates != null && dates.comparable;
+    }
+
+    /**
+     * Method returns the indexed dates of an owner within a time range.
+     * @param owner Node of the owner.
+     * @param from Start of the range in milliseconds since the epoch, inclusive.
+     * @param to End of the range in milliseconds since the epoch, inclusive.
+     * @return Dates within the range in ascending order.
+     */
+    public List<Node> range(final Node owner, final long from, final long to) {
+        final Dates dates = this.owners.get(owner);
+        if (dates == null) {
+            return Collections.emptyList();
+        }
+        final int start = dates.lowerBound(from);
+        return Arrays.asList(dates.dates).subList(start, Math.max(start, dates.upperBound(to)));
+    }
+
+    /**
+     * Method returns the owners and dates of all indexed dates within a time range.
+     * @param from Start of the range in milliseconds since the epoch, inclusive.
+     * @param to End of the range in milliseconds since the epoch, inclusive.
+     * @return Pairs of owner and date within the range, in ascending order of the dates.
+     */
+    public List<Node[]> range(final long from, final long to) {
+        final int start = this.all.lowerBound(from);
+        final int end = Math.max(start, this.all.upperBound(to));
+        final List<Node[]> pairs = new ArrayList<>(end - start);
+        for (int i = start; i < end; i += 1) {
+            pairs.add(new Node[] {this.all.owners[i], this.all.dates[i]});
+        }
+        return pairs;
+    }
+
+    /**
+     * Method returns the number of indexed owners.
+     * @return Number of owners with at least one indexed date.
+     */
+    public int size() {
+        return this.owners.size();
+    }
+
+    /**
+     * Method returns a cached index, if the graph has not changed since it was built.
+     * @param graph Graph containing the dates.
+     * @param key Link and date property of the index.
+     * @return Cached index, null if there is none.
+     */
+    private static RdfDateIndexJena find(final Graph graph, final List<Node> key) {
+        final Map<List<Node>, RdfDateIndexJena> indexes = RdfDateIndexJena.INDEXES.get(graph);
+        final RdfDateIndexJena cached = indexes == null ? null : indexes.get(key);
+        return cached != null && cached.graphSize == graph.size() ? cached : null;
+    }
+
+    /**
+     * Method reads all dates of the date property and sorts them by owner.
+     * @param graph Graph containing the dates.
+     * @param linkProperty Property linking an owner to the subject of the date property, may be null.
+     * @param dateProperty Property of the indexed dates.
+     * @return New date index.
+     */
+    private static RdfDateIndexJena build(final Graph graph, final Node linkProperty, final Node dateProperty) {
+        final Map<Node, List<Entry>> entries = new HashMap<>();
+        final Map<Node, Boolean> comparable = new HashMap<>();
+        final ExtendedIterator<Triple> it = graph.find(Node.ANY, dateProperty, Node.ANY);
+        try {
+            while (it.hasNext()) {
+                final Triple t = it.next();
+                final XMLGregorianCalendar calendar = RdfDateIndexJena.calendar(t.getObject());
+                if (calendar == null) {
+                    comparable.put(t.getSubject(), false);
+                    continue;
+                }
+                entries.computeIfAbsent(t.getSubject(), s -> new ArrayList<>()).add(new Entry(t.getSubject(),
+                        t.getObject(), RdfDateIndexJena.millis(calendar),
+                        calendar.getTimezone() != DatatypeConstants.FIELD_UNDEFINED,
+                        RdfDateIndexJena.isMillisPrecision(calendar)));
+            }
+        } finally {
+            it.close();
+        }
+
+        final Map<Node, List<Entry>> owned = linkProperty == null ? entries
+                : RdfDateIndexJena.link(graph, linkProperty, entries, comparable);
+
+        final Map<Node, Dates> owners = new HashMap<>();
+        final List<Entry> all = new ArrayList<>();
+        for (final Map.Entry<Node, List<Entry>> owner : owned.entrySet()) {
+            owners.put(owner.getKey(), new Dates(owner.getValue(),
+                    !Boolean.FALSE.equals(comparable.get(owner.getKey()))));
+            all.addAll(owner.getValue());
+        }
+        return new RdfDateIndexJena(graph.size(), owners, new Dates(all, false));
+    }
+
+    /**
+     * Method assigns the dates of the subjects of the date property to the owners linking to them.
+     * @param graph Graph containing the dates.
+     * @param linkProperty Property linking an owner to the subject of the date property.
+     * @param entries Dates by subject of the date property.
+     * @param comparable Subjects with dates that could not be indexed, owners linking to them are added.
+     * @return Dates by owner.
+     */
+    private static Map<Node, List<Entry>> link(final Graph graph, final Node linkProperty,
+                                               final Map<Node, List<Entry>> entries,
+                                               final Map<Node, Boolean> comparable) {
+        final Map<Node, List<Entry>> owned = new HashMap<>();
+        final ExtendedIterator<Triple> links = graph.find(Node.ANY, linkProperty, Node.ANY);
+        try {
+            while (links.hasNext()) {
+                final Triple t = links.next();
+                if (Boolean.FALSE.equals(comparable.get(t.getObject()))) {
+                    comparable.put(t.getSubject(), false);
+                }
+                for (final Entry e : entries.getOrDefault(t.getObject(), Collections.emptyList())) {
+                    owned.computeIfAbsent(t.getSubject(), s -> new ArrayList<>())
+                            .add(new Entry(t.getSubject(), e.date, e.epoch, e.zoned, e.exact));
+                }
+            }
+        } finally {
+            links.close();
+        }
+        return owned;
+    }
+
+    /**
+     * Method parses a date literal.
+     * @param date Node of the date.
+     * @return Parsed date, null if the node is not a valid xsd:dateTime or xsd:date literal.
+     */
+    private static XMLGregorianCalendar calendar(final Node date) {
+        if (!date.isLiteral()) {
+            return null;
+        }
+        final RDFDatatype type = date.getLiteralDatatype();
+        if (!XSDDatatype.XSDdateTime.equals(type) && !XSDDatatype.XSDdate.equals(type)
+                || !type.isValid(date.getLiteralLexicalForm())) {
+            return null;
+        }
+        try {
+            return RdfDateIndexJena.DATATYPES.newXMLGregorianCalendar(date.getLiteralLexicalForm());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method converts a parsed date to milliseconds since the epoch, dates without a timezone are UTC.
+     * @param calendar Parsed date.
+     * @return Milliseconds since the epoch.
+     */
+    private static long millis(final XMLGregorianCalendar calendar) {
+        final TimeZone zone = calendar.getTimezone() == DatatypeConstants.FIELD_UNDEFINED
+                ? TimeZone.getTimeZone("UTC") : null;
+        return calendar.toGregorianCalendar(zone, null, null).getTimeInMillis();
+    }
+
+    /**
+     * Method checks whether the fractional seconds of a date can be stored in milliseconds without loss.
+     * @param calendar Parsed date.
+     * @return True if the date is not more precise than milliseconds.
+     */
+    private static boolean isMillisPrecision(final XMLGregorianCalendar calendar) {
+        final BigDecimal fraction = calendar.getFractionalSecond();
+        return fraction == null
+                || fraction.movePointRight(RdfDateIndexJena.MILLIS_DIGITS).stripTrailingZeros().scale() <= 0;
+    }
+
+    /**
+     * Single indexed date of an owner.
+     */
+    private static final class Entry {
+        /**
+         * Node of the owner.
+         */
+        private final Node owner;
+        /**
+         * Literal of the date.
+         */
+        private final Node date;
+        /**
+         * Date in milliseconds since the epoch.
+         */
+        private final long epoch;
+        /**
+         * Whether the date has a timezone.
+         */
+        private final boolean zoned;
+        /**
+         * Whether the date is not more precise than milliseconds.
+         */
+        private final boolean exact;
+
+        /**
+         * Constructor.
+         * @param ownerNode Node of the owner.
+         * @param dateNode Literal of the date.
+         * @param millis Date in milliseconds since the epoch.
+         * @param hasTimezone Whether the date has a timezone.
+         * @param isExact Whether the date is not more precise than milliseconds.
+         */
+        Entry(final Node ownerNode, final Node dateNode, final long millis, final boolean hasTimezone,
+              final boolean isExact) {
+            this.owner = ownerNode;
+            this.date = dateNode;
+            this.epoch = millis;
+            this.zoned = hasTimezone;
+            this.exact = isExact;
+        }
+    }
+
+    /**
+     * Dates sorted by their epoch values, with the literals and owners at the same positions.
+     */
+    private static final class Dates {
+        /**
+         * Sorted dates in milliseconds since the epoch.
+         */
+        private final long[] epochs;
+        /**
+         * Literals of the dates.
+         */
+        private final Node[] dates;
+        /**
+         * Owners of the dates.
+         */
+        private final Node[] owners;
+        /**
+         * Whether the literals are ordered the same way as their epoch values.
+         */
+        private final boolean comparable;
+
+        /**
+         * Constructor sorts the dates.
+         * @param entries Indexed dates, sorted by this constructor.
+         * @param complete Whether all dates of the owner have been indexed.
+         */
+        Dates(final List<Entry> entries, final boolean complete) {
+            entries.sort(Comparator.comparingLong(e -> e.epoch));
+            this.epochs = new long[entries.size()];
+            this.dates = new Node[entries.size()];
+            this.owners = new Node[entries.size()];
+            boolean sameKind = true;
+            for (int i = 0; i < entries.size(); i += 1) {
+                final Entry e = entries.get(i);
+                this.epochs[i] = e.epoch;
+                this.dates[i] = e.date;
+                this.owners[i] = e.owner;
+                final Entry first = entries.get(0);
+                sameKind &= e.exact && e.zoned == first.zoned
+                        && e.date.getLiteralDatatype().equals(first.date.getLiteralDatatype());
+            }
+            this.comparable = complete && sameKind;
+        }
+
+        /**
+         * Method returns the date at a position, if no other literal has the same epoch value.
+         * @param position Position of the date.
+         * @return Literal of the date, null if different literals have the same epoch value.
+         */
+        private Node single(final int position) {
+            final long epoch = this.epochs[position];
+            for (int i = this.lowerBound(epoch); i < this.epochs.length && this.epochs[i] == epoch; i += 1) {
+                if (!Objects.equals(this.dates[i], this.dates[position])) {
+                    return null;
+                }
+            }
+            return this.dates[position];
+        }
+
+        /**
+         * Method returns the position of the first date that is not earlier than a given epoch value.
+         * @param epoch Milliseconds since the epoch.
+         * @return Position of the first date not earlier than the epoch value, the number of dates if all
+         *  dates are earlier.
+         */
+        private int lowerBound(final long epoch) {
+            int low = 0;
+            int high = this.epochs.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.epochs[mid] < epoch) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Method returns the position after the last date that is not later than a given epoch value.
+         * @param epoch Milliseconds since the epoch.
+         * @return Position after the last date not later than the epoch value.
+         */
+        private int upperBound(final long epoch) {
+            return epoch == Long.MAX_VALUE ? this.epochs.length : this.lowerBound(epoch + 1);
+        }
+    }
+
+    /**
+     * Indexes resolved by a query execution, the key of an index consists of its graph, link and date property.
+     */
+    private static final class Resolved extends HashMap<List<Object>, RdfDateIndexJena> {
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+    }
+
+}
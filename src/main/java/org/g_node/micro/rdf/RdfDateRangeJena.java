@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.query.QueryBuildException;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterNullIterator;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import com.hp.hpl.jena.sparql.pfunction.PFuncSimpleAndList;
+import com.hp.hpl.jena.sparql.pfunction.PropFuncArg;
+import com.hp.hpl.jena.sparql.pfunction.PropertyFunctionRegistry;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SPARQL property function looking up the dates of a property within a time range via the
+ * {@link RdfDateIndexJena} of the queried graph, instead of filtering and comparing all date literals:
+ * <pre>
+ * ?s report:dateRange (gn:startedAt "2015-01-01T00:00:00"^^xsd:dateTime "2015-12-31"^^xsd:date ?date)
+ * </pre>
+ * The list contains the date property, start and end of the range, both inclusive, and optionally the
+ * variable the dates are bound to. If the subject is a variable, it is bound to all subjects with a date
+ * within the range in ascending order of the dates. Only xsd:dateTime and xsd:date literals are found,
+ * see {@link RdfDateIndexJena}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfDateRangeJena extends PFuncSimpleAndList {
+    /**
+     * URI of the property function.
+     */
+    public static final String FUNCTION_URI = String.join("", RdfConstants.RDF_NS_REPORT, "dateRange");
+    /**
+     * Number of list arguments without the variable of the dates.
+     */
+    private static final int RANGE_ARGS = 3;
+
+    /**
+     * Method registers the property function with the global registry of the SPARQL engine.
+     * Queries using the function have to be compiled after it has been registered.
+     */
+    public static void register() {
+        PropertyFunctionRegistry.get().put(RdfDateRangeJena.FUNCTION_URI, RdfDateRangeJena.class);
+    }
+
+    @Override
+    public void build(final PropFuncArg argSubject, final Node predicate, final PropFuncArg argObject,
+                      final ExecutionContext execCxt) {
+        super.build(argSubject, predicate, argObject, execCxt);
+        final int size = argObject.getArgListSize();
+        if (size != RdfDateRangeJena.RANGE_ARGS && size != RdfDateRangeJena.RANGE_ARGS + 1) {
+            throw new QueryBuildException(String.join("", "report:dateRange requires a list of ",
+                    "date property, start, end and optionally the date variable: ", argObject.toString()));
+        }
+    }
+
+    @Override
+    public QueryIterator execEvaluated(final Binding binding, final Node subject, final Node predicate,
+                                       final PropFuncArg object, final ExecutionContext execCxt) {
+        final Long from = RdfDateIndexJena.epochMillis(object.getArg(1));
+        final Long to = RdfDateIndexJena.epochMillis(object.getArg(2));
+        if (!object.getArg(0).isURI() || from == null || to == null) {
+            return QueryIterNullIterator.create(execCxt);
+        }
+        final Node date = object.getArgListSize() > RdfDateRangeJena.RANGE_ARGS
+                ? object.getArg(RdfDateRangeJena.RANGE_ARGS) : null;
+
+        final RdfDateIndexJena index = RdfDateIndexJena.index(execCxt, null, object.getArg(0));
+        final List<Binding> rows = new ArrayList<>();
+        if (Var.isVar(subject)) {
+            for (final Node[] pair : index.range(from, to)) {
+                final Binding row = RdfDateRangeJena.bind(
+                        BindingFactory.binding(binding, Var.alloc(subject), pair[0]), date, pair[1]);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        } else {
+            for (final Node value : index.range(subject, from, to)) {
+                final Binding row = RdfDateRangeJena.bind(binding, date, value);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+        return new QueryIterPlainWrapper(rows.iterator(), execCxt);
+    }
+
+    /**
+     * Method binds a found date to the date argument of the function.
+     * @param binding Current row.
+     * @param date Date argument of the function, null if there is none.
+     * @param value Found date.
+     * @return Row with the date bound, null if the date argument is a different date.
+     */
+    private static Binding bind(final Binding binding, final Node date, final Node value) {
+        if (date == null) {
+            return binding;
+        } else if (Var.isVar(date)) {
+            return BindingFactory.binding(binding, Var.alloc(date), value);
+        }
+        return date.equals(value) ? binding : null;
+    }
+
+}
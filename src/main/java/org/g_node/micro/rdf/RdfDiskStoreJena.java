@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.tdb.StoreConnection;
+import com.hp.hpl.jena.tdb.TDB;
+import com.hp.hpl.jena.tdb.TDBFactory;
+import com.hp.hpl.jena.tdb.TDBLoader;
+import com.hp.hpl.jena.tdb.base.file.Location;
+import com.hp.hpl.jena.tdb.sys.TDBInternal;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.FileService;
+
+/**
+ * Class loading RDF files into an indexed Jena TDB store in a local directory. The store is built once from
+ * an input file and reused as long as the fingerprint of the input file does not change. Uncompressed files
+ * are loaded using the TDB bulk loader, compressed files are parsed from their decompressed stream. Queries run against
+ * the store are bounded by the page cache of the operating system instead of the maximum heap size.
+ *
+ * The store directory may contain other files: the TDB files are kept in the subdirectory {@code tdb},
+ * which is marked as created by this class, the fingerprint of the input file next to it. Only these files are
+ * removed when the store is built again. An unmarked {@code tdb} directory is never removed.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfDiskStoreJena {
+    /**
+     * File within the store directory containing the fingerprint of the loaded input file.
+     */
+    private static final String SOURCE_FILE = "source.fingerprint";
+    /**
+     * Subdirectory of the store directory containing the TDB files.
+     */
+    private static final String TDB_DIR = "tdb";
+    /**
+     * File within the TDB directory marking it as created by this class.
+     */
+    private static final String MARKER_FILE = "report.store";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfDiskStoreJena.class.getName());
+
+    /**
+     * Directory containing the store files.
+     */
+    private final Path storeDir;
+    /**
+     * Directory containing the TDB files.
+     */
+    private final Path tdbDir;
+
+    /**
+     * Constructor.
+     * @param directory Directory containing the store files, will be created if it does not exist.
+     */
+    public RdfDiskStoreJena(final String directory) {
+        this.storeDir = Paths.get(directory);
+        this.tdbDir = this.storeDir.resolve(RdfDiskStoreJena.TDB_DIR);
+    }
+
+    /**
+     * Method returns the disk backed store configured in the provided settings.
+     * @param options Settings used to load an RDF file.
+     * @return Disk backed store, null if no store directory has been set.
+     */
+    public static RdfDiskStoreJena fromOptions(final RdfLoadOptions options) {
+        if (options.getStoreDir() == null) {
+            return null;
+        }
+        return new RdfDiskStoreJena(options.getStoreDir());
+    }
+
+    /**
+     * Method returns the model of the store containing the data of an RDF file. If the store does not
+     * contain the current data of the file, the store files are removed and the store is built again from the file.
+     * @param fileName Path and filename of an RDF file.
+     * @return Model backed by the disk based store.
+     */
+    public Model load(final String fileName) {
+        return this.load(fileName, null);
+    }
+
+    /**
+     * Method returns the model of the store containing the data of an RDF file, see {@link #load(String)}.
+     * @param fileName Path and filename of an RDF file.
+     * @param inputFingerprint Fingerprint of the file created by the caller, see
+     *  {@link RdfSnapshotCacheJena#fingerprint(String)}, null to create it.
+     * @return Model backed by the disk based store.
+     * @throws RiotException If the TDB directory of the store has not been created by this class.
+     */
+    public Model load(final String fileName, final String inputFingerprint) {
+        final String fingerprint = inputFingerprint != null ? inputFingerprint
+                : RdfSnapshotCacheJena.fingerprint(fileName);
+        final Path sourceFile = this.storeDir.resolve(RdfDiskStoreJena.SOURCE_FILE);
+
+        if (fingerprint != null && fingerprint.equals(this.readSource(sourceFile))) {
+            RdfDiskStoreJena.LOGGER.info(String.join("", "Using store...\t\t(", this.storeDir.toString(), ")"));
+            return TDBFactory.createDataset(this.tdbDir.toString()).getDefaultModel();
+        }
+
+        RdfDiskStoreJena.LOGGER.info(String.join("", "Building store...\t\t(", this.storeDir.toString(), ")"));
+        this.clear(sourceFile);
+        final Dataset dataset = TDBFactory.createDataset(this.tdbDir.toString());
+        if (FileService.getCompressionExtension(fileName) == null) {
+            TDBLoader.load(TDBInternal.getBaseDatasetGraphTDB(dataset.asDatasetGraph()), fileName, false);
+        } else {
+            try (TypedInputStream in = RdfInputJena.open(fileName, new RdfLoadOptions())) {
+                RDFDataMgr.read(dataset.getDefaultModel(), in, RdfInputJena.filenameToLang(fileName));
+            }
+        }
+        TDB.sync(dataset);
+
+        if (fingerprint != null) {
+            try {
+                Files.write(sourceFile, fingerprint.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                RdfDiskStoreJena.LOGGER.warn(
+                        String.join("", "Cannot save store fingerprint...\t(", sourceFile.toString(), ") ",
+                                e.getMessage()));
+            }
+        }
+
+        return dataset.getDefaultModel();
+    }
+
+    /**
+     * Method releases the store in a directory, closing all open store files.
+     * @param directory Directory containing the store files.
+     */
+    public static void release(final String directory) {
+        final Path tdb = Paths.get(directory, RdfDiskStoreJena.TDB_DIR);
+        // Creating the location would create a missing directory, which would not be marked as store.
+        if (Files.isDirectory(tdb)) {
+            StoreConnection.release(Location.create(tdb.toString()));
+        }
+    }
+
+    /**
+     * Method reads the fingerprint of the input file the store has been built from.
+     * @param sourceFile File containing the fingerprint.
+     * @return Fingerprint, null if the store has not been completely built.
+     */
+    private String readSource(final Path sourceFile) {
+        if (!Files.isRegularFile(sourceFile)) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method releases the store and removes the store files to build it again. Other files of the store
+     * directory are kept. The TDB directory is created again and marked as created by this class.
+     * @param sourceFile File containing the fingerprint of the input file.
+     * @throws RiotException If the TDB directory has not been created by this class or cannot be created.
+     */
+    private void clear(final Path sourceFile) {
+        final Path marker = this.tdbDir.resolve(RdfDiskStoreJena.MARKER_FILE);
+        if (Files.exists(this.tdbDir) && !Files.isRegularFile(marker)) {
+            throw new RiotException(String.join("", "Directory ", this.tdbDir.toString(),
+                    " has not been created as store and is not replaced, remove it or use another store directory."));
+        }
+        RdfDiskStoreJena.release(this.storeDir.toString());
+        try {
+            Files.deleteIfExists(sourceFile);
+            if (Files.exists(this.tdbDir)) {
+                try (Stream<Path> files = Files.walk(this.tdbDir)) {
+                    final List<Path> remove = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+                    for (final Path p : remove) {
+                        Files.delete(p);
+                    }
+                }
+            }
+            Files.createDirectories(this.tdbDir);
+            Files.createFile(marker);
+        } catch (IOException e) {
+            throw new RiotException(String.join("", "Cannot prepare store files...\t(", this.tdbDir.toString(), ") ",
+                    e.getMessage()));
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.riot.system.ErrorHandler;
+
+/**
+ * Jena RIOT {@link ErrorHandler} collecting the first parser messages and their positions
+ * instead of logging them. Warnings and errors do not stop the parser, fatal errors still do.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class RdfErrorCollector implements ErrorHandler {
+    /**
+     * Maximum number of messages that are kept.
+     */
+    private final int maxMessages;
+    /**
+     * Collected messages including their positions.
+     */
+    private final List<String> messages = new ArrayList<>();
+    /**
+     * Number of errors and fatal errors encountered by the parser.
+     */
+    private long errorCount;
+
+    /**
+     * Constructor.
+     * @param maxKeep Maximum number of messages that are kept.
+     */
+    RdfErrorCollector(final int maxKeep) {
+        this.maxMessages = maxKeep;
+    }
+
+    @Override
+    public void warning(final String message, final long line, final long col) {
+        this.collect("WARN", message, line, col);
+    }
+
+    @Override
+    public void error(final String message, final long line, final long col) {
+        this.errorCount += 1;
+        this.collect("ERROR", message, line, col);
+    }
+
+    /**
+     * Fatal errors stop the parser. They are collected via {@link #collectFatal(RiotException)} by the caller
+     * of the parser, since the Jena tokenizer throws fatal errors without passing them to the error handler.
+     * @param message Parser message.
+     * @param line Line of the error position.
+     * @param col Column of the error position.
+     */
+    @Override
+    public void fatal(final String message, final long line, final long col) {
+        throw new RiotParseException(message, line, col);
+    }
+
+    /**
+     * Method stores the message and position of a fatal error that stopped the parser.
+     * @param e Exception thrown by the parser.
+     */
+    void collectFatal(final RiotException e) {
+        this.errorCount += 1;
+        if (e instanceof RiotParseException) {
+            final RiotParseException pe = (RiotParseException) e;
+            this.collect("FATAL", pe.getOriginalMessage(), pe.getLine(), pe.getCol());
+        } else {
+            this.collect("FATAL", e.getMessage(), -1, -1);
+        }
+    }
+
+    /**
+     * Method returns the collected messages.
+     * @return List of messages including their positions.
+     */
+    List<String> getMessages() {
+        return this.messages;
+    }
+
+    /**
+     * Method returns the number of errors and fatal errors encountered by the parser.
+     * @return Number of errors.
+     */
+    long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * Method stores a message with its position, if the maximum number of messages has not yet been reached.
+     * @param severity Severity of the message.
+     * @param message Parser message.
+     * @param line Line of the message position, -1 if unknown.
+     * @param col Column of the message position, -1 if unknown.
+     */
+    private void collect(final String severity, final String message, final long line, final long col) {
+        if (this.messages.size() < this.maxMessages) {
+            this.messages.add(
+                    String.join("", "[", severity, "] [line: ", String.valueOf(line),
+                            ", col: ", String.valueOf(col), "] ", message));
+        }
+    }
+
+}
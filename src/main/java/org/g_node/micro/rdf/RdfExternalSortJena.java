@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIteratorBase;
+import com.hp.hpl.jena.sparql.serializer.SerializationContext;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.log4j.Logger;
+
+/**
+ * Class sorting the rows of a query in bounded memory. Rows are sorted in runs of a fixed number of rows,
+ * if the rows do not fit into a single run, every run is written to a temporary file in the binary
+ * RDF Thrift result format, see {@link RdfSortRunJena}. The runs are merged while the sorted rows are read,
+ * only the current row of every run is held in memory. At most {@link #MAX_MERGE_RUNS} runs are merged
+ * at once, more runs are first merged in groups into fewer, longer runs. Rows that are equal according
+ * to the sort order keep the order of the input, the sorted rows are therefore the same as the rows
+ * of an in-memory sort. This does not hold for sort keys mixing numeric literals and plain literals
+ * of numbers, since SPARQL does not order them consistently; rows are still sorted, but equal rows
+ * may be returned in a different order.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfExternalSortJena extends QueryIteratorBase {
+    /**
+     * Default number of rows sorted in memory.
+     */
+    public static final int DEFAULT_RUN_ROWS = 100000;
+    /**
+     * Maximum number of runs merged at once, limiting the number of open run files.
+     */
+    static final int MAX_MERGE_RUNS = 64;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfExternalSortJena.class.getName());
+
+    /**
+     * Rows that are sorted.
+     */
+    private final QueryIterator input;
+    /**
+     * Sort order of the rows.
+     */
+    private final Comparator<Binding> comparator;
+    /**
+     * Maximum number of rows sorted in memory.
+     */
+    private final int runRows;
+    /**
+     * Directory of the temporary run files.
+     */
+    private final Path spillDir;
+    /**
+     * Temporary runs, they are removed when the iterator is closed.
+     */
+    private final List<RdfSortRunJena> runs = new ArrayList<>();
+    /**
+     * Number of runs written from the input rows.
+     */
+    private int spilledRuns;
+    /**
+     * Sorted rows, null before the input has been sorted.
+     */
+    private Iterator<Binding> sorted;
+
+    /**
+     * Constructor.
+     * @param rows Rows that are sorted.
+     * @param order Sort order of the rows.
+     * @param maxRunRows Maximum number of rows sorted in memory.
+     * @param directory Directory of the temporary run files, null to use the default temporary directory.
+     */
+    public RdfExternalSortJena(final QueryIterator rows, final Comparator<Binding> order, final int maxRunRows,
+                               final String directory) {
+        this.input = rows;
+        this.comparator = order;
+        this.runRows = maxRunRows;
+        this.spillDir = Paths.get(directory != null ? directory : System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Method returns the number of runs written to temporary files.
+     * @return Number of spilled runs, 0 if all rows have been sorted in memory.
+     */
+    public int getSpilledRuns() {
+        return this.spilledRuns;
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if (this.sorted == null) {
+            this.sortRuns();
+        }
+        return this.sorted.hasNext();
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        return this.sorted.next();
+    }
+
+    @Override
+    protected void closeIterator() {
+        this.input.close();
+        this.runs.forEach(RdfSortRunJena::close);
+    }
+
+    @Override
+    protected void requestCancel() {
+        this.input.cancel();
+    }
+
+    @Override
+    public void output(final IndentedWriter out, final SerializationContext sCxt) {
+        out.print(String.join("", "RdfExternalSortJena runRows=", String.valueOf(this.runRows)));
+    }
+
+    /**
+     * Method reads all input rows, sorts them in runs and prepares merging the runs.
+     * A single run is kept in memory, if all rows fit into it.
+     */
+    private void sortRuns() {
+        List<Binding> run = this.readRun();
+        if (!this.input.hasNext()) {
+            this.sorted = run.iterator();
+            return;
+        }
+
+        List<RdfSortRunJena> level = new ArrayList<>();
+        while (!run.isEmpty()) {
+            final Set<Var> vars = new LinkedHashSet<>();
+            run.forEach(row -> row.vars().forEachRemaining(vars::add));
+            level.add(this.spill(Var.varNames(vars), run.iterator()));
+            run = this.readRun();
+        }
+        this.spilledRuns = level.size();
+        RdfExternalSortJena.LOGGER.info(String.join("", "Merging ", String.valueOf(level.size()),
+                " sorted runs of ", String.valueOf(this.runRows), " rows..."));
+
+        while (level.size() > RdfExternalSortJena.MAX_MERGE_RUNS) {
+            level = this.mergePass(level);
+        }
+        this.sorted = new RunMerge(level, this.comparator);
+    }
+
+    /**
+     * Method merges consecutive groups of at most {@link #MAX_MERGE_RUNS} runs into one run each
+     * and removes the merged runs. Since the runs stay in order, equal rows keep the order of the input.
+     * @param level Runs that are merged.
+     * @return Merged runs.
+     */
+    private List<RdfSortRunJena> mergePass(final List<RdfSortRunJena> level) {
+        final List<RdfSortRunJena> merged = new ArrayList<>();
+        for (int i = 0; i < level.size(); i += RdfExternalSortJena.MAX_MERGE_RUNS) {
+            final List<RdfSortRunJena> group =
+                    level.subList(i, Math.min(level.size(), i + RdfExternalSortJena.MAX_MERGE_RUNS));
+            final Set<String> vars = new LinkedHashSet<>();
+            group.forEach(r -> vars.addAll(r.getVarNames()));
+            merged.add(this.spill(new ArrayList<>(vars), new RunMerge(group, this.comparator)));
+            group.forEach(RdfSortRunJena::close);
+        }
+        return merged;
+    }
+
+    /**
+     * Method reads and sorts the next run of input rows.
+     * @return Sorted rows, empty if all input rows have been read.
+     */
+    private List<Binding> readRun() {
+        final List<Binding> run = new ArrayList<>();
+        while (run.size() < this.runRows && this.input.hasNext()) {
+            run.add(this.input.next());
+        }
+        Collections.sort(run, this.comparator);
+        return run;
+    }
+
+    /**
+     * Method writes sorted rows to a temporary run file.
+     * @param varNames Names of all variables bound in the rows.
+     * @param rows Sorted rows.
+     * @return Run of the written rows.
+     */
+    private RdfSortRunJena spill(final List<String> varNames, final Iterator<Binding> rows) {
+        final RdfSortRunJena run = RdfSortRunJena.write(this.spillDir, varNames, rows);
+        this.runs.add(run);
+        return run;
+    }
+
+    /**
+     * Iterator merging sorted runs, rows of earlier runs come first if they are equal.
+     */
+    private static final class RunMerge implements Iterator<Binding> {
+        /**
+         * Sort order of the rows.
+         */
+        private final Comparator<Binding> comparator;
+        /**
+         * Current row of every run that has not been read completely.
+         */
+        private final PriorityQueue<RunHead> heads;
+
+        /**
+         * Constructor opens the runs and reads their first rows.
+         * @param runs Sorted runs.
+         * @param order Sort order of the rows.
+         */
+        RunMerge(final List<RdfSortRunJena> runs, final Comparator<Binding> order) {
+            this.comparator = order;
+            this.heads = new PriorityQueue<>(Math.max(1, runs.size()), this::compare);
+            for (int i = 0; i < runs.size(); i += 1) {
+                final RdfSortRunJena run = runs.get(i).open();
+                if (run.hasNext()) {
+                    this.heads.add(new RunHead(i, run));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.heads.isEmpty();
+        }
+
+        @Override
+        public Binding next() {
+            final RunHead head = this.heads.poll();
+            final Binding row = head.row;
+            if (head.rows.hasNext()) {
+                head.row = head.rows.next();
+                this.heads.add(head);
+            }
+            return row;
+        }
+
+        /**
+         * Method compares the current rows of two runs, using the index of the runs for equal rows.
+         * @param a Current row of a run.
+         * @param b Current row of another run.
+         * @return Negative, zero or positive if the row of a comes before, with or after the row of b.
+         */
+        private int compare(final RunHead a, final RunHead b) {
+            final int cmp = this.comparator.compare(a.row, b.row);
+            return cmp != 0 ? cmp : Integer.compare(a.index, b.index);
+        }
+    }
+
+    /**
+     * Current row of a sorted run.
+     */
+    private static final class RunHead {
+        /**
+         * Index of the run, rows of earlier runs come first if they are equal.
+         */
+        private final int index;
+        /**
+         * Remaining rows of the run.
+         */
+        private final Iterator<Binding> rows;
+        /**
+         * Current row of the run.
+         */
+        private Binding row;
+
+        /**
+         * Constructor reads the first row of a run.
+         * @param runIndex Index of the run.
+         * @param runRows Rows of the run, containing at least one row.
+         */
+        RunHead(final int runIndex, final Iterator<Binding> runRows) {
+            this.index = runIndex;
+            this.rows = runRows;
+            this.row = runRows.next();
+        }
+    }
+
+}
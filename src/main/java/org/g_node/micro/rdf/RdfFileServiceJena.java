@@ -10,8 +10,8 @@
 
 package org.g_node.micro.rdf;
 
+import com.hp.hpl.jena.query.QueryCancelledException;
 import com.hp.hpl.jena.query.ResultSet;
-import com.hp.hpl.jena.query.ResultSetFormatter;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
 import com.hp.hpl.jena.sparql.util.Context;
@@ -19,6 +19,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
@@ -36,9 +40,12 @@ import org.apache.jena.riot.ReaderRIOTFactory;
 import org.apache.jena.riot.RiotException;
 import org.apache.jena.riot.SysRIOT;
 import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.lang.StreamRDFCounting;
+import org.apache.jena.riot.system.ErrorHandler;
 import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.riot.system.StreamRDFLib;
 import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CountingInputStream;
 import org.g_node.micro.commons.FileService;
 
 /**
@@ -82,23 +89,78 @@ public final class RdfFileServiceJena {
             Collections.unmodifiableMap(new HashMap<String, String>(0) {
                 {
                     put("CSV", "csv");
+                    put("TSV", "tsv");
+                    put("JSONL", "jsonl");
                 }
             });
 
+    /**
+     * Query results of this RDFService can be compressed using these compression formats.
+     * Map keys should always be upper case.
+     * Map values correspond to the file extensions that are appended to the files of compressed query results.
+     */
+    public static final Map<String, String> RESULT_COMPRESSION_FORMATS =
+            Collections.unmodifiableMap(new HashMap<String, String>(0) {
+                {
+                    put("GZIP", "gz");
+                    put("BZIP2", "bz2");
+                    put("XZ", "xz");
+                }
+            });
+
+    /**
+     * Default maximum number of parser errors reported by {@link #validateRdfFile(String, int)}.
+     */
+    public static final int DEFAULT_MAX_VALIDATION_ERRORS = 10;
+
+    /**
+     * Minimum interval of writing the buffered rows of streamed results to the output file in milliseconds.
+     */
+    public static final long STREAM_FLUSH_MILLIS = 100L;
+
     /**
      * Access to the main LOGGER.
      */
     private static final Logger LOGGER = Logger.getLogger(RdfFileServiceJena.class.getName());
 
+    /**
+     * Result writers of each thread by output format, the output buffer of a writer is reused
+     * for all reports of its thread.
+     */
+    private static final ThreadLocal<Map<String, AbstractRdfResultWriterJena>> RESULT_WRITERS =
+            ThreadLocal.withInitial(HashMap::new);
+
     /**
      * Open an RDF file, load the data and return the RDF model. Method will not check,
      * if the file is actually a valid RDF file or if the file extension matches
-     * the content of the file.
+     * the content of the file. Local N-Triples and N-Quads files are loaded in parallel
+     * using {@link RdfChunkLoaderJena}.
      * @param fileName Path and filename of a valid RDF file.
      * @return Model created from the data within the provided RDF file.
      */
     public static Model openModelFromFile(final String fileName) {
-        return RDFDataMgr.loadModel(fileName);
+        return RdfFileServiceJena.openModelFromFile(fileName, new RdfLoadOptions());
+    }
+
+    /**
+     * Open an RDF file using the provided settings, load the data and return the RDF model. Method will not
+     * check, if the file is actually a valid RDF file or if the file extension matches the content of the file.
+     * Local N-Triples and N-Quads files are loaded in parallel using {@link RdfChunkLoaderJena}.
+     * If a snapshot cache is set, unchanged files are loaded from their binary snapshot. If incremental loading
+     * is set as well, only data appended to a file since the last load is parsed, see {@link RdfIncrementalLoaderJena}.
+     * If a store directory is set, the returned model is backed by the disk based {@link RdfDiskStoreJena}.
+     * Otherwise, if freezing is set, the loaded model is replaced by a read-only {@link FrozenGraphJena}.
+     * @param fileName Path and filename of a valid RDF file.
+     * @param options Settings used to load the file.
+     * @return Model created from the data within the provided RDF file.
+     */
+    public static Model openModelFromFile(final String fileName, final RdfLoadOptions options) {
+        final RdfDiskStoreJena store = RdfDiskStoreJena.fromOptions(options);
+        if (store != null) {
+            return store.load(fileName, options.getFingerprint());
+        }
+        final Model model = RdfFileServiceJena.loadModel(fileName, options);
+        return options.isFrozen() ? FrozenGraphJena.freeze(model) : model;
     }
 
     /**
@@ -107,53 +169,196 @@ public final class RdfFileServiceJena {
      * not close a file stream properly, if the content type of a file cannot be determined. Only after the
      * program is closed, the file will be accessible again. Maybe this issue will be resolved in
      * a later Apache Jena version.
+     * The parsed triples are discarded, the check does not keep the data of the file in memory.
      * @param uri Uri of the file to be checked.
      * @return True if file can be parsed as RDF or false if not.
      */
     public static boolean isValidRdfFile(final String uri) {
-        final Model m = ModelFactory.createDefaultModel();
+        try {
+            RdfFileServiceJena.parseRdfFile(uri, StreamRDFLib.sinkNull(), null, new RdfLoadOptions());
+        } catch (RiotException e) {
+            RdfFileServiceJena.logLoadError(uri, e);
+            return false;
+        }
+        return true;
+    }
 
-        final String base = SysRIOT.chooseBaseIRI(uri);
-        final Lang hintLang = RDFLanguages.filenameToLang(uri);
-        final Context context = null;
-        final StreamRDF dest = StreamRDFLib.graph(m.getGraph());
+    /**
+     * Method validates an RDF file without keeping the parsed data. Parsed triples are only counted,
+     * memory usage of the validation is therefore independent from the size of the file.
+     * Warnings and errors do not stop the validation, a fatal error does.
+     * @param uri Uri of the file to be validated.
+     * @param maxErrors Maximum number of errors and warnings that are reported including their positions.
+     * @return Instance of {@link RdfValidationReport} containing the number of parsed triples,
+     *  the number of bytes read and the first errors encountered by the parser.
+     */
+    public static RdfValidationReport validateRdfFile(final String uri, final int maxErrors) {
+        final StreamRDFCounting dest = StreamRDFLib.count();
+        final RdfErrorCollector errorCollector = new RdfErrorCollector(maxErrors);
 
         TypedInputStream in = null;
+        CountingInputStream countIn = null;
         try {
-            in = RDFDataMgr.open(uri, context);
-
-            final ContentType ct = WebContent.determineCT(in.getContentType(), hintLang, base);
-            if (ct == null) {
-                throw new RiotException(
-                        String.join("", "Failed to determine the content type: (URI=",
-                                base, " : stream=", in.getContentType(), ")"
-                        ));
-            }
+            in = RdfInputJena.open(uri, new RdfLoadOptions());
+            countIn = new CountingInputStream(in);
+            RdfFileServiceJena.readRdfStream(uri, countIn, in.getContentType(), dest, errorCollector);
+        } catch (RiotException e) {
+            errorCollector.collectFatal(e);
+        } finally {
+            IO.close(in);
+        }
 
-            final Lang lang = RDFLanguages.contentTypeToLang(ct);
-            final ReaderRIOTFactory r = RDFParserRegistry.getFactory(lang);
-            ReaderRIOT reader = null;
+        final long bytesRead = countIn == null ? 0 : countIn.getCount();
+        final RdfValidationReport report = new RdfValidationReport(
+                errorCollector.getErrorCount() == 0, dest.count(), bytesRead, errorCollector.getMessages());
 
-            if (r != null) {
-                reader = r.create(lang);
-            }
+        RdfFileServiceJena.LOGGER.info(
+                String.join("", "Validated file '", uri, "'...\t\t(", String.valueOf(report.getTripleCount()),
+                        " triples, ", String.valueOf(report.getBytesRead()), " bytes read)"));
+        report.getErrors().forEach(RdfFileServiceJena.LOGGER::error);
 
-            if (reader == null) {
-                throw new RiotException(
-                        String.join("", "No parser registered for content type: ", ct.getContentType()));
-            }
-            reader.read(in, base, ct, dest, context);
+        return report;
+    }
 
-            IO.close(in);
+    /**
+     * Method validates and loads an RDF file in a single parse. If the file can be parsed, the
+     * returned {@link RdfLoadResult} contains the RDF model, otherwise it contains the error message
+     * of the parser. Use this method instead of {@link #isValidRdfFile(String)} followed by
+     * {@link #openModelFromFile(String)} to avoid parsing the same file twice.
+     * @param uri Uri of the file to be loaded.
+     * @return Instance of {@link RdfLoadResult} containing either the loaded model or the parser error message.
+     */
+    public static RdfLoadResult loadValidRdfFile(final String uri) {
+        return RdfFileServiceJena.loadValidRdfFile(uri, new RdfLoadOptions());
+    }
+
+    /**
+     * Method validates and loads an RDF file in a single parse using the provided settings.
+     * @param uri Uri of the file to be loaded.
+     * @param options Settings used to load the file.
+     * @return Instance of {@link RdfLoadResult} containing either the loaded model or the parser error message.
+     */
+    public static RdfLoadResult loadValidRdfFile(final String uri, final RdfLoadOptions options) {
+        try {
+            return RdfLoadResult.success(RdfFileServiceJena.openModelFromFile(uri, options));
         } catch (RiotException e) {
+            RdfFileServiceJena.logLoadError(uri, e);
+            return RdfLoadResult.failure(e.getMessage());
+        }
+    }
+
+    /**
+     * Method loads an RDF file into an in-memory model, using the snapshot cache if it is set.
+     * @param fileName Path and filename of a valid RDF file.
+     * @param options Settings used to load the file.
+     * @return Model containing the data of the file.
+     * @throws RiotException If the file cannot be found or parsed.
+     */
+    private static Model loadModel(final String fileName, final RdfLoadOptions options) {
+        final RdfSnapshotCacheJena cache = RdfSnapshotCacheJena.fromOptions(options);
+        if (cache != null && options.isIncremental() && RdfIncrementalLoaderJena.isAppendable(fileName)) {
+            return RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        }
+        if (cache != null) {
+            return cache.load(fileName, options.getFingerprint(),
+                    () -> RdfFileServiceJena.parseModel(fileName, options));
+        }
+        return RdfFileServiceJena.parseModel(fileName, options);
+    }
+
+    /**
+     * Method parses an RDF file into a new model. Local N-Triples and N-Quads files are parsed
+     * in parallel using {@link RdfChunkLoaderJena}, other files are parsed and inserted into the model
+     * using the load pipeline configured in the settings.
+     * @param uri Uri of the file to be parsed.
+     * @param options Settings used to read the file.
+     * @return Model containing the data of the file.
+     * @throws RiotException If the file cannot be found or parsed.
+     */
+    private static Model parseModel(final String uri, final RdfLoadOptions options) {
+        if (RdfChunkLoaderJena.isChunkable(uri)) {
+            return RdfChunkLoaderJena.loadModel(uri, options);
+        }
+        final Model m = ModelFactory.createDefaultModel();
+        RdfPipelineStreamJena.load(
+                m.getGraph(), options, dest -> RdfFileServiceJena.parseRdfFile(uri, dest, null, options));
+        return m;
+    }
+
+    /**
+     * Method parses an RDF file and sends the parsed triples to a {@link StreamRDF} destination.
+     * The file stream is always closed, even if the content type of the file cannot be determined.
+     * @param uri Uri of the file to be parsed.
+     * @param dest Destination of the parsed triples.
+     * @param errorHandler Error handler used by the parser, the Jena default error handler is used if null.
+     * @param options Settings used to read the file.
+     * @throws RiotException If the file cannot be found or parsed.
+     */
+    private static void parseRdfFile(final String uri, final StreamRDF dest, final ErrorHandler errorHandler,
+                                     final RdfLoadOptions options) {
+        TypedInputStream in = null;
+        try {
+            in = RdfInputJena.open(uri, options);
+            RdfFileServiceJena.readRdfStream(uri, in, in.getContentType(), dest, errorHandler);
+        } finally {
             IO.close(in);
-            RdfFileServiceJena.LOGGER.error(
-                    String.join("",
-                            "Failed to load file '", uri, "'. Ensure it is a valid RDF file.",
-                            "\n\t\tActual error message: ", e.getMessage()));
-            return false;
         }
-        return true;
+    }
+
+    /**
+     * Method parses RDF data from an already opened input stream and sends the parsed triples to a
+     * {@link StreamRDF} destination. The RDF language is determined from the content type of the stream
+     * and the file extension of the uri, skipping the extension of a compression format.
+     * The input stream is not closed by this method.
+     * @param uri Uri of the file the input stream was opened from.
+     * @param in Input stream containing the RDF data.
+     * @param streamContentType Content type reported by the input stream, can be null.
+     * @param dest Destination of the parsed triples.
+     * @param errorHandler Error handler used by the parser, the Jena default error handler is used if null.
+     * @throws RiotException If the content type cannot be determined or the data cannot be parsed.
+     */
+    private static void readRdfStream(final String uri, final InputStream in, final String streamContentType,
+                                      final StreamRDF dest, final ErrorHandler errorHandler) {
+        final String base = SysRIOT.chooseBaseIRI(uri);
+        final Lang hintLang = RdfInputJena.filenameToLang(uri);
+        final Context context = null;
+
+        final ContentType ct = WebContent.determineCT(streamContentType, hintLang, base);
+        if (ct == null) {
+            throw new RiotException(
+                    String.join("", "Failed to determine the content type: (URI=",
+                            base, " : stream=", streamContentType, ")"
+                    ));
+        }
+
+        final Lang lang = RDFLanguages.contentTypeToLang(ct);
+        final ReaderRIOTFactory r = RDFParserRegistry.getFactory(lang);
+        ReaderRIOT reader = null;
+
+        if (r != null) {
+            reader = r.create(lang);
+        }
+
+        if (reader == null) {
+            throw new RiotException(
+                    String.join("", "No parser registered for content type: ", ct.getContentType()));
+        }
+        if (errorHandler != null) {
+            reader.setErrorHandler(errorHandler);
+        }
+        reader.read(in, base, ct, dest, context);
+    }
+
+    /**
+     * Method logs why an RDF file could not be loaded.
+     * @param uri Uri of the file that could not be loaded.
+     * @param e Exception thrown by the parser.
+     */
+    private static void logLoadError(final String uri, final RiotException e) {
+        RdfFileServiceJena.LOGGER.error(
+                String.join("",
+                        "Failed to load file '", uri, "'. Ensure it is a valid RDF file.",
+                        "\n\t\tActual error message: ", e.getMessage()));
     }
 
     /**
@@ -193,42 +398,89 @@ public final class RdfFileServiceJena {
             RdfFileServiceJena.LOGGER.error(String.join("", "Could not open output file ", fileName));
         }
     }
+    /**
+     * Method returns the name of the file query results are saved to, the file extension
+     * of the output format is appended if the provided filename does not end with it. The extension of
+     * a supported compression format is skipped, e.g. "out.csv.gz" is kept as it is.
+     * @param fileName String containing Path and Name of the file the results are written to.
+     * @param resultFileFormat String containing a {@link #QUERY_RESULT_FILE_FORMATS} entry.
+     * @return Path and Name of the output file.
+     */
+    public static String resultFileName(final String fileName, final String resultFileFormat) {
+        final String fileExt = QUERY_RESULT_FILE_FORMATS.get(resultFileFormat.toUpperCase(Locale.ENGLISH));
+        return !FileService.checkFileExtension(
+                FileService.stripCompressionExtension(fileName), fileExt.toUpperCase(Locale.ENGLISH))
+                ? String.join("", fileName, ".", fileExt) : fileName;
+    }
+
+    /**
+     * Method returns the name of the file compressed query results are saved to, the file extensions
+     * of the output format and of the compression format are appended if required. The extension of
+     * another compression format is replaced.
+     * @param fileName String containing Path and Name of the file the results are written to.
+     * @param resultFileFormat String containing a {@link #QUERY_RESULT_FILE_FORMATS} entry.
+     * @param compression String containing a {@link #RESULT_COMPRESSION_FORMATS} entry,
+     *  null if the results are not compressed.
+     * @return Path and Name of the output file.
+     */
+    public static String resultFileName(final String fileName, final String resultFileFormat,
+                                        final String compression) {
+        if (compression == null) {
+            return RdfFileServiceJena.resultFileName(fileName, resultFileFormat);
+        }
+        final String compressionExt = RESULT_COMPRESSION_FORMATS.get(compression.toUpperCase(Locale.ENGLISH));
+        return String.join("", RdfFileServiceJena.resultFileName(
+                FileService.stripCompressionExtension(fileName), resultFileFormat), ".", compressionExt);
+    }
+
     /**
      * Helper method saving a JENA RDF {@link ResultSet} to an output file in a specified output format.
+     * The rows are written while they are read from the result set, see {@link AbstractRdfResultWriterJena}.
+     * If the filename ends with the extension of a supported compression format, the results are compressed
+     * on a thread pool, see {@link org.g_node.micro.commons.ParallelCompressorChannel}.
      * @param result JENA RDF {@link ResultSet} that will be saved.
      * @param resultFileFormat String containing a {@link #QUERY_RESULT_FILE_FORMATS} entry.
      * @param fileName String containing Path and Name of the file the results are written to.
+     * @throws QueryCancelledException If the query of the results is cancelled while the results are written,
+     *  the partially written file is removed.
      */
     public static void saveResultsToSupportedFile(final ResultSet result,
                                                   final String resultFileFormat,
                                                   final String fileName) {
+        RdfFileServiceJena.saveResults(result, resultFileFormat, fileName, 0);
+    }
+
+    /**
+     * Method saves a JENA RDF {@link ResultSet} to a single output file,
+     * see {@link #saveResultsToSupportedFile(ResultSet, String, String)}.
+     * @param result JENA RDF {@link ResultSet} that will be saved.
+     * @param resultFileFormat String containing a {@link #QUERY_RESULT_FILE_FORMATS} entry.
+     * @param fileName String containing Path and Name of the file the results are written to.
+     * @param flushMillis Interval of writing buffered rows to the file in milliseconds, 0 to only write
+     *  full buffers, see {@link AbstractRdfResultWriterJena#write(ResultSet, Path, long)}.
+     */
+    private static void saveResults(final ResultSet result, final String resultFileFormat, final String fileName,
+                                    final long flushMillis) {
 
         final String resFileFormat = resultFileFormat.toUpperCase(Locale.ENGLISH);
 
         if (QUERY_RESULT_FILE_FORMATS.containsKey(resFileFormat)) {
 
-            final String fileExt = QUERY_RESULT_FILE_FORMATS.get(resFileFormat);
-            final String outFile = !FileService.checkFileExtension(fileName, fileExt.toUpperCase(Locale.ENGLISH))
-                    ? String.join("", fileName, ".", fileExt) : fileName;
+            final String outFile = RdfFileServiceJena.resultFileName(fileName, resFileFormat);
 
             try {
-                final File file = new File(outFile);
-
-                if (!file.exists()) {
-                    file.createNewFile();
-                }
-
-                final FileOutputStream fop = new FileOutputStream(file);
-
+                final Path file = Paths.get(outFile);
                 RdfFileServiceJena.LOGGER.info(String.join("", "Write query to file...\t\t(", outFile, ")"));
 
-                if ("CSV".equals(resFileFormat)) {
-                    ResultSetFormatter.outputAsCSV(fop, result);
+                try {
+                    RdfFileServiceJena.RESULT_WRITERS.get()
+                            .computeIfAbsent(resFileFormat, AbstractRdfResultWriterJena::forFormat)
+                            .write(result, file, flushMillis);
+                } catch (QueryCancelledException exc) {
+                    Files.deleteIfExists(file);
+                    throw exc;
                 }
 
-                fop.flush();
-                fop.close();
-
             } catch (IOException e) {
                 RdfFileServiceJena.LOGGER.error(String.join("", "Cannot write to file...\t\t(", outFile, ")"));
                 RdfFileServiceJena.LOGGER.error(e.getMessage());
@@ -241,4 +493,43 @@ public final class RdfFileServiceJena {
         }
     }
 
+    /**
+     * Helper method saving a JENA RDF {@link ResultSet} to output files in a specified output format.
+     * If the options of the report contain a partition column, the results are written to one output file
+     * per distinct value of the column, see {@link RdfPartitionWriterJena}. The results are saved to a single
+     * output file otherwise, see {@link #saveResultsToSupportedFile(ResultSet, String, String)}. The first row
+     * of streamed results is written to the file as soon as it is bound. The buffered rows are written again
+     * when the next row is bound at least {@link #STREAM_FLUSH_MILLIS} milliseconds later, rows buffered before
+     * a pause of the query are therefore written with the next row or at the end of the results.
+     * @param result JENA RDF {@link ResultSet} that will be saved.
+     * @param fileName String containing Path and Name of the file the results are written to, the partition
+     *  values are inserted into the name of this file.
+     * @param options Options of the report containing the output format and the partition column.
+     * @throws QueryCancelledException If the query of the results is cancelled while the results are written,
+     *  the partially written files are removed.
+     */
+    public static void saveResultsToSupportedFile(final ResultSet result, final String fileName,
+                                                  final RdfReportOptions options) {
+        final String resultFileFormat = options.getOutputFormat();
+        if (options.getPartitionColumn() == null
+                || !QUERY_RESULT_FILE_FORMATS.containsKey(resultFileFormat.toUpperCase(Locale.ENGLISH))) {
+            RdfFileServiceJena.saveResults(result, resultFileFormat, fileName,
+                    options.isStreamed() ? RdfFileServiceJena.STREAM_FLUSH_MILLIS : 0);
+            return;
+        }
+
+        final String outFile = RdfFileServiceJena.resultFileName(fileName, resultFileFormat);
+        RdfFileServiceJena.LOGGER.info(String.join("", "Write query partitioned by ", options.getPartitionColumn(),
+                " to files...\t\t(", outFile, ")"));
+        try {
+            final int files = RdfPartitionWriterJena.forOptions(options)
+                    .write(result, Paths.get(outFile)).size();
+            RdfFileServiceJena.LOGGER.info(String.join("", "Wrote ", String.valueOf(files), " files..."));
+        } catch (IOException e) {
+            RdfFileServiceJena.LOGGER.error(String.join("", "Cannot write to files...\t\t(", outFile, ")"));
+            RdfFileServiceJena.LOGGER.error(e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
 }
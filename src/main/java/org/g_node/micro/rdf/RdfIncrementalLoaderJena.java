@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.SysRIOT;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.AppUtils;
+import org.g_node.micro.commons.FileRangeInputStream;
+import org.g_node.micro.commons.FileService;
+
+/**
+ * Class loading RDF files that only grow by appending data at their end. After a file has been loaded, the model
+ * is saved as a snapshot in the {@link RdfSnapshotCacheJena} together with the state of the parser: the number of
+ * bytes loaded, the declared base IRI and the blank node seed. The prefixes are part of the snapshot.
+ * On the next load only the appended tail of the file is parsed into the model of the snapshot. If the start or
+ * the end of the previously loaded region of the file has changed, the whole file is loaded again.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfIncrementalLoaderJena {
+    /**
+     * RDF languages of files that can be loaded incrementally.
+     */
+    private static final List<Lang> APPENDABLE_LANGS = Collections.unmodifiableList(Arrays.asList(
+            RDFLanguages.TURTLE, RDFLanguages.NTRIPLES, RDFLanguages.NQUADS, RDFLanguages.TRIG));
+    /**
+     * File extension of the parser state files.
+     */
+    private static final String STATE_EXTENSION = ".state";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfIncrementalLoaderJena.class.getName());
+
+    /**
+     * Method checks if a file can be loaded incrementally, which is the case for uncompressed local files
+     * of an RDF language where data can be appended without changing the data before.
+     * @param fileName Path and filename of an RDF file.
+     * @return True if the file can be loaded incrementally, false otherwise.
+     */
+    public static boolean isAppendable(final String fileName) {
+        return RdfIncrementalLoaderJena.APPENDABLE_LANGS.contains(RDFLanguages.filenameToLang(fileName))
+                && FileService.getCompressionExtension(fileName) == null
+                && RdfInputJena.localFile(fileName) != null;
+    }
+
+    /**
+     * Load an RDF file incrementally. If a snapshot and the parser state of a previous load of the same file
+     * exist and the previously loaded region is unchanged, only the appended data is parsed.
+     * Otherwise the whole file is loaded. The snapshot and the parser state are updated afterwards.
+     * @param fileName Path and filename of a local RDF file, see {@link #isAppendable(String)}.
+     * @param cache Snapshot cache containing the snapshots and parser states.
+     * @return Model containing the data of the file.
+     * @throws RiotException If the file cannot be read or parsed.
+     */
+    public static Model loadModel(final String fileName, final RdfSnapshotCacheJena cache) {
+        final Path file = Paths.get(fileName).toAbsolutePath();
+        final String key = AppUtils.getHashSHA256(Collections.singletonList(file.toString()));
+        final Path snapshot = cache.snapshotPath(key);
+        final Path stateFile = cache.getCacheDir().resolve(
+                String.join("", key, RdfIncrementalLoaderJena.STATE_EXTENSION));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final RdfLoadState previous = RdfLoadState.read(stateFile);
+
+            Model model = null;
+            if (previous != null && previous.isUnchangedRegion(channel)) {
+                model = cache.readSnapshot(snapshot);
+            }
+            if (model != null && previous.getOffset() == size) {
+                RdfIncrementalLoaderJena.LOGGER.info(String.join("", "File unchanged...\t\t(", fileName, ")"));
+                return model;
+            }
+
+            final RdfLoadState state;
+            if (model != null) {
+                RdfIncrementalLoaderJena.LOGGER.info(
+                        String.join("", "Loading appended data...\t(", String.valueOf(size - previous.getOffset()),
+                                " bytes)"));
+                state = RdfIncrementalLoaderJena.parse(channel, fileName, size, model, previous);
+            } else {
+                RdfIncrementalLoaderJena.LOGGER.info(String.join("", "Loading complete file...\t(", fileName, ")"));
+                model = ModelFactory.createDefaultModel();
+                state = RdfIncrementalLoaderJena.parse(
+                        channel, fileName, size, model, new RdfLoadState(0, "", null, UUID.randomUUID()));
+            }
+
+            cache.writeSnapshot(snapshot, model);
+            RdfIncrementalLoaderJena.writeState(state, stateFile);
+            return model;
+        } catch (IOException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    /**
+     * Method parses a region of a file into a model. The prefixes of the model and the base IRI are
+     * declared before the region is parsed, since they might be used by the data of the region.
+     * @param channel Channel of the file.
+     * @param fileName Path and filename of the file.
+     * @param size Number of bytes of the file that are loaded.
+     * @param model Model receiving the parsed data.
+     * @param previous Parser state after the data before the region has been parsed. The region starts
+     *                 at the offset of this state, use an offset of 0 to parse the whole file.
+     * @return Parser state after the region has been parsed.
+     * @throws IOException If the file cannot be read.
+     */
+    private static RdfLoadState parse(final FileChannel channel, final String fileName, final long size,
+                                      final Model model, final RdfLoadState previous) throws IOException {
+        final Lang lang = RDFLanguages.filenameToLang(fileName);
+        final BaseTracker dest = new BaseTracker(StreamRDFLib.graph(model.getGraph()), previous.getBase());
+
+        final InputStream region = new FileRangeInputStream(channel, previous.getOffset(), size);
+        final byte[] header = RdfIncrementalLoaderJena.header(lang, model.getNsPrefixMap(), previous.getBase());
+        try (InputStream in = new SequenceInputStream(new ByteArrayInputStream(header), region)) {
+            RdfInputJena.parse(in, SysRIOT.chooseBaseIRI(fileName), lang, previous.getBlankNodeSeed(), dest);
+        }
+
+        return new RdfLoadState(
+                size, RdfLoadState.hashRegion(channel, size), dest.getBase(), previous.getBlankNodeSeed());
+    }
+
+    /**
+     * Method saves the parser state, errors are logged since the state is only required to speed up later loads.
+     * @param state Parser state after the file has been loaded.
+     * @param stateFile Path of the state file.
+     */
+    private static void writeState(final RdfLoadState state, final Path stateFile) {
+        try {
+            Files.createDirectories(stateFile.getParent());
+            state.write(stateFile);
+        } catch (IOException e) {
+            RdfIncrementalLoaderJena.LOGGER.warn(
+                    String.join("", "Cannot write parser state...\t(", stateFile.toString(), ") ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Method creates the declarations of prefixes and base IRI required to parse appended data.
+     * Line based RDF languages do not support declarations, the header is empty for these languages.
+     * @param lang RDF language of the file.
+     * @param prefixes Prefixes declared by the data before the appended data.
+     * @param base Base IRI declared by the data before the appended data, may be null.
+     * @return Declarations as Turtle directives.
+     */
+    private static byte[] header(final Lang lang, final Map<String, String> prefixes, final String base) {
+        if (RDFLanguages.NTRIPLES.equals(lang) || RDFLanguages.NQUADS.equals(lang)) {
+            return new byte[0];
+        }
+        final StringBuilder header = new StringBuilder();
+        if (base != null) {
+            header.append("@base <").append(base).append("> .\n");
+        }
+        prefixes.forEach((prefix, uri) -> header.append("@prefix ").append(prefix).append(": <")
+                .append(uri).append("> .\n"));
+        return header.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream destination keeping track of the last declared base IRI.
+     */
+    private static final class BaseTracker extends StreamRDFWrapper {
+        /**
+         * Last declared base IRI, null if no base IRI has been declared.
+         */
+        private String base;
+
+        /**
+         * Constructor.
+         * @param sink Destination of the parsed data.
+         * @param initialBase Base IRI declared before the parsed data, may be null.
+         */
+        BaseTracker(final StreamRDF sink, final String initialBase) {
+            super(sink);
+            this.base = initialBase;
+        }
+
+        @Override
+        public void base(final String declaredBase) {
+            this.base = declaredBase;
+            super.base(declaredBase);
+        }
+
+        /**
+         * Method returns the last declared base IRI.
+         * @return Base IRI, null if no base IRI has been declared.
+         */
+        String getBase() {
+            return this.base;
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParserRegistry;
+import org.apache.jena.riot.ReaderRIOT;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.ParserProfile;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.MappedFileInputStream;
+import org.g_node.micro.commons.ReadAheadInputStream;
+
+/**
+ * Class opening the input streams of RDF files according to the provided {@link RdfLoadOptions}.
+ * Local files compressed using gzip, bzip2 or xz are decompressed on a separate thread.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class RdfInputJena {
+    /**
+     * Map returning the commons-compress compressor names of the supported compression file extensions.
+     */
+    private static final Map<String, String> COMPRESSORS;
+    static {
+        final Map<String, String> compressors = new HashMap<>();
+        compressors.put("GZ", CompressorStreamFactory.GZIP);
+        compressors.put("BZ2", CompressorStreamFactory.BZIP2);
+        compressors.put("XZ", CompressorStreamFactory.XZ);
+        COMPRESSORS = compressors;
+    }
+
+    /**
+     * Method opens an RDF file for reading. Local files are read from memory mapped regions if this
+     * is requested by the settings, all other files are opened via Jena's {@link RDFDataMgr}.
+     * Compressed local files are decompressed on a separate thread, which feeds the returned stream
+     * through a bounded queue.
+     * @param uri Uri of the file to be opened.
+     * @param options Settings used to read the file.
+     * @return Opened input stream, the content type of the stream may be null.
+     * @throws RiotException If the file cannot be found or opened.
+     */
+    static TypedInputStream open(final String uri, final RdfLoadOptions options) {
+        final Path file = RdfInputJena.localFile(uri);
+        if (file == null) {
+            return RDFDataMgr.open(uri);
+        }
+
+        final String compression = FileService.getCompressionExtension(uri);
+        if (compression == null && !options.isMemoryMapped()) {
+            return RDFDataMgr.open(uri);
+        }
+
+        try {
+            final InputStream in = options.isMemoryMapped()
+                    ? MappedFileInputStream.open(file) : Files.newInputStream(file);
+            if (compression == null) {
+                return new TypedInputStream(in, (String) null);
+            }
+            return new TypedInputStream(RdfInputJena.decompress(in, compression), (String) null);
+        } catch (IOException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    /**
+     * Method returns the commons-compress name of a compression format.
+     * @param compression Upper case file extension of the compression format, see
+     *  {@link FileService#getCompressionExtension(String)}.
+     * @return Name of the compressor, null if the compression format is not supported.
+     */
+    static String compressorName(final String compression) {
+        return RdfInputJena.COMPRESSORS.get(compression);
+    }
+
+    /**
+     * Method returns the RDF language of a file from its file extension. The extension of
+     * a supported compression format is skipped.
+     * @param uri Uri of the file.
+     * @return RDF language of the file, null if the language cannot be determined.
+     */
+    static Lang filenameToLang(final String uri) {
+        return RDFLanguages.filenameToLang(FileService.stripCompressionExtension(uri));
+    }
+
+    /**
+     * Method parses RDF data of a known language from an input stream. Blank node labels are allocated using
+     * the provided seed, identical labels parsed using the same seed therefore result in the same blank node.
+     * Blank nodes without a label, e.g. "[]" or collections in Turtle, are allocated from a fresh seed on
+     * every call, they never match blank nodes of data parsed by another call.
+     * @param in Input stream containing the RDF data, the stream is not closed by this method.
+     * @param base Base IRI used to resolve relative IRIs.
+     * @param lang RDF language of the data.
+     * @param blankNodeSeed Seed used to allocate blank nodes from their labels.
+     * @param dest Destination of the parsed triples.
+     * @throws RiotException If the data cannot be parsed.
+     */
+    static void parse(final InputStream in, final String base, final Lang lang, final UUID blankNodeSeed,
+                      final StreamRDF dest) {
+        final ParserProfile profile = RiotLib.profile(lang, base);
+        profile.setLabelToNode(RdfBlankNodeAllocatorJena.labelToNode(blankNodeSeed));
+
+        final ReaderRIOT reader = RDFParserRegistry.getFactory(lang).create(lang);
+        reader.setParserProfile(profile);
+        reader.read(in, base, lang.getContentType(), dest, null);
+    }
+
+    /**
+     * Method returns the path of a local file.
+     * @param uri Uri of the file.
+     * @return Path of the file, null if the uri does not refer to an existing local file.
+     */
+    static Path localFile(final String uri) {
+        try {
+            final Path file = Paths.get(uri);
+            return Files.isRegularFile(file) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method wraps a compressed input stream into a stream decompressing the data on a separate thread.
+     * @param in Compressed input stream, will be closed if the returned stream is closed.
+     * @param compression Upper case file extension of the compression format.
+     * @return Stream providing the decompressed data.
+     * @throws IOException If the stream does not contain data of the compression format.
+     */
+    private static InputStream decompress(final InputStream in, final String compression) throws IOException {
+        try {
+            final InputStream decompressed = new CompressorStreamFactory(true).createCompressorInputStream(
+                    RdfInputJena.COMPRESSORS.get(compression), new BufferedInputStream(in));
+            return new ReadAheadInputStream(decompressed);
+        } catch (CompressorException e) {
+            in.close();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Class writing a {@link com.hp.hpl.jena.query.ResultSet} to a JSON Lines file,
+ * see {@link AbstractRdfResultWriterJena}.
+ * Every row is written as a JSON object on a line of its own, the names of the variables are the keys of
+ * the object and the values are JSON strings, unbound variables are written as null. Quotes, backslashes
+ * and control characters are escaped, line breaks within values therefore never end a line.
+ * The file has no header line.
+ *
+ * Values are the same as the values of CSV files.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfJsonLinesWriterJena extends AbstractRdfResultWriterJena {
+    /**
+     * Start of a row.
+     */
+    private static final byte START = '{';
+    /**
+     * Separator between the values of a row.
+     */
+    private static final byte SEPARATOR = ',';
+    /**
+     * End of a row including the line break.
+     */
+    private static final byte[] END = AbstractRdfResultWriterJena.ascii("}\n");
+    /**
+     * Value of unbound variables.
+     */
+    private static final byte[] NULL = AbstractRdfResultWriterJena.ascii("null");
+    /**
+     * Escape sequences of quotes, backslashes and control characters.
+     */
+    private static final byte[][] ESCAPES = AbstractRdfResultWriterJena.escapeTable();
+    /**
+     * First character that is not a control character.
+     */
+    private static final char FIRST_PRINTABLE = ' ';
+
+    static {
+        for (char c = 0; c < RdfJsonLinesWriterJena.FIRST_PRINTABLE; c += 1) {
+            AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, c, AbstractRdfResultWriterJena.ascii(
+                    String.format(Locale.ENGLISH, "\\u%04x", (int) c)));
+        }
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\b',
+                AbstractRdfResultWriterJena.ascii("\\b"));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\f',
+                AbstractRdfResultWriterJena.ascii("\\f"));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\n',
+                AbstractRdfResultWriterJena.ascii("\\n"));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\r',
+                AbstractRdfResultWriterJena.ascii("\\r"));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\t',
+                AbstractRdfResultWriterJena.ascii("\\t"));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '"',
+                AbstractRdfResultWriterJena.ascii("\\\""));
+        AbstractRdfResultWriterJena.setEscape(RdfJsonLinesWriterJena.ESCAPES, '\\',
+                AbstractRdfResultWriterJena.ascii("\\\\"));
+    }
+
+    /**
+     * Encoded keys of the current result set including quotes and colon, one per variable.
+     */
+    private byte[][] keys;
+
+    /**
+     * Constructor, creates a writer with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     */
+    public RdfJsonLinesWriterJena() {
+        this(AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param bufferSize Size of the output buffer in bytes.
+     */
+    public RdfJsonLinesWriterJena(final int bufferSize) {
+        super(bufferSize);
+    }
+
+    /**
+     * Method encodes the keys of the objects, nothing is written. Variable names do not contain
+     * characters that have to be escaped.
+     * @param names Names of the variables of the result set.
+     */
+    @Override
+    protected void writeHeader(final List<String> names) {
+        this.keys = names.stream()
+                .map(n -> String.join("", "\"", n, "\":").getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+    }
+
+    /**
+     * Method writes a key and its value, unbound variables are written as null.
+     * @param column Index of the variable of the value.
+     * @param value Text of the value, null if the variable is not bound.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void writeValue(final int column, final String value) throws IOException {
+        this.put(column == 0 ? RdfJsonLinesWriterJena.START : RdfJsonLinesWriterJena.SEPARATOR);
+        this.put(this.keys[column]);
+        if (value == null) {
+            this.put(RdfJsonLinesWriterJena.NULL);
+        } else {
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+            this.writeText(value, RdfJsonLinesWriterJena.ESCAPES, null);
+            this.put(AbstractRdfResultWriterJena.QUOTE);
+        }
+    }
+
+    /**
+     * Method ends the object of a row and its line.
+     * @param columns Number of variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void endRow(final int columns) throws IOException {
+        if (columns == 0) {
+            this.put(RdfJsonLinesWriterJena.START);
+        }
+        this.put(RdfJsonLinesWriterJena.END);
+    }
+
+}
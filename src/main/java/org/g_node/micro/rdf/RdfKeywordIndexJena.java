@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.expr.NodeValue;
+import com.hp.hpl.jena.sparql.util.Symbol;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.g_node.micro.commons.KeywordMatcher;
+
+/**
+ * Class indexing the string literals of a property that contain any of several keywords. Every distinct
+ * literal is classified once with a {@link KeywordMatcher} while the index is built, checking whether
+ * a value of a resource contains a keyword is a lookup afterwards. Literals are classified the same way
+ * as by a case-insensitive SPARQL regex of the keywords: plain and language tagged literals as well as
+ * literals of xsd:string and its derived datatypes are matched, other literals and resources are not.
+ *
+ * Indexes are built once per graph and kept until the graph is garbage collected or its size changes,
+ * see {@link #index(Graph, Node, KeywordMatcher)}. Property functions resolve an index once per query
+ * execution, see {@link #index(ExecutionContext, Node, KeywordMatcher)}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfKeywordIndexJena {
+    /**
+     * Built indexes by graph, the key of an index consists of its property and keywords.
+     */
+    private static final Map<Graph, Map<List<Object>, RdfKeywordIndexJena>> INDEXES = new WeakHashMap<>();
+    /**
+     * Symbol of the indexes resolved by a query execution, stored in the context of the execution.
+     */
+    private static final Symbol RESOLVED = Symbol.create(String.join("", RdfConstants.RDF_NS_REPORT, "keywordIndexes"));
+
+    /**
+     * Size of the graph when the index was built.
+     */
+    private final long graphSize;
+    /**
+     * Matching values by resource.
+     */
+    private final Map<Node, List<Node>> matches;
+
+    /**
+     * Constructor.
+     * @param size Size of the graph when the index was built.
+     * @param matchingValues Matching values by resource.
+     */
+    private RdfKeywordIndexJena(final long size, final Map<Node, List<Node>> matchingValues) {
+        this.graphSize = size;
+        this.matches = matchingValues;
+    }
+
+    /**
+     * Method returns the keyword index of a graph, the index is built if it does not exist yet
+     * or if the size of the graph has changed since it was built.
+     * @param graph Graph containing the literals.
+     * @param property Property of the indexed literals.
+     * @param matcher Keywords the literals are matched with.
+     * @return Keyword index of the graph.
+     */
+    public static RdfKeywordIndexJena index(final Graph graph, final Node property, final KeywordMatcher matcher) {
+        final List<Object> key = Arrays.asList(property, matcher.getKeywords());
+        synchronized (RdfKeywordIndexJena.INDEXES) {
+            final Map<List<Object>, RdfKeywordIndexJena> indexes = RdfKeywordIndexJena.INDEXES.get(graph);
+            final RdfKeywordIndexJena cached = indexes == null ? null : indexes.get(key);
+            if (cached != null && cached.graphSize == graph.size()) {
+                return cached;
+            }
+            final RdfKeywordIndexJena built = RdfKeywordIndexJena.build(graph, property, matcher);
+            RdfKeywordIndexJena.INDEXES.computeIfAbsent(graph, g -> new HashMap<>()).put(key, built);
+            return built;
+        }
+    }
+
+    /**
+     * Method returns the keyword index of the active graph of a query execution. The index is resolved
+     * by {@link #index(Graph, Node, KeywordMatcher)} on the first call of the execution, later calls
+     * of the same execution return it without locking the indexes or checking the size of the graph.
+     * @param execCxt Context of the query execution.
+     * @param property Property of the indexed literals.
+     * @param matcher Keywords the literals are matched with.
+     * @return Keyword index of the active graph.
+     */
+    public static RdfKeywordIndexJena index(final ExecutionContext execCxt, final Node property,
+                                            final KeywordMatcher matcher) {
+        Resolved resolved = (Resolved) execCxt.getContext().get(RdfKeywordIndexJena.RESOLVED);
+        if (resolved == null) {
+            resolved = new Resolved();
+            execCxt.getContext().set(RdfKeywordIndexJena.RESOLVED, resolved);
+        }
+        final Graph graph = execCxt.getActiveGraph();
+        return resolved.computeIfAbsent(Arrays.asList(graph, property, matcher.getKeywords()),
+                k -> RdfKeywordIndexJena.index(graph, property, matcher));
+    }
+
+    /**
+     * Method checks whether a node is a literal containing any of the keywords.
+     * @param matcher Keywords the literal is matched with.
+     * @param value Node that is checked.
+     * @return True if the node is a string literal containing a keyword.
+     */
+    public static boolean isMatch(final KeywordMatcher matcher, final Node value) {
+        if (!value.isLiteral()) {
+            return false;
+        }
+        final boolean isString = value.getLiteralDatatype() == null || !value.getLiteralLanguage().isEmpty()
+                || NodeValue.makeNode(value).isString();
+        return isString && matcher.matches(value.getLiteralLexicalForm());
+    }
+
+    /**
+     * Method returns the values of a resource that contain any of the keywords.
+     * @param resource Node of the resource.
+     * @return Matching values, empty if there are none.
+     */
+    public List<Node> values(final Node resource) {
+        return this.matches.getOrDefault(resource, Collections.emptyList());
+    }
+
+    /**
+     * Method returns all resources with values that contain any of the keywords.
+     * @return Matching values by resource.
+     */
+    public Map<Node, List<Node>> all() {
+        return Collections.unmodifiableMap(this.matches);
+    }
+
+    /**
+     * Method reads and classifies all literals of the property.
+     * @param graph Graph containing the literals.
+     * @param property Property of the indexed literals.
+     * @param matcher Keywords the literals are matched with.
+     * @return New keyword index.
+     */
+    private static RdfKeywordIndexJena build(final Graph graph, final Node property, final KeywordMatcher matcher) {
+        final Map<Node, Boolean> classified = new HashMap<>();
+        final Map<Node, List<Node>> matches = new HashMap<>();
+        final ExtendedIterator<Triple> it = graph.find(Node.ANY, property, Node.ANY);
+        try {
+            while (it.hasNext()) {
+                final Triple t = it.next();
+                if (classified.computeIfAbsent(t.getObject(), v -> RdfKeywordIndexJena.isMatch(matcher, v))) {
+                    matches.computeIfAbsent(t.getSubject(), s -> new ArrayList<>()).add(t.getObject());
+                }
+            }
+        } finally {
+            it.close();
+        }
+        return new RdfKeywordIndexJena(graph.size(), matches);
+    }
+
+    /**
+     * Indexes resolved by a query execution, the key of an index consists of its graph, property and keywords.
+     */
+    private static final class Resolved extends HashMap<List<Object>, RdfKeywordIndexJena> {
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+    }
+
+}
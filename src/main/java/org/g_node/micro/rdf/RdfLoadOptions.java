@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+/**
+ * Class containing the settings used when loading an RDF file. The default settings
+ * load a file using ordinary buffered stream reads.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfLoadOptions {
+    /**
+     * True if local files are read from memory mapped regions.
+     */
+    private boolean memoryMapped;
+    /**
+     * Directory of the binary snapshot cache, null if no snapshots are used.
+     */
+    private String snapshotCacheDir;
+    /**
+     * Maximum total size of the binary snapshot cache in bytes.
+     */
+    private long snapshotCacheMaxSize = RdfSnapshotCacheJena.DEFAULT_MAX_SIZE;
+    /**
+     * True if growing files are loaded incrementally using the snapshot cache.
+     */
+    private boolean incremental;
+    /**
+     * Number of triple batches the parser may be ahead of the graph insert thread, 0 to parse and insert
+     * on the same thread.
+     */
+    private int pipelineDepth;
+    /**
+     * Number of triples per batch handed from the parser to the graph insert thread.
+     */
+    private int pipelineBatchSize = RdfPipelineStreamJena.DEFAULT_BATCH_SIZE;
+    /**
+     * True if the loaded model is replaced by a read-only, dictionary encoded copy.
+     */
+    private boolean frozen;
+    /**
+     * Directory of the disk backed store, null if the data is kept in memory.
+     */
+    private String storeDir;
+    /**
+     * Fingerprint of the loaded file, null if it is created when needed.
+     */
+    private String fingerprint;
+
+    /**
+     * Method returns whether local files are read from memory mapped regions.
+     * @return True if local files are memory mapped, false if they are read using stream reads.
+     */
+    public boolean isMemoryMapped() {
+        return this.memoryMapped;
+    }
+
+    /**
+     * Set whether local files are read from memory mapped regions instead of using stream reads.
+     * @param mapped True to memory map local files.
+     * @return This instance.
+     */
+    public RdfLoadOptions setMemoryMapped(final boolean mapped) {
+        this.memoryMapped = mapped;
+        return this;
+    }
+
+    /**
+     * Method returns the directory of the binary snapshot cache.
+     * @return Path of the cache directory, null if no snapshots are used.
+     */
+    public String getSnapshotCacheDir() {
+        return this.snapshotCacheDir;
+    }
+
+    /**
+     * Set the directory of the binary snapshot cache. If set, parsed models are saved as snapshots
+     * and unchanged input files are loaded from their snapshots, see {@link RdfSnapshotCacheJena}.
+     * @param directory Path of the cache directory, null to disable snapshots.
+     * @return This instance.
+     */
+    public RdfLoadOptions setSnapshotCacheDir(final String directory) {
+        this.snapshotCacheDir = directory;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum total size of the binary snapshot cache.
+     * @return Maximum size in bytes.
+     */
+    public long getSnapshotCacheMaxSize() {
+        return this.snapshotCacheMaxSize;
+    }
+
+    /**
+     * Set the maximum total size of the binary snapshot cache. Least recently used snapshots
+     * are removed if the size is exceeded.
+     * @param maxBytes Maximum size in bytes.
+     * @return This instance.
+     */
+    public RdfLoadOptions setSnapshotCacheMaxSize(final long maxBytes) {
+        this.snapshotCacheMaxSize = maxBytes;
+        return this;
+    }
+
+    /**
+     * Method returns the directory of the disk backed store.
+     * @return Path of the store directory, null if the data is kept in memory.
+     */
+    public String getStoreDir() {
+        return this.storeDir;
+    }
+
+    /**
+     * Set the directory of the disk backed store. If set, the data of the input file is loaded into
+     * an indexed on-disk store once and the store is reused as long as the input file does not change.
+     * @param directory Path of the store directory, null to keep the data in memory.
+     * @return This instance.
+     */
+    public RdfLoadOptions setStoreDir(final String directory) {
+        this.storeDir = directory;
+        return this;
+    }
+
+    /**
+     * Method returns the fingerprint of the loaded file created by the caller.
+     * @return Fingerprint of the file, null if the snapshot cache or the store create it when needed.
+     */
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Set the fingerprint of the loaded file, if the caller has already created it for other purposes,
+     * e.g. the keys of cached reports. The snapshot cache and the disk backed store use it instead of reading
+     * the whole file again, see {@link RdfSnapshotCacheJena#fingerprint(String)}.
+     * @param inputFingerprint Fingerprint of the loaded file, null to create it when needed.
+     * @return This instance.
+     */
+    public RdfLoadOptions setFingerprint(final String inputFingerprint) {
+        this.fingerprint = inputFingerprint;
+        return this;
+    }
+
+    /**
+     * Method returns whether files that only grow at their end are loaded incrementally.
+     * @return True if only data appended since the last load is parsed.
+     */
+    public boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Set whether files that only grow at their end are loaded incrementally. Requires a snapshot cache
+     * directory, the model and parser state of the last load are saved in the snapshot cache.
+     * @param appendOnly True to parse only data appended since the last load.
+     * @return This instance.
+     */
+    public RdfLoadOptions setIncremental(final boolean appendOnly) {
+        this.incremental = appendOnly;
+        return this;
+    }
+
+    /**
+     * Method returns the number of triple batches the parser may be ahead of the graph insert thread.
+     * @return Queue depth of the load pipeline, 0 if parsing and inserting run on the same thread.
+     */
+    public int getPipelineDepth() {
+        return this.pipelineDepth;
+    }
+
+    /**
+     * Set the number of triple batches the parser may be ahead of the graph insert thread. If larger than 0,
+     * parsed triples are inserted into the graph on a separate thread, see {@link RdfPipelineStreamJena}.
+     * @param queueDepth Queue depth of the load pipeline, 0 to parse and insert on the same thread.
+     * @return This instance.
+     */
+    public RdfLoadOptions setPipelineDepth(final int queueDepth) {
+        this.pipelineDepth = queueDepth;
+        return this;
+    }
+
+    /**
+     * Method returns the number of triples per batch handed from the parser to the graph insert thread.
+     * @return Batch size of the load pipeline.
+     */
+    public int getPipelineBatchSize() {
+        return this.pipelineBatchSize;
+    }
+
+    /**
+     * Set the number of triples per batch handed from the parser to the graph insert thread.
+     * @param batchTriples Batch size of the load pipeline.
+     * @return This instance.
+     */
+    public RdfLoadOptions setPipelineBatchSize(final int batchTriples) {
+        this.pipelineBatchSize = batchTriples;
+        return this;
+    }
+
+    /**
+     * Method returns whether the loaded model is replaced by a read-only, dictionary encoded copy.
+     * @return True if the loaded model is frozen.
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Set whether the loaded model is replaced by a read-only, dictionary encoded copy using less memory,
+     * see {@link FrozenGraphJena}. Has no effect if a disk backed store is used.
+     * @param freeze True to freeze the loaded model.
+     * @return This instance.
+     */
+    public RdfLoadOptions setFrozen(final boolean freeze) {
+        this.frozen = freeze;
+        return this;
+    }
+
+}
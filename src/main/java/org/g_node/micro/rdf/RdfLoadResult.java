@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+
+/**
+ * Class containing the outcome of validating and loading an RDF file in a single pass.
+ * Either the parsed {@link Model} or the message of the error that stopped the parser is available.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfLoadResult {
+    /**
+     * RDF model parsed from the input file, null if loading the file failed.
+     */
+    private final Model model;
+    /**
+     * Message of the error that stopped loading the input file, empty if loading was successful.
+     */
+    private final String errorMessage;
+
+    /**
+     * Constructor is private, use {@link #success(Model)} or {@link #failure(String)}.
+     * @param loadedModel Parsed RDF model or null.
+     * @param loadError Error message or empty String.
+     */
+    private RdfLoadResult(final Model loadedModel, final String loadError) {
+        this.model = loadedModel;
+        this.errorMessage = loadError;
+    }
+
+    /**
+     * Create the result of a successfully loaded RDF file.
+     * @param model RDF model containing the data of the loaded file.
+     * @return Successful load result.
+     */
+    public static RdfLoadResult success(final Model model) {
+        return new RdfLoadResult(model, "");
+    }
+
+    /**
+     * Create the result of an RDF file that could not be loaded.
+     * @param errorMessage Message describing why the file could not be loaded.
+     * @return Failed load result.
+     */
+    public static RdfLoadResult failure(final String errorMessage) {
+        return new RdfLoadResult(null, errorMessage);
+    }
+
+    /**
+     * Method returns whether the RDF file could be loaded.
+     * @return True if the file was successfully parsed as RDF, false otherwise.
+     */
+    public boolean isValid() {
+        return this.model != null;
+    }
+
+    /**
+     * Method returns the loaded RDF model.
+     * @return RDF model of the loaded file, null if the file could not be loaded.
+     */
+    public Model getModel() {
+        return this.model;
+    }
+
+    /**
+     * Method returns the message of the error that stopped loading the RDF file.
+     * @return Error message why the file could not be loaded, empty String if loading was successful.
+     */
+    public String getErrorMessage() {
+        return this.errorMessage;
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.g_node.micro.commons.FileRangeInputStream;
+
+/**
+ * Class containing the state of the parser after an RDF file has been loaded: the number of bytes loaded,
+ * a hash of the loaded region, the base IRI and the blank node seed used by the parser.
+ * The state is saved as a properties file next to the snapshot of the loaded model.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class RdfLoadState {
+    /**
+     * Number of bytes at the start and at the end of the loaded region that are hashed to detect changes.
+     */
+    private static final long CHECK_REGION_SIZE = 64 * 1024;
+
+    /**
+     * Number of bytes of the file that have been loaded.
+     */
+    private final long offset;
+    /**
+     * SHA-1 hash of the start and the end of the loaded region.
+     */
+    private final String regionHash;
+    /**
+     * Base IRI declared in the loaded region, null if no base IRI has been declared.
+     */
+    private final String base;
+    /**
+     * Seed used to allocate blank nodes from their labels.
+     */
+    private final UUID blankNodeSeed;
+
+    /**
+     * Constructor.
+     * @param loadedBytes Number of bytes of the file that have been loaded.
+     * @param hash SHA-1 hash of the start and the end of the loaded region.
+     * @param declaredBase Base IRI declared in the loaded region, may be null.
+     * @param seed Seed used to allocate blank nodes from their labels.
+     */
+    RdfLoadState(final long loadedBytes, final String hash, final String declaredBase, final UUID seed) {
+        this.offset = loadedBytes;
+        this.regionHash = hash;
+        this.base = declaredBase;
+        this.blankNodeSeed = seed;
+    }
+
+    /**
+     * Method reads the state from a properties file.
+     * @param stateFile Path of the properties file.
+     * @return State contained in the file, null if the file does not exist or cannot be read.
+     */
+    static RdfLoadState read(final Path stateFile) {
+        if (!Files.isRegularFile(stateFile)) {
+            return null;
+        }
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            props.load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        final String offset = props.getProperty("offset");
+        final String hash = props.getProperty("regionHash");
+        final String seed = props.getProperty("blankNodeSeed");
+        if (offset == null || hash == null || seed == null) {
+            return null;
+        }
+        try {
+            return new RdfLoadState(Long.parseLong(offset), hash, props.getProperty("base"), UUID.fromString(seed));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method hashes the start and the end of a region of a file, which contain the prefix declarations
+     * and the last statements of the region.
+     * @param channel Channel of the file.
+     * @param length Length of the region starting at the beginning of the file.
+     * @return SHA-1 hash of the start and the end of the region.
+     * @throws IOException If the file cannot be read.
+     */
+    static String hashRegion(final FileChannel channel, final long length) throws IOException {
+        final long headEnd = Math.min(length, RdfLoadState.CHECK_REGION_SIZE);
+        final long tailStart = Math.max(headEnd, length - RdfLoadState.CHECK_REGION_SIZE);
+        try (InputStream in = new SequenceInputStream(
+                new FileRangeInputStream(channel, 0, headEnd),
+                new FileRangeInputStream(channel, tailStart, length))) {
+            return DigestUtils.shaHex(in);
+        }
+    }
+
+    /**
+     * Method writes the state to a properties file.
+     * @param stateFile Path of the properties file.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(final Path stateFile) throws IOException {
+        final Properties props = new Properties();
+        props.setProperty("offset", String.valueOf(this.offset));
+        props.setProperty("regionHash", this.regionHash);
+        props.setProperty("blankNodeSeed", this.blankNodeSeed.toString());
+        if (this.base != null) {
+            props.setProperty("base", this.base);
+        }
+        try (OutputStream out = Files.newOutputStream(stateFile)) {
+            props.store(out, "State of the last incremental load");
+        }
+    }
+
+    /**
+     * Method checks whether the loaded region of a file is unchanged, which is the case if the file
+     * is not smaller than the loaded region and the hash of the region is unchanged.
+     * @param channel Channel of the file.
+     * @return True if data has only been appended to the file since the state was saved.
+     * @throws IOException If the file cannot be read.
+     */
+    boolean isUnchangedRegion(final FileChannel channel) throws IOException {
+        return channel.size() >= this.offset
+                && this.regionHash.equals(RdfLoadState.hashRegion(channel, this.offset));
+    }
+
+    /**
+     * Method returns the number of bytes of the file that have been loaded.
+     * @return Number of loaded bytes.
+     */
+    long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Method returns the base IRI declared in the loaded region.
+     * @return Base IRI, null if no base IRI has been declared.
+     */
+    String getBase() {
+        return this.base;
+    }
+
+    /**
+     * Method returns the seed used to allocate blank nodes from their labels.
+     * @return Blank node seed.
+     */
+    UUID getBlankNodeSeed() {
+        return this.blankNodeSeed;
+    }
+
+}
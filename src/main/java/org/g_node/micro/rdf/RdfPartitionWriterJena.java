@@ -0,0 +1,580 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.util.NodeToLabelMap;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.g_node.micro.commons.FileService;
+
+/**
+ * Class writing a {@link ResultSet} to one output file per distinct value of a partition column, while
+ * the rows are read from the result set. The rows are routed by the hash of their partition value to a number
+ * of writer threads, every writer thread owns the output files of its values and writes them with a small
+ * buffer per file. The number of files open at the same time is bounded: if a writer thread has to write
+ * a file while all its files are open, the least recently written file is closed and reopened in append mode
+ * when it receives further rows. Every output file starts with the header of the output format.
+ *
+ * The output files are named after the output file of the whole result, with the partition value inserted
+ * before the file extensions, e.g. 'report_project-a.csv.gz'. Characters of a value that are not letters,
+ * digits, dots or dashes are replaced by underscores and only the last segment of a URI is used. If the value
+ * is changed this way, a hash of the value is appended, which keeps the files of different values apart.
+ * Rows without a partition value are written to the file named '_unbound'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfPartitionWriterJena {
+    /**
+     * Default maximum number of output files open at the same time.
+     */
+    public static final int DEFAULT_MAX_OPEN_FILES = 256;
+    /**
+     * Size of the output buffer of every output file in bytes.
+     */
+    static final int SHARD_BUFFER_SIZE = 8 * 1024;
+    /**
+     * Size of the blocks compressed independently in bytes, if the output files are compressed.
+     */
+    static final int SHARD_BLOCK_SIZE = 64 * 1024;
+    /**
+     * Number of rows handed to a writer thread at once.
+     */
+    private static final int BATCH_ROWS = 256;
+    /**
+     * Number of batches queued per writer thread.
+     */
+    private static final int QUEUED_BATCHES = 4;
+    /**
+     * Maximum number of characters of a partition value used in a filename.
+     */
+    private static final int MAX_NAME_LENGTH = 64;
+    /**
+     * Name of the output file of rows without a partition value.
+     */
+    private static final String UNBOUND_NAME = "_unbound";
+    /**
+     * Load factor of the maps of open output files.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Output format, an entry of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     */
+    private final String format;
+    /**
+     * Name of the result variable partitioning the rows, without leading question mark.
+     */
+    private final String column;
+    /**
+     * Maximum number of output files open at the same time.
+     */
+    private final int maxOpenFiles;
+    /**
+     * Number of writer threads.
+     */
+    private final int writers;
+
+    /**
+     * Constructor.
+     * @param outputFormat Output format, an entry of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     * @param partitionColumn Name of the result variable partitioning the rows, with or without leading
+     *  question mark.
+     * @param maxOpen Maximum number of output files open at the same time, at least 1.
+     * @param writerThreads Number of writer threads, at most maxOpen threads are used.
+     */
+    public RdfPartitionWriterJena(final String outputFormat, final String partitionColumn, final int maxOpen,
+                                  final int writerThreads) {
+        this.format = outputFormat.toUpperCase(Locale.ENGLISH);
+        this.column = RdfPartitionWriterJena.variableName(partitionColumn);
+        this.maxOpenFiles = Math.max(1, maxOpen);
+        this.writers = Math.max(1, Math.min(writerThreads, this.maxOpenFiles));
+    }
+
+    /**
+     * Constructor using {@link #DEFAULT_MAX_OPEN_FILES} and one writer thread per core.
+     * @param outputFormat Output format, an entry of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     * @param partitionColumn Name of the result variable partitioning the rows.
+     */
+    public RdfPartitionWriterJena(final String outputFormat, final String partitionColumn) {
+        this(outputFormat, partitionColumn, RdfPartitionWriterJena.DEFAULT_MAX_OPEN_FILES,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Method creates a writer partitioning results by the partition column of the options of a report,
+     * using one writer thread per core.
+     * @param options Options of the report containing the output format, the partition column and
+     *  the maximum number of open files.
+     * @return New writer.
+     */
+    public static RdfPartitionWriterJena forOptions(final RdfReportOptions options) {
+        return new RdfPartitionWriterJena(options.getOutputFormat(), options.getPartitionColumn(),
+                options.getMaxOpenFiles(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Method returns the name of a result variable without leading question mark.
+     * @param name Name of the variable, with or without leading question mark.
+     * @return Name of the variable.
+     */
+    public static String variableName(final String name) {
+        return name.startsWith("?") ? name.substring(1) : name;
+    }
+
+    /**
+     * Method writes the rows of a result set to one output file per partition value. If the result set
+     * is cancelled, e.g. since its query exceeds a limit, all output files written so far are removed.
+     * @param result Result set, the partition column has to be one of its result variables.
+     * @param file Path of the output file of the whole result. The file itself is not written,
+     *  its name is used to name the output files of the partition values.
+     * @return Paths of the written output files, sorted by name.
+     * @throws IOException If an output file cannot be written.
+     * @throws IllegalArgumentException If the partition column is not a result variable.
+     */
+    public List<Path> write(final ResultSet result, final Path file) throws IOException {
+        final List<String> names = result.getResultVars();
+        if (!names.contains(this.column)) {
+            throw new IllegalArgumentException(String.join("", "Partition column ", this.column,
+                    " is not a result variable of the query."));
+        }
+        final Var[] vars = names.stream().map(Var::alloc).toArray(Var[]::new);
+        final NodeToLabelMap blankNodes = new NodeToLabelMap();
+
+        final Shards[] shards = new Shards[this.writers];
+        final Thread[] threads = new Thread[this.writers];
+        for (int i = 0; i < this.writers; i += 1) {
+            shards[i] = new Shards(file, names, vars, blankNodes, this.maxOpenFiles / this.writers);
+            threads[i] = new Thread(shards[i], "partition-writer");
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        boolean complete = false;
+        try {
+            this.route(result, Var.alloc(this.column), blankNodes, shards);
+            complete = true;
+        } finally {
+            RdfPartitionWriterJena.finish(shards, threads);
+            if (!complete) {
+                RdfPartitionWriterJena.delete(shards);
+            }
+        }
+
+        final List<Path> files = new ArrayList<>();
+        for (final Shards s : shards) {
+            if (s.failure != null) {
+                RdfPartitionWriterJena.delete(shards);
+                throw s.failure;
+            }
+            files.addAll(s.files.values());
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Method reads the rows of a result set and hands them to the writer thread of their partition value.
+     * @param result Result set.
+     * @param key Partition column.
+     * @param blankNodes Labels of the blank nodes written so far.
+     * @param shards Output files of the writer threads.
+     * @throws IOException If the thread is interrupted while the rows are handed over.
+     */
+    private void route(final ResultSet result, final Var key, final NodeToLabelMap blankNodes,
+                       final Shards[] shards) throws IOException {
+        while (result.hasNext()) {
+            final Binding binding = result.nextBinding();
+            final Node node = binding.get(key);
+            final String value = node == null ? null : AbstractRdfResultWriterJena.valueOf(node, blankNodes);
+            shards[Math.floorMod(Objects.hashCode(value), shards.length)].add(value, binding);
+        }
+    }
+
+    /**
+     * Method hands the remaining rows to the writer threads, ends the threads and waits until all output
+     * files are closed. The rows are handed over, even if the thread is interrupted.
+     * @param shards Output files of the writer threads.
+     * @param threads Writer threads.
+     */
+    private static void finish(final Shards[] shards, final Thread[] threads) {
+        boolean interrupted = false;
+        for (final Shards s : shards) {
+            interrupted |= s.end();
+        }
+        for (final Thread t : threads) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method removes all output files written so far.
+     * @param shards Output files of the writer threads.
+     * @throws IOException If a file cannot be removed.
+     */
+    private static void delete(final Shards[] shards) throws IOException {
+        for (final Shards s : shards) {
+            for (final Path p : s.files.values()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Method returns the output file of a partition value.
+     * @param file Path of the output file of the whole result.
+     * @param value Partition value, null if the partition column is not bound.
+     * @return Path of the output file of the partition value.
+     */
+    static Path partitionFile(final Path file, final String value) {
+        final String fileName = file.getFileName().toString();
+        final String uncompressed = FileService.stripCompressionExtension(fileName);
+        final int ext = uncompressed.lastIndexOf('.');
+        final String base = ext > 0 ? uncompressed.substring(0, ext) : uncompressed;
+        return file.resolveSibling(String.join("", base, "_", RdfPartitionWriterJena.partitionName(value),
+                ext > 0 ? uncompressed.substring(ext) : "", fileName.substring(uncompressed.length())));
+    }
+
+    /**
+     * Method returns the part of a filename identifying a partition value, see {@link RdfPartitionWriterJena}.
+     * @param value Partition value, null if the partition column is not bound.
+     * @return Letters, digits, dots and dashes of the value, followed by a hash of the value if the value
+     *  is empty or other characters have been replaced.
+     */
+    static String partitionName(final String value) {
+        if (value == null) {
+            return RdfPartitionWriterJena.UNBOUND_NAME;
+        }
+        final String segment = value.substring(Math.max(value.lastIndexOf('/'), value.lastIndexOf('#')) + 1);
+        final String name = segment.substring(0, Math.min(segment.length(), RdfPartitionWriterJena.MAX_NAME_LENGTH))
+                .replaceAll("[^A-Za-z0-9.-]", "_");
+        return !name.isEmpty() && name.equals(value) ? name
+                : String.join("", name, "_", String.format(Locale.ENGLISH, "%08x", value.hashCode()));
+    }
+
+    /**
+     * Rows handed to a writer thread at once.
+     */
+    private static final class Batch {
+        /**
+         * Partition values of the rows.
+         */
+        private final String[] values = new String[RdfPartitionWriterJena.BATCH_ROWS];
+        /**
+         * Rows of the result set.
+         */
+        private final Binding[] bindings = new Binding[RdfPartitionWriterJena.BATCH_ROWS];
+        /**
+         * Number of rows of the batch.
+         */
+        private int size;
+    }
+
+    /**
+     * Output files written by a single writer thread. Rows are handed to the thread in batches via a bounded
+     * queue, an empty batch ends the thread. If an output file cannot be written, the failure is kept and
+     * the thread keeps taking batches without writing them, so the thread reading the result is not blocked.
+     */
+    private final class Shards implements Runnable {
+        /**
+         * Path of the output file of the whole result.
+         */
+        private final Path file;
+        /**
+         * Names of the variables of the result set.
+         */
+        private final List<String> names;
+        /**
+         * Variables of the result set.
+         */
+        private final Var[] vars;
+        /**
+         * Labels of the blank nodes written so far, shared by all writer threads.
+         */
+        private final NodeToLabelMap blankNodes;
+        /**
+         * Maximum number of output files open at the same time.
+         */
+        private final int maxOpen;
+        /**
+         * Batches handed to the thread.
+         */
+        private final BlockingQueue<Batch> queue =
+                new ArrayBlockingQueue<>(RdfPartitionWriterJena.QUEUED_BATCHES);
+        /**
+         * Output files written so far by partition value.
+         */
+        private final Map<String, Path> files = new HashMap<>();
+        /**
+         * Open output files by partition value, least recently written first.
+         */
+        private final LinkedHashMap<String, Shard> open;
+        /**
+         * Batch currently filled by the thread reading the result.
+         */
+        private Batch batch = new Batch();
+        /**
+         * First failure writing an output file, null if all files have been written.
+         */
+        private volatile IOException failure;
+
+        /**
+         * Constructor.
+         * @param outFile Path of the output file of the whole result.
+         * @param resultVars Names of the variables of the result set.
+         * @param variables Variables of the result set.
+         * @param labels Labels of the blank nodes written so far, shared by all writer threads.
+         * @param openFiles Maximum number of output files open at the same time, at least 1.
+         */
+        Shards(final Path outFile, final List<String> resultVars, final Var[] variables,
+               final NodeToLabelMap labels, final int openFiles) {
+            this.file = outFile;
+            this.names = resultVars;
+            this.vars = variables;
+            this.blankNodes = labels;
+            this.maxOpen = Math.max(1, openFiles);
+            this.open = new LinkedHashMap<>(this.maxOpen * 2, RdfPartitionWriterJena.LOAD_FACTOR, true);
+        }
+
+        /**
+         * Method adds a row to the current batch and hands the batch to the thread, if it is full.
+         * @param value Partition value, null if the partition column is not bound.
+         * @param binding Row of the result set.
+         * @throws InterruptedIOException If the thread reading the result is interrupted.
+         */
+        void add(final String value, final Binding binding) throws InterruptedIOException {
+            this.batch.values[this.batch.size] = value;
+            this.batch.bindings[this.batch.size] = binding;
+            this.batch.size += 1;
+            if (this.batch.size == RdfPartitionWriterJena.BATCH_ROWS) {
+                try {
+                    this.queue.put(this.batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing the partitioned output.");
+                }
+                this.batch = new Batch();
+            }
+        }
+
+        /**
+         * Method hands the current batch and an empty batch ending the thread to the thread.
+         * @return True if the thread reading the result has been interrupted meanwhile.
+         */
+        boolean end() {
+            boolean interrupted = false;
+            for (final Batch b : new Batch[] {this.batch, new Batch()}) {
+                while (true) {
+                    try {
+                        this.queue.put(b);
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            this.batch = null;
+            return interrupted;
+        }
+
+        /**
+         * Method writes the batches handed to the thread, until it is ended by an empty batch,
+         * and closes all output files.
+         */
+        @Override
+        public void run() {
+            Batch b = this.take();
+            try {
+                while (b.size > 0) {
+                    if (this.failure == null) {
+                        this.write(b);
+                    }
+                    b = this.take();
+                }
+            } finally {
+                this.drain(b);
+                for (final Shard s : this.open.values()) {
+                    this.close(s);
+                }
+                this.open.clear();
+            }
+        }
+
+        /**
+         * Method takes the remaining batches until the empty batch ending the thread, if writing a batch
+         * has failed unexpectedly, so the thread reading the result is not blocked.
+         * @param last Last batch taken from the queue.
+         */
+        private void drain(final Batch last) {
+            if (last.size == 0) {
+                return;
+            }
+            if (this.failure == null) {
+                this.failure = new IOException("Writing the partitioned output failed unexpectedly.");
+            }
+            Batch b = this.take();
+            while (b.size > 0) {
+                b = this.take();
+            }
+        }
+
+        /**
+         * Method takes the next batch from the queue, interrupts of the writer thread are ignored.
+         * @return Next batch.
+         */
+        private Batch take() {
+            while (true) {
+                try {
+                    return this.queue.take();
+                } catch (InterruptedException e) {
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        /**
+         * Method writes the rows of a batch to the output files of their partition values.
+         * @param b Batch of rows.
+         */
+        private void write(final Batch b) {
+            try {
+                for (int i = 0; i < b.size; i += 1) {
+                    this.shard(b.values[i]).writer.writeRow(b.bindings[i], this.vars, this.blankNodes);
+                }
+            } catch (IOException e) {
+                this.failure = e;
+            }
+        }
+
+        /**
+         * Method returns the open output file of a partition value. A file written before is reopened
+         * in append mode, the least recently written file is closed if too many files are open.
+         * @param value Partition value, null if the partition column is not bound.
+         * @return Open output file.
+         * @throws IOException If an output file cannot be opened or closed.
+         */
+        private Shard shard(final String value) throws IOException {
+            final Shard current = this.open.get(value);
+            if (current != null) {
+                return current;
+            }
+            AbstractRdfResultWriterJena writer = null;
+            if (this.open.size() >= this.maxOpen) {
+                final Iterator<Shard> eldest = this.open.values().iterator();
+                final Shard evicted = eldest.next();
+                eldest.remove();
+                writer = this.close(evicted);
+            }
+            final Path path = this.files.get(value);
+            final Shard s = new Shard(writer, path == null
+                    ? RdfPartitionWriterJena.partitionFile(this.file, value) : path, path != null);
+            this.open.put(value, s);
+            if (path == null) {
+                this.files.put(value, s.path);
+                s.writer.start(this.names, s.channel);
+            } else {
+                s.writer.resume(s.channel);
+            }
+            return s;
+        }
+
+        /**
+         * Method writes the buffered rows of an output file and closes it.
+         * @param s Open output file.
+         * @return Writer of the file, which can be reused for another file.
+         */
+        private AbstractRdfResultWriterJena close(final Shard s) {
+            try {
+                s.writer.suspend();
+            } catch (IOException e) {
+                this.fail(e);
+            } finally {
+                try {
+                    s.channel.close();
+                } catch (IOException e) {
+                    this.fail(e);
+                }
+            }
+            return s.writer;
+        }
+
+        /**
+         * Method keeps the first failure of writing the output files.
+         * @param e Failure of writing an output file.
+         */
+        private void fail(final IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+
+        /**
+         * Open output file of a partition value.
+         */
+        private final class Shard {
+            /**
+             * Path of the output file.
+             */
+            private final Path path;
+            /**
+             * Writer of the output file.
+             */
+            private final AbstractRdfResultWriterJena writer;
+            /**
+             * Channel of the output file.
+             */
+            private final WritableByteChannel channel;
+
+            /**
+             * Constructor, opens the output file in append mode if it has been written before.
+             * @param reused Writer of a closed output file, null to create a new writer.
+             * @param shardFile Path of the output file.
+             * @param append True if the output file has been written before.
+             * @throws IOException If the output file cannot be opened.
+             */
+            Shard(final AbstractRdfResultWriterJena reused, final Path shardFile, final boolean append)
+                    throws IOException {
+                this.path = shardFile;
+                this.writer = reused != null ? reused : AbstractRdfResultWriterJena.forFormat(
+                        RdfPartitionWriterJena.this.format, RdfPartitionWriterJena.SHARD_BUFFER_SIZE);
+                this.channel = AbstractRdfResultWriterJena.openFile(shardFile, append,
+                        RdfPartitionWriterJena.SHARD_BLOCK_SIZE);
+            }
+        }
+    }
+
+}
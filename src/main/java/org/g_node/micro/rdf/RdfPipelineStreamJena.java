@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.shared.JenaException;
+import com.hp.hpl.jena.sparql.core.Quad;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Logger;
+
+/**
+ * Stream destination inserting parsed triples into a graph on a separate thread. The parser thread collects
+ * triples in batches and hands them to the insert thread through a bounded queue, parsing and inserting
+ * into the graph indexes therefore overlap. The time each thread spent waiting for the other is recorded
+ * and logged after loading, to tune the queue depth and batch size.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfPipelineStreamJena implements StreamRDF {
+    /**
+     * Default number of batches the parser may be ahead of the insert thread.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 64;
+    /**
+     * Default number of triples per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    /**
+     * Marker batch signalling the end of the parsed data.
+     */
+    private static final List<Triple> END = new ArrayList<>();
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfPipelineStreamJena.class.getName());
+
+    /**
+     * Graph receiving the parsed triples, only accessed by the insert thread until loading is finished.
+     */
+    private final Graph graph;
+    /**
+     * Batches handed from the parser thread to the insert thread.
+     */
+    private final BlockingQueue<List<Triple>> queue;
+    /**
+     * Number of triples per batch.
+     */
+    private final int batchSize;
+    /**
+     * Prefixes declared by the parsed data, added to the graph after loading.
+     */
+    private final Map<String, String> prefixes = new HashMap<>();
+    /**
+     * Task inserting the batches into the graph, completes with any error or exception thrown while inserting.
+     */
+    private final FutureTask<Void> inserter;
+    /**
+     * Batch currently filled by the parser thread.
+     */
+    private List<Triple> batch;
+    /**
+     * Number of batches handed to the insert thread.
+     */
+    private long batchCount;
+    /**
+     * Time in nanoseconds the parser thread waited because the queue was full.
+     */
+    private long parserStallNanos;
+    /**
+     * Time in nanoseconds the insert thread waited because the queue was empty.
+     */
+    private volatile long inserterStallNanos;
+
+    /**
+     * Constructor, starts the insert thread.
+     * @param dest Graph receiving the parsed triples.
+     * @param queueDepth Maximum number of batches the parser may be ahead of the insert thread.
+     * @param batchTriples Number of triples per batch.
+     */
+    public RdfPipelineStreamJena(final Graph dest, final int queueDepth, final int batchTriples) {
+        this.graph = dest;
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.batchSize = batchTriples;
+        this.batch = new ArrayList<>(batchTriples);
+        this.inserter = new FutureTask<Void>(this::insertBatches) {
+            @Override
+            protected void done() {
+                RdfPipelineStreamJena.this.queue.clear();
+            }
+        };
+        final Thread thread = new Thread(this.inserter, "graph-insert");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method parses RDF data into a graph using the pipeline configured in the provided settings.
+     * If no pipeline is configured, the parsed data is inserted into the graph on the parser thread.
+     * If parsing fails, a failure of the insert thread is added to the parser exception as suppressed.
+     * @param dest Graph receiving the parsed triples.
+     * @param options Settings used to load the data.
+     * @param parser Parses the RDF data into the provided stream destination.
+     * @throws RiotException If the data cannot be parsed or inserted.
+     */
+    public static void load(final Graph dest, final RdfLoadOptions options, final Consumer<StreamRDF> parser) {
+        if (options.getPipelineDepth() <= 0) {
+            parser.accept(StreamRDFLib.graph(dest));
+            return;
+        }
+
+        final RdfPipelineStreamJena pipeline =
+                new RdfPipelineStreamJena(dest, options.getPipelineDepth(), options.getPipelineBatchSize());
+        try {
+            parser.accept(pipeline);
+        } catch (JenaException e) {
+            pipeline.abort(e);
+            throw e;
+        } finally {
+            pipeline.close();
+        }
+        RdfPipelineStreamJena.LOGGER.info(
+                String.join("", "Pipeline stalls...\t\t(", String.valueOf(pipeline.getBatchCount()),
+                        " batches, parser waited ", String.valueOf(pipeline.getParserStallMillis()),
+                        " ms, insert waited ", String.valueOf(pipeline.getInserterStallMillis()), " ms)"));
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void triple(final Triple triple) {
+        this.batch.add(triple);
+        if (this.batch.size() >= this.batchSize) {
+            this.handOver(this.batch);
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+    }
+
+    @Override
+    public void quad(final Quad quad) {
+        if (quad.isTriple() || quad.isDefaultGraph()) {
+            this.triple(quad.asTriple());
+        }
+    }
+
+    @Override
+    public void base(final String base) {
+    }
+
+    @Override
+    public void prefix(final String prefix, final String iri) {
+        this.prefixes.put(prefix, iri);
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    /**
+     * Method hands the last batch to the insert thread, waits until all batches have been inserted
+     * and adds the declared prefixes to the graph. Calling the method more than once has no effect.
+     * @throws RiotException If the insert thread failed or waiting for it was interrupted.
+     */
+    public void close() {
+        if (this.batch == null) {
+            return;
+        }
+        final JenaException failure = this.stop();
+        if (failure != null) {
+            throw failure;
+        }
+        this.graph.getPrefixMapping().setNsPrefixes(this.prefixes);
+    }
+
+    /**
+     * Method closes this stream after parsing has failed, without throwing. A failure of the insert thread
+     * is added to the parser exception as suppressed exception. Calling {@link #close()} afterwards has no effect.
+     * @param parseFailure Exception thrown by the parser.
+     */
+    public void abort(final JenaException parseFailure) {
+        if (this.batch == null) {
+            return;
+        }
+        try {
+            final JenaException failure = this.stop();
+            if (failure != null) {
+                parseFailure.addSuppressed(failure);
+            }
+        } catch (JenaException e) {
+            parseFailure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Method returns the number of batches handed to the insert thread.
+     * @return Number of batches.
+     */
+    public long getBatchCount() {
+        return this.batchCount;
+    }
+
+    /**
+     * Method returns the time the parser thread waited for the insert thread, because the queue was full.
+     * @return Waiting time in milliseconds.
+     */
+    public long getParserStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.parserStallNanos);
+    }
+
+    /**
+     * Method returns the time the insert thread waited for the parser thread, because the queue was empty.
+     * @return Waiting time in milliseconds.
+     */
+    public long getInserterStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.inserterStallNanos);
+    }
+
+    /**
+     * Method hands the last batch and the end marker to the insert thread and waits until it has finished.
+     * @return Error that stopped the insert thread, null if all batches have been inserted.
+     * @throws RiotException If waiting was interrupted.
+     */
+    private JenaException stop() {
+        if (!this.batch.isEmpty()) {
+            this.handOver(this.batch);
+        }
+        this.batch = null;
+        this.handOver(RdfPipelineStreamJena.END);
+        try {
+            this.inserter.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RiotException("Interrupted while waiting for the graph insert thread");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JenaException) {
+                return (JenaException) e.getCause();
+            }
+            return new RiotException(e.getCause());
+        }
+    }
+
+    /**
+     * Method hands a batch to the insert thread, waiting if the queue is full. Once the insert thread has
+     * stopped, the batch is discarded, so the parser thread is never blocked.
+     * @param triples Batch of triples.
+     * @throws RiotException If waiting was interrupted.
+     */
+    private void handOver(final List<Triple> triples) {
+        if (this.inserter.isDone()) {
+            return;
+        }
+        try {
+            if (!this.queue.offer(triples)) {
+                final long start = System.nanoTime();
+                this.queue.put(triples);
+                this.parserStallNanos += System.nanoTime() - start;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RiotException("Interrupted while waiting for the graph insert thread");
+        }
+        if (triples != RdfPipelineStreamJena.END) {
+            this.batchCount += 1;
+        }
+    }
+
+    /**
+     * Body of the insert thread, inserts batches into the graph until the end marker is received.
+     * Any error ends the task, which discards the queued batches.
+     * @return Nothing.
+     * @throws InterruptedException If the insert thread has been interrupted.
+     */
+    private Void insertBatches() throws InterruptedException {
+        long stalled = 0;
+        try {
+            List<Triple> triples = this.queue.poll();
+            while (triples != RdfPipelineStreamJena.END) {
+                if (triples == null) {
+                    final long start = System.nanoTime();
+                    triples = this.queue.take();
+                    stalled += System.nanoTime() - start;
+                    continue;
+                }
+                triples.forEach(this.graph::add);
+                triples = this.queue.poll();
+            }
+        } finally {
+            this.inserterStallNanos = stalled;
+        }
+        return null;
+    }
+
+}
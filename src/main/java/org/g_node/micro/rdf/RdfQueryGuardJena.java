@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryCancelledException;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIteratorWrapper;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Class wrapping the result rows of a query and cancelling the query, if it exceeds one of its
+ * {@link RdfQueryLimits}. The row budget is checked for every row. Timeout and heap usage are checked
+ * periodically on a separate thread, the query is cancelled the same way as an aborted QueryExecution,
+ * which also stops a query that is still working on its first row. After cancelling, reading the next row
+ * throws a {@link RdfQueryLimitException} naming the exceeded limit.
+ * The heap usage is the usage of the tenured heap pools after their last garbage collection, as reported by
+ * their {@link MemoryPoolMXBean#getCollectionUsage()}. Garbage left by the query or by other queries running
+ * at the same time is therefore not counted, only data still reachable after a collection. The usage is only
+ * checked once a tenured pool has been collected after the query started, a query is never cancelled because
+ * of the usage left by earlier queries.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfQueryGuardJena extends QueryIteratorWrapper {
+    /**
+     * Interval between two checks of timeout and heap usage in milliseconds.
+     */
+    private static final long CHECK_INTERVAL_MILLIS = 100L;
+    /**
+     * Thread checking timeout and heap usage of all running queries.
+     */
+    private static final ScheduledExecutorService CHECKER =
+            Executors.newSingleThreadScheduledExecutor(RdfQueryGuardJena::checkerThread);
+    /**
+     * Factor converting a fraction into percent.
+     */
+    private static final long PERCENT = 100L;
+    /**
+     * Heap pools holding long living objects, these are the pools supporting a usage threshold.
+     */
+    private static final List<MemoryPoolMXBean> TENURED_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(p -> p.getType() == MemoryType.HEAP && p.isUsageThresholdSupported()
+                    && p.isCollectionUsageThresholdSupported())
+            .collect(Collectors.toList());
+    /**
+     * Garbage collectors collecting the tenured heap pools.
+     */
+    private static final List<GarbageCollectorMXBean> TENURED_COLLECTORS =
+            ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .filter(c -> RdfQueryGuardJena.TENURED_POOLS.stream().anyMatch(
+                            p -> Arrays.asList(p.getMemoryManagerNames()).contains(c.getName())))
+                    .collect(Collectors.toList());
+
+    /**
+     * Limits of the query.
+     */
+    private final RdfQueryLimits limits;
+    /**
+     * Start time of the query in milliseconds.
+     */
+    private final long start = System.currentTimeMillis();
+    /**
+     * Periodic check of timeout and heap usage, null if neither is limited.
+     */
+    private final ScheduledFuture<?> check;
+    /**
+     * Number of collections of the tenured heap pools when the query started.
+     */
+    private final long startCollections = RdfQueryGuardJena.tenuredCollections();
+    /**
+     * Number of rows that have been read.
+     */
+    private long rows;
+    /**
+     * Description of the exceeded limit, null as long as the query is within its limits.
+     */
+    private volatile String exceededLimit;
+
+    /**
+     * Constructor starts checking the limits of a query.
+     * @param iterator Result rows of the query.
+     * @param queryLimits Limits of the query.
+     */
+    public RdfQueryGuardJena(final QueryIterator iterator, final RdfQueryLimits queryLimits) {
+        super(iterator);
+        this.limits = queryLimits;
+        if (queryLimits.getTimeoutMillis() > 0 || queryLimits.getMaxHeapPercent() > 0) {
+            this.check = RdfQueryGuardJena.CHECKER.scheduleAtFixedRate(this::checkLimits,
+                    RdfQueryGuardJena.CHECK_INTERVAL_MILLIS, RdfQueryGuardJena.CHECK_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.check = null;
+        }
+    }
+
+    /**
+     * Method limits the rows of an already evaluated result, e.g. of a native reporter. Only the row budget
+     * and the time spent reading the rows are limited. The timeout starts when this method is called,
+     * the time spent evaluating the result before is not limited.
+     * @param result Result that is limited.
+     * @param queryLimits Limits of the result.
+     * @return Limited result, the same result if no limit is set.
+     */
+    public static ResultSet guard(final ResultSet result, final RdfQueryLimits queryLimits) {
+        if (queryLimits.isUnlimited()) {
+            return result;
+        }
+        final Iterator<Binding> bindings = new Iterator<Binding>() {
+            @Override
+            public boolean hasNext() {
+                return result.hasNext();
+            }
+
+            @Override
+            public Binding next() {
+                return result.nextBinding();
+            }
+        };
+        return new ResultSetStream(result.getResultVars(), result.getResourceModel(),
+                new RdfQueryGuardJena(new QueryIterPlainWrapper(bindings), queryLimits));
+    }
+
+    /**
+     * Method creates the daemon thread checking timeout and heap usage of all running queries.
+     * @param checks Periodic checks run by the thread.
+     * @return Checker thread.
+     */
+    private static Thread checkerThread(final Runnable checks) {
+        final Thread t = new Thread(checks, "query-guard");
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Method returns the number of collections of the tenured heap pools since the JVM started.
+     * @return Number of collections.
+     */
+    private static long tenuredCollections() {
+        return RdfQueryGuardJena.TENURED_COLLECTORS.stream()
+                .mapToLong(c -> Math.max(0, c.getCollectionCount())).sum();
+    }
+
+    /**
+     * Method checks whether the usage of a tenured heap pool after its last collection exceeds a percentage
+     * of its maximum size.
+     * @param percent Percentage of the maximum size of a pool.
+     * @return True if the usage of a pool exceeds the percentage.
+     */
+    private static boolean isCollectedHeapAbove(final int percent) {
+        for (final MemoryPoolMXBean pool : RdfQueryGuardJena.TENURED_POOLS) {
+            final MemoryUsage usage = pool.getCollectionUsage();
+            final long max = usage.getMax() > 0 ? usage.getMax() : Runtime.getRuntime().maxMemory();
+            if (usage.getUsed() * RdfQueryGuardJena.PERCENT > max * percent) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method returns the limit the query has exceeded.
+     * @return Description of the exceeded limit, null if the query is within its limits.
+     */
+    public String getExceededLimit() {
+        return this.exceededLimit;
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        this.throwIfExceeded();
+        try {
+            final boolean hasNext = super.hasNextBinding();
+            this.throwIfExceeded();
+            return hasNext;
+        } catch (QueryCancelledException exc) {
+            this.throwIfExceeded();
+            throw exc;
+        }
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        this.rows += 1;
+        if (this.limits.getMaxRows() > 0 && this.rows > this.limits.getMaxRows()) {
+            this.exceed(String.join("", "row budget of ", String.valueOf(this.limits.getMaxRows()), " rows"));
+            this.throwIfExceeded();
+        }
+        return super.moveToNextBinding();
+    }
+
+    @Override
+    protected void closeIterator() {
+        this.stopChecking();
+        super.closeIterator();
+    }
+
+    /**
+     * Method checks timeout and heap usage, called periodically on the checker thread.
+     */
+    private void checkLimits() {
+        final long timeout = this.limits.getTimeoutMillis();
+        if (timeout > 0 && System.currentTimeMillis() - this.start > timeout) {
+            this.exceed(String.join("", "timeout of ", String.valueOf(timeout), " ms"));
+            return;
+        }
+
+        final int maxHeap = this.limits.getMaxHeapPercent();
+        if (maxHeap > 0 && RdfQueryGuardJena.tenuredCollections() > this.startCollections
+                && RdfQueryGuardJena.isCollectedHeapAbove(maxHeap)) {
+            this.exceed(String.join("", "heap limit of ", String.valueOf(maxHeap), "% of the maximum heap"));
+        }
+    }
+
+    /**
+     * Method cancels the query after it has exceeded a limit.
+     * @param limit Description of the exceeded limit.
+     */
+    private void exceed(final String limit) {
+        if (this.exceededLimit == null) {
+            this.exceededLimit = limit;
+        }
+        this.stopChecking();
+        QueryIteratorWrapper.performRequestCancel(this.iterator);
+    }
+
+    /**
+     * Method stops the periodic check of timeout and heap usage.
+     */
+    private void stopChecking() {
+        if (this.check != null) {
+            this.check.cancel(false);
+        }
+    }
+
+    /**
+     * Method throws the exception of the exceeded limit, if the query has exceeded a limit.
+     */
+    private void throwIfExceeded() {
+        if (this.exceededLimit != null) {
+            throw new RdfQueryLimitException(this.exceededLimit);
+        }
+    }
+
+}
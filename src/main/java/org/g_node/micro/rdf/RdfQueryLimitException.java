@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryCancelledException;
+
+/**
+ * Exception thrown while reading the results of a query that has been cancelled
+ * by the {@link RdfQueryGuardJena}, because it exceeded one of its {@link RdfQueryLimits}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfQueryLimitException extends QueryCancelledException {
+    /**
+     * Serialization version.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Description of the limit that has been exceeded.
+     */
+    private final String limit;
+
+    /**
+     * Constructor.
+     * @param exceededLimit Description of the limit that has been exceeded.
+     */
+    public RdfQueryLimitException(final String exceededLimit) {
+        super();
+        this.limit = exceededLimit;
+    }
+
+    /**
+     * Method returns the limit that has been exceeded.
+     * @return Description of the limit.
+     */
+    public String getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.join("", "Query cancelled, ", this.limit, " exceeded.");
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+/**
+ * Class containing the limits a single report query has to stay within. A limit of 0 disables the limit,
+ * the default settings do not limit queries at all. Limits are enforced by the {@link RdfQueryGuardJena}.
+ * How the results of a report are evaluated and written is set by the {@link RdfReportOptions}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfQueryLimits {
+    /**
+     * Maximum wall-clock time of a query in milliseconds.
+     */
+    private long timeoutMillis;
+    /**
+     * Maximum number of result rows of a query.
+     */
+    private long maxRows;
+    /**
+     * Maximum percentage of the maximum heap size that may be in use while a query runs.
+     */
+    private int maxHeapPercent;
+    /**
+     * Method returns whether any limit is set.
+     * @return True if queries are not limited.
+     */
+    public boolean isUnlimited() {
+        return this.timeoutMillis == 0 && this.maxRows == 0 && this.maxHeapPercent == 0;
+    }
+
+    /**
+     * Method returns the maximum wall-clock time of a query.
+     * @return Timeout in milliseconds, 0 if the time of a query is not limited.
+     */
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    /**
+     * Set the maximum wall-clock time of a query, measured from the start of the query
+     * until its last result row has been read. Reports created by a native reporter evaluate all rows
+     * before the first row is read, only reading and saving their rows is limited by the timeout.
+     * @param millis Timeout in milliseconds, 0 to disable the timeout.
+     * @return This instance.
+     */
+    public RdfQueryLimits setTimeoutMillis(final long millis) {
+        this.timeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum number of result rows of a query.
+     * @return Maximum number of rows, 0 if the number of rows is not limited.
+     */
+    public long getMaxRows() {
+        return this.maxRows;
+    }
+
+    /**
+     * Set the maximum number of result rows of a query.
+     * @param rows Maximum number of rows, 0 to disable the row budget.
+     * @return This instance.
+     */
+    public RdfQueryLimits setMaxRows(final long rows) {
+        this.maxRows = rows;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum percentage of the heap that may be in use while a query runs.
+     * @return Percentage of the maximum heap size, 0 if the heap usage is not checked.
+     */
+    public int getMaxHeapPercent() {
+        return this.maxHeapPercent;
+    }
+
+    /**
+     * Set the maximum percentage of the maximum heap size that may be in use while a query runs.
+     * This is a soft limit: the heap in use after a garbage collection of the tenured heap is sampled
+     * periodically, see {@link RdfQueryGuardJena}. The heap is shared by all queries, if several queries
+     * run at the same time, all of them are cancelled once their data together exceeds the limit.
+     * @param percent Percentage between 1 and 100, 0 to disable the heap guard.
+     * @return This instance.
+     */
+    public RdfQueryLimits setMaxHeapPercent(final int percent) {
+        this.maxHeapPercent = percent;
+        return this;
+    }
+
+}
@@ -0,0 +1,479 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.ARQ;
+import com.hp.hpl.jena.shared.PrefixMapping;
+import com.hp.hpl.jena.sparql.algebra.Op;
+import com.hp.hpl.jena.sparql.algebra.op.Op1;
+import com.hp.hpl.jena.sparql.algebra.op.Op2;
+import com.hp.hpl.jena.sparql.algebra.op.OpBGP;
+import com.hp.hpl.jena.sparql.algebra.op.OpConditional;
+import com.hp.hpl.jena.sparql.algebra.op.OpFilter;
+import com.hp.hpl.jena.sparql.algebra.op.OpJoin;
+import com.hp.hpl.jena.sparql.algebra.op.OpLabel;
+import com.hp.hpl.jena.sparql.algebra.op.OpLeftJoin;
+import com.hp.hpl.jena.sparql.algebra.op.OpN;
+import com.hp.hpl.jena.sparql.algebra.op.OpPropFunc;
+import com.hp.hpl.jena.sparql.algebra.op.OpSequence;
+import com.hp.hpl.jena.sparql.core.BasicPattern;
+import com.hp.hpl.jena.sparql.core.DatasetGraphFactory;
+import com.hp.hpl.jena.sparql.core.Substitute;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPeek;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIteratorWrapper;
+import com.hp.hpl.jena.sparql.engine.main.OpExecutor;
+import com.hp.hpl.jena.sparql.engine.main.QC;
+import com.hp.hpl.jena.sparql.engine.main.StageBuilder;
+import com.hp.hpl.jena.sparql.engine.main.StageGenerator;
+import com.hp.hpl.jena.sparql.engine.optimizer.reorder.ReorderLib;
+import com.hp.hpl.jena.sparql.util.Context;
+import com.hp.hpl.jena.sparql.util.FmtUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.log4j.Logger;
+
+/**
+ * Class profiling the evaluation of a compiled query plan. Every operator of the plan is wrapped in a probe
+ * counting how often the operator is evaluated, the rows it reads from its input and returns, and the time
+ * spent in the operator itself and in total. Basic graph patterns are evaluated one triple pattern at a time
+ * in the order chosen by the fixed reordering of the SPARQL engine, each triple pattern gets its own probe.
+ * Probes are attached to the plan as labels, they survive the substitution of operators evaluated
+ * once per input row, e.g. the right side of an OPTIONAL.
+ *
+ * A profile is used for a single evaluation on a single thread. The plan of a query without evaluating it
+ * is described by {@link #explain(Op, PrefixMapping)}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfQueryProfileJena {
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MS = 1e6;
+    /**
+     * Indentation of nested operators.
+     */
+    private static final String INDENT = "  ";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfQueryProfileJena.class.getName());
+
+    /**
+     * Prefixes used to abbreviate the URIs of the operators.
+     */
+    private PrefixMapping prefixes = PrefixMapping.Standard;
+    /**
+     * Probes of all operators in the order of the plan.
+     */
+    private final List<Probe> probes = new ArrayList<>();
+    /**
+     * Probe of the operator that is currently evaluated, null if no operator is evaluated.
+     */
+    private Probe current;
+
+    /**
+     * Method describes how a query plan is evaluated: the operators in the order of the plan,
+     * the join strategy of every join and the order of the triple patterns of basic graph patterns.
+     * The order of the triple patterns is estimated from the unbound patterns, it may change
+     * during the evaluation depending on the rows of preceding operators.
+     * @param plan Optimized algebra expression of the query.
+     * @param prefixMapping Prefixes used to abbreviate the URIs of the operators.
+     * @return Description of the plan, one operator per line.
+     */
+    public static String explain(final Op plan, final PrefixMapping prefixMapping) {
+        final RdfQueryProfileJena profile = new RdfQueryProfileJena();
+        profile.prefixes = prefixMapping;
+        profile.instrument(plan, 0);
+        final StringBuilder out = new StringBuilder();
+        for (final Probe probe : profile.probes) {
+            out.append(probe.describe()).append('\n');
+            if (!probe.triples.isEmpty()) {
+                final BasicPattern pattern = ((OpBGP) probe.op).getPattern();
+                for (final Triple triple : ReorderLib.fixed().reorder(pattern)) {
+                    out.append(probe.triples.get(pattern.getList().indexOf(triple)).describe()).append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Method evaluates a query plan with a probe attached to every operator.
+     * @param plan Algebra expression that is evaluated.
+     * @param graph Graph that is queried.
+     * @param prefixMapping Prefixes used to abbreviate the URIs of the operators, usually the prefixes of the query.
+     * @return Rows of the plan, the probes are updated while the rows are iterated.
+     */
+    public QueryIterator exec(final Op plan, final Graph graph, final PrefixMapping prefixMapping) {
+        this.prefixes = prefixMapping;
+        final Op instrumented = this.instrument(plan, 0);
+        final Context context = ARQ.getContext().copy();
+        StageBuilder.setGenerator(context, new ProfilingStageGenerator(StageBuilder.chooseStageGenerator(context)));
+        final ExecutionContext execCxt = new ExecutionContext(context, graph,
+                DatasetGraphFactory.createOneGraph(graph), ProfilingOpExecutor::new);
+        return QC.execute(instrumented, OpExecutor.createRootQueryIterator(execCxt), execCxt);
+    }
+
+    /**
+     * Method returns whether a query plan has been evaluated with this profile.
+     * @return True if the profile contains the operators of a plan.
+     */
+    public boolean isEmpty() {
+        return this.probes.isEmpty();
+    }
+
+    /**
+     * Method saves the profile to a text file, errors are logged.
+     * @param fileName Path and filename of the profile file.
+     */
+    public void save(final String fileName) {
+        RdfQueryProfileJena.LOGGER.info(String.join("", "Write query profile...\t\t(", fileName, ")"));
+        try {
+            Files.write(Paths.get(fileName), this.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException exc) {
+            RdfQueryProfileJena.LOGGER.error(
+                    String.join("", "Cannot write query profile...\t(", fileName, ") ", exc.getMessage()));
+        }
+    }
+
+    /**
+     * Method returns the profile as a table, one operator per line in the order of the plan. Times are
+     * milliseconds, the self time of an operator excludes the time spent in nested operators.
+     * @return Profile of all operators.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder(String.format(Locale.ENGLISH, "%10s %10s %8s %10s %10s  %s%n",
+                "total ms", "self ms", "runs", "rows in", "rows out", "operator"));
+        for (final Probe probe : this.probes) {
+            out.append(probe.format());
+            probe.triples.forEach(t -> out.append(t.format()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Method returns the probes of all operators, triple patterns are contained in their basic graph pattern.
+     * @return Probes in the order of the plan.
+     */
+    List<Probe> getProbes() {
+        return Collections.unmodifiableList(this.probes);
+    }
+
+    /**
+     * Method attaches a probe to an operator and all its sub operators.
+     * @param op Operator of the plan.
+     * @param depth Nesting level of the operator.
+     * @return Operator with the probes attached as labels.
+     */
+    private Op instrument(final Op op, final int depth) {
+        final Probe probe = new Probe(op, this.label(op), depth);
+        this.probes.add(probe);
+        if (op instanceof OpBGP) {
+            for (final Triple triple : ((OpBGP) op).getPattern()) {
+                probe.triples.add(new Probe(op, FmtUtils.stringForTriple(triple, this.prefixes), depth + 1));
+            }
+        }
+
+        Op instrumented = op;
+        if (op instanceof Op1) {
+            instrumented = ((Op1) op).copy(this.instrument(((Op1) op).getSubOp(), depth + 1));
+        } else if (op instanceof Op2) {
+            final Op left = this.instrument(((Op2) op).getLeft(), depth + 1);
+            instrumented = ((Op2) op).copy(left, this.instrument(((Op2) op).getRight(), depth + 1));
+        } else if (op instanceof OpN) {
+            final List<Op> elements = new ArrayList<>();
+            for (final Op element : ((OpN) op).getElements()) {
+                elements.add(this.instrument(element, depth + 1));
+            }
+            instrumented = ((OpN) op).copy(elements);
+        }
+        return OpLabel.create(probe, instrumented);
+    }
+
+    /**
+     * Method describes an operator and its join strategy. Joins that are turned into a sequence or
+     * conditional by the optimizer evaluate their right side once per row of the left side with the
+     * values of the row substituted, other joins evaluate both sides once and compare all pairs of rows.
+     * @param op Operator of the plan.
+     * @return Name of the operator with its join strategy or its main argument.
+     */
+    private String label(final Op op) {
+        if (op instanceof OpSequence) {
+            return "sequence (index join)";
+        } else if (op instanceof OpConditional) {
+            return "conditional (index left join, OPTIONAL)";
+        } else if (op instanceof OpJoin) {
+            return "join (nested loop join)";
+        } else if (op instanceof OpLeftJoin) {
+            return "leftjoin (nested loop left join, OPTIONAL)";
+        } else if (op instanceof OpBGP) {
+            return String.join("", "bgp (", String.valueOf(((OpBGP) op).getPattern().size()), " triple patterns)");
+        } else if (op instanceof OpFilter) {
+            return String.join("", "filter ", ((OpFilter) op).getExprs().toString());
+        } else if (op instanceof OpPropFunc) {
+            return String.join("", "propfunc ", FmtUtils.stringForNode(((OpPropFunc) op).getProperty(), this.prefixes));
+        }
+        return op.getName();
+    }
+
+    /**
+     * Method evaluates an operator and updates its probe.
+     * @param probe Probe of the operator.
+     * @param input Input rows of the operator.
+     * @param evaluation Evaluates the operator on its input rows.
+     * @return Output rows of the operator.
+     */
+    private QueryIterator probe(final Probe probe, final QueryIterator input,
+                                final Function<QueryIterator, QueryIterator> evaluation) {
+        probe.runs += 1;
+        final QueryIterator counted = new QueryIteratorWrapper(input) {
+            @Override
+            protected Binding moveToNextBinding() {
+                probe.rowsIn += 1;
+                return super.moveToNextBinding();
+            }
+        };
+        final QueryIterator output = this.timed(probe, () -> evaluation.apply(counted));
+        return new QueryIteratorWrapper(output) {
+            @Override
+            protected boolean hasNextBinding() {
+                return RdfQueryProfileJena.this.timed(probe, super::hasNextBinding);
+            }
+
+            @Override
+            protected Binding moveToNextBinding() {
+                probe.rowsOut += 1;
+                return RdfQueryProfileJena.this.timed(probe, super::moveToNextBinding);
+            }
+        };
+    }
+
+    /**
+     * Method measures the time of a call within an operator. The time is added to the total time
+     * of the operator and to the nested time of the calling operator.
+     * @param probe Probe of the operator.
+     * @param call Call within the operator.
+     * @param <T> Result of the call.
+     * @return Result of the call.
+     */
+    private <T> T timed(final Probe probe, final Supplier<T> call) {
+        final Probe caller = this.current;
+        this.current = probe;
+        final long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            this.current = caller;
+            probe.totalNanos += elapsed;
+            if (caller != null) {
+                caller.nestedNanos += elapsed;
+            }
+        }
+    }
+
+    /**
+     * Statistics of a single operator or triple pattern.
+     */
+    static final class Probe {
+        /**
+         * Operator of the plan.
+         */
+        private final Op op;
+        /**
+         * Description of the operator.
+         */
+        private final String description;
+        /**
+         * Nesting level of the operator.
+         */
+        private final int depth;
+        /**
+         * Probes of the triple patterns of a basic graph pattern in the order of the pattern.
+         */
+        private final List<Probe> triples = new ArrayList<>();
+        /**
+         * Number of evaluations of the operator.
+         */
+        private long runs;
+        /**
+         * Number of rows read from the input.
+         */
+        private long rowsIn;
+        /**
+         * Number of rows returned.
+         */
+        private long rowsOut;
+        /**
+         * Total time spent in the operator in nanoseconds.
+         */
+        private long totalNanos;
+        /**
+         * Time spent in nested operators in nanoseconds.
+         */
+        private long nestedNanos;
+
+        /**
+         * Constructor.
+         * @param operator Operator of the plan.
+         * @param text Description of the operator.
+         * @param level Nesting level of the operator.
+         */
+        Probe(final Op operator, final String text, final int level) {
+            this.op = operator;
+            this.description = text;
+            this.depth = level;
+        }
+
+        /**
+         * Method returns the description of the operator.
+         * @return Description of the operator.
+         */
+        String getDescription() {
+            return this.description;
+        }
+
+        /**
+         * Method returns the number of evaluations of the operator.
+         * @return Number of evaluations.
+         */
+        long getRuns() {
+            return this.runs;
+        }
+
+        /**
+         * Method returns the number of rows read from the input.
+         * @return Number of input rows.
+         */
+        long getRowsIn() {
+            return this.rowsIn;
+        }
+
+        /**
+         * Method returns the number of rows returned by the operator.
+         * @return Number of output rows.
+         */
+        long getRowsOut() {
+            return this.rowsOut;
+        }
+
+        /**
+         * Method returns the probes of the triple patterns of a basic graph pattern.
+         * @return Probes in the order of the pattern, empty for other operators.
+         */
+        List<Probe> getTriples() {
+            return Collections.unmodifiableList(this.triples);
+        }
+
+        /**
+         * Method returns the indented description of the operator.
+         * @return Description of the operator.
+         */
+        private String describe() {
+            return String.join("", String.join("", Collections.nCopies(this.depth, RdfQueryProfileJena.INDENT)),
+                    this.description);
+        }
+
+        /**
+         * Method formats the statistics of the operator as a line of the profile.
+         * @return Line of the profile.
+         */
+        private String format() {
+            return String.format(Locale.ENGLISH, "%10.1f %10.1f %8d %10d %10d  %s%n",
+                    this.totalNanos / RdfQueryProfileJena.NANOS_PER_MS,
+                    (this.totalNanos - this.nestedNanos) / RdfQueryProfileJena.NANOS_PER_MS,
+                    this.runs, this.rowsIn, this.rowsOut, this.describe());
+        }
+    }
+
+    /**
+     * Executor evaluating the operators of a plan, operators with an attached probe update the probe.
+     */
+    private final class ProfilingOpExecutor extends OpExecutor {
+        /**
+         * Constructor.
+         * @param execCxt Context of the evaluation.
+         */
+        ProfilingOpExecutor(final ExecutionContext execCxt) {
+            super(execCxt);
+        }
+
+        @Override
+        protected QueryIterator execute(final OpLabel opLabel, final QueryIterator input) {
+            if (!(opLabel.getObject() instanceof Probe)) {
+                return super.execute(opLabel, input);
+            }
+            return RdfQueryProfileJena.this.probe((Probe) opLabel.getObject(), input,
+                    in -> this.executeOp(opLabel.getSubOp(), in));
+        }
+    }
+
+    /**
+     * Stage generator evaluating the triple patterns of a basic graph pattern one at a time, each with its
+     * own probe. The triple patterns are ordered like the standard stage generator orders them: the fixed
+     * reordering is applied to the pattern with the values of the first input row substituted. Each triple
+     * pattern is evaluated by the stage generator that would have evaluated the whole pattern.
+     */
+    private final class ProfilingStageGenerator implements StageGenerator {
+        /**
+         * Stage generator evaluating the single triple patterns.
+         */
+        private final StageGenerator delegate;
+
+        /**
+         * Constructor.
+         * @param generator Stage generator evaluating the single triple patterns.
+         */
+        ProfilingStageGenerator(final StageGenerator generator) {
+            this.delegate = generator;
+        }
+
+        @Override
+        public QueryIterator execute(final BasicPattern pattern, final QueryIterator input,
+                                     final ExecutionContext execCxt) {
+            final Probe bgp = RdfQueryProfileJena.this.current;
+            if (bgp == null || bgp.triples.size() != pattern.size() || pattern.size() == 0) {
+                return this.delegate.execute(pattern, input, execCxt);
+            }
+
+            final QueryIterPeek peek = QueryIterPeek.create(input, execCxt);
+            final Binding first = peek.peek();
+            final BasicPattern bound = first == null ? pattern : Substitute.substitute(pattern, first);
+            final List<Triple> order = ReorderLib.fixed().reorderIndexes(bound).reorder(bound).getList();
+
+            QueryIterator rows = peek;
+            for (final Triple triple : order) {
+                final int index = bound.getList().indexOf(triple);
+                final BasicPattern single = new BasicPattern();
+                single.add(pattern.get(index));
+                rows = RdfQueryProfileJena.this.probe(bgp.triples.get(index), rows,
+                        in -> this.delegate.execute(single, in, execCxt));
+            }
+            return rows;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Registry of compiled SPARQL queries. Each query is parsed, compiled to its algebra expression and
+ * optimized once, the resulting {@link RdfCompiledQueryJena} is cached by the hash of the query text
+ * and reused by all later reports within the same JVM. The property functions provided by the reporter,
+ * see {@link RdfDateRangeJena}, are registered before the first query is compiled.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfQueryRegistryJena {
+    /**
+     * Compiled queries by the SHA-256 hash of their query text.
+     */
+    private static final Map<String, RdfCompiledQueryJena> QUERIES = new ConcurrentHashMap<>();
+
+    static {
+        RdfDateRangeJena.register();
+    }
+
+    /**
+     * Constructor is private, the registry is only used via its static methods.
+     */
+    private RdfQueryRegistryJena() {
+    }
+
+    /**
+     * Method returns the compiled form of a SPARQL query, the query is only parsed and compiled
+     * if it has not been compiled before. The QueryParseException of an invalid query is passed on
+     * to the caller, invalid queries are not added to the registry.
+     * @param queryString SPARQL query.
+     * @return Compiled query.
+     */
+    public static RdfCompiledQueryJena compile(final String queryString) {
+        final String key = DigestUtils.sha256Hex(queryString);
+        final RdfCompiledQueryJena cached = RdfQueryRegistryJena.QUERIES.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final RdfCompiledQueryJena compiled = new RdfCompiledQueryJena(key, QueryFactory.create(queryString));
+        final RdfCompiledQueryJena previous = RdfQueryRegistryJena.QUERIES.putIfAbsent(key, compiled);
+        return previous == null ? compiled : previous;
+    }
+
+    /**
+     * Method returns whether a SPARQL query has already been compiled.
+     * @param queryString SPARQL query.
+     * @return True if the compiled query is cached, false otherwise.
+     */
+    public static boolean isCompiled(final String queryString) {
+        return RdfQueryRegistryJena.QUERIES.containsKey(DigestUtils.sha256Hex(queryString));
+    }
+
+    /**
+     * Method removes all compiled queries from the registry.
+     */
+    public static void clear() {
+        RdfQueryRegistryJena.QUERIES.clear();
+    }
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+/**
+ * Class containing the settings used when creating a report: the format of the output file, the
+ * {@link RdfQueryLimits} of the report query, the memory budget of sorting query results, see
+ * {@link RdfExternalSortJena}, whether the evaluation of the query is profiled, see {@link RdfQueryProfileJena},
+ * the column partitioning the results into several output files, see {@link RdfPartitionWriterJena},
+ * and whether the results are streamed unsorted or paged, see
+ * {@link RdfCompiledQueryJena#execSelect(com.hp.hpl.jena.rdf.model.Model, RdfReportOptions, RdfQueryProfileJena)}.
+ * The default settings write an unlimited report to a single CSV file.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfReportOptions {
+    /**
+     * Format of the output file.
+     */
+    private String outputFormat = "CSV";
+    /**
+     * Timeout, row budget and heap limit of the report query.
+     */
+    private RdfQueryLimits queryLimits = new RdfQueryLimits();
+    /**
+     * Maximum number of result rows sorted in memory.
+     */
+    private int sortRunRows = RdfExternalSortJena.DEFAULT_RUN_ROWS;
+    /**
+     * Directory of the temporary files of sorted runs, null to use the default temporary directory.
+     */
+    private String sortSpillDir;
+    /**
+     * Whether the evaluation of a query is profiled.
+     */
+    private boolean profiled;
+    /**
+     * Name of the result variable partitioning the results, null if the results are not partitioned.
+     */
+    private String partitionColumn;
+    /**
+     * Maximum number of output files of partitioned results open at the same time.
+     */
+    private int maxOpenFiles = RdfPartitionWriterJena.DEFAULT_MAX_OPEN_FILES;
+    /**
+     * Whether the rows of a query are written as soon as they are bound, without sorting them.
+     */
+    private boolean streamed;
+    /**
+     * Number of result rows skipped before the first row of the page.
+     */
+    private long offset;
+    /**
+     * Maximum number of result rows of the page.
+     */
+    private long limit;
+
+    /**
+     * Method returns the format of the output file.
+     * @return Output format, one of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     */
+    public String getOutputFormat() {
+        return this.outputFormat;
+    }
+
+    /**
+     * Set the format of the output file.
+     * @param format Output format, one of {@link RdfFileServiceJena#QUERY_RESULT_FILE_FORMATS}.
+     * @return This instance.
+     */
+    public RdfReportOptions setOutputFormat(final String format) {
+        this.outputFormat = format;
+        return this;
+    }
+
+    /**
+     * Method returns the timeout, row budget and heap limit of the report query.
+     * @return Limits of the query.
+     */
+    public RdfQueryLimits getQueryLimits() {
+        return this.queryLimits;
+    }
+
+    /**
+     * Set the timeout, row budget and heap limit of the report query.
+     * @param limits Limits of the query.
+     * @return This instance.
+     */
+    public RdfReportOptions setQueryLimits(final RdfQueryLimits limits) {
+        this.queryLimits = limits;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum number of result rows sorted in memory.
+     * @return Number of rows per sorted run, 0 if results are always sorted in memory.
+     */
+    public int getSortRunRows() {
+        return this.sortRunRows;
+    }
+
+    /**
+     * Set the maximum number of result rows sorted in memory. Results of an ORDER BY query with more rows
+     * are sorted in runs of this size, the runs are written to temporary files and merged.
+     * @param rows Number of rows per sorted run, 0 to always sort results in memory.
+     * @return This instance.
+     */
+    public RdfReportOptions setSortRunRows(final int rows) {
+        this.sortRunRows = rows;
+        return this;
+    }
+
+    /**
+     * Method returns the directory of the temporary files of sorted runs.
+     * @return Path of the directory, null if the default temporary directory is used.
+     */
+    public String getSortSpillDir() {
+        return this.sortSpillDir;
+    }
+
+    /**
+     * Set the directory of the temporary files of sorted runs.
+     * @param directory Path of the directory, null to use the default temporary directory.
+     * @return This instance.
+     */
+    public RdfReportOptions setSortSpillDir(final String directory) {
+        this.sortSpillDir = directory;
+        return this;
+    }
+
+    /**
+     * Method returns whether the evaluation of a query is profiled.
+     * @return True if a profile of the query is created.
+     */
+    public boolean isProfiled() {
+        return this.profiled;
+    }
+
+    /**
+     * Set whether the evaluation of a query is profiled. A profiled query is slower, every operator
+     * of its plan measures its rows and time.
+     * @param profile True to create a profile of the query.
+     * @return This instance.
+     */
+    public RdfReportOptions setProfiled(final boolean profile) {
+        this.profiled = profile;
+        return this;
+    }
+
+    /**
+     * Method returns the result variable partitioning the results into one output file per distinct value.
+     * @return Name of the variable, null if the results are not partitioned.
+     */
+    public String getPartitionColumn() {
+        return this.partitionColumn;
+    }
+
+    /**
+     * Set the result variable partitioning the results into one output file per distinct value.
+     * @param column Name of the variable, with or without leading question mark, null to write
+     *  the results to a single output file.
+     * @return This instance.
+     */
+    public RdfReportOptions setPartitionColumn(final String column) {
+        this.partitionColumn = column;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum number of output files of partitioned results open at the same time.
+     * @return Maximum number of open files.
+     */
+    public int getMaxOpenFiles() {
+        return this.maxOpenFiles;
+    }
+
+    /**
+     * Set the maximum number of output files of partitioned results open at the same time. Further files
+     * are written by closing the least recently written file and reopening it when it receives further rows.
+     * @param files Maximum number of open files, at least 1.
+     * @return This instance.
+     */
+    public RdfReportOptions setMaxOpenFiles(final int files) {
+        this.maxOpenFiles = files;
+        return this;
+    }
+
+    /**
+     * Method returns whether the rows of a query are written as soon as they are bound.
+     * @return True if the ORDER BY of a query without LIMIT and OFFSET is dropped.
+     */
+    public boolean isStreamed() {
+        return this.streamed;
+    }
+
+    /**
+     * Set whether the rows of a query are written as soon as they are bound. The ORDER BY of the query
+     * is dropped, the rows are written in the order they are evaluated instead and the first rows are
+     * written before the query has finished. Queries with their own LIMIT or OFFSET keep their ORDER BY,
+     * since it selects the rows of the query.
+     * @param stream True to drop the ORDER BY of the query and to write the rows as soon as they are bound.
+     * @return This instance.
+     */
+    public RdfReportOptions setStreamed(final boolean stream) {
+        this.streamed = stream;
+        return this;
+    }
+
+    /**
+     * Method returns the number of result rows skipped before the first row of the page.
+     * @return Number of skipped rows, 0 if the page starts with the first row.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Set the number of result rows skipped before the first row of the page. The rows are skipped
+     * after the OFFSET of the query.
+     * @param rows Number of skipped rows, 0 to start with the first row.
+     * @return This instance.
+     */
+    public RdfReportOptions setOffset(final long rows) {
+        this.offset = rows;
+        return this;
+    }
+
+    /**
+     * Method returns the maximum number of result rows of the page.
+     * @return Maximum number of rows, 0 if the page contains all rows after the offset.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Set the maximum number of result rows of the page. Other than the row budget, a query with more rows
+     * is not cancelled, only the rows of the page are evaluated and written. The page does not extend
+     * beyond the LIMIT of the query.
+     * @param rows Maximum number of rows, 0 to include all rows after the offset.
+     * @return This instance.
+     */
+    public RdfReportOptions setLimit(final long rows) {
+        this.limit = rows;
+        return this;
+    }
+
+    /**
+     * Method returns whether the rows of a query are streamed or paged, which changes the evaluated plan.
+     * @return True if the query is streamed or only a page of its rows is evaluated.
+     */
+    public boolean isPaged() {
+        return this.streamed || this.offset > 0 || this.limit > 0;
+    }
+
+}
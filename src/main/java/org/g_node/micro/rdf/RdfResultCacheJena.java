@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryException;
+import com.hp.hpl.jena.query.QueryFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.AppUtils;
+
+/**
+ * Class caching the output files of reports in a cache directory. Entries are keyed by the fingerprint
+ * of the input file, the normalized text of the query and all settings changing the content of the output,
+ * e.g. the output format. If neither the input file nor the query has changed, the output file is restored
+ * from the cache instead of loading the input file and running the query again.
+ *
+ * Restored output files are hard links to the cache entries where the file system supports it and copies
+ * otherwise. Output files are therefore removed via {@link #detach(String)} before a report writes them,
+ * writing to a linked output file in place would change the cache entry as well.
+ * The total size of the cache directory is limited, least recently used entries are removed first.
+ * Errors when reading or writing entries are logged and the report is created instead.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfResultCacheJena {
+    /**
+     * Default maximum total size of all entries in the cache directory in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+    /**
+     * File extension of cache entries.
+     */
+    private static final String ENTRY_EXTENSION = ".result";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfResultCacheJena.class.getName());
+
+    /**
+     * Directory containing the cache entries.
+     */
+    private final Path cacheDir;
+    /**
+     * Maximum total size of all entries in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Constructor.
+     * @param directory Directory containing the cache entries, will be created if it does not exist.
+     * @param maxBytes Maximum total size of all entries in bytes.
+     */
+    public RdfResultCacheJena(final String directory, final long maxBytes) {
+        this.cacheDir = Paths.get(directory);
+        this.maxSize = maxBytes;
+    }
+
+    /**
+     * Method creates the fingerprint of an input file, see {@link RdfSnapshotCacheJena}.
+     * The fingerprint is created once and used for the keys of all reports of the file.
+     * @param fileName Path and filename of a local file.
+     * @return Fingerprint of the file, null if the file is not a local file or cannot be read.
+     */
+    public static String fingerprint(final String fileName) {
+        return RdfSnapshotCacheJena.fingerprint(fileName);
+    }
+
+    /**
+     * Method creates the key of a report. The values are hashed as they are, queries and settings
+     * differing only in case get different keys.
+     * @param fingerprint Fingerprint of the input file, see {@link #fingerprint(String)}.
+     * @param queryString SPARQL query of the report.
+     * @param settings Settings changing the content of the output file, e.g. the output format.
+     * @return Key of the report.
+     */
+    public static String key(final String fingerprint, final String queryString, final List<String> settings) {
+        final List<String> values = new ArrayList<>();
+        values.add(fingerprint);
+        values.add(RdfResultCacheJena.normalizeQuery(queryString));
+        values.addAll(settings);
+        return AppUtils.getHashSHA256(values);
+    }
+
+    /**
+     * Method normalizes the text of a query, queries differing only in whitespace, comments or the
+     * layout of their prefixes get the same key.
+     * @param queryString SPARQL query.
+     * @return Serialized syntax of the parsed query, the query text with collapsed whitespace if it cannot be parsed.
+     */
+    static String normalizeQuery(final String queryString) {
+        try {
+            return QueryFactory.create(queryString).serialize();
+        } catch (QueryException exc) {
+            return queryString.trim().replaceAll("\\s+", " ");
+        }
+    }
+
+    /**
+     * Method restores an output file from its cache entry and marks the entry as recently used.
+     * An existing output file is replaced.
+     * @param key Key of the report.
+     * @param outFile Path and filename of the output file.
+     * @return True if the output file has been restored, false if there is no entry or it cannot be restored.
+     */
+    public boolean restore(final String key, final String outFile) {
+        final Path entry = this.entryPath(key);
+        if (!Files.isRegularFile(entry)) {
+            return false;
+        }
+
+        final Path out = Paths.get(outFile);
+        RdfResultCacheJena.LOGGER.info(String.join("", "Restoring cached report...\t(", outFile, ")"));
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            Files.deleteIfExists(out);
+            try {
+                Files.createLink(out, entry);
+            } catch (IOException | UnsupportedOperationException exc) {
+                Files.copy(entry, out, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exc) {
+            RdfResultCacheJena.LOGGER.warn(
+                    String.join("", "Cannot restore cached report...\t(", outFile, ") ", exc.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method removes an output file before a report writes it, so that an output file restored
+     * as a hard link does not change its cache entry.
+     * @param outFile Path and filename of the output file.
+     */
+    public void detach(final String outFile) {
+        try {
+            Files.deleteIfExists(Paths.get(outFile));
+        } catch (IOException exc) {
+            RdfResultCacheJena.LOGGER.warn(
+                    String.join("", "Cannot remove output file...\t(", outFile, ") ", exc.getMessage()));
+        }
+    }
+
+    /**
+     * Method copies an output file to the cache and removes least recently used entries exceeding
+     * the maximum size of the cache. Nothing is stored if the output file does not exist,
+     * e.g. because the report has been cancelled.
+     * @param key Key of the report.
+     * @param outFile Path and filename of the output file.
+     */
+    public void store(final String key, final String outFile) {
+        final Path out = Paths.get(outFile);
+        if (!Files.isRegularFile(out)) {
+            return;
+        }
+
+        final Path entry = this.entryPath(key);
+        RdfResultCacheJena.LOGGER.info(String.join("", "Caching report...\t\t(", entry.toString(), ")"));
+        try {
+            Files.createDirectories(this.cacheDir);
+            final Path tmp = Files.createTempFile(this.cacheDir, key, ".tmp");
+            Files.copy(out, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.evict(entry);
+        } catch (IOException exc) {
+            RdfResultCacheJena.LOGGER.warn(
+                    String.join("", "Cannot cache report...\t(", entry.toString(), ") ", exc.getMessage()));
+        }
+    }
+
+    /**
+     * Method returns the path of the cache entry of a key.
+     * @param key Key of the report.
+     * @return Path of the entry within the cache directory.
+     */
+    Path entryPath(final String key) {
+        return this.cacheDir.resolve(String.join("", key, RdfResultCacheJena.ENTRY_EXTENSION));
+    }
+
+    /**
+     * Method removes the least recently used entries until the total size of all entries
+     * does not exceed the maximum cache size. The provided entry is never removed.
+     * @param keep Path of the entry that is kept in any case.
+     * @throws IOException If the cache directory cannot be read.
+     */
+    private void evict(final Path keep) throws IOException {
+        final List<Path> entries;
+        try (Stream<Path> files = Files.list(this.cacheDir)) {
+            entries = files
+                    .filter(p -> p.toString().endsWith(RdfResultCacheJena.ENTRY_EXTENSION))
+                    .sorted(Comparator.comparing((Path p) -> p.toFile().lastModified()).reversed())
+                    .collect(Collectors.toList());
+        }
+
+        long total = 0;
+        for (final Path p : entries) {
+            final long size = p.toFile().length();
+            if (total + size > this.maxSize && !p.equals(keep)) {
+                RdfResultCacheJena.LOGGER.info(String.join("", "Removing cached report...\t(", p.toString(), ")"));
+                Files.deleteIfExists(p);
+            } else {
+                total += size;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.AppUtils;
+
+/**
+ * Class caching parsed RDF models as binary RDF Thrift snapshots in a cache directory.
+ * Snapshots are keyed by the path, size, modification time and content hash of the input file,
+ * an unchanged input file is therefore loaded from its snapshot instead of being parsed again.
+ * The total size of the cache directory is limited, least recently used snapshots are removed first.
+ * Errors when reading or writing snapshots are logged and the input file is parsed instead.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfSnapshotCacheJena {
+    /**
+     * Default maximum total size of all snapshots in the cache directory in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 4L * 1024 * 1024 * 1024;
+    /**
+     * File extension of snapshot files.
+     */
+    private static final String SNAPSHOT_EXTENSION = ".rt";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfSnapshotCacheJena.class.getName());
+
+    /**
+     * Directory containing the snapshot files.
+     */
+    private final Path cacheDir;
+    /**
+     * Maximum total size of all snapshots in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Constructor.
+     * @param directory Directory containing the snapshot files, will be created if it does not exist.
+     * @param maxBytes Maximum total size of all snapshots in bytes.
+     */
+    public RdfSnapshotCacheJena(final String directory, final long maxBytes) {
+        this.cacheDir = Paths.get(directory);
+        this.maxSize = maxBytes;
+    }
+
+    /**
+     * Method returns the snapshot cache configured in the provided settings.
+     * @param options Settings used to load an RDF file.
+     * @return Snapshot cache, null if no cache directory has been set.
+     */
+    public static RdfSnapshotCacheJena fromOptions(final RdfLoadOptions options) {
+        if (options.getSnapshotCacheDir() == null) {
+            return null;
+        }
+        return new RdfSnapshotCacheJena(options.getSnapshotCacheDir(), options.getSnapshotCacheMaxSize());
+    }
+
+    /**
+     * Method returns the model of an RDF file from its snapshot, if the file has not changed since the
+     * snapshot was written. Otherwise the model is loaded using the provided loader and a new snapshot is written.
+     * @param fileName Path and filename of a local RDF file.
+     * @param loader Loads the model from the RDF file, if no valid snapshot exists.
+     * @return Model containing the data of the RDF file.
+     */
+    public Model load(final String fileName, final Supplier<Model> loader) {
+        return this.load(fileName, null, loader);
+    }
+
+    /**
+     * Method returns the model of an RDF file from its snapshot, see {@link #load(String, Supplier)}.
+     * @param fileName Path and filename of a local RDF file.
+     * @param fingerprint Fingerprint of the file created by the caller, see {@link #fingerprint(String)},
+     *  null to create it.
+     * @param loader Loads the model from the RDF file, if no valid snapshot exists.
+     * @return Model containing the data of the RDF file.
+     */
+    public Model load(final String fileName, final String fingerprint, final Supplier<Model> loader) {
+        final String key = fingerprint != null ? fingerprint : RdfSnapshotCacheJena.fingerprint(fileName);
+        if (key == null) {
+            return loader.get();
+        }
+
+        final Path snapshot = this.snapshotPath(key);
+        final Model cached = this.readSnapshot(snapshot);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Model model = loader.get();
+        this.writeSnapshot(snapshot, model);
+        return model;
+    }
+
+    /**
+     * Method creates the fingerprint of a file from the absolute path, size,
+     * modification time and SHA-1 content hash of the file. The fingerprint is used as key of the snapshot.
+     * @param fileName Path and filename of a local file.
+     * @return Fingerprint of the file, null if the file is not a local file or cannot be read.
+     */
+    static String fingerprint(final String fileName) {
+        final Path file = Paths.get(fileName).toAbsolutePath();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return AppUtils.getHashSHA256(Arrays.asList(
+                    file.toString(),
+                    String.valueOf(Files.size(file)),
+                    String.valueOf(Files.getLastModifiedTime(file).toMillis()),
+                    DigestUtils.shaHex(in)));
+        } catch (IOException e) {
+            RdfSnapshotCacheJena.LOGGER.warn(
+                    String.join("", "Cannot create file fingerprint...\t(", fileName, ") ", e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Method returns the directory containing the snapshot files.
+     * @return Path of the cache directory.
+     */
+    Path getCacheDir() {
+        return this.cacheDir;
+    }
+
+    /**
+     * Method returns the path of the snapshot file of a key.
+     * @param key Key of the snapshot.
+     * @return Path of the snapshot file within the cache directory.
+     */
+    Path snapshotPath(final String key) {
+        return this.cacheDir.resolve(String.join("", key, RdfSnapshotCacheJena.SNAPSHOT_EXTENSION));
+    }
+
+    /**
+     * Method loads a model from a snapshot file and marks the snapshot as recently used.
+     * @param snapshot Path of the snapshot file.
+     * @return Model contained in the snapshot, null if the snapshot does not exist or cannot be read.
+     */
+    Model readSnapshot(final Path snapshot) {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        RdfSnapshotCacheJena.LOGGER.info(String.join("", "Loading snapshot...\t\t(", snapshot.toString(), ")"));
+        final Model model = ModelFactory.createDefaultModel();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshot))) {
+            RDFDataMgr.read(model, in, RDFLanguages.THRIFT);
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException | RiotException e) {
+            RdfSnapshotCacheJena.LOGGER.warn(
+                    String.join("", "Cannot read snapshot, removing it...\t(", snapshot.toString(), ") ",
+                            e.getMessage()));
+            this.delete(snapshot);
+            return null;
+        }
+        return model;
+    }
+
+    /**
+     * Method writes a model to a snapshot file and removes least recently used snapshots
+     * exceeding the maximum size of the cache.
+     * @param snapshot Path of the snapshot file.
+     * @param model Model that is saved to the snapshot.
+     */
+    void writeSnapshot(final Path snapshot, final Model model) {
+        RdfSnapshotCacheJena.LOGGER.info(String.join("", "Writing snapshot...\t\t(", snapshot.toString(), ")"));
+        try {
+            Files.createDirectories(this.cacheDir);
+            final Path tmp = Files.createTempFile(this.cacheDir, snapshot.getFileName().toString(), ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                RDFDataMgr.write(out, model, RDFFormat.RDF_THRIFT);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.evict(snapshot);
+        } catch (IOException | RiotException e) {
+            RdfSnapshotCacheJena.LOGGER.warn(
+                    String.join("", "Cannot write snapshot...\t(", snapshot.toString(), ") ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Method removes the least recently used snapshots until the total size of all snapshots
+     * does not exceed the maximum cache size. The provided snapshot is never removed.
+     * @param keep Path of the snapshot that is kept in any case.
+     * @throws IOException If the cache directory cannot be read.
+     */
+    private void evict(final Path keep) throws IOException {
+        final List<Path> snapshots;
+        try (Stream<Path> files = Files.list(this.cacheDir)) {
+            snapshots = files
+                    .filter(p -> p.toString().endsWith(RdfSnapshotCacheJena.SNAPSHOT_EXTENSION))
+                    .sorted(Comparator.comparing(RdfSnapshotCacheJena::lastModified).reversed())
+                    .collect(Collectors.toList());
+        }
+
+        long total = 0;
+        for (final Path p : snapshots) {
+            final long size = p.toFile().length();
+            if (total + size > this.maxSize && !p.equals(keep)) {
+                RdfSnapshotCacheJena.LOGGER.info(String.join("", "Removing snapshot...\t\t(", p.toString(), ")"));
+                this.delete(p);
+            } else {
+                total += size;
+            }
+        }
+    }
+
+    /**
+     * Method returns the modification time of a file, which is updated whenever a snapshot is used.
+     * @param file Path of the file.
+     * @return Modification time in milliseconds, 0 if the time cannot be read.
+     */
+    private static long lastModified(final Path file) {
+        return file.toFile().lastModified();
+    }
+
+    /**
+     * Method deletes a snapshot file, errors are logged.
+     * @param snapshot Path of the snapshot file.
+     */
+    private void delete(final Path snapshot) {
+        try {
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            RdfSnapshotCacheJena.LOGGER.warn(
+                    String.join("", "Cannot remove snapshot...\t(", snapshot.toString(), ") ", e.getMessage()));
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.thrift.BinRDF;
+import org.apache.log4j.Logger;
+
+/**
+ * Class handling a temporary file of sorted rows used by {@link RdfExternalSortJena}. The rows are written
+ * in the binary RDF Thrift result format, literals keep their lexical form. After the rows have been written,
+ * the run is read as an iterator of its rows. Closing the run removes the file.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class RdfSortRunJena implements Iterator<Binding>, Closeable {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RdfSortRunJena.class.getName());
+
+    /**
+     * Temporary file of the run.
+     */
+    private final Path file;
+    /**
+     * Names of the variables bound in the rows of the run.
+     */
+    private final List<String> varNames;
+    /**
+     * Rows read from the file, null before the run has been opened.
+     */
+    private ResultSet rows;
+    /**
+     * Open stream of the file, null before the run has been opened.
+     */
+    private InputStream in;
+
+    /**
+     * Constructor.
+     * @param runFile Temporary file of the run.
+     * @param vars Names of the variables bound in the rows of the run.
+     */
+    private RdfSortRunJena(final Path runFile, final List<String> vars) {
+        this.file = runFile;
+        this.varNames = vars;
+    }
+
+    /**
+     * Method writes sorted rows to a new temporary file.
+     * @param directory Directory of the temporary file.
+     * @param vars Names of all variables bound in the rows.
+     * @param sorted Sorted rows.
+     * @return Run of the written rows, it has to be opened before its rows are read.
+     */
+    static RdfSortRunJena write(final Path directory, final List<String> vars, final Iterator<Binding> sorted) {
+        Path runFile = null;
+        try {
+            Files.createDirectories(directory);
+            runFile = Files.createTempFile(directory, "report-sort", ".run");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(runFile))) {
+                // Values are not written, they would replace the lexical form of numeric literals.
+                BinRDF.writeResultSet(out, new ResultSetStream(vars, null, sorted), false);
+            }
+            return new RdfSortRunJena(runFile, vars);
+        } catch (IOException e) {
+            if (runFile != null) {
+                RdfSortRunJena.delete(runFile);
+            }
+            throw new RiotException(String.join("", "Cannot write sort run to ", directory.toString(), ": ",
+                    e.getMessage()));
+        }
+    }
+
+    /**
+     * Method returns the names of the variables bound in the rows of the run.
+     * @return Names of the variables.
+     */
+    List<String> getVarNames() {
+        return this.varNames;
+    }
+
+    /**
+     * Method opens the file of the run for reading its rows.
+     * @return This run.
+     */
+    RdfSortRunJena open() {
+        try {
+            this.in = new BufferedInputStream(Files.newInputStream(this.file));
+        } catch (IOException e) {
+            throw new RiotException(String.join("", "Cannot read sort run ", this.file.toString(), ": ",
+                    e.getMessage()));
+        }
+        this.rows = BinRDF.readResultSet(this.in);
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.rows.hasNext();
+    }
+
+    @Override
+    public Binding next() {
+        return this.rows.nextBinding();
+    }
+
+    /**
+     * Method closes the file of the run and removes it.
+     */
+    @Override
+    public void close() {
+        if (this.in != null) {
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                RdfSortRunJena.LOGGER.warn(String.join("", "Cannot close sort run...\t", e.getMessage()));
+            }
+        }
+        RdfSortRunJena.delete(this.file);
+    }
+
+    /**
+     * Method removes a temporary run file.
+     * @param runFile Temporary file of a run.
+     */
+    private static void delete(final Path runFile) {
+        try {
+            Files.deleteIfExists(runFile);
+        } catch (IOException e) {
+            RdfSortRunJena.LOGGER.warn(
+                    String.join("", "Cannot remove sort run...\t(", runFile.toString(), ") ", e.getMessage()));
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Class writing a {@link com.hp.hpl.jena.query.ResultSet} to a TSV file,
+ * see {@link AbstractRdfResultWriterJena}.
+ * The file contains a header line with the names of the variables and one line per row, lines end with LF.
+ * Values are never quoted, tabs, line breaks and backslashes within values are escaped as \t, \n, \r
+ * and \\, every line of the file is therefore a complete row. Unbound variables are written as empty values.
+ *
+ * Values are the same as the values of CSV files. Unlike SPARQL TSV results, values are not
+ * written in Turtle syntax.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfTsvWriterJena extends AbstractRdfResultWriterJena {
+    /**
+     * Separator between the values of a line.
+     */
+    private static final byte SEPARATOR = '\t';
+    /**
+     * Line break ending a line.
+     */
+    private static final byte LINE_BREAK = '\n';
+    /**
+     * Escape sequences of tabs, line breaks and backslashes.
+     */
+    private static final byte[][] ESCAPES = AbstractRdfResultWriterJena.escapeTable();
+
+    static {
+        AbstractRdfResultWriterJena.setEscape(RdfTsvWriterJena.ESCAPES, '\t', AbstractRdfResultWriterJena.ascii("\\t"));
+        AbstractRdfResultWriterJena.setEscape(RdfTsvWriterJena.ESCAPES, '\n', AbstractRdfResultWriterJena.ascii("\\n"));
+        AbstractRdfResultWriterJena.setEscape(RdfTsvWriterJena.ESCAPES, '\r', AbstractRdfResultWriterJena.ascii("\\r"));
+        AbstractRdfResultWriterJena.setEscape(RdfTsvWriterJena.ESCAPES, '\\',
+                AbstractRdfResultWriterJena.ascii("\\\\"));
+    }
+
+    /**
+     * Constructor, creates a writer with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     */
+    public RdfTsvWriterJena() {
+        this(AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param bufferSize Size of the output buffer in bytes.
+     */
+    public RdfTsvWriterJena(final int bufferSize) {
+        super(bufferSize);
+    }
+
+    /**
+     * Method writes the header line containing the names of the variables.
+     * @param names Names of the variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void writeHeader(final List<String> names) throws IOException {
+        for (int i = 0; i < names.size(); i += 1) {
+            this.writeValue(i, names.get(i));
+        }
+        this.endRow(names.size());
+    }
+
+    /**
+     * Method writes an escaped value, unbound variables are written as empty values.
+     * @param column Index of the variable of the value.
+     * @param value Text of the value, null if the variable is not bound.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void writeValue(final int column, final String value) throws IOException {
+        if (column > 0) {
+            this.put(RdfTsvWriterJena.SEPARATOR);
+        }
+        if (value != null) {
+            this.writeText(value, RdfTsvWriterJena.ESCAPES, null);
+        }
+    }
+
+    /**
+     * Method ends a line with LF.
+     * @param columns Number of variables of the result set.
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    protected void endRow(final int columns) throws IOException {
+        this.put(RdfTsvWriterJena.LINE_BREAK);
+    }
+
+}
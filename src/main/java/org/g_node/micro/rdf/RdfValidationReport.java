@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class containing the outcome of a streaming validation of an RDF file. The validation does not
+ * keep the parsed data, only the number of parsed triples, the number of bytes read and the
+ * positions of the first errors encountered by the parser.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfValidationReport {
+    /**
+     * True if the parser did not encounter any errors.
+     */
+    private final boolean valid;
+    /**
+     * Number of triples and quads parsed from the file.
+     */
+    private final long tripleCount;
+    /**
+     * Number of bytes read from the file.
+     */
+    private final long bytesRead;
+    /**
+     * Messages and positions of the first errors encountered by the parser.
+     */
+    private final List<String> errors;
+
+    /**
+     * Constructor.
+     * @param isValid True if the parser did not encounter any errors.
+     * @param triples Number of parsed triples and quads.
+     * @param bytes Number of bytes read from the file.
+     * @param errorList Messages and positions of the first errors encountered by the parser.
+     */
+    RdfValidationReport(final boolean isValid, final long triples, final long bytes, final List<String> errorList) {
+        this.valid = isValid;
+        this.tripleCount = triples;
+        this.bytesRead = bytes;
+        this.errors = Collections.unmodifiableList(errorList);
+    }
+
+    /**
+     * Method returns whether the validated file is a valid RDF file.
+     * @return True if the parser did not encounter any errors, false otherwise.
+     */
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    /**
+     * Method returns the number of triples parsed until the validation finished or was stopped by a fatal error.
+     * @return Number of parsed triples and quads.
+     */
+    public long getTripleCount() {
+        return this.tripleCount;
+    }
+
+    /**
+     * Method returns the number of bytes read from the validated file.
+     * @return Number of bytes read.
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * Method returns the first errors and warnings encountered by the parser including their
+     * line and column positions within the file.
+     * @return Unmodifiable list of error messages.
+     */
+    public List<String> getErrors() {
+        return this.errors;
+    }
+
+}
@@ -10,19 +10,36 @@
 
 package org.g_node.reporter.LKTLogbook;
 
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.shared.Lock;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.log4j.Logger;
 import org.g_node.micro.commons.AppUtils;
 import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.rdf.RdfLoadOptions;
+import org.g_node.micro.rdf.RdfLoadResult;
+import org.g_node.micro.rdf.RdfQueryLimits;
+import org.g_node.micro.rdf.RdfReportOptions;
+import org.g_node.micro.rdf.RdfResultCacheJena;
 import org.g_node.srv.CliOptionService;
 import org.g_node.srv.CtrlCheckService;
 import org.g_node.srv.RdfServiceSwitch;
@@ -37,6 +54,18 @@ public class LktCliController implements CliToolController {
      * Access to the main LOGGER.
      */
     private static final Logger LOGGER = Logger.getLogger(LktCliController.class.getName());
+    /**
+     * Number of bytes per megabyte, used to convert size options.
+     */
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    /**
+     * Number of milliseconds per second, used to convert the timeout option.
+     */
+    private static final long MILLIS_PER_S = 1000L;
+    /**
+     * Largest supported value of the heap limit option.
+     */
+    private static final long MAX_HEAP_PERCENT = 100L;
     /**
      * Reports available to the reporter tool specific for the LKT Logbook use case.
      */
@@ -51,6 +80,8 @@ public class LktCliController implements CliToolController {
                 put("EXPERIMENTS", LktQueries.EXPERIMENTS_QUERY);
                 put("SUBJECTS", LktQueries.SUBJECTS_QUERY);
                 put("CUSTOM", "");
+                put("VALIDATE", "");
+                put("ALL", "");
             } };
     }
 
@@ -67,7 +98,10 @@ public class LktCliController implements CliToolController {
 
         final Option opHelp = CliOptionService.getHelpOption("");
         final Option opInRdfFile = CliOptionService.getInFileOption("");
-        final Option opReport = CliOptionService.getReportOption("", this.reports.keySet());
+        final Option opReport = CliOptionService.getReportOption(String.join("",
+                "Reports available to the selected tool: ", this.reports.keySet().toString(),
+                "\nSeveral reports are separated by commas, ALL creates all built-in reports."),
+                this.reports.keySet());
         final Option opOutFile = CliOptionService.getOutFileOption("");
         final Option opOutFormat =
                 CliOptionService.getOutFormatOption("", resultFileFormats);
@@ -85,11 +119,56 @@ public class LktCliController implements CliToolController {
         options.addOption(opReport);
         options.addOption(opOutFile);
         options.addOption(opOutFormat);
+        options.addOption(CliOptionService.getCompressOption("", RdfServiceSwitch.RESULT_COMPRESSION_FORMATS));
         options.addOption(opQueryFile);
+        options.addOption(CliOptionService.getEngineOption("", LktReporterJena.REPORT_ENGINES));
+        options.addOption(CliOptionService.getExitKeywordsOption(""));
+
+        LktCliController.addLoadOptions(options);
+        LktCliController.addQueryOptions(options);
+        options.addOption(CliOptionService.getExplainOption(""));
+        options.addOption(CliOptionService.getProfileOption(""));
 
         return options;
     }
 
+    /**
+     * Method adds the optional commandline options controlling how the input file is loaded.
+     * @param options Commandline options the load options are added to.
+     */
+    private static void addLoadOptions(final Options options) {
+        options.addOption(CliOptionService.getMemoryMapOption(""));
+        options.addOption(CliOptionService.getSnapshotCacheOption(""));
+        options.addOption(CliOptionService.getSnapshotCacheSizeOption(""));
+        options.addOption(CliOptionService.getStoreOption(""));
+        options.addOption(CliOptionService.getIncrementalOption(""));
+        options.addOption(CliOptionService.getPipelineDepthOption(""));
+        options.addOption(CliOptionService.getPipelineBatchOption(""));
+        options.addOption(CliOptionService.getFreezeOption(""));
+        options.addOption(CliOptionService.getResultCacheOption(""));
+        options.addOption(CliOptionService.getResultCacheSizeOption(""));
+        options.addOption(CliOptionService.getNoCacheOption(""));
+        options.addOption(CliOptionService.getRefreshOption(""));
+    }
+
+    /**
+     * Method adds the optional commandline options limiting the report queries and their sort memory,
+     * as well as the options partitioning, streaming and paging the report files.
+     * @param options Commandline options the query options are added to.
+     */
+    private static void addQueryOptions(final Options options) {
+        options.addOption(CliOptionService.getTimeoutOption(""));
+        options.addOption(CliOptionService.getMaxRowsOption(""));
+        options.addOption(CliOptionService.getMaxHeapOption(""));
+        options.addOption(CliOptionService.getSortRunRowsOption(""));
+        options.addOption(CliOptionService.getSortDirOption(""));
+        options.addOption(CliOptionService.getPartitionByOption(""));
+        options.addOption(CliOptionService.getMaxOpenFilesOption(""));
+        options.addOption(CliOptionService.getStreamOption(""));
+        options.addOption(CliOptionService.getLimitOption(""));
+        options.addOption(CliOptionService.getOffsetOption(""));
+    }
+
     /**
      * Method to check input file, available report, output file format and to facilitate the
      * delegation of creating the report and saving it an output file.
@@ -98,51 +177,594 @@ public class LktCliController implements CliToolController {
      */
     public final void run(final CommandLine cmd) {
 
-        final Set<String> resultFileFormats = RdfServiceSwitch.QUERY_RESULT_FILE_FORMATS;
-
         final String inFile = cmd.getOptionValue("i");
         if (!CtrlCheckService.isExistingFile(inFile)) {
             return;
         }
 
-        if (!RdfServiceSwitch.isValidRdfFile(inFile)) {
+        if ("VALIDATE".equals(cmd.getOptionValue("r").toUpperCase(Locale.ENGLISH))) {
+            RdfServiceSwitch.validateRdfFile(inFile);
+            return;
+        }
+
+        final Map<String, String> queries = this.reportQueries(cmd);
+        if (queries == null) {
             return;
         }
 
-        if (!CtrlCheckService.isSupportedCliArgValue(cmd.getOptionValue("r"), this.reports.keySet(), "-r/-report")) {
+        final String engine = cmd.getOptionValue("engine", LktReporterJena.NATIVE_ENGINE);
+        if (!CtrlCheckService.isSupportedCliArgValue(engine, LktReporterJena.REPORT_ENGINES, "-engine")) {
             return;
         }
 
         final String outputFormat = cmd.getOptionValue("f", "CSV");
-        if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, resultFileFormats)) {
+        if (!LktCliController.isSupportedOutput(cmd, outputFormat)) {
             return;
         }
 
-        String queryString = this.reports.get(cmd.getOptionValue("r").toUpperCase(Locale.ENGLISH));
+        LktCliController.createReports(cmd, queries, engine, outputFormat);
+    }
 
-        if ("CUSTOM".equals(cmd.getOptionValue("r").toUpperCase(Locale.ENGLISH))) {
-            final String customQueryFile = cmd.getOptionValue("c", "");
-            LktCliController.LOGGER.info(
-                    String.join("", "Using custom query option -c...\t(", customQueryFile , ")")
-            );
-            if ("".equals(cmd.getOptionValue("c", ""))) {
-                LktCliController.LOGGER.error("Missing required option: c");
-                return;
-            } else if (!CtrlCheckService.isExistingFile(cmd.getOptionValue("c", ""))) {
-                return;
+    /**
+     * Method checks the load and report options, loads the input file and creates the selected reports
+     * that have not been restored from the result cache.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param queries SPARQL queries by report name.
+     * @param engine Report engine.
+     * @param outputFormat Format of the output files.
+     */
+    private static void createReports(final CommandLine cmd, final Map<String, String> queries, final String engine,
+                                      final String outputFormat) {
+        final RdfLoadOptions loadOptions = LktCliController.loadOptions(cmd);
+        if (loadOptions == null) {
+            return;
+        }
+
+        final RdfReportOptions options = LktCliController.reportOptions(cmd, outputFormat);
+        if (options == null) {
+            return;
+        }
+
+        final List<Report> pending =
+                LktCliController.pendingReports(cmd, queries, outputFormat, engine, loadOptions);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+
+        final RdfLoadResult loadResult = RdfServiceSwitch.loadValidRdfFile(cmd.getOptionValue("i"), loadOptions);
+        if (!loadResult.isValid()) {
+            return;
+        }
+
+        RdfServiceSwitch.indexModel(loadResult.getModel());
+
+        LktCliController.runReports(loadResult.getModel(), pending, engine, options);
+    }
+
+    /**
+     * Method checks the output format and the compression format provided via options -f and -compress.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param outputFormat Format of the output files.
+     * @return True if both formats are supported.
+     */
+    private static boolean isSupportedOutput(final CommandLine cmd, final String outputFormat) {
+        if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, RdfServiceSwitch.QUERY_RESULT_FILE_FORMATS)) {
+            return false;
+        }
+        return !cmd.hasOption("compress") || CtrlCheckService.isSupportedCliArgValue(
+                cmd.getOptionValue("compress"), RdfServiceSwitch.RESULT_COMPRESSION_FORMATS, "-compress");
+    }
+
+    /**
+     * Method returns the SPARQL queries of the reports selected via option -r. Several reports are separated
+     * by commas, report ALL selects all built-in reports. The queries are compiled before the input file
+     * is loaded, invalid queries therefore fail without waiting for the data.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return SPARQL queries by report name in the order of the option, null if a report is not supported,
+     *  cannot be combined with other reports or its query is invalid.
+     */
+    private Map<String, String> reportQueries(final CommandLine cmd) {
+        final Map<String, String> queries = new LinkedHashMap<>();
+        for (final String report : cmd.getOptionValue("r").split(",")) {
+            if (!CtrlCheckService.isSupportedCliArgValue(report.trim(), this.reports.keySet(), "-r/-report")) {
+                return null;
+            }
+            final String name = report.trim().toUpperCase(Locale.ENGLISH);
+            if ("VALIDATE".equals(name)) {
+                LktCliController.LOGGER.error("Report VALIDATE cannot be combined with other reports.");
+                return null;
+            } else if ("ALL".equals(name)) {
+                queries.put("EXPERIMENTS", this.reports.get("EXPERIMENTS"));
+                queries.put("SUBJECTS", this.reports.get("SUBJECTS"));
+            } else if ("CUSTOM".equals(name)) {
+                queries.put(name, this.readCustomQuery(cmd));
+            } else {
+                queries.put(name, this.reports.get(name));
+            }
+        }
+
+        for (final String queryString : queries.values()) {
+            if (queryString == null || !RdfServiceSwitch.compileQuery(queryString)) {
+                return null;
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Method returns the selected reports that have to be created. If option -explain is set, the evaluation
+     * of the report queries is logged instead and no report has to be created, see
+     * {@link #uncachedReports(CommandLine, Map, String, String, RdfLoadOptions)} otherwise.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param queries SPARQL queries by report name.
+     * @param outputFormat Format of the output files.
+     * @param engine Report engine.
+     * @param loadOptions Settings used to load the input file.
+     * @return Reports that have to be created, null if an option value is not supported.
+     */
+    private static List<Report> pendingReports(final CommandLine cmd, final Map<String, String> queries,
+                                               final String outputFormat, final String engine,
+                                               final RdfLoadOptions loadOptions) {
+        if (!LktCliController.isPartitionColumn(cmd, queries)) {
+            return null;
+        }
+        if (cmd.hasOption("explain")) {
+            queries.values().forEach(q -> RdfServiceSwitch.explainReport(q, engine));
+            return Collections.emptyList();
+        }
+        return LktCliController.uncachedReports(cmd, queries, outputFormat, engine, loadOptions);
+    }
+
+    /**
+     * Method checks that the column provided via option -partition-by is a result variable
+     * of the queries of all selected reports.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param queries SPARQL queries by report name.
+     * @return True if the option is missing or the column is a result variable of all queries.
+     */
+    private static boolean isPartitionColumn(final CommandLine cmd, final Map<String, String> queries) {
+        if (!cmd.hasOption("partition-by")) {
+            return true;
+        }
+        final String column = cmd.getOptionValue("partition-by");
+        for (final Map.Entry<String, String> query : queries.entrySet()) {
+            if (!RdfServiceSwitch.hasResultVariable(query.getValue(), column)) {
+                LktCliController.LOGGER.error(String.join("", "Option -partition-by: ", column,
+                        " is not a result variable of report ", query.getKey(), "."));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method returns the selected reports that have to be created. If the result cache is used, the output
+     * files of reports with a valid cache entry are restored from the cache and only the other reports
+     * are returned, unless the reports are refreshed or profiled. The exit keywords are set beforehand,
+     * since they are part of the cache key. The fingerprint of the input file created for the cache keys
+     * is set in the load settings, the input file is therefore not read again to create it.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param queries SPARQL queries by report name.
+     * @param outputFormat Format of the output files.
+     * @param engine Report engine.
+     * @param loadOptions Settings used to load the input file, receiving its fingerprint.
+     * @return Reports that have to be created, null if an option value is not supported.
+     */
+    private static List<Report> uncachedReports(final CommandLine cmd, final Map<String, String> queries,
+                                                final String outputFormat, final String engine,
+                                                final RdfLoadOptions loadOptions) {
+        if (!LktCliController.applyExitKeywords(cmd) || !LktCliController.isValidCacheOption(cmd)) {
+            return null;
+        }
+        final RdfResultCacheJena cache = LktCliController.resultCache(cmd);
+        final String fingerprint = cache == null ? null : RdfResultCacheJena.fingerprint(cmd.getOptionValue("i"));
+        loadOptions.setFingerprint(fingerprint);
+        final List<String> settings = LktCliController.cacheSettings(cmd, outputFormat, engine);
+
+        final Map<String, String> reportFiles = LktCliController.reportOutFiles(cmd, queries, outputFormat);
+        final boolean restore = !cmd.hasOption("refresh") && !cmd.hasOption("profile");
+        final List<Report> pending = new ArrayList<>();
+        for (final Map.Entry<String, String> query : queries.entrySet()) {
+            final String reportFile = reportFiles.get(query.getKey());
+            final String key = fingerprint == null ? null
+                    : RdfResultCacheJena.key(fingerprint, query.getValue(), settings);
+            if (key != null && restore && cache.restore(key, reportFile)) {
+                LktCliController.LOGGER.info(String.join("", "Report ", query.getKey(), " restored from cache..."));
             } else {
-                try {
-                    queryString = new String(Files.readAllBytes(Paths.get(cmd.getOptionValue("c", ""))));
-                } catch (IOException exc) {
-                    LktCliController.LOGGER.error(exc.getMessage());
-                    exc.printStackTrace();
-                    return;
-                }
+                pending.add(new Report(query.getKey(), query.getValue(), reportFile, cache, key));
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Method returns the settings changing the content of the output files, which are part of the cache key
+     * of a report: output format, report engine, exit keywords, compression format, streaming and paging.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param outputFormat Format of the output files.
+     * @param engine Report engine.
+     * @return Settings of the reports.
+     */
+    private static List<String> cacheSettings(final CommandLine cmd, final String outputFormat,
+                                              final String engine) {
+        final List<String> settings = new ArrayList<>(Arrays.asList(outputFormat.toUpperCase(Locale.ENGLISH),
+                engine.toUpperCase(Locale.ENGLISH)));
+        settings.addAll(LktExitCommentJena.getKeywords());
+        if (cmd.hasOption("compress")) {
+            settings.add(cmd.getOptionValue("compress").toUpperCase(Locale.ENGLISH));
+        }
+        if (cmd.hasOption("stream")) {
+            settings.add("STREAM");
+        }
+        for (final String opt : new String[] {"limit", "offset"}) {
+            if (cmd.hasOption(opt)) {
+                settings.add(String.join("", opt.toUpperCase(Locale.ENGLISH), "=", cmd.getOptionValue(opt)));
             }
         }
+        return settings;
+    }
+
+    /**
+     * Method returns the output files of the selected reports. If more than one report is selected,
+     * the report name is appended to the name of the output file. If option -compress is set, the extension
+     * of the compression format is appended as well.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param queries SPARQL queries by report name.
+     * @param outputFormat Format of the output files.
+     * @return Path and filename of the output file by report name.
+     */
+    private static Map<String, String> reportOutFiles(final CommandLine cmd, final Map<String, String> queries,
+                                                      final String outputFormat) {
         final String defaultOutputFile = String.join("", AppUtils.getTimeStamp("yyyyMMddHHmm"), "_out");
+        final String outFile = cmd.getOptionValue("o", defaultOutputFile);
+        final Map<String, String> reportFiles = new HashMap<>();
+        for (final String report : queries.keySet()) {
+            final String reportFile = queries.size() == 1 ? outFile
+                    : LktCliController.reportOutFile(outFile, report, outputFormat);
+            reportFiles.put(report,
+                    RdfServiceSwitch.resultFileName(reportFile, outputFormat, cmd.getOptionValue("compress")));
+        }
+        return reportFiles;
+    }
+
+    /**
+     * Method checks the commandline options of the result cache.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return True if all option values are supported.
+     */
+    private static boolean isValidCacheOption(final CommandLine cmd) {
+        if (cmd.hasOption("refresh") && !cmd.hasOption("result-cache")) {
+            LktCliController.LOGGER.error("Option -refresh requires the option -result-cache.");
+            return false;
+        }
+        return !cmd.hasOption("result-cache-size") || CtrlCheckService.isSupportedNumericCliArgValue(
+                cmd.getOptionValue("result-cache-size"), 1, "-result-cache-size");
+    }
+
+    /**
+     * Method creates the result cache provided via options -result-cache and -result-cache-size.
+     * The cache stores a single output file per report, partitioned reports are therefore not cached.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return Result cache, null if no cache directory is provided, option -no-cache is set
+     *  or the reports are partitioned.
+     */
+    private static RdfResultCacheJena resultCache(final CommandLine cmd) {
+        if (!cmd.hasOption("result-cache") || cmd.hasOption("no-cache")) {
+            return null;
+        } else if (cmd.hasOption("partition-by")) {
+            LktCliController.LOGGER.info("Result cache is not used for reports partitioned via -partition-by...");
+            return null;
+        }
+        final long maxSize = cmd.hasOption("result-cache-size")
+                ? Long.parseLong(cmd.getOptionValue("result-cache-size")) * LktCliController.BYTES_PER_MB
+                : RdfResultCacheJena.DEFAULT_MAX_SIZE;
+        return new RdfResultCacheJena(cmd.getOptionValue("result-cache"), maxSize);
+    }
+
+    /**
+     * Method creates the reports from the loaded model. Reports run in parallel on a thread pool
+     * holding a read lock of the shared model, each report is saved to its own output file.
+     * Output files of reports using the result cache are saved to the cache as well.
+     * @param model Loaded RDF model.
+     * @param reports Reports that are created.
+     * @param engine Report engine.
+     * @param options Output format, limits and output settings of each report.
+     */
+    private static void runReports(final Model model, final List<Report> reports, final String engine,
+                                   final RdfReportOptions options) {
+        final int threads = Math.min(reports.size(), Runtime.getRuntime().availableProcessors());
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> tasks = new ArrayList<>();
+
+        for (final Report report : reports) {
+            tasks.add(pool.submit(() -> LktCliController.runReport(model, report, engine, options)));
+        }
+        pool.shutdown();
+
+        for (final Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                LktCliController.LOGGER.error("Interrupted while waiting for the reports.");
+                pool.shutdownNow();
+                return;
+            } catch (ExecutionException exc) {
+                LktCliController.LOGGER.error(String.join("", "Report failed: ", exc.getCause().getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Method creates a single report holding a read lock of the shared model. The output file of a report
+     * using the result cache is detached from the cache before and saved to the cache afterwards.
+     * @param model Loaded RDF model.
+     * @param report Report that is created.
+     * @param engine Report engine.
+     * @param options Output format, limits and output settings of the report.
+     */
+    private static void runReport(final Model model, final Report report, final String engine,
+                                  final RdfReportOptions options) {
+        final long start = System.currentTimeMillis();
+        if (report.key != null) {
+            report.cache.detach(report.outFile);
+        }
+        model.enterCriticalSection(Lock.READ);
+        try {
+            RdfServiceSwitch.runReport(model, report.query, report.outFile, engine, options);
+        } finally {
+            model.leaveCriticalSection();
+        }
+        if (report.key != null) {
+            report.cache.store(report.key, report.outFile);
+        }
+        LktCliController.LOGGER.info(String.join("", "Report ", report.name, " finished in ",
+                String.valueOf(System.currentTimeMillis() - start), " ms..."));
+    }
+
+    /**
+     * Method returns the output file of a single report, if more than one report is created.
+     * The report name is appended to the file name, before the file extensions of the output format
+     * and the compression format.
+     * @param outFile Path and filename provided via option -o.
+     * @param report Name of the report.
+     * @param outputFormat Format of the output file.
+     * @return Path and filename of the report.
+     */
+    private static String reportOutFile(final String outFile, final String report, final String outputFormat) {
+        final String uncompressed = FileService.stripCompressionExtension(outFile);
+        final String base = FileService.checkFileExtension(uncompressed, outputFormat.toUpperCase(Locale.ENGLISH))
+                ? uncompressed.substring(0, uncompressed.lastIndexOf('.')) : uncompressed;
+        return String.join("", base, "_", report.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Method reads the SPARQL query from the file provided via the custom query option -c.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return Content of the custom query file, null if the option is missing or the file cannot be read.
+     */
+    private String readCustomQuery(final CommandLine cmd) {
+        final String customQueryFile = cmd.getOptionValue("c", "");
+        LktCliController.LOGGER.info(
+                String.join("", "Using custom query option -c...\t(", customQueryFile , ")")
+        );
+        if ("".equals(customQueryFile)) {
+            LktCliController.LOGGER.error("Missing required option: c");
+            return null;
+        } else if (!CtrlCheckService.isExistingFile(customQueryFile)) {
+            return null;
+        }
+
+        try {
+            return new String(Files.readAllBytes(Paths.get(customQueryFile)));
+        } catch (IOException exc) {
+            LktCliController.LOGGER.error(exc.getMessage());
+            exc.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Method sets the keywords marking the exit comment of a subject, provided via option -exit-keywords.
+     * The default keywords are used if the option is missing.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return False if the option does not contain any keyword.
+     */
+    private static boolean applyExitKeywords(final CommandLine cmd) {
+        if (!cmd.hasOption("exit-keywords")) {
+            LktExitCommentJena.setKeywords(LktExitCommentJena.DEFAULT_KEYWORDS);
+            return true;
+        }
+        final List<String> keywords = new ArrayList<>();
+        for (final String keyword : cmd.getOptionValue("exit-keywords").split(",")) {
+            if (!keyword.trim().isEmpty()) {
+                keywords.add(keyword.trim());
+            }
+        }
+        if (keywords.isEmpty()) {
+            LktCliController.LOGGER.error("Option -exit-keywords requires at least one keyword.");
+            return false;
+        }
+        LktExitCommentJena.setKeywords(keywords);
+        return true;
+    }
+
+    /**
+     * Method creates the settings used to load the input file from the commandline options.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return Settings used to load the input file, null if an option value is not supported.
+     */
+    private static RdfLoadOptions loadOptions(final CommandLine cmd) {
+        final RdfLoadOptions loadOptions = new RdfLoadOptions()
+                .setMemoryMapped(cmd.hasOption("m"))
+                .setSnapshotCacheDir(cmd.getOptionValue("snapshot-cache"))
+                .setStoreDir(cmd.getOptionValue("store"))
+                .setIncremental(cmd.hasOption("incremental"))
+                .setFrozen(cmd.hasOption("freeze"));
+
+        if (loadOptions.isIncremental() && loadOptions.getSnapshotCacheDir() == null) {
+            LktCliController.LOGGER.error("Option -incremental requires the option -snapshot-cache.");
+            return null;
+        }
+
+        for (final String opt : new String[] {"snapshot-cache-size", "pipeline-depth", "pipeline-batch"}) {
+            if (cmd.hasOption(opt)
+                    && !CtrlCheckService.isSupportedNumericCliArgValue(cmd.getOptionValue(opt), 1, "-" + opt)) {
+                return null;
+            }
+        }
+
+        if (cmd.hasOption("snapshot-cache-size")) {
+            loadOptions.setSnapshotCacheMaxSize(
+                    Long.parseLong(cmd.getOptionValue("snapshot-cache-size")) * LktCliController.BYTES_PER_MB);
+        }
+        if (cmd.hasOption("pipeline-depth")) {
+            loadOptions.setPipelineDepth(Integer.parseInt(cmd.getOptionValue("pipeline-depth")));
+        }
+        if (cmd.hasOption("pipeline-batch")) {
+            loadOptions.setPipelineBatchSize(Integer.parseInt(cmd.getOptionValue("pipeline-batch")));
+        }
+
+        return loadOptions;
+    }
+
+    /**
+     * Method creates the options of each report from the commandline options: the limits, the sort memory
+     * budget, the partitioning, streaming and paging of the results.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param outputFormat Format of the output files.
+     * @return Options of each report, null if an option value is not supported.
+     */
+    private static RdfReportOptions reportOptions(final CommandLine cmd, final String outputFormat) {
+        if (!LktCliController.isNumericReportOptions(cmd)) {
+            return null;
+        }
+        final RdfQueryLimits limits = LktCliController.queryLimits(cmd);
+        if (limits == null) {
+            return null;
+        }
+
+        final RdfReportOptions options = new RdfReportOptions()
+                .setOutputFormat(outputFormat)
+                .setQueryLimits(limits)
+                .setSortSpillDir(cmd.getOptionValue("sort-dir"))
+                .setProfiled(cmd.hasOption("profile"))
+                .setPartitionColumn(cmd.getOptionValue("partition-by"))
+                .setStreamed(cmd.hasOption("stream"));
+        LktCliController.applySizes(cmd, options);
+        return options;
+    }
+
+    /**
+     * Method checks that the numeric options of the reports are numbers within their range.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return True if all numeric options provided are supported.
+     */
+    private static boolean isNumericReportOptions(final CommandLine cmd) {
+        for (final String opt : new String[] {"timeout", "max-rows", "max-heap", "max-open-files", "limit"}) {
+            if (cmd.hasOption(opt)
+                    && !CtrlCheckService.isSupportedNumericCliArgValue(cmd.getOptionValue(opt), 1, "-" + opt)) {
+                return false;
+            }
+        }
+        for (final String opt : new String[] {"sort-run-rows", "offset"}) {
+            if (cmd.hasOption(opt)
+                    && !CtrlCheckService.isSupportedNumericCliArgValue(cmd.getOptionValue(opt), 0, "-" + opt)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        RdfServiceSwitch.runReport(inFile, queryString, cmd.getOptionValue("o", defaultOutputFile), outputFormat);
+    /**
+     * Method sets the sort memory budget, the maximum number of open files and the page of each report
+     * from the commandline options, which have been checked to be numbers before.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param options Options of each report.
+     */
+    private static void applySizes(final CommandLine cmd, final RdfReportOptions options) {
+        if (cmd.hasOption("sort-run-rows")) {
+            options.setSortRunRows(
+                    (int) Math.min(Integer.MAX_VALUE, Long.parseLong(cmd.getOptionValue("sort-run-rows"))));
+        }
+        if (cmd.hasOption("max-open-files")) {
+            options.setMaxOpenFiles(
+                    (int) Math.min(Integer.MAX_VALUE, Long.parseLong(cmd.getOptionValue("max-open-files"))));
+        }
+        if (cmd.hasOption("limit")) {
+            options.setLimit(Long.parseLong(cmd.getOptionValue("limit")));
+        }
+        if (cmd.hasOption("offset")) {
+            options.setOffset(Long.parseLong(cmd.getOptionValue("offset")));
+        }
+    }
+
+    /**
+     * Method creates the timeout, the row budget and the heap limit of each report from the commandline
+     * options, which have been checked to be numbers before.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return Limits of each report, null if the heap limit is not a percentage.
+     */
+    private static RdfQueryLimits queryLimits(final CommandLine cmd) {
+        final RdfQueryLimits limits = new RdfQueryLimits();
+        if (cmd.hasOption("timeout")) {
+            limits.setTimeoutMillis(Long.parseLong(cmd.getOptionValue("timeout")) * LktCliController.MILLIS_PER_S);
+        }
+        if (cmd.hasOption("max-rows")) {
+            limits.setMaxRows(Long.parseLong(cmd.getOptionValue("max-rows")));
+        }
+        if (cmd.hasOption("max-heap")) {
+            final long percent = Long.parseLong(cmd.getOptionValue("max-heap"));
+            if (percent > LktCliController.MAX_HEAP_PERCENT) {
+                LktCliController.LOGGER.error("Option -max-heap has to be a percentage between 1 and 100.");
+                return null;
+            }
+            limits.setMaxHeapPercent((int) percent);
+        }
+        return limits;
+    }
+
+    /**
+     * Report that is created from the loaded model.
+     */
+    private static final class Report {
+        /**
+         * Name of the report.
+         */
+        private final String name;
+        /**
+         * SPARQL query of the report.
+         */
+        private final String query;
+        /**
+         * Path and filename of the output file.
+         */
+        private final String outFile;
+        /**
+         * Result cache the output file is saved to, null if the result cache is not used.
+         */
+        private final RdfResultCacheJena cache;
+        /**
+         * Key of the report in the result cache, null if the report is not cached.
+         */
+        private final String key;
+
+        /**
+         * Constructor.
+         * @param reportName Name of the report.
+         * @param queryString SPARQL query of the report.
+         * @param reportFile Path and filename of the output file.
+         * @param resultCache Result cache the output file is saved to, null if the result cache is not used.
+         * @param cacheKey Key of the report in the result cache, null if the report is not cached.
+         */
+        Report(final String reportName, final String queryString, final String reportFile,
+               final RdfResultCacheJena resultCache, final String cacheKey) {
+            this.name = reportName;
+            this.query = queryString;
+            this.outFile = reportFile;
+            this.cache = resultCache;
+            this.key = cacheKey;
+        }
     }
 
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import com.hp.hpl.jena.sparql.pfunction.PFuncSimple;
+import com.hp.hpl.jena.sparql.pfunction.PropertyFunctionRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.g_node.micro.commons.KeywordMatcher;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfKeywordIndexJena;
+
+/**
+ * SPARQL property function finding the comments of log entries that mark the exit of a subject,
+ * used by {@link LktQueries#SUBJECTS_QUERY}:
+ * <pre>
+ * ?entry report:exitComment ?comment
+ * </pre>
+ * A comment marks an exit, if it contains one of the exit keywords, ignoring case. The comments
+ * of a graph are classified once by a {@link RdfKeywordIndexJena}, finding the exit comments of a log entry
+ * is a lookup. The index is resolved once per query execution. If the subject is a variable, it is bound
+ * to all resources with an exit comment.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LktExitCommentJena extends PFuncSimple {
+    /**
+     * URI of the property function.
+     */
+    public static final String FUNCTION_URI = String.join("", RdfConstants.RDF_NS_REPORT, "exitComment");
+    /**
+     * Keywords marking the exit of a subject, unless configured otherwise.
+     */
+    public static final List<String> DEFAULT_KEYWORDS =
+            Collections.unmodifiableList(Arrays.asList("Euthanasie", "Ausgeschleust"));
+
+    /**
+     * Property of the comments of a log entry.
+     */
+    private static final Node COMMENT = LktReportRows.uri(RdfConstants.RDF_NS_RDFS, "comment");
+    /**
+     * Matcher of the current exit keywords.
+     */
+    private static volatile KeywordMatcher matcher = new KeywordMatcher(LktExitCommentJena.DEFAULT_KEYWORDS);
+
+    /**
+     * Method registers the property function with the global registry of the SPARQL engine.
+     */
+    public static void register() {
+        PropertyFunctionRegistry.get().put(LktExitCommentJena.FUNCTION_URI, LktExitCommentJena.class);
+    }
+
+    /**
+     * Method returns the keywords marking the exit of a subject.
+     * @return Exit keywords.
+     */
+    public static List<String> getKeywords() {
+        return LktExitCommentJena.matcher.getKeywords();
+    }
+
+    /**
+     * Set the keywords marking the exit of a subject, used by all reports created afterwards.
+     * @param keywords Exit keywords, empty keywords are ignored.
+     */
+    public static void setKeywords(final List<String> keywords) {
+        LktExitCommentJena.matcher = new KeywordMatcher(keywords);
+    }
+
+    /**
+     * Method returns the index of the exit comments of a graph, the index is built if it does not exist yet.
+     * @param graph Graph containing the log entries.
+     * @return Exit comments by log entry.
+     */
+    public static RdfKeywordIndexJena index(final Graph graph) {
+        return RdfKeywordIndexJena.index(graph, LktExitCommentJena.COMMENT, LktExitCommentJena.matcher);
+    }
+
+    @Override
+    public QueryIterator execEvaluated(final Binding binding, final Node subject, final Node predicate,
+                                       final Node object, final ExecutionContext execCxt) {
+        final RdfKeywordIndexJena index =
+                RdfKeywordIndexJena.index(execCxt, LktExitCommentJena.COMMENT, LktExitCommentJena.matcher);
+        final List<Binding> rows = new ArrayList<>();
+        if (Var.isVar(subject)) {
+            for (final Map.Entry<Node, List<Node>> entry : index.all().entrySet()) {
+                final Binding row = BindingFactory.binding(binding, Var.alloc(subject), entry.getKey());
+                LktExitCommentJena.bind(rows, row, object, entry.getValue());
+            }
+        } else {
+            LktExitCommentJena.bind(rows, binding, object, index.values(subject));
+        }
+        return new QueryIterPlainWrapper(rows.iterator(), execCxt);
+    }
+
+    /**
+     * Method adds a row for every exit comment matching the object of the function.
+     * @param rows Rows the matching comments are added to.
+     * @param binding Current row.
+     * @param object Object of the function, either a variable or a comment.
+     * @param comments Exit comments of a log entry.
+     */
+    private static void bind(final List<Binding> rows, final Binding binding, final Node object,
+                             final List<Node> comments) {
+        for (final Node comment : comments) {
+            if (Var.isVar(object)) {
+                rows.add(BindingFactory.binding(binding, Var.alloc(object), comment));
+            } else if (object.equals(comment)) {
+                rows.add(binding);
+            }
+        }
+    }
+
+}
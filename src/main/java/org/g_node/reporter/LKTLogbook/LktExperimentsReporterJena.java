@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfQueryRegistryJena;
+
+/**
+ * Class creating the EXPERIMENTS report by walking the graph directly instead of evaluating
+ * {@link LktQueries#EXPERIMENTS_QUERY}. The query is a fixed star shaped join from projects to
+ * experiments, subjects and permits, and from experiments to experimenters. Each experiment and subject
+ * is read once with a single lookup, the values of its columns are kept and copied into a reusable row buffer
+ * for every project referencing it. Rows are sorted by project, subject id and experiment date using
+ * the ORDER BY of the query; see {@link LktReportRows#sorted} for rows whose order cannot be determined.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LktExperimentsReporterJena {
+    /**
+     * RDF type of projects.
+     */
+    private static final Node PROJECT = LktReportRows.gn("Project");
+    /**
+     * Property linking a project to one of its experiments.
+     */
+    private static final Node HAS_EXPERIMENT = LktReportRows.gn("hasExperiment");
+    /**
+     * Property linking a project to its provenance.
+     */
+    private static final Node HAS_PROVENANCE = LktReportRows.gn("hasProvenance");
+    /**
+     * Property linking an experiment to its subjects.
+     */
+    private static final Node HAS_SUBJECT = LktReportRows.gn("hasSubject");
+    /**
+     * Property linking an experiment to its experimenters.
+     */
+    private static final Node HAS_EXPERIMENTER = LktReportRows.gn("hasExperimenter");
+    /**
+     * Property linking a subject to its permit.
+     */
+    private static final Node HAS_PERMIT = LktReportRows.gn("hasPermit");
+    /**
+     * Property of the number of a permit.
+     */
+    private static final Node HAS_NUMBER = LktReportRows.gn("hasNumber");
+    /**
+     * Property of the name of an experimenter.
+     */
+    private static final Node NAME = LktReportRows.uri(RdfConstants.RDF_NS_FOAF, "name");
+    /**
+     * Property of the label of projects and experiments.
+     */
+    private static final Node LABEL = LktReportRows.uri(RdfConstants.RDF_NS_RDFS, "label");
+    /**
+     * Property of the comment of an experiment.
+     */
+    private static final Node COMMENT = LktReportRows.uri(RdfConstants.RDF_NS_RDFS, "comment");
+    /**
+     * Property of the RDF type of a resource.
+     */
+    private static final Node TYPE = LktReportRows.uri(RdfConstants.RDF_NS_RDF, "type");
+
+    /**
+     * Required experiment properties, their values start the experiment part of the row buffer.
+     */
+    private static final Node[] EXPERIMENT_PROPERTIES = {LABEL, LktReportRows.gn("startedAt")};
+    /**
+     * Optional experiment properties, either all or none of them are part of a row.
+     */
+    private static final Node[] OPTIONAL_PROPERTIES = {
+        LktReportRows.gn("hasParadigm"), LktReportRows.gn("hasParadigmSpecifics"), COMMENT,
+    };
+    /**
+     * Required subject properties, their values start the subject part of the row buffer.
+     */
+    private static final Node[] SUBJECT_PROPERTIES = {
+        LktReportRows.gn("hasSubjectID"), LktReportRows.gn("hasBirthDate"),
+        LktReportRows.gn("hasSex"), LktReportRows.gn("hasWithdrawalDate"),
+    };
+
+    /**
+     * Report columns of the row buffer: project, experiment id, experiment part and subject part.
+     */
+    private static final Var[] COLUMNS = {
+        Var.alloc("Project"), Var.alloc("ExperimentId"),
+        Var.alloc("Experiment"), Var.alloc("ExperimentDate"), Var.alloc("Experimenter"),
+        Var.alloc("Paradigm"), Var.alloc("ParadigmSpecifics"), Var.alloc("ExperimentComment"),
+        Var.alloc("SubjectId"), Var.alloc("BirthDate"), Var.alloc("Sex"), Var.alloc("WithdrawalDate"),
+        Var.alloc("PermitNumber"),
+    };
+    /**
+     * Index of the experiment part in the row buffer.
+     */
+    private static final int EXPERIMENT_OFFSET = 2;
+    /**
+     * Index of the subject part in the row buffer.
+     */
+    private static final int SUBJECT_OFFSET = 8;
+
+    /**
+     * Constructor is private, the reporter is only used via its static methods.
+     */
+    private LktExperimentsReporterJena() {
+    }
+
+    /**
+     * Method creates the rows of the EXPERIMENTS report of a model.
+     * @param model RDF model the report is created from.
+     * @return Report rows sorted like the rows of the SPARQL query, null if the order of the rows
+     *  cannot be determined without evaluating the SPARQL query.
+     */
+    public static ResultSet createReport(final Model model) {
+        final Query query = RdfQueryRegistryJena.compile(LktQueries.EXPERIMENTS_QUERY).getQuery();
+        final Graph graph = model.getGraph();
+        final Map<Node, Experiment> experiments = new HashMap<>();
+        final Map<Node, List<Node[]>> subjects = new HashMap<>();
+
+        final List<Binding> rows = new ArrayList<>();
+        final Node[] buffer = new Node[LktExperimentsReporterJena.COLUMNS.length];
+        final ExtendedIterator<Triple> projects = graph.find(Node.ANY, LktExperimentsReporterJena.TYPE,
+                LktExperimentsReporterJena.PROJECT);
+        try {
+            while (projects.hasNext()) {
+                final Map<Node, List<Node>> properties = LktReportRows.properties(graph, projects.next().getSubject());
+                // Provenances are not reported, but every provenance is a separate solution of the query.
+                final int provenances = LktReportRows.values(properties,
+                        LktExperimentsReporterJena.HAS_PROVENANCE).size();
+                for (final Node label : LktReportRows.values(properties, LktExperimentsReporterJena.LABEL)) {
+                    buffer[0] = label;
+                    for (final Node id : LktReportRows.values(properties, LktExperimentsReporterJena.HAS_EXPERIMENT)) {
+                        buffer[1] = id;
+                        final Experiment experiment = experiments.computeIfAbsent(id, e -> new Experiment(graph, e));
+                        for (int p = 0; p < provenances; p += 1) {
+                            experiment.addRows(graph, buffer, subjects, rows);
+                        }
+                    }
+                }
+            }
+        } finally {
+            projects.close();
+        }
+
+        return LktReportRows.sorted(model, query, rows);
+    }
+
+    /**
+     * Method returns the values of the subject part of the row buffer for a subject.
+     * @param graph Graph containing the subject.
+     * @param subject Node of the subject.
+     * @return Value combinations of the subject columns, empty if the subject is missing a required property.
+     */
+    private static List<Node[]> subjectValues(final Graph graph, final Node subject) {
+        final Map<Node, List<Node>> properties = LktReportRows.properties(graph, subject);
+        final List<Node[]> numbers = new ArrayList<>();
+        for (final Node permit : LktReportRows.values(properties, LktExperimentsReporterJena.HAS_PERMIT)) {
+            for (final Node number : LktReportRows.objects(graph, permit, LktExperimentsReporterJena.HAS_NUMBER)) {
+                numbers.add(new Node[] {number});
+            }
+        }
+        return LktReportRows.product(
+                LktReportRows.crossProduct(LktExperimentsReporterJena.SUBJECT_PROPERTIES, properties), numbers);
+    }
+
+    /**
+     * Values of the experiment part of the row buffer and the subjects of an experiment,
+     * read with a single graph lookup.
+     */
+    private static final class Experiment {
+        /**
+         * Value combinations of the experiment columns.
+         */
+        private final List<Node[]> values;
+        /**
+         * Subjects of the experiment.
+         */
+        private final List<Node> subjects;
+
+        /**
+         * Constructor reads the properties of an experiment.
+         * @param graph Graph containing the experiment.
+         * @param experiment Node of the experiment.
+         */
+        Experiment(final Graph graph, final Node experiment) {
+            final Map<Node, List<Node>> properties = LktReportRows.properties(graph, experiment);
+            this.subjects = LktReportRows.values(properties, LktExperimentsReporterJena.HAS_SUBJECT);
+
+            final List<Node[]> names = new ArrayList<>();
+            for (final Node experimenter : LktReportRows.values(properties,
+                    LktExperimentsReporterJena.HAS_EXPERIMENTER)) {
+                for (final Node name : LktReportRows.objects(graph, experimenter, LktExperimentsReporterJena.NAME)) {
+                    names.add(new Node[] {name});
+                }
+            }
+
+            List<Node[]> optional = LktReportRows.crossProduct(
+                    LktExperimentsReporterJena.OPTIONAL_PROPERTIES, properties);
+            if (optional.isEmpty()) {
+                optional = Collections.singletonList(
+                        new Node[LktExperimentsReporterJena.OPTIONAL_PROPERTIES.length]);
+            }
+
+            this.values = LktReportRows.product(LktReportRows.product(
+                    LktReportRows.crossProduct(LktExperimentsReporterJena.EXPERIMENT_PROPERTIES, properties),
+                    names), optional);
+        }
+
+        /**
+         * Method adds the report rows of the experiment. The project columns of the row buffer are already set.
+         * @param graph Graph containing the experiment.
+         * @param buffer Row buffer.
+         * @param subjectValues Values of the subjects that have already been read.
+         * @param rows Report rows the rows of the experiment are added to.
+         */
+        void addRows(final Graph graph, final Node[] buffer, final Map<Node, List<Node[]>> subjectValues,
+                     final List<Binding> rows) {
+            if (this.values.isEmpty()) {
+                return;
+            }
+            for (final Node subject : this.subjects) {
+                final List<Node[]> subjectRows = subjectValues.computeIfAbsent(subject,
+                        s -> LktExperimentsReporterJena.subjectValues(graph, s));
+                for (final Node[] experimentRow : this.values) {
+                    System.arraycopy(experimentRow, 0, buffer,
+                            LktExperimentsReporterJena.EXPERIMENT_OFFSET, experimentRow.length);
+                    for (final Node[] subjectRow : subjectRows) {
+                        System.arraycopy(subjectRow, 0, buffer,
+                                LktExperimentsReporterJena.SUBJECT_OFFSET, subjectRow.length);
+                        rows.add(LktReportRows.binding(LktExperimentsReporterJena.COLUMNS, buffer));
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -17,6 +17,11 @@ package org.g_node.reporter.LKTLogbook;
  */
 public final class LktQueries {
 
+    static {
+        // The SUBJECTS query uses the property function finding exit comments.
+        LktExitCommentJena.register();
+    }
+
     /**
      * Collection of RDF prefixes used by the SPARQL queries provided by this class.
      */
@@ -82,6 +87,7 @@ public final class LktQueries {
             "prefix xs:    <http://www.w3.org/2001/XMLSchema#>",
             "prefix foaf:  <http://xmlns.com/foaf/0.1/>",
             "prefix dc:    <http://purl.org/dc/terms/>",
+            "prefix report: <https://github.com/G-Node/rdf-to-report/functions#>",
             "SELECT ?SubjectID ?PermitNumber ?SpeciesName ?ScientificName ?Sex ?BirthDate ?WithdrawalDate ",
             " ?FirstLogEntry ?FirstExperimenter ?LastLogEntry ?LastExperimenter ?LastComment ",
             "?ExitLogEntry ?ExitComment ",
@@ -115,7 +121,7 @@ public final class LktQueries {
             "OPTIONAL { ?node gn:hasSubjectLogEntry ?l3 . ?l3 gn:startedAt ?LastLogEntry ; ",
             "gn:hasExperimenter ?expUUID2 ; rdfs:comment ?LastComment . ?expUUID2 foaf:name ?LastExperimenter . }",
             "OPTIONAL { ?node gn:hasSubjectLogEntry ?l4 . ?l4 gn:startedAt ?ExitLogEntry ; ",
-            "rdfs:comment ?ExitComment . FILTER regex(?ExitComment, \".*(Euthanasie|Ausgeschleust).*\", \"i\")}",
+            "report:exitComment ?ExitComment . }",
             "}",
             " ORDER BY ?SubjectID ?EntryDate"
     );
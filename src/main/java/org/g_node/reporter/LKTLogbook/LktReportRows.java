@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.SortCondition;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingComparator;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.engine.binding.BindingMap;
+import com.hp.hpl.jena.sparql.engine.binding.BindingUtils;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import org.g_node.micro.rdf.RdfConstants;
+
+/**
+ * Class providing the graph lookups and row operations shared by the reporters that create LKT reports
+ * by walking the graph directly instead of evaluating the SPARQL queries of {@link LktQueries}.
+ * Report rows are Jena {@link Binding}s, they are sorted and saved like the rows of a SPARQL query.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class LktReportRows {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LktReportRows.class.getName());
+
+    /**
+     * Constructor is private, the class only provides static methods.
+     */
+    private LktReportRows() {
+    }
+
+    /**
+     * Method creates a URI node.
+     * @param namespace Namespace of the node.
+     * @param localName Local name of the node.
+     * @return URI node.
+     */
+    static Node uri(final String namespace, final String localName) {
+        return NodeFactory.createURI(String.join("", namespace, localName));
+    }
+
+    /**
+     * Method creates a node of the G-Node ontology.
+     * @param localName Local name of the node.
+     * @return URI node.
+     */
+    static Node gn(final String localName) {
+        return LktReportRows.uri(RdfConstants.RDF_NS_GN_ONT, localName);
+    }
+
+    /**
+     * Method reads all properties of a node with a single graph lookup.
+     * @param graph Graph containing the node.
+     * @param node Subject node of the properties.
+     * @return Objects of the node by property.
+     */
+    static Map<Node, List<Node>> properties(final Graph graph, final Node node) {
+        final Map<Node, List<Node>> properties = new HashMap<>();
+        final ExtendedIterator<Triple> it = graph.find(node, Node.ANY, Node.ANY);
+        try {
+            while (it.hasNext()) {
+                final Triple t = it.next();
+                properties.computeIfAbsent(t.getPredicate(), k -> new ArrayList<>()).add(t.getObject());
+            }
+        } finally {
+            it.close();
+        }
+        return properties;
+    }
+
+    /**
+     * Method returns the objects of a single property of a node.
+     * @param graph Graph containing the node.
+     * @param node Subject node of the property.
+     * @param predicate Property that is looked up.
+     * @return Objects of the property.
+     */
+    static List<Node> objects(final Graph graph, final Node node, final Node predicate) {
+        final List<Node> objects = new ArrayList<>();
+        final ExtendedIterator<Triple> it = graph.find(node, predicate, Node.ANY);
+        try {
+            while (it.hasNext()) {
+                objects.add(it.next().getObject());
+            }
+        } finally {
+            it.close();
+        }
+        return objects;
+    }
+
+    /**
+     * Method returns the values of a property from the properties of a node.
+     * @param properties Objects of a node by property.
+     * @param predicate Property that is returned.
+     * @return Objects of the property, empty if the node does not have the property.
+     */
+    static List<Node> values(final Map<Node, List<Node>> properties, final Node predicate) {
+        return properties.getOrDefault(predicate, Collections.emptyList());
+    }
+
+    /**
+     * Method returns all combinations of the values of several properties.
+     * @param predicates Properties whose values are combined.
+     * @param properties Values of all properties of a node.
+     * @return Value combinations, one value per property.
+     */
+    static List<Node[]> crossProduct(final Node[] predicates, final Map<Node, List<Node>> properties) {
+        List<Node[]> combinations = Collections.singletonList(new Node[0]);
+        for (final Node predicate : predicates) {
+            final List<Node[]> extended = new ArrayList<>();
+            for (final Node[] combination : combinations) {
+                for (final Node value : LktReportRows.values(properties, predicate)) {
+                    final Node[] next = Arrays.copyOf(combination, combination.length + 1);
+                    next[combination.length] = value;
+                    extended.add(next);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations;
+    }
+
+    /**
+     * Method returns all combinations of the value combinations of two groups of columns.
+     * @param first Value combinations of the first group of columns.
+     * @param second Value combinations of the second group of columns.
+     * @return Value combinations, the values of the first group followed by the values of the second group.
+     */
+    static List<Node[]> product(final List<Node[]> first, final List<Node[]> second) {
+        final List<Node[]> combinations = new ArrayList<>(first.size() * second.size());
+        for (final Node[] a : first) {
+            for (final Node[] b : second) {
+                final Node[] next = Arrays.copyOf(a, a.length + b.length);
+                System.arraycopy(b, 0, next, a.length, b.length);
+                combinations.add(next);
+            }
+        }
+        return combinations;
+    }
+
+    /**
+     * Method creates a report row from the values of a row buffer.
+     * @param columns Report columns of the buffer.
+     * @param values Row buffer, unbound columns are null.
+     * @return Report row.
+     */
+    static Binding binding(final Var[] columns, final Node[] values) {
+        final BindingMap b = BindingFactory.create();
+        for (int i = 0; i < columns.length; i += 1) {
+            if (values[i] != null) {
+                b.add(columns[i], values[i]);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Method joins report rows with the values of additional columns.
+     * @param rows Report rows.
+     * @param columns Additional columns.
+     * @param values Value combinations of the additional columns.
+     * @param optional Whether rows without values are kept, like in a SPARQL OPTIONAL.
+     * @return Joined report rows.
+     */
+    static List<Binding> join(final List<Binding> rows, final Var[] columns, final List<Node[]> values,
+                              final boolean optional) {
+        if (values.isEmpty()) {
+            return optional ? rows : Collections.emptyList();
+        }
+        final List<Binding> joined = new ArrayList<>(rows.size() * values.size());
+        for (final Binding row : rows) {
+            for (final Node[] value : values) {
+                Binding b = row;
+                for (int i = 0; i < columns.length; i += 1) {
+                    b = BindingFactory.binding(b, columns[i], value[i]);
+                }
+                joined.add(b);
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Method sorts report rows by the ORDER BY conditions of a query. The SPARQL engine sorts rows
+     * with the same sort key by variables that are not part of the report, the order of such rows
+     * is only the same as in the query result, if the rows are identical.
+     * @param model RDF model the report is created from.
+     * @param query SPARQL query the report replaces.
+     * @param rows Report rows, containing the result variables of the query.
+     * @return Sorted report rows, null if rows with the same sort key differ.
+     */
+    static ResultSet sorted(final Model model, final Query query, final List<Binding> rows) {
+        final List<SortCondition> conditions = query.getOrderBy();
+        if (conditions != null) {
+            Collections.sort(rows, new BindingComparator(conditions));
+            for (int i = 1; i < rows.size(); i += 1) {
+                if (LktReportRows.isSameSortKey(rows.get(i - 1), rows.get(i), conditions)
+                        && !BindingUtils.equals(rows.get(i - 1), rows.get(i))) {
+                    LktReportRows.LOGGER.info("Report rows with the same sort key differ...");
+                    return null;
+                }
+            }
+        }
+        return new ResultSetStream(query.getResultVars(), model, rows.iterator());
+    }
+
+    /**
+     * Method checks whether two rows might be equal according to the sort conditions of a query.
+     * Sort keys that are no plain variables are always treated as equal.
+     * @param first First report row.
+     * @param second Second report row.
+     * @param conditions Sort conditions of the query.
+     * @return True if the sort keys of the rows might be equal.
+     */
+    private static boolean isSameSortKey(final Binding first, final Binding second,
+                                         final List<SortCondition> conditions) {
+        for (final SortCondition c : conditions) {
+            if (!c.getExpression().isVariable()) {
+                continue;
+            }
+            final Var v = c.getExpression().asVar();
+            final Node a = first.get(v);
+            final Node b = second.get(v);
+            if (a == null ? b != null : b == null || !a.sameValueAs(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -10,15 +10,32 @@
 
 package org.g_node.reporter.LKTLogbook;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryExecution;
-import com.hp.hpl.jena.query.QueryExecutionFactory;
-import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.query.QueryParseException;
 import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFactory;
+import com.hp.hpl.jena.query.ResultSetRewindable;
 import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import org.apache.log4j.Logger;
+import org.g_node.micro.rdf.RdfDateIndexJena;
 import org.g_node.micro.rdf.RdfFileServiceJena;
+import org.g_node.micro.rdf.RdfPartitionWriterJena;
+import org.g_node.micro.rdf.RdfQueryGuardJena;
+import org.g_node.micro.rdf.RdfQueryLimitException;
+import org.g_node.micro.rdf.RdfQueryProfileJena;
+import org.g_node.micro.rdf.RdfQueryRegistryJena;
+import org.g_node.micro.rdf.RdfReportOptions;
 
 /**
  * Class handles query execution and saving the results.
@@ -26,10 +43,38 @@ import org.g_node.micro.rdf.RdfFileServiceJena;
  * @author Michael Sonntag (sonntag@bio.lmu.de)
  */
 public class LktReporterJena {
+    /**
+     * Report engine evaluating the SPARQL query of a report.
+     */
+    public static final String SPARQL_ENGINE = "SPARQL";
+    /**
+     * Report engine walking the graph directly for reports with a native reporter.
+     */
+    public static final String NATIVE_ENGINE = "NATIVE";
+    /**
+     * Report engine creating reports with a native reporter and checking them against the SPARQL query.
+     */
+    public static final String CHECK_ENGINE = "CHECK";
+    /**
+     * Report engines supported by this reporter.
+     */
+    public static final Set<String> REPORT_ENGINES = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(
+            LktReporterJena.NATIVE_ENGINE, LktReporterJena.SPARQL_ENGINE, LktReporterJena.CHECK_ENGINE)));
     /**
      * Access to the main LOGGER.
      */
     private static final Logger LOGGER = Logger.getLogger(LktCliController.class.getName());
+    /**
+     * Native reporters by the SPARQL query they replace.
+     */
+    private static final Map<String, Function<Model, ResultSet>> NATIVE_REPORTS;
+
+    static {
+        final Map<String, Function<Model, ResultSet>> reports = new HashMap<>();
+        reports.put(LktQueries.SUBJECTS_QUERY, LktSubjectsReporterJena::createReport);
+        reports.put(LktQueries.EXPERIMENTS_QUERY, LktExperimentsReporterJena::createReport);
+        NATIVE_REPORTS = Collections.unmodifiableMap(reports);
+    }
 
     /**
      * Method to run a SPARQL query on an RDF file and save the results to an output file.
@@ -41,16 +86,196 @@ public class LktReporterJena {
     public static void runReport(final String inFile, final String queryString,
                                  final String outFile, final String outputFormat) {
 
-        LktReporterJena.LOGGER.info("Start query...");
-        final Model queryModel = RdfFileServiceJena.openModelFromFile(inFile);
+        LktReporterJena.runReport(RdfFileServiceJena.openModelFromFile(inFile), queryString, outFile, outputFormat);
+    }
 
+    /**
+     * Method to run a SPARQL query on an already loaded RDF model and save the results to an output file.
+     * The query is compiled via the {@link RdfQueryRegistryJena}, a query that has been run before
+     * is not parsed again.
+     * @param queryModel RDF model that is to be queried.
+     * @param queryString SPARQL query.
+     * @param outFile Path and filename where the results of the query are saved to.
+     * @param outputFormat Format of the output file.
+     */
+    public static void runReport(final Model queryModel, final String queryString,
+                                 final String outFile, final String outputFormat) {
+        LktReporterJena.runReport(queryModel, queryString, outFile, outputFormat, LktReporterJena.SPARQL_ENGINE);
+    }
+
+    /**
+     * Method to create a report from an already loaded RDF model and save the results to an output file.
+     * The report is not limited, see {@link #runReport(Model, String, String, String, RdfReportOptions)}.
+     * @param queryModel RDF model that is to be queried.
+     * @param queryString SPARQL query.
+     * @param outFile Path and filename where the results of the query are saved to.
+     * @param outputFormat Format of the output file.
+     * @param engine Report engine, one of {@link LktReporterJena#REPORT_ENGINES}.
+     */
+    public static void runReport(final Model queryModel, final String queryString,
+                                 final String outFile, final String outputFormat, final String engine) {
+        LktReporterJena.runReport(queryModel, queryString, outFile, engine,
+                new RdfReportOptions().setOutputFormat(outputFormat));
+    }
+
+    /**
+     * Method to create a report from an already loaded RDF model and save the results to an output file.
+     * If the native or check engine is used and a native reporter replaces the query, the report is created
+     * by walking the graph directly. The SPARQL query is evaluated otherwise, or if the native reporter cannot
+     * create the same report. The check engine additionally evaluates the SPARQL query and saves its result,
+     * if the rows of the native reporter differ. If the report exceeds one of its limits, it is cancelled,
+     * the exceeded limit is logged and no output file is saved. If the options request a profile, the evaluation
+     * of the SPARQL query is profiled and the profile is saved next to the output file, also if the report
+     * is cancelled. Streamed or paged reports are created by the SPARQL query, see
+     * {@link RdfReportOptions#isPaged()}.
+     * @param queryModel RDF model that is to be queried.
+     * @param queryString SPARQL query.
+     * @param outFile Path and filename where the results of the query are saved to.
+     * @param engine Report engine, one of {@link LktReporterJena#REPORT_ENGINES}.
+     * @param options Output format, limits and output settings of the report.
+     */
+    public static void runReport(final Model queryModel, final String queryString, final String outFile,
+                                 final String engine, final RdfReportOptions options) {
+        final RdfQueryProfileJena profile = options.isProfiled() ? new RdfQueryProfileJena() : null;
         try {
-            final Query query = QueryFactory.create(queryString);
-            final QueryExecution qexec = QueryExecutionFactory.create(query, queryModel);
-            final ResultSet result = qexec.execSelect();
+            ResultSet result = LktReporterJena.nativeReport(queryModel, queryString, engine, options);
+
+            if (result != null && LktReporterJena.CHECK_ENGINE.equalsIgnoreCase(engine)) {
+                LktReporterJena.LOGGER.info("Check native report...");
+                final ResultSetRewindable nativeResult = ResultSetFactory.makeRewindable(result);
+                final ResultSetRewindable queryResult = ResultSetFactory.makeRewindable(
+                        RdfQueryRegistryJena.compile(queryString).execSelect(queryModel, options));
+                if (LktReporterJena.isSameResult(nativeResult, queryResult)) {
+                    nativeResult.reset();
+                    result = nativeResult;
+                } else {
+                    LktReporterJena.LOGGER.error(
+                            "Native report differs from the SPARQL query, saving query results.");
+                    queryResult.reset();
+                    result = queryResult;
+                }
+            }
+
+            if (result == null) {
+                LktReporterJena.LOGGER.info("Start query...");
+                if (!LktReporterJena.compileQuery(queryString)) {
+                    return;
+                }
+                result = RdfQueryRegistryJena.compile(queryString).execSelect(queryModel, options, profile);
+            } else {
+                result = RdfQueryGuardJena.guard(result, options.getQueryLimits());
+            }
 
             LktReporterJena.LOGGER.info("Save results...");
-            RdfFileServiceJena.saveResultsToSupportedFile(result, outputFormat, outFile);
+            RdfFileServiceJena.saveResultsToSupportedFile(result, outFile, options);
+        } catch (RdfQueryLimitException exc) {
+            LktReporterJena.LOGGER.error(String.join("", "Report cancelled: ", exc.getLimit(), " exceeded."));
+        }
+        LktReporterJena.saveProfile(profile, outFile);
+    }
+
+    /**
+     * Method creates a report with the native reporter replacing its SPARQL query, if the engine uses native
+     * reporters. Streamed or paged reports are always created by their SPARQL query, a native reporter
+     * creates and sorts all rows of a report before the first row is written.
+     * @param queryModel RDF model that is to be queried.
+     * @param queryString SPARQL query.
+     * @param engine Report engine, one of {@link LktReporterJena#REPORT_ENGINES}.
+     * @param options Options of the report.
+     * @return Rows of the native reporter, null if the SPARQL query has to be evaluated.
+     */
+    private static ResultSet nativeReport(final Model queryModel, final String queryString, final String engine,
+                                          final RdfReportOptions options) {
+        if (LktReporterJena.SPARQL_ENGINE.equalsIgnoreCase(engine)
+                || !LktReporterJena.NATIVE_REPORTS.containsKey(queryString)) {
+            return null;
+        } else if (options.isPaged()) {
+            LktReporterJena.LOGGER.info("Streamed or paged report is created by its SPARQL query...");
+            return null;
+        }
+        LktReporterJena.LOGGER.info("Start native report...");
+        return LktReporterJena.NATIVE_REPORTS.get(queryString).apply(queryModel);
+    }
+
+    /**
+     * Method saves the profile of a report to the output file with the extension ".profile" appended.
+     * @param profile Profile of the SPARQL query, null if the report is not profiled.
+     * @param outFile Path and filename where the results of the query are saved to.
+     */
+    private static void saveProfile(final RdfQueryProfileJena profile, final String outFile) {
+        if (profile == null) {
+            return;
+        } else if (!profile.isEmpty()) {
+            profile.save(String.join("", outFile, ".profile"));
+        } else {
+            LktReporterJena.LOGGER.warn(
+                    "Report created by the native reporter is not profiled, use -engine SPARQL to profile its query.");
+        }
+    }
+
+    /**
+     * Method logs how the SPARQL query of a report is evaluated,
+     * see {@link org.g_node.micro.rdf.RdfCompiledQueryJena#explain()}.
+     * @param queryString SPARQL query.
+     * @param engine Report engine, one of {@link LktReporterJena#REPORT_ENGINES}.
+     */
+    public static void explainReport(final String queryString, final String engine) {
+        if (!LktReporterJena.compileQuery(queryString)) {
+            return;
+        }
+        if (!LktReporterJena.SPARQL_ENGINE.equalsIgnoreCase(engine)
+                && LktReporterJena.NATIVE_REPORTS.containsKey(queryString)) {
+            LktReporterJena.LOGGER.info(
+                    "Report is created by the native reporter, the query is only evaluated by engine SPARQL.");
+        }
+        LktReporterJena.LOGGER.info(String.join("", "Explain query...\n",
+                RdfQueryRegistryJena.compile(queryString).explain()));
+    }
+
+    /**
+     * Method builds all indexes of a loaded model used by the reports, see {@link #indexDates(Model)}
+     * and {@link LktExitCommentJena}.
+     * @param queryModel Loaded RDF model.
+     */
+    public static void indexModel(final Model queryModel) {
+        LktReporterJena.indexDates(queryModel);
+        LktReporterJena.LOGGER.info("Index exit comments...");
+        final int entries = LktExitCommentJena.index(queryModel.getGraph()).all().size();
+        LktReporterJena.LOGGER.info(String.join("", "Found exit comments of ", String.valueOf(entries),
+                " log entries..."));
+    }
+
+    /**
+     * Method builds the date indexes of a loaded model: the start dates of all resources, used by the
+     * report:dateRange property function of custom queries, and the start dates of the log entries
+     * of every subject, used by the native SUBJECTS reporter. See {@link RdfDateIndexJena}.
+     * @param queryModel Loaded RDF model.
+     */
+    public static void indexDates(final Model queryModel) {
+        LktReporterJena.LOGGER.info("Index log entry dates...");
+        final Graph graph = queryModel.getGraph();
+        RdfDateIndexJena.index(graph, null, LktReportRows.gn("startedAt"));
+        final RdfDateIndexJena subjects = RdfDateIndexJena.index(
+                graph, LktReportRows.gn("hasSubjectLogEntry"), LktReportRows.gn("startedAt"));
+        LktReporterJena.LOGGER.info(String.join("", "Indexed log entry dates of ",
+                String.valueOf(subjects.size()), " subjects..."));
+    }
+
+    /**
+     * Method parses, compiles and optimizes a SPARQL query via the {@link RdfQueryRegistryJena}
+     * and checks that the query can be saved as a report. Queries that have been compiled
+     * before are taken from the registry.
+     * @param queryString SPARQL query.
+     * @return True if the query is a valid SELECT query, false if it is another type of query.
+     * @throws QueryParseException If the query string is not a valid SPARQL query.
+     */
+    public static boolean compileQuery(final String queryString) {
+        try {
+            if (!RdfQueryRegistryJena.compile(queryString).isSelect()) {
+                LktReporterJena.LOGGER.error("Invalid query: only SELECT queries are supported.");
+                return false;
+            }
+            return true;
         } catch (QueryParseException e) {
             final String errorMessage = String.join("",
                     "Invalid query: ", e.getMessage());
@@ -59,4 +284,37 @@ public class LktReporterJena {
         }
     }
 
+    /**
+     * Method checks whether a variable is a result variable of a SPARQL query,
+     * e.g. to partition the results of the query by the variable.
+     * @param queryString SPARQL query, compiled via {@link #compileQuery(String)} before.
+     * @param variable Name of the variable, with or without leading question mark.
+     * @return True if the variable is selected by the query.
+     */
+    public static boolean hasResultVariable(final String queryString, final String variable) {
+        return RdfQueryRegistryJena.compile(queryString).getQuery().getResultVars()
+                .contains(RdfPartitionWriterJena.variableName(variable));
+    }
+
+    /**
+     * Method checks whether two results contain the same rows in the same order.
+     * Only the result variables of the first result are compared.
+     * @param first First result, consumed by this method.
+     * @param second Second result, consumed by this method.
+     * @return True if both results contain the same rows in the same order.
+     */
+    private static boolean isSameResult(final ResultSet first, final ResultSet second) {
+        final List<Var> vars = Var.varList(first.getResultVars());
+        while (first.hasNext() && second.hasNext()) {
+            final Binding a = first.nextBinding();
+            final Binding b = second.nextBinding();
+            for (final Var v : vars) {
+                if (!Objects.equals(a.get(v), b.get(v))) {
+                    return false;
+                }
+            }
+        }
+        return !first.hasNext() && !second.hasNext();
+    }
+
 }
@@ -0,0 +1,418 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.expr.ExprVar;
+import com.hp.hpl.jena.sparql.expr.NodeValue;
+import com.hp.hpl.jena.sparql.expr.aggregate.Accumulator;
+import com.hp.hpl.jena.sparql.expr.aggregate.AggMax;
+import com.hp.hpl.jena.sparql.expr.aggregate.AggMin;
+import com.hp.hpl.jena.sparql.expr.aggregate.Aggregator;
+import com.hp.hpl.jena.sparql.function.FunctionEnv;
+import com.hp.hpl.jena.sparql.function.FunctionEnvBase;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfDateIndexJena;
+import org.g_node.micro.rdf.RdfKeywordIndexJena;
+import org.g_node.micro.rdf.RdfQueryRegistryJena;
+
+/**
+ * Class creating the SUBJECTS report by walking the graph directly instead of evaluating
+ * {@link LktQueries#SUBJECTS_QUERY}. The properties of each subject and each of its log entries are read
+ * with a single lookup, the first, last and exit log entries, experimenters and comments are computed
+ * in the same pass. If the start dates have been indexed via {@link RdfDateIndexJena}, the dates of the first
+ * and last log entry are looked up in the index. Exit comments are looked up in the index of the
+ * {@link LktExitCommentJena} property function used by the query. Aggregates and the row order use
+ * the same Jena functions as the SPARQL engine, the saved report is therefore identical to the report
+ * of the SPARQL query.
+ * If rows with the same sort key differ, their order would depend on the SPARQL evaluation order;
+ * no report is created in this case and the SPARQL query has to be used instead, see
+ * {@link LktReportRows#sorted}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LktSubjectsReporterJena {
+    /**
+     * RDF type of trial subjects.
+     */
+    private static final Node SUBJECT = LktReportRows.gn("Subject");
+    /**
+     * Property linking a subject to one of its log entries.
+     */
+    private static final Node HAS_SUBJECT_LOG_ENTRY = LktReportRows.gn("hasSubjectLogEntry");
+    /**
+     * Property linking a subject to its permit.
+     */
+    private static final Node HAS_PERMIT = LktReportRows.gn("hasPermit");
+    /**
+     * Property of the number of a permit.
+     */
+    private static final Node HAS_NUMBER = LktReportRows.gn("hasNumber");
+    /**
+     * Property of the start date of a log entry.
+     */
+    private static final Node STARTED_AT = LktReportRows.gn("startedAt");
+    /**
+     * Property linking a log entry to its experimenter.
+     */
+    private static final Node HAS_EXPERIMENTER = LktReportRows.gn("hasExperimenter");
+    /**
+     * Property of the name of an experimenter.
+     */
+    private static final Node NAME = LktReportRows.uri(RdfConstants.RDF_NS_FOAF, "name");
+    /**
+     * Property of the comment of a log entry.
+     */
+    private static final Node COMMENT = LktReportRows.uri(RdfConstants.RDF_NS_RDFS, "comment");
+    /**
+     * Property of the RDF type of a resource.
+     */
+    private static final Node TYPE = LktReportRows.uri(RdfConstants.RDF_NS_RDF, "type");
+
+    /**
+     * Required subject properties and the report columns containing their values, in the order of the query.
+     */
+    private static final Node[] SUBJECT_PROPERTIES = {
+        LktReportRows.gn("hasSubjectID"), LktReportRows.gn("hasSpeciesName"),
+        LktReportRows.gn("hasScientificName"), LktReportRows.gn("hasSex"),
+        LktReportRows.gn("hasBirthDate"), LktReportRows.gn("hasWithdrawalDate"),
+    };
+    /**
+     * Report columns of the required subject properties.
+     */
+    private static final Var[] SUBJECT_COLUMNS = {
+        Var.alloc("SubjectID"), Var.alloc("SpeciesName"), Var.alloc("ScientificName"),
+        Var.alloc("Sex"), Var.alloc("BirthDate"), Var.alloc("WithdrawalDate"),
+    };
+    /**
+     * Report column of the permit number.
+     */
+    private static final Var[] PERMIT_COLUMNS = {Var.alloc("PermitNumber")};
+    /**
+     * Report columns of the first log entry.
+     */
+    private static final Var[] FIRST_COLUMNS = {Var.alloc("FirstLogEntry")};
+    /**
+     * Report columns of the experimenter of the first log entry.
+     */
+    private static final Var[] FIRST_ENTRY_COLUMNS = {Var.alloc("FirstExperimenter")};
+    /**
+     * Report columns of the last log entry.
+     */
+    private static final Var[] LAST_COLUMNS = {Var.alloc("LastLogEntry")};
+    /**
+     * Report columns of the experimenter and comment of the last log entry.
+     */
+    private static final Var[] LAST_ENTRY_COLUMNS = {Var.alloc("LastExperimenter"), Var.alloc("LastComment")};
+    /**
+     * Report columns of the exit log entry.
+     */
+    private static final Var[] EXIT_COLUMNS = {Var.alloc("ExitLogEntry"), Var.alloc("ExitComment")};
+
+    /**
+     * Variable the aggregated start dates are bound to.
+     */
+    private static final Var DATE = Var.alloc("date");
+
+    /**
+     * Constructor is private, the reporter is only used via its static methods.
+     */
+    private LktSubjectsReporterJena() {
+    }
+
+    /**
+     * Method creates the rows of the SUBJECTS report of a model.
+     * @param model RDF model the report is created from.
+     * @return Report rows sorted like the rows of the SPARQL query, null if the order of the rows
+     *  cannot be determined without evaluating the SPARQL query.
+     */
+    public static ResultSet createReport(final Model model) {
+        final Query query = RdfQueryRegistryJena.compile(LktQueries.SUBJECTS_QUERY).getQuery();
+        final Graph graph = model.getGraph();
+        final FunctionEnv env = new FunctionEnvBase();
+        final Map<Node, List<Node>> experimenterNames = new HashMap<>();
+        final Indexes indexes = new Indexes(
+                RdfDateIndexJena.get(graph, LktSubjectsReporterJena.HAS_SUBJECT_LOG_ENTRY,
+                        LktSubjectsReporterJena.STARTED_AT), LktExitCommentJena.index(graph));
+
+        final List<Binding> rows = new ArrayList<>();
+        final ExtendedIterator<Triple> subjects = graph.find(Node.ANY, LktSubjectsReporterJena.TYPE,
+                LktSubjectsReporterJena.SUBJECT);
+        try {
+            while (subjects.hasNext()) {
+                rows.addAll(LktSubjectsReporterJena.subjectRows(
+                        graph, subjects.next().getSubject(), experimenterNames, indexes, env));
+            }
+        } finally {
+            subjects.close();
+        }
+
+        return LktReportRows.sorted(model, query, rows);
+    }
+
+    /**
+     * Method creates the report rows of a single subject.
+     * @param graph Graph containing the subject.
+     * @param subject Node of the subject.
+     * @param experimenterNames Names of the experimenters that have already been looked up.
+     * @param indexes Indexes of the start dates and exit comments of the log entries.
+     * @param env Environment used to evaluate aggregates and filters.
+     * @return Report rows of the subject, empty if the subject is missing a required property.
+     */
+    private static List<Binding> subjectRows(final Graph graph, final Node subject,
+                                             final Map<Node, List<Node>> experimenterNames,
+                                             final Indexes indexes, final FunctionEnv env) {
+        final Map<Node, List<Node>> properties = LktReportRows.properties(graph, subject);
+
+        final List<LogEntry> entries = new ArrayList<>();
+        for (final Node entry : LktReportRows.values(properties, LktSubjectsReporterJena.HAS_SUBJECT_LOG_ENTRY)) {
+            entries.add(new LogEntry(graph, entry, experimenterNames, indexes.exits));
+        }
+
+        // Dates the index cannot order like the SPARQL aggregates are aggregated instead.
+        Node firstDate = indexes.dates == null ? null : indexes.dates.first(subject);
+        Node lastDate = indexes.dates == null ? null : indexes.dates.last(subject);
+        if (firstDate == null || lastDate == null) {
+            firstDate = LktSubjectsReporterJena.aggregate(
+                    new AggMin(new ExprVar(LktSubjectsReporterJena.DATE)), entries, env);
+            lastDate = LktSubjectsReporterJena.aggregate(
+                    new AggMax(new ExprVar(LktSubjectsReporterJena.DATE)), entries, env);
+        }
+        // The MIN and MAX subqueries return no row for subjects without dated log entries.
+        if (firstDate == null || lastDate == null) {
+            return Collections.emptyList();
+        }
+
+        List<Binding> rows = Collections.singletonList(BindingFactory.root());
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.SUBJECT_COLUMNS,
+                LktReportRows.crossProduct(LktSubjectsReporterJena.SUBJECT_PROPERTIES, properties), false);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.PERMIT_COLUMNS,
+                LktSubjectsReporterJena.permitNumbers(graph, properties), false);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.FIRST_COLUMNS,
+                LktSubjectsReporterJena.single(firstDate), false);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.LAST_COLUMNS,
+                LktSubjectsReporterJena.single(lastDate), false);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.FIRST_ENTRY_COLUMNS,
+                LktSubjectsReporterJena.entryValues(graph, entries, firstDate, false), true);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.LAST_ENTRY_COLUMNS,
+                LktSubjectsReporterJena.entryValues(graph, entries, lastDate, true), true);
+        rows = LktReportRows.join(rows, LktSubjectsReporterJena.EXIT_COLUMNS,
+                LktSubjectsReporterJena.exitValues(entries), true);
+
+        return rows;
+    }
+
+    /**
+     * Method returns the numbers of the permits of a subject.
+     * @param graph Graph containing the subject.
+     * @param properties Objects of the subject by property.
+     * @return Permit numbers.
+     */
+    private static List<Node[]> permitNumbers(final Graph graph, final Map<Node, List<Node>> properties) {
+        final List<Node[]> numbers = new ArrayList<>();
+        for (final Node permit : LktReportRows.values(properties, LktSubjectsReporterJena.HAS_PERMIT)) {
+            for (final Node number : LktReportRows.objects(graph, permit, LktSubjectsReporterJena.HAS_NUMBER)) {
+                numbers.add(new Node[] {number});
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Method returns the experimenters, and optionally comments, of all log entries started at a date.
+     * @param graph Graph containing the log entries.
+     * @param entries Log entries of a subject.
+     * @param date Start date of the log entries.
+     * @param withComment Whether the comments of the log entries are returned as well.
+     * @return Experimenter names, or pairs of experimenter names and comments.
+     */
+    private static List<Node[]> entryValues(final Graph graph, final List<LogEntry> entries, final Node date,
+                                            final boolean withComment) {
+        final List<Node[]> values = new ArrayList<>();
+        for (final LogEntry entry : entries) {
+            for (final Node entryDate : entry.dates) {
+                if (!LktSubjectsReporterJena.matches(graph, entry.node, entryDate, date)) {
+                    continue;
+                }
+                for (final Node name : entry.experimenters) {
+                    if (!withComment) {
+                        values.add(new Node[] {name});
+                        continue;
+                    }
+                    for (final Node comment : entry.comments) {
+                        values.add(new Node[] {name, comment});
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Method returns the start dates and comments of all log entries with a comment marking the exit
+     * of the subject.
+     * @param entries Log entries of a subject.
+     * @return Pairs of start dates and comments.
+     */
+    private static List<Node[]> exitValues(final List<LogEntry> entries) {
+        final List<Node[]> values = new ArrayList<>();
+        for (final LogEntry entry : entries) {
+            for (final Node date : entry.dates) {
+                for (final Node comment : entry.exitComments) {
+                    values.add(new Node[] {date, comment});
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Method checks whether the start date of a log entry matches an aggregated date. Graph lookups
+     * of literals may match by value, equal values with different lexical forms are therefore
+     * checked with the graph the SPARQL query would use.
+     * @param graph Graph containing the log entry.
+     * @param entry Node of the log entry.
+     * @param entryDate Start date of the log entry.
+     * @param date Aggregated date.
+     * @return True if the SPARQL query would match the log entry with the aggregated date.
+     */
+    private static boolean matches(final Graph graph, final Node entry, final Node entryDate, final Node date) {
+        if (entryDate.equals(date)) {
+            return true;
+        }
+        return entryDate.sameValueAs(date) && graph.contains(entry, LktSubjectsReporterJena.STARTED_AT, date);
+    }
+
+    /**
+     * Method aggregates the start dates of log entries.
+     * @param aggregator Aggregate of the SPARQL query.
+     * @param entries Log entries of a subject.
+     * @param env Environment used to evaluate the aggregate.
+     * @return Aggregated date, null if there are no start dates or the aggregate could not be evaluated.
+     */
+    private static Node aggregate(final Aggregator aggregator, final List<LogEntry> entries, final FunctionEnv env) {
+        final Accumulator accumulator = aggregator.createAccumulator();
+        boolean dated = false;
+        for (final LogEntry entry : entries) {
+            for (final Node date : entry.dates) {
+                accumulator.accumulate(BindingFactory.binding(LktSubjectsReporterJena.DATE, date), env);
+                dated = true;
+            }
+        }
+        final NodeValue value = accumulator.getValue();
+        return !dated || value == null ? null : value.asNode();
+    }
+
+    /**
+     * Method returns the value of a column that is bound to a single node.
+     * @param value Node of the column, null if the column is unbound.
+     * @return Single value, or no value if the column is unbound.
+     */
+    private static List<Node[]> single(final Node value) {
+        return value == null ? Collections.emptyList() : Collections.singletonList(new Node[] {value});
+    }
+
+    /**
+     * Indexes of the log entries of all subjects.
+     */
+    private static final class Indexes {
+        /**
+         * Index of the start dates of the log entries of every subject, null if the dates have not been indexed.
+         */
+        private final RdfDateIndexJena dates;
+        /**
+         * Index of the exit comments of every log entry.
+         */
+        private final RdfKeywordIndexJena exits;
+
+        /**
+         * Constructor.
+         * @param dateIndex Index of the start dates, may be null.
+         * @param exitIndex Index of the exit comments.
+         */
+        Indexes(final RdfDateIndexJena dateIndex, final RdfKeywordIndexJena exitIndex) {
+            this.dates = dateIndex;
+            this.exits = exitIndex;
+        }
+    }
+
+    /**
+     * Start dates, experimenter names and comments of a log entry, read with a single graph lookup.
+     */
+    private static final class LogEntry {
+        /**
+         * Node of the log entry.
+         */
+        private final Node node;
+        /**
+         * Start dates of the log entry.
+         */
+        private final List<Node> dates = new ArrayList<>();
+        /**
+         * Names of the experimenters of the log entry.
+         */
+        private final List<Node> experimenters = new ArrayList<>();
+        /**
+         * Comments of the log entry.
+         */
+        private final List<Node> comments = new ArrayList<>();
+        /**
+         * Comments of the log entry marking the exit of the subject.
+         */
+        private final List<Node> exitComments = new ArrayList<>();
+
+        /**
+         * Constructor reads the properties of a log entry.
+         * @param graph Graph containing the log entry.
+         * @param entry Node of the log entry.
+         * @param experimenterNames Names of the experimenters that have already been looked up.
+         * @param exits Index of the exit comments.
+         */
+        LogEntry(final Graph graph, final Node entry, final Map<Node, List<Node>> experimenterNames,
+                 final RdfKeywordIndexJena exits) {
+            this.node = entry;
+            final ExtendedIterator<Triple> it = graph.find(entry, Node.ANY, Node.ANY);
+            try {
+                while (it.hasNext()) {
+                    final Triple t = it.next();
+                    if (LktSubjectsReporterJena.STARTED_AT.equals(t.getPredicate())) {
+                        this.dates.add(t.getObject());
+                    } else if (LktSubjectsReporterJena.COMMENT.equals(t.getPredicate())) {
+                        this.comments.add(t.getObject());
+                        if (exits.values(entry).contains(t.getObject())) {
+                            this.exitComments.add(t.getObject());
+                        }
+                    } else if (LktSubjectsReporterJena.HAS_EXPERIMENTER.equals(t.getPredicate())) {
+                        this.experimenters.addAll(experimenterNames.computeIfAbsent(t.getObject(),
+                                e -> LktReportRows.objects(graph, e, LktSubjectsReporterJena.NAME)));
+                    }
+                }
+            } finally {
+                it.close();
+            }
+        }
+    }
+
+}
@@ -123,4 +123,562 @@ public final class CliOptionService {
                 .build();
     }
 
+    /**
+     * Returns option required to parse the compression format of the report files from the command line.
+     * Commandline option will always be "-compress", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @param formats Set of available compression formats.
+     * @return CLI option handling the parsing of the compression format.
+     */
+    public static Option getCompressOption(final String altDesc, final Set<String> formats) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Compress the report files while they are written, using all cores. ",
+                "The extension of the compression format is appended to the report files.",
+                "\nAvailable compression formats: ", formats.toString());
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("compress")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option to read local input files from memory mapped regions instead of using stream reads.
+     * Commandline option shorthand will always be "-m" and "-memory-map". This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option enabling memory mapped input files.
+     */
+    public static Option getMemoryMapOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Read the input file from memory mapped regions instead of using stream reads. ",
+                "Reduces copy and system call overhead for large local files.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder("m")
+                .longOpt("memory-map")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the directory of the binary snapshot cache from the command line.
+     * Commandline option will always be "-snapshot-cache", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the snapshot cache directory.
+     */
+    public static Option getSnapshotCacheOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Directory of the binary snapshot cache. Parsed input files are saved as snapshots ",
+                "and unchanged input files are loaded from their snapshot instead of being parsed again.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("snapshot-cache")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the maximum size of the binary snapshot cache from the command line.
+     * Commandline option will always be "-snapshot-cache-size", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the snapshot cache size.
+     */
+    public static Option getSnapshotCacheSizeOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum size of the binary snapshot cache in MB. ",
+                "Least recently used snapshots are removed if the size is exceeded.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("snapshot-cache-size")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the directory of the disk backed store from the command line.
+     * Commandline option will always be "-store", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the store directory.
+     */
+    public static Option getStoreOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Directory of a disk backed store. The input file is loaded into the store once ",
+                "and queries are run against the store instead of an in-memory model. The store files are kept ",
+                "in the subdirectory tdb, other files of the directory are not changed.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("store")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the incremental loading flag from the command line.
+     * Commandline option will always be "-incremental", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the incremental loading flag.
+     */
+    public static Option getIncrementalOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Parse only data appended to the input file since the last run. ",
+                "Requires a snapshot cache directory; the whole file is parsed again if earlier data has changed.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("incremental")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the queue depth of the load pipeline from the command line.
+     * Commandline option will always be "-pipeline-depth", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the load pipeline queue depth.
+     */
+    public static Option getPipelineDepthOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Insert parsed triples into the model on a separate thread. ",
+                "The value is the number of triple batches the parser may be ahead of the insert thread.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("pipeline-depth")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the batch size of the load pipeline from the command line.
+     * Commandline option will always be "-pipeline-batch", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the load pipeline batch size.
+     */
+    public static Option getPipelineBatchOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Number of triples per batch handed from the parser to the insert thread, ",
+                "only used together with option -pipeline-depth.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("pipeline-batch")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the freeze flag from the command line.
+     * Commandline option will always be "-freeze", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the freeze flag.
+     */
+    public static Option getFreezeOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Convert the loaded data into a compact read-only model before running the report. ",
+                "Uses less memory and speeds up queries on large input files.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("freeze")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option to select how reports are created, either by evaluating their SPARQL queries or
+     * by the native reporters walking the graph directly. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @param engines Set containing all supported report engines.
+     * @return CLI option handling the parsing of the report engine.
+     */
+    public static Option getEngineOption(final String altDesc, final Set<String> engines) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Engine used to create reports. Default setting is the NATIVE engine, which walks ",
+                "the graph directly for reports supporting it and evaluates the SPARQL query otherwise. ",
+                "The CHECK engine compares the native report with the SPARQL query.",
+                "\nAvailable engines: ", engines.toString());
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("engine")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the timeout of a report from the command line.
+     * Commandline option will always be "-timeout", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the report timeout.
+     */
+    public static Option getTimeoutOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum time in seconds a single report may run. ",
+                "Reports exceeding the time are cancelled. Reports created by a native reporter ",
+                "are only limited while their rows are saved, use -engine SPARQL to limit the whole report.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("timeout")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the row budget of a report from the command line.
+     * Commandline option will always be "-max-rows", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the report row budget.
+     */
+    public static Option getMaxRowsOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum number of result rows of a single report. ",
+                "Reports exceeding the number of rows are cancelled.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("max-rows")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the heap limit of reports from the command line.
+     * Commandline option will always be "-max-heap", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the report heap limit.
+     */
+    public static Option getMaxHeapOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Percentage of the maximum heap size that may be in use while reports run. ",
+                "Running reports are cancelled, if the heap in use after a garbage collection ",
+                "is above the limit.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("max-heap")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the column partitioning the report files from the command line.
+     * Commandline option will always be "-partition-by", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the partition column.
+     */
+    public static Option getPartitionByOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Result variable of the report queries, e.g. Project. The rows of a report are written ",
+                "to one file per distinct value of the variable, the value is appended to the name of the file.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("partition-by")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the maximum number of open report files from the command line.
+     * Commandline option will always be "-max-open-files", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the maximum number of open report files.
+     */
+    public static Option getMaxOpenFilesOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum number of files of a report partitioned via -partition-by that are open ",
+                "at the same time. Default setting is 256.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("max-open-files")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the number of rows sorted in memory from the command line.
+     * Commandline option will always be "-sort-run-rows", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the number of rows sorted in memory.
+     */
+    public static Option getSortRunRowsOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum number of report rows sorted in memory. Larger reports are sorted in runs ",
+                "of this size, which are written to temporary files and merged. 0 always sorts in memory.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("sort-run-rows")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the directory of temporary sort files from the command line.
+     * Commandline option will always be "-sort-dir", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the directory of temporary sort files.
+     */
+    public static Option getSortDirOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Directory of the temporary files used to sort large reports. ",
+                "Default setting is the temporary directory of the system.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("sort-dir")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the keywords marking an exit comment from the command line.
+     * Commandline option will always be "-exit-keywords", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the exit keywords.
+     */
+    public static Option getExitKeywordsOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Comma separated keywords marking the exit comment of a subject, case is ignored. ",
+                "Default setting is 'Euthanasie,Ausgeschleust'.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("exit-keywords")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the directory of the report result cache from the command line.
+     * Commandline option will always be "-result-cache", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the result cache directory.
+     */
+    public static Option getResultCacheOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Directory of the report result cache. Output files are saved to the cache and restored ",
+                "from it, if neither the input file nor the query nor the output settings have changed.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("result-cache")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the maximum size of the report result cache from the command line.
+     * Commandline option will always be "-result-cache-size", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the result cache size.
+     */
+    public static Option getResultCacheSizeOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum size of the report result cache in MB. ",
+                "Least recently used results are removed if the size is exceeded.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("result-cache-size")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to disable the report result cache from the command line.
+     * Commandline option will always be "-no-cache", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option disabling the result cache.
+     */
+    public static Option getNoCacheOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Do not use the report result cache, ",
+                "reports are neither restored from the cache nor saved to it.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("no-cache")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to refresh the report result cache from the command line.
+     * Commandline option will always be "-refresh", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option refreshing the result cache.
+     */
+    public static Option getRefreshOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Create all reports again and replace their entries in the report result cache. ",
+                "Requires a result cache directory.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("refresh")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to explain the queries of the reports from the command line.
+     * Commandline option will always be "-explain", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option explaining the report queries.
+     */
+    public static Option getExplainOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Print the parsed algebra, the optimized plan and the evaluation order of the queries ",
+                "of the selected reports. The input file is not loaded and no report is created.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("explain")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to profile the queries of the reports from the command line.
+     * Commandline option will always be "-profile", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option profiling the report queries.
+     */
+    public static Option getProfileOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Measure rows and time of every operator of the report queries. The profile of a report ",
+                "is saved to its output file with the extension '.profile' appended.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("profile")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to stream the rows of the reports from the command line.
+     * Commandline option will always be "-stream", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option streaming the report rows.
+     */
+    public static Option getStreamOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Write the rows of a report as soon as they are found, before the query has finished. ",
+                "The rows are not sorted, the ORDER BY of the report query is dropped, ",
+                "unless the query selects its rows via LIMIT or OFFSET.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("stream")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the maximum number of rows of a report page from the command line.
+     * Commandline option will always be "-limit", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the number of rows of a report page.
+     */
+    public static Option getLimitOption(final String altDesc) {
+
+        final String defaultDesc = String.join("",
+                "Optional: Maximum number of rows written to a report, only these rows are evaluated. ",
+                "Other than -max-rows, a report with more rows is not cancelled.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("limit")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse the number of rows skipped before a report page from the command line.
+     * Commandline option will always be "-offset", there is no shorthand. This option is optional.
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option handling the parsing of the number of skipped report rows.
+     */
+    public static Option getOffsetOption(final String altDesc) {
+
+        final String defaultDesc = "Optional: Number of rows skipped before the first row written to a report.";
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("offset")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
 }
@@ -48,6 +48,7 @@ public final class CtrlCheckService {
 
     /**
      * Method checks if the provided file is within the list of provided file extensions.
+     * The extension of a supported compression format is skipped, e.g. "data.ttl.gz" is checked as "ttl".
      * @param inputFile Path and filename of the file that is supposed to be checked for the supported file type.
      * @param checkExtension Set containing all supported file types for the provided input file.
      * @return True in case the file type is supported, false in case it is not.
@@ -60,7 +61,8 @@ public final class CtrlCheckService {
                     String.join("",
                             "Input RDF file ", inputFile, " cannot be read.",
                             "\n\tOnly the following file formats are supported: \n\t",
-                            checkExtension.toString()
+                            checkExtension.toString(),
+                            "\n\tFiles may be compressed using gzip (.gz), bzip2 (.bz2) or xz (.xz)."
                     )
             );
             return false;
@@ -114,4 +116,31 @@ public final class CtrlCheckService {
         return true;
     }
 
+    /**
+     * Method checks if a String value is an integer number not smaller than a provided minimum.
+     * @param cliArgValue Input value that is checked.
+     * @param minValue Smallest supported number.
+     * @param cliArgDesc Description of the checked CLI argument value; required for proper logging
+     *                   the details of the check.
+     * @return True if the input value is a supported number, false if not.
+     */
+    public static boolean isSupportedNumericCliArgValue(final String cliArgValue, final long minValue,
+                                                        final String cliArgDesc) {
+        CtrlCheckService.LOGGER.info(String.join("", "Checking value of command line option '", cliArgDesc, "'..."));
+        boolean isSupported;
+        try {
+            isSupported = Long.parseLong(cliArgValue) >= minValue;
+        } catch (NumberFormatException e) {
+            isSupported = false;
+        }
+        if (!isSupported) {
+            CtrlCheckService.LOGGER.error(
+                    String.join("",
+                            "'", cliArgValue, "' is not a supported value of command line option '", cliArgDesc, "'.",
+                            "\n\t\t Please use a number not smaller than ", String.valueOf(minValue))
+            );
+        }
+        return isSupported;
+    }
+
 }
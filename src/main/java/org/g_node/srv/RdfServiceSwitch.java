@@ -10,8 +10,13 @@
 
 package org.g_node.srv;
 
+import com.hp.hpl.jena.rdf.model.Model;
 import java.util.Set;
 import org.g_node.micro.rdf.RdfFileServiceJena;
+import org.g_node.micro.rdf.RdfLoadOptions;
+import org.g_node.micro.rdf.RdfLoadResult;
+import org.g_node.micro.rdf.RdfReportOptions;
+import org.g_node.micro.rdf.RdfValidationReport;
 import org.g_node.reporter.LKTLogbook.LktReporterJena;
 
 /**
@@ -25,6 +30,12 @@ public final class RdfServiceSwitch {
      */
     public static final Set<String> QUERY_RESULT_FILE_FORMATS = RdfFileServiceJena.QUERY_RESULT_FILE_FORMATS.keySet();
 
+    /**
+     * Switch to the compression formats of query result files that are supported by the currently used RDF API.
+     */
+    public static final Set<String> RESULT_COMPRESSION_FORMATS =
+            RdfFileServiceJena.RESULT_COMPRESSION_FORMATS.keySet();
+
     /**
      * Switch to the method that checks, if the provided file is a valid RDF file. This check is
      * dependent on the used RDF API.
@@ -35,6 +46,93 @@ public final class RdfServiceSwitch {
         return RdfFileServiceJena.isValidRdfFile(uri);
     }
 
+    /**
+     * Switch to the method that validates an RDF file without keeping the parsed data in memory.
+     * This check is dependent on the used RDF API.
+     * @param uri Uri of the file that is to be validated.
+     * @return Instance of {@link RdfValidationReport} containing the number of parsed triples,
+     *  the number of bytes read and the first errors encountered by the parser.
+     */
+    public static RdfValidationReport validateRdfFile(final String uri) {
+        return RdfFileServiceJena.validateRdfFile(uri, RdfFileServiceJena.DEFAULT_MAX_VALIDATION_ERRORS);
+    }
+
+    /**
+     * Switch to the method that validates and loads an RDF file in a single parse. This check is
+     * dependent on the used RDF API.
+     * @param uri Uri of the file that is to be validated and loaded.
+     * @param options Settings used to load the file.
+     * @return Instance of {@link RdfLoadResult} containing either the loaded model or the parser error message.
+     */
+    public static RdfLoadResult loadValidRdfFile(final String uri, final RdfLoadOptions options) {
+        return RdfFileServiceJena.loadValidRdfFile(uri, options);
+    }
+
+    /**
+     * Switch to the method compiling a SPARQL query used for a report. Compiled queries are kept
+     * for the runtime of the application. This check is dependent on the used RDF API.
+     * @param queryString SPARQL query string used to create a report.
+     * @return True if the query can be used to create a report, false otherwise.
+     */
+    public static boolean compileQuery(final String queryString) {
+        return LktReporterJena.compileQuery(queryString);
+    }
+
+    /**
+     * Switch to the method checking whether a variable is a result variable of a SPARQL query.
+     * This is dependent on the used RDF API.
+     * @param queryString SPARQL query string used to create a report.
+     * @param variable Name of the variable, with or without leading question mark.
+     * @return True if the variable is selected by the query.
+     */
+    public static boolean hasResultVariable(final String queryString, final String variable) {
+        return LktReporterJena.hasResultVariable(queryString, variable);
+    }
+
+    /**
+     * Switch to the method logging how the SPARQL query of a report is evaluated.
+     * This is dependent on the used RDF API.
+     * @param queryString SPARQL query string used to create a report.
+     * @param engine Report engine.
+     */
+    public static void explainReport(final String queryString, final String engine) {
+        LktReporterJena.explainReport(queryString, engine);
+    }
+
+    /**
+     * Switch to the method indexing the dates and comments of an already loaded RDF model, used by the
+     * reports created from it.
+     * @param model Loaded RDF model.
+     */
+    public static void indexModel(final Model model) {
+        LktReporterJena.indexModel(model);
+    }
+
+    /**
+     * Switch to the method returning the name of the output file of a report, the file extension
+     * of the output format is appended if required. This is dependent on the used RDF API.
+     * @param outputFile File where the results of the query are supposed to be saved to.
+     * @param outputFormat Format of the output file.
+     * @return Path and filename of the output file.
+     */
+    public static String resultFileName(final String outputFile, final String outputFormat) {
+        return RdfFileServiceJena.resultFileName(outputFile, outputFormat);
+    }
+
+    /**
+     * Switch to the method returning the name of the output file of a compressed report, the file extensions
+     * of the output format and the compression format are appended if required. This is dependent on the
+     * used RDF API.
+     * @param outputFile File where the results of the query are supposed to be saved to.
+     * @param outputFormat Format of the output file.
+     * @param compression Compression format of the output file, null if the output file is not compressed.
+     * @return Path and filename of the output file.
+     */
+    public static String resultFileName(final String outputFile, final String outputFormat,
+                                        final String compression) {
+        return RdfFileServiceJena.resultFileName(outputFile, outputFormat, compression);
+    }
+
     /**
      * Switch to the method querying an RDF input file and writing
      * the results to an output file of a specified format.
@@ -48,4 +146,31 @@ public final class RdfServiceSwitch {
         LktReporterJena.runReport(inFile, queryString, outputFile, outputFormat);
     }
 
+    /**
+     * Switch to the method querying an already loaded RDF model and writing
+     * the results to an output file of a specified format.
+     * @param model RDF model that is to be queried.
+     * @param queryString SPARQL query string used to create a report from the model.
+     * @param outputFile File where the results of the query are supposed to be saved to.
+     * @param outputFormat Format of the output file.
+     */
+    public static void runReport(final Model model, final String queryString,
+                                 final String outputFile, final String outputFormat) {
+        LktReporterJena.runReport(model, queryString, outputFile, outputFormat);
+    }
+
+    /**
+     * Switch to the method creating a report from an already loaded RDF model and writing
+     * the results to an output file of a specified format.
+     * @param model RDF model that is to be queried.
+     * @param queryString SPARQL query string used to create a report from the model.
+     * @param outputFile File where the results of the query are supposed to be saved to.
+     * @param engine Report engine, either walking the graph directly or evaluating the SPARQL query.
+     * @param options Output format, limits and output settings of the report.
+     */
+    public static void runReport(final Model model, final String queryString, final String outputFile,
+                                 final String engine, final RdfReportOptions options) {
+        LktReporterJena.runReport(model, queryString, outputFile, engine, options);
+    }
+
 }
@@ -46,6 +46,20 @@ public final class AppUtilsTest {
         assertThat(checkHexSHA.equals(AppUtils.getHashSHA(testDiff))).isFalse();
     }
 
+    /**
+     * Method checks that the {@link AppUtils} getHashSHA256 method returns different hashes
+     * for entries differing in case or in the way they are split.
+     */
+    @Test
+    public void testGetHashSHA256() {
+        final String hash = AppUtils.getHashSHA256(Arrays.asList("hash", "me"));
+        assertThat(hash).isEqualTo(AppUtils.getHashSHA256(new ArrayList<>(Arrays.asList("hash", "me"))));
+        assertThat(hash).hasSize(64);
+        assertThat(hash).isNotEqualTo(AppUtils.getHashSHA256(Arrays.asList("Hash", "Me")));
+        assertThat(hash).isNotEqualTo(AppUtils.getHashSHA256(Collections.singletonList("hash me")));
+        assertThat(hash).isNotEqualTo(AppUtils.getHashSHA256(Arrays.asList("has", "hme")));
+    }
+
     /**
      * Test checks via regular expression that the method returns a valid timestamp.
      * Further checks that a proper exception is thrown if a Non-DateTimeFormatter pattern is used.
@@ -141,6 +141,30 @@ public class FileServiceTest {
         ).isTrue();
     }
 
+    /**
+     * Check that the extensions of supported compression formats are recognized and skipped
+     * when checking the file extension.
+     * @throws Exception
+     */
+    @Test
+    public void testCompressionExtension() throws Exception {
+        final Set<String> testFileExtensions = Collections.singleton("TTL");
+
+        assertThat(FileService.getCompressionExtension("test.ttl.gz")).isEqualTo("GZ");
+        assertThat(FileService.getCompressionExtension("test.nt.BZ2")).isEqualTo("BZ2");
+        assertThat(FileService.getCompressionExtension("test.ttl.xz")).isEqualTo("XZ");
+        assertThat(FileService.getCompressionExtension("test.ttl")).isNull();
+        assertThat(FileService.getCompressionExtension("gz")).isNull();
+
+        assertThat(FileService.stripCompressionExtension("test.ttl.gz")).isEqualTo("test.ttl");
+        assertThat(FileService.stripCompressionExtension("test.ttl")).isEqualTo("test.ttl");
+
+        assertThat(FileService.checkFileExtension("test.ttl.gz", testFileExtensions)).isTrue();
+        assertThat(FileService.checkFileExtension("test.ttl.bz2", testFileExtensions)).isTrue();
+        assertThat(FileService.checkFileExtension("test.txt.xz", testFileExtensions)).isFalse();
+        assertThat(FileService.checkFileExtension("test.gz", testFileExtensions)).isFalse();
+    }
+
     /**
      * Check that a file copy of a given file is created using the proper timestamp as part of the filename.
      * Also check, that the method returns false if the file already exists.
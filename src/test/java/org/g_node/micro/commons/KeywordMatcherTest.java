@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.regex.Pattern;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link KeywordMatcher} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class KeywordMatcherTest {
+
+    /**
+     * Test that keywords are found anywhere in a text, ignoring the case of US-ASCII letters only.
+     */
+    @Test
+    public void testMatches() {
+        final KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("Euthanasie", "Ausgeschleust", ""));
+        assertThat(matcher.getKeywords()).containsExactly("Euthanasie", "Ausgeschleust");
+
+        assertThat(matcher.matches("Euthanasie")).isTrue();
+        assertThat(matcher.matches("Tier am 1.1. AUSGESCHLEUST.")).isTrue();
+        assertThat(matcher.matches("Zweite\nZeile: euthanasie")).isTrue();
+        assertThat(matcher.matches("Euthanasi")).isFalse();
+        assertThat(matcher.matches("Ausgeschleust".replace('s', 'ſ'))).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+
+        assertThat(new KeywordMatcher(Arrays.asList("Ärger")).matches("ärger")).isFalse();
+        assertThat(new KeywordMatcher(Collections.singletonList("")).matches("any")).isFalse();
+    }
+
+    /**
+     * Test that overlapping keywords are found the same way as by a case-insensitive regular expression.
+     */
+    @Test
+    public void testSameAsRegex() {
+        final KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("abab", "bac", "Ca", "aab"));
+        final Pattern pattern = Pattern.compile(".*(abab|bac|Ca|aab).*", Pattern.CASE_INSENSITIVE);
+
+        final Random random = new Random(42);
+        final char[] letters = {'a', 'b', 'c', 'A', 'B', 'C', 'x'};
+        for (int i = 0; i < 10000; i++) {
+            final char[] text = new char[random.nextInt(8)];
+            for (int j = 0; j < text.length; j++) {
+                text[j] = letters[random.nextInt(letters.length)];
+            }
+            final String value = new String(text);
+            assertThat(matcher.matches(value)).as(value).isEqualTo(pattern.matcher(value).find());
+        }
+    }
+
+}
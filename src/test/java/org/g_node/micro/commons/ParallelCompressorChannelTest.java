@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.IOUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.tukaani.xz.XZInputStream;
+
+/**
+ * Unit tests for the {@link ParallelCompressorChannel} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ParallelCompressorChannelTest {
+
+    /**
+     * Test that data written in writes of arbitrary length, compressed as several blocks, decompresses
+     * to the written data for all supported compression formats.
+     * @throws Exception
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        final byte[] data = this.createData(2000);
+        for (final String compressor : new String[] {CompressorStreamFactory.GZIP, CompressorStreamFactory.BZIP2,
+            CompressorStreamFactory.XZ}) {
+            final byte[] compressed = this.compress(data, compressor, 16384, 3);
+            assertThat(this.decompress(compressed, compressor)).isEqualTo(data);
+        }
+    }
+
+    /**
+     * Test that the output is a concatenation of independent gzip members, which is read as a single file
+     * by the JDK gzip decompressor, and that the blocks are written in order.
+     * @throws Exception
+     */
+    @Test
+    public void testGzipMembers() throws Exception {
+        final byte[] data = this.createData(10000);
+        final byte[] compressed = this.compress(data, CompressorStreamFactory.GZIP, 1000, 1);
+
+        int members = 0;
+        for (int i = 0; i + 1 < compressed.length; i += 1) {
+            if (compressed[i] == (byte) 0x1f && compressed[i + 1] == (byte) 0x8b) {
+                members += 1;
+            }
+        }
+        assertThat(members).isGreaterThanOrEqualTo(10);
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(data);
+        }
+    }
+
+    /**
+     * Test that the dictionary of xz blocks is limited to the block size, the blocks decompress
+     * within a memory limit far below the memory needed for the default dictionary.
+     * @throws Exception
+     */
+    @Test
+    public void testXzDictionarySize() throws Exception {
+        final byte[] data = this.createData(2000);
+        final byte[] compressed = this.compress(data, CompressorStreamFactory.XZ, 16384, 3);
+        try (InputStream in = new XZInputStream(new ByteArrayInputStream(compressed), 1024)) {
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(data);
+        }
+    }
+
+    /**
+     * Test that an empty channel is written as a valid compressed file without content
+     * and that the channel cannot be written after it is closed.
+     * @throws Exception
+     */
+    @Test
+    public void testEmpty() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelCompressorChannel channel =
+                new ParallelCompressorChannel(Channels.newChannel(out), CompressorStreamFactory.GZIP);
+        assertThat(channel.isOpen()).isTrue();
+        channel.close();
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(out.size()).isGreaterThan(0);
+        assertThat(this.decompress(out.toByteArray(), CompressorStreamFactory.GZIP)).isEmpty();
+
+        boolean closed = false;
+        try {
+            channel.write(ByteBuffer.wrap(new byte[] {1}));
+        } catch (ClosedChannelException e) {
+            closed = true;
+        }
+        assertThat(closed).isTrue();
+    }
+
+    /**
+     * Test that an unsupported compression format fails when the channel is closed.
+     * @throws Exception
+     */
+    @Test
+    public void testUnsupportedCompressor() throws Exception {
+        boolean failed = false;
+        try {
+            this.compress(this.createData(10), "unsupported", 4096, 1);
+        } catch (IOException e) {
+            failed = true;
+        }
+        assertThat(failed).isTrue();
+    }
+
+    private byte[] compress(final byte[] data, final String compressor, final int blockSize, final int maxPending)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Random random = new Random(1);
+        try (ParallelCompressorChannel channel = new ParallelCompressorChannel(
+                Channels.newChannel(out), compressor, blockSize, maxPending)) {
+            int pos = 0;
+            while (pos < data.length) {
+                final int n = Math.min(data.length - pos, random.nextInt(3 * blockSize));
+                assertThat(channel.write(ByteBuffer.wrap(data, pos, n))).isEqualTo(n);
+                pos += n;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] decompress(final byte[] compressed, final String compressor) throws Exception {
+        try (InputStream in = new CompressorStreamFactory(true).createCompressorInputStream(
+                compressor, new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private byte[] createData(final int lines) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("https://github.com/G-Node/neuro-ontology/subject/").append(i).append(",S").append(i % 97)
+                    .append(",Tier gefüttert\r\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+import org.apache.commons.io.IOUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ReadAheadInputStream} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ReadAheadInputStreamTest {
+
+    /**
+     * Test that the wrapped stream is read completely, across several blocks.
+     * @throws Exception
+     */
+    @Test
+    public void testRead() throws Exception {
+        final byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+        try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 1000, 2)) {
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(data);
+        }
+    }
+
+    /**
+     * Test that an IOException of the wrapped stream is rethrown to the consumer.
+     * @throws Exception
+     */
+    @Test
+    public void testReadIOException() throws Exception {
+        final IOException error = new IOException("broken");
+        assertThat(this.readFailing(error)).isSameAs(error);
+    }
+
+    /**
+     * Test that a RuntimeException of the wrapped stream does not leave the consumer waiting for
+     * input forever, but is rethrown as the cause of an IOException.
+     * @throws Exception
+     */
+    @Test(timeout = 10000)
+    public void testReadRuntimeException() throws Exception {
+        final IllegalStateException error = new IllegalStateException("corrupt");
+        final Throwable thrown = this.readFailing(error);
+        assertThat(thrown).isInstanceOf(IOException.class);
+        assertThat(thrown.getCause()).isSameAs(error);
+    }
+
+    /**
+     * Read a stream that fails with the provided error after the first block.
+     * @param error Error thrown by the wrapped stream.
+     * @return Exception thrown to the consumer, null if none was thrown.
+     * @throws Exception
+     */
+    private Throwable readFailing(final Exception error) throws Exception {
+        final InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                if (error instanceof IOException) {
+                    throw (IOException) error;
+                }
+                throw (RuntimeException) error;
+            }
+        };
+        final InputStream source = new SequenceInputStream(new ByteArrayInputStream(new byte[1000]), failing);
+        try (InputStream in = new ReadAheadInputStream(source, 1000, 2)) {
+            IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            return e;
+        }
+        return null;
+    }
+
+}
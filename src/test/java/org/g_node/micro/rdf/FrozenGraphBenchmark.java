@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import java.util.Locale;
+
+/**
+ * Benchmark comparing heap usage and triple pattern matching of the default in-memory graph and
+ * the {@link FrozenGraphJena}. Not run as part of the test suite, run via
+ * 'java -cp [test classpath] org.g_node.micro.rdf.FrozenGraphBenchmark [number of subjects] [repetitions]'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class FrozenGraphBenchmark {
+
+    private static final String GN = "https://github.com/G-Node/neuro-ontology/";
+
+    private static Graph retained;
+
+    public static void main(final String[] args) throws Exception {
+        final int subjects = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final Runtime rt = Runtime.getRuntime();
+        final long baseline = usedHeap(rt);
+        retained = createLogbookGraph(subjects);
+        final long memGraph = usedHeap(rt) - baseline;
+        final int triples = retained.size();
+        run("default", retained, subjects, repetitions);
+
+        // The frozen graph shares the node objects of the source, measure it after the source has been dropped.
+        final Graph frozen = new FrozenGraphJena(retained);
+        retained = null;
+        final long frozenGraph = usedHeap(rt) - baseline;
+
+        System.out.println(String.format(Locale.ENGLISH, "%d triples: default graph %.1f MB, frozen graph %.1f MB",
+                triples, memGraph / 1048576.0, frozenGraph / 1048576.0));
+        run("frozen", frozen, subjects, repetitions);
+    }
+
+    private static long usedHeap(final Runtime rt) {
+        System.gc();
+        System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void run(final String label, final Graph graph, final int subjects, final int repetitions) {
+        final Node hasLogEntry = NodeFactory.createURI(GN + "hasSubjectLogEntry");
+        final Node startedAt = NodeFactory.createURI(GN + "startedAt");
+        long best = Long.MAX_VALUE;
+        long matches = 0;
+        for (int r = 0; r < repetitions; r++) {
+            final long start = System.nanoTime();
+            matches = 0;
+            for (int i = 0; i < subjects; i++) {
+                final Node subject = NodeFactory.createURI(GN + "subject/" + i);
+                for (final Triple entry : graph.find(subject, hasLogEntry, Node.ANY).toList()) {
+                    matches += graph.find(entry.getObject(), startedAt, Node.ANY).toList().size();
+                }
+            }
+            matches += graph.find(Node.ANY, startedAt, Node.ANY).toList().size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(String.format(Locale.ENGLISH, "  %-7s best of %d: %.3f s (%d matches)",
+                label, repetitions, best / 1e9, matches));
+    }
+
+    private static Graph createLogbookGraph(final int subjects) {
+        final Graph g = GraphFactory.createDefaultGraph();
+        final Node hasSubjectID = NodeFactory.createURI(GN + "hasSubjectID");
+        final Node hasLogEntry = NodeFactory.createURI(GN + "hasSubjectLogEntry");
+        final Node startedAt = NodeFactory.createURI(GN + "startedAt");
+        final Node comment = NodeFactory.createURI(RdfConstants.RDF_NS_RDFS + "comment");
+
+        for (int i = 0; i < subjects; i++) {
+            final Node subject = NodeFactory.createURI(GN + "subject/" + i);
+            g.add(Triple.create(subject, hasSubjectID, NodeFactory.createLiteral("S" + i)));
+            for (int j = 0; j < 5; j++) {
+                final Node entry = NodeFactory.createAnon();
+                g.add(Triple.create(subject, hasLogEntry, entry));
+                g.add(Triple.create(entry, startedAt, NodeFactory.createLiteral(
+                        String.format(Locale.ENGLISH, "2015-%02d-%02dT10:00:00", j + 1, i % 28 + 1))));
+                g.add(Triple.create(entry, comment, NodeFactory.createLiteral("Log entry " + j + " of " + i)));
+            }
+        }
+        return g;
+    }
+
+}
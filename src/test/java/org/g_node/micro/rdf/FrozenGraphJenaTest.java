@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.AddDeniedException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link FrozenGraphJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class FrozenGraphJenaTest {
+
+    private static final String NS = "http://example.org/";
+
+    private Model model;
+
+    /**
+     * Create a model containing URIs, blank nodes and different kinds of literals.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        this.model.setNsPrefix("ex", FrozenGraphJenaTest.NS);
+        final Graph g = this.model.getGraph();
+        final Node name = this.uri("name");
+        final Node knows = this.uri("knows");
+        final Node age = this.uri("age");
+        final Node blank = NodeFactory.createAnon();
+
+        for (int i = 0; i < 10; i++) {
+            final Node person = this.uri(String.join("", "person", String.valueOf(i)));
+            g.add(Triple.create(person, name, NodeFactory.createLiteral(String.join("", "Name ", String.valueOf(i)))));
+            g.add(Triple.create(person, knows, this.uri(String.join("", "person", String.valueOf((i + 1) % 10)))));
+            g.add(Triple.create(person, knows, blank));
+            g.add(Triple.create(person, age,
+                    NodeFactory.createLiteral(String.valueOf(20 + i % 3), XSDDatatype.XSDinteger)));
+        }
+        g.add(Triple.create(blank, name, NodeFactory.createLiteral("Name", "en", false)));
+        g.add(Triple.create(blank, name, NodeFactory.createLiteral("Name", "EN", false)));
+    }
+
+    /**
+     * Test that every combination of bound and unbound pattern positions returns the same triples
+     * as the original graph.
+     * @throws Exception
+     */
+    @Test
+    public void testFind() throws Exception {
+        final Graph source = this.model.getGraph();
+        final FrozenGraphJena frozen = new FrozenGraphJena(source);
+        assertThat(frozen.size()).isEqualTo(source.size());
+
+        final List<Triple> all = source.find(Node.ANY, Node.ANY, Node.ANY).toList();
+        for (final Triple t : all) {
+            for (int mask = 0; mask < 8; mask++) {
+                final Triple pattern = Triple.createMatch(
+                        (mask & 1) != 0 ? t.getSubject() : null,
+                        (mask & 2) != 0 ? t.getPredicate() : null,
+                        (mask & 4) != 0 ? t.getObject() : null);
+                final Set<Triple> expected = all.stream()
+                        .filter(c -> this.matchesTerms(pattern, c)).collect(Collectors.toSet());
+                assertThat(new HashSet<>(frozen.find(pattern).toList())).isEqualTo(expected);
+                assertThat(frozen.getStatisticsHandler().getStatistic(
+                        pattern.getSubject(), pattern.getPredicate(), pattern.getObject())).isEqualTo(expected.size());
+            }
+        }
+
+        assertThat(frozen.find(this.uri("unknown"), Node.ANY, Node.ANY).hasNext()).isFalse();
+        assertThat(frozen.contains(this.uri("person1"), this.uri("knows"), this.uri("person2"))).isTrue();
+        assertThat(frozen.contains(this.uri("person2"), this.uri("knows"), this.uri("person1"))).isFalse();
+    }
+
+    /**
+     * Test that SPARQL queries return the same results on the frozen model, that prefixes are kept
+     * and that the frozen model cannot be changed.
+     * @throws Exception
+     */
+    @Test
+    public void testFreeze() throws Exception {
+        final String query = String.join("",
+                "PREFIX ex: <", FrozenGraphJenaTest.NS, "> ",
+                "SELECT ?p ?n ?a WHERE { ?p ex:knows ?k . ?k ex:name ?n . OPTIONAL { ?p ex:age ?a } } ",
+                "ORDER BY ?p ?n");
+        final String expected = this.queryResult(this.model, query);
+
+        final Model frozen = FrozenGraphJena.freeze(this.model);
+        assertThat(frozen.getGraph()).isInstanceOf(FrozenGraphJena.class);
+        assertThat(this.queryResult(frozen, query)).isEqualTo(expected);
+        assertThat(frozen.getNsPrefixURI("ex")).isEqualTo(FrozenGraphJenaTest.NS);
+
+        final Throwable thrown = catchThrowable(
+                () -> frozen.getGraph().add(Triple.create(this.uri("a"), this.uri("b"), this.uri("c"))));
+        assertThat(thrown).isInstanceOf(AddDeniedException.class);
+    }
+
+    /**
+     * Term equality matching of a triple pattern, {@link Triple#matches} matches literals by value.
+     */
+    private boolean matchesTerms(final Triple pattern, final Triple candidate) {
+        return (!pattern.getSubject().isConcrete() || pattern.getSubject().equals(candidate.getSubject()))
+                && (!pattern.getPredicate().isConcrete() || pattern.getPredicate().equals(candidate.getPredicate()))
+                && (!pattern.getObject().isConcrete() || pattern.getObject().equals(candidate.getObject()));
+    }
+
+    private Node uri(final String localName) {
+        return NodeFactory.createURI(String.join("", FrozenGraphJenaTest.NS, localName));
+    }
+
+    private String queryResult(final Model queryModel, final String query) {
+        try (QueryExecution qexec = QueryExecutionFactory.create(query, queryModel)) {
+            return ResultSetFormatter.asText(qexec.execSelect());
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Resource;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotNotFoundException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfChunkLoaderJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfChunkLoaderJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final File testNtFile = this.testFileFolder.resolve("test.nt").toFile();
+
+    /**
+     * Create a test folder and an N-Triples test file in the java temp directory. The blank nodes
+     * of the file are referenced in lines far apart from each other to end up in different chunks.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final StringBuilder nt = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            nt.append("_:b").append(i % 5).append(" <http://xmlns.com/foaf/0.1/name> \"Name ").append(i)
+                    .append("\" .\n");
+            nt.append("<http://example.org/s").append(i).append("> <http://xmlns.com/foaf/0.1/knows> _:b")
+                    .append(i % 5).append(" .\n");
+        }
+        FileUtils.write(this.testNtFile, nt.toString());
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that only local line based RDF files are loaded in chunks.
+     * @throws Exception
+     */
+    @Test
+    public void testIsChunkable() throws Exception {
+        assertThat(RdfChunkLoaderJena.isChunkable(this.testNtFile.getAbsolutePath())).isTrue();
+        assertThat(RdfChunkLoaderJena.isChunkable(this.testFileFolder.resolve("iDoNotExist.nt").toString()))
+                .isFalse();
+
+        final File ttlFile = this.testFileFolder.resolve("test.ttl").toFile();
+        FileUtils.write(ttlFile, "");
+        assertThat(RdfChunkLoaderJena.isChunkable(ttlFile.getAbsolutePath())).isFalse();
+    }
+
+    /**
+     * Test that a file loaded in many small chunks results in the same model as a file
+     * loaded by a single parser and that blank nodes are identical across chunks.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadModel() throws Exception {
+        final Model expected = RDFDataMgr.loadModel(this.testNtFile.getAbsolutePath());
+        final Model chunked = RdfChunkLoaderJena.loadModel(
+                this.testNtFile.getAbsolutePath(), 4, 100, new RdfLoadOptions());
+
+        assertThat(chunked.size()).isEqualTo(100);
+        assertThat(chunked.isIsomorphicWith(expected)).isTrue();
+
+        final Model mapped = RdfChunkLoaderJena.loadModel(
+                this.testNtFile.getAbsolutePath(), 4, 100, new RdfLoadOptions().setMemoryMapped(true));
+        assertThat(mapped.isIsomorphicWith(expected)).isTrue();
+
+        final Set<Resource> blankNodes = chunked.listSubjects().toList().stream()
+                .filter(Resource::isAnon)
+                .collect(Collectors.toSet());
+        assertThat(blankNodes).hasSize(5);
+    }
+
+    /**
+     * Test that an empty file results in an empty model and a missing file in a proper exception.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadModelEmptyAndMissing() throws Exception {
+        final File emptyFile = this.testFileFolder.resolve("empty.nt").toFile();
+        FileUtils.write(emptyFile, "");
+        assertThat(RdfChunkLoaderJena.loadModel(emptyFile.getAbsolutePath(), 2, 100, new RdfLoadOptions()).isEmpty()).isTrue();
+
+        final String missingFile = this.testFileFolder.resolve("iDoNotExist.nt").toString();
+        final Throwable thrown = catchThrowable(
+                () -> RdfChunkLoaderJena.loadModel(missingFile, 2, 100, new RdfLoadOptions()));
+        assertThat(thrown).isInstanceOf(RiotNotFoundException.class).hasMessageContaining("Not found: ");
+    }
+
+}
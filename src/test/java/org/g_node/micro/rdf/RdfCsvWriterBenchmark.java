@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.g_node.micro.commons.ParallelCompressorChannel;
+
+/**
+ * Benchmark comparing the throughput of Jena's ResultSetFormatter.outputAsCSV and the {@link RdfCsvWriterJena}
+ * when writing a generated result set of logbook rows, as well as the throughput of writing the rows gzip
+ * compressed by a single stream and by the {@link ParallelCompressorChannel}. Not run as part of the test
+ * suite, run via
+ * 'java -cp [test classpath] org.g_node.micro.rdf.RdfCsvWriterBenchmark [number of rows] [repetitions]'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfCsvWriterBenchmark {
+
+    private static final String GN = "https://github.com/G-Node/neuro-ontology/";
+
+    private static final List<String> VARS = Arrays.asList("subject", "id", "started", "experimenter", "comment");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final Binding[] BINDINGS = createBindings(10000);
+
+    public static void main(final String[] args) throws Exception {
+        final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final Path dir = Files.createTempDirectory("RdfCsvWriterBenchmark");
+        final Path file = dir.resolve("benchmark.csv");
+
+        final RdfCsvWriterJena writer = new RdfCsvWriterJena();
+        run("outputAsCSV", file, rows, repetitions, () -> {
+            try (OutputStream out = new FileOutputStream(file.toFile())) {
+                ResultSetFormatter.outputAsCSV(out, createResult(rows));
+            }
+        });
+        run("csvWriter", file, rows, repetitions, () -> writer.write(createResult(rows), file));
+
+        final Path gzFile = dir.resolve("benchmark.csv.gz");
+        run("gzipStream", gzFile, rows, repetitions, () -> {
+            try (WritableByteChannel out = Channels.newChannel(
+                    new GZIPOutputStream(new FileOutputStream(gzFile.toFile()), GZIP_BUFFER_SIZE))) {
+                writer.write(createResult(rows), out);
+            }
+        });
+        run("gzipBlocks", gzFile, rows, repetitions, () -> {
+            try (WritableByteChannel out = new ParallelCompressorChannel(FileChannel.open(gzFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                    CompressorStreamFactory.GZIP)) {
+                writer.write(createResult(rows), out);
+            }
+        });
+
+        Files.delete(gzFile);
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    private static void run(final String label, final Path file, final int rows, final int repetitions,
+                            final Output output) throws Exception {
+        // warm up
+        output.write();
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++) {
+            final long start = System.nanoTime();
+            output.write();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        final double seconds = best / 1e9;
+        final double megaBytes = Files.size(file) / (1024.0 * 1024.0);
+        System.out.println(String.format(Locale.ENGLISH,
+                "  %-11s best of %d: %.3f s, %.0f rows/s, %.1f MB/s (%.1f MB)",
+                label, repetitions, seconds, rows / seconds, megaBytes / seconds, megaBytes));
+    }
+
+    private static ResultSet createResult(final int rows) {
+        // Rows cycle through a fixed set of bindings, the benchmark measures writing and not creating nodes.
+        final Iterator<Binding> bindings = new Iterator<Binding>() {
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                return this.row < rows;
+            }
+
+            @Override
+            public Binding next() {
+                final Binding b = BINDINGS[this.row % BINDINGS.length];
+                this.row += 1;
+                return b;
+            }
+        };
+        return new ResultSetStream(VARS, null, new QueryIterPlainWrapper(bindings));
+    }
+
+    private static Binding[] createBindings(final int count) {
+        final Var[] vars = VARS.stream().map(Var::alloc).toArray(Var[]::new);
+        final Node experimenter = NodeFactory.createURI(GN + "experimenter/1");
+        final Binding[] bindings = new Binding[count];
+        for (int i = 0; i < count; i++) {
+            // Bindings are chains of single variable bindings, like the bindings created by matching triple patterns.
+            Binding b = BindingFactory.binding(vars[0], NodeFactory.createURI(GN + "subject/" + i));
+            b = BindingFactory.binding(b, vars[1], NodeFactory.createLiteral("S" + i));
+            b = BindingFactory.binding(b, vars[2], NodeFactory.createLiteral(
+                    String.format(Locale.ENGLISH, "2015-%02d-%02dT10:00:00", i % 12 + 1, i % 28 + 1)));
+            b = BindingFactory.binding(b, vars[3], experimenter);
+            b = BindingFactory.binding(b, vars[4], NodeFactory.createLiteral(i % 10 == 0
+                    ? "Gewicht gemessen, \"ok\"" : "Tier gefüttert und Käfig gereinigt"));
+            bindings[i] = b;
+        }
+        return bindings;
+    }
+
+    private interface Output {
+        void write() throws Exception;
+    }
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFactory;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfCsvWriterJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfCsvWriterJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String query = String.join("\n",
+            "PREFIX ex: <http://example.org/>",
+            "SELECT ?s ?value ?missing ?node WHERE {",
+            "  ?s ex:value ?value .",
+            "  OPTIONAL { ?s ex:missing ?missing }",
+            "  OPTIONAL { ?s ex:node ?node }",
+            "} ORDER BY ?s");
+    private Model model;
+
+    /**
+     * Set up a model with values that have to be quoted or escaped and values of all node types.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final String ns = "http://example.org/";
+        final String[] values = {"plain", "comma, separated", "\"quoted\" text", "line\nbreak", "carriage\rreturn",
+            "", "Käfig gereinigt", "€ 5", "emoji 🐭", "12"};
+        this.model = ModelFactory.createDefaultModel();
+        final Property value = this.model.createProperty(ns, "value");
+        final Property node = this.model.createProperty(ns, "node");
+        for (int i = 0; i < values.length; i++) {
+            this.model.createResource(String.format("%ss%02d", ns, i)).addProperty(value, values[i])
+                    .addProperty(node, i % 2 == 0 ? this.model.createResource()
+                            : this.model.createResource(String.join("", ns, "node,", String.valueOf(i))));
+        }
+        this.model.createResource(ns + "s99").addLiteral(value, 42L).addProperty(node, "de", "de");
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that the written file has the same content as the output of ResultSetFormatter.outputAsCSV,
+     * also if the output buffer has to be flushed within values.
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+            ResultSetFormatter.outputAsCSV(expected, qexec.execSelect());
+        }
+
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        for (final int bufferSize : new int[] {RdfCsvWriterJena.DEFAULT_BUFFER_SIZE, 5, 1}) {
+            try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+                final long rows = new RdfCsvWriterJena(bufferSize).write(qexec.execSelect(), outFile);
+                assertThat(rows).isEqualTo(11);
+            }
+            assertThat(Files.readAllBytes(outFile)).isEqualTo(expected.toByteArray());
+        }
+    }
+
+    /**
+     * Test that a writer can be reused and replaces existing files.
+     * @throws Exception
+     */
+    @Test
+    public void testReuse() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        FileUtils.write(outFile.toFile(), String.join("", "previous content, longer than the result",
+                String.join("", Collections.nCopies(100, "."))));
+
+        final RdfCsvWriterJena writer = new RdfCsvWriterJena(5);
+        final String empty = "PREFIX ex: <http://example.org/> SELECT ?s WHERE { ?s ex:none ?o }";
+        for (int i = 0; i < 2; i++) {
+            try (QueryExecution qexec = QueryExecutionFactory.create(empty, this.model)) {
+                assertThat(writer.write(qexec.execSelect(), outFile)).isEqualTo(0);
+            }
+            assertThat(new String(Files.readAllBytes(outFile), StandardCharsets.UTF_8)).isEqualTo("s\r\n");
+        }
+    }
+
+    /**
+     * Test that unpaired surrogates, which ResultSetFormatter.outputAsCSV cannot encode, are replaced.
+     * @throws Exception
+     */
+    @Test
+    public void testUnpairedSurrogate() throws Exception {
+        final Model unpaired = ModelFactory.createDefaultModel();
+        unpaired.createResource("http://example.org/s")
+                .addProperty(unpaired.createProperty("http://example.org/value"), "unpaired \ud83d surrogate");
+
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        try (QueryExecution qexec = QueryExecutionFactory.create(this.query, unpaired)) {
+            new RdfCsvWriterJena().write(qexec.execSelect(), outFile);
+        }
+        assertThat(new String(Files.readAllBytes(outFile), StandardCharsets.UTF_8))
+                .endsWith("http://example.org/s,unpaired ? surrogate,,\r\n");
+    }
+
+    /**
+     * Test that the first row is written to the channel as soon as it is bound if a flush interval is set,
+     * while further rows wait for the interval, and that rows are only written in full buffers otherwise.
+     * @throws Exception
+     */
+    @Test
+    public void testFlushInterval() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (final long flushMillis : new long[] {0, 60000}) {
+            out.reset();
+            final ResultSet rows;
+            try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+                rows = ResultSetFactory.copyResults(qexec.execSelect());
+            }
+            final List<Integer> written = new ArrayList<>();
+            final Iterator<Binding> bindings = new Iterator<Binding>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public Binding next() {
+                    written.add(out.size());
+                    return rows.nextBinding();
+                }
+            };
+            new RdfCsvWriterJena().write(new ResultSetStream(rows.getResultVars(), null,
+                    new QueryIterPlainWrapper(bindings)), Channels.newChannel(out), flushMillis);
+
+            assertThat(written).hasSize(11);
+            if (flushMillis == 0) {
+                assertThat(written).containsOnly(0);
+            } else {
+                assertThat(written.get(1)).isGreaterThan(0);
+                assertThat(written.subList(1, written.size())).containsOnly(written.get(1));
+            }
+            assertThat(out.toString("UTF-8")).endsWith("http://example.org/s99,42,,de\r\n");
+        }
+    }
+
+}
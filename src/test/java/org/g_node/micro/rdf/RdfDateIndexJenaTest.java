@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.query.ARQ;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.core.DatasetGraphFactory;
+import com.hp.hpl.jena.sparql.engine.ExecutionContext;
+import com.hp.hpl.jena.sparql.engine.main.QC;
+import com.hp.hpl.jena.sparql.util.Context;
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfDateIndexJena} and {@link RdfDateRangeJena} classes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfDateIndexJenaTest {
+
+    private static final String GN = RdfConstants.RDF_NS_GN_ONT;
+
+    private final String prefixes = String.join("",
+            "PREFIX gn: <", RdfConstants.RDF_NS_GN_ONT, "> ",
+            "PREFIX xs: <", RdfConstants.RDF_NS_XSD, "> ",
+            "PREFIX report: <", RdfConstants.RDF_NS_REPORT, "> ");
+
+    private Model model;
+    private Property startedAt;
+    private Property hasEntry;
+
+    /**
+     * Set up a model containing 100 experiments with start dates in 2015 and 10 subjects
+     * with 10 log entries each.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        this.startedAt = this.model.createProperty(GN, "startedAt");
+        this.hasEntry = this.model.createProperty(GN, "hasSubjectLogEntry");
+
+        for (int i = 0; i < 100; i++) {
+            final String date = String.format(Locale.ENGLISH, "2015-%02d-%02dT10:00:00", 12 - i % 12, i % 28 + 1);
+            this.model.createResource(String.join("", GN, "experiment/", String.valueOf(i)))
+                    .addProperty(this.startedAt, date, XSDDatatype.XSDdateTime);
+        }
+        for (int s = 0; s < 10; s++) {
+            final Resource subject = this.model.createResource(String.join("", GN, "subject/", String.valueOf(s)));
+            for (int e = 0; e < 10; e++) {
+                subject.addProperty(this.hasEntry, this.model.createResource().addProperty(this.startedAt,
+                        String.format(Locale.ENGLISH, "2016-01-%02dT%02d:00:00", e + 1, s), XSDDatatype.XSDdateTime));
+            }
+        }
+    }
+
+    /**
+     * Remove all compiled queries after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfQueryRegistryJena.clear();
+    }
+
+    /**
+     * Test first, last and range lookups of the log entry dates of subjects.
+     * @throws Exception
+     */
+    @Test
+    public void testLookups() throws Exception {
+        final RdfDateIndexJena index = RdfDateIndexJena.index(
+                this.model.getGraph(), this.hasEntry.asNode(), this.startedAt.asNode());
+        assertThat(RdfDateIndexJena.get(this.model.getGraph(), this.hasEntry.asNode(), this.startedAt.asNode()))
+                .isSameAs(index);
+        assertThat(index.size()).isEqualTo(10);
+
+        final Node subject = NodeFactory.createURI(String.join("", GN, "subject/3"));
+        assertThat(index.first(subject).getLiteralLexicalForm()).isEqualTo("2016-01-01T03:00:00");
+        assertThat(index.last(subject).getLiteralLexicalForm()).isEqualTo("2016-01-10T03:00:00");
+        assertThat(index.range(subject, RdfDateIndexJenaTest.epoch("2016-01-02T03:00:00"),
+                RdfDateIndexJenaTest.epoch("2016-01-04T00:00:00"))).hasSize(2);
+        assertThat(index.range(RdfDateIndexJenaTest.epoch("2016-01-02T03:00:00"),
+                RdfDateIndexJenaTest.epoch("2016-01-02T05:00:00"))).hasSize(3);
+        assertThat(index.range(Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(100);
+        assertThat(index.first(NodeFactory.createURI("http://example.org/none"))).isNull();
+
+        // Adding a triple invalidates the index.
+        this.model.createResource().addProperty(this.hasEntry, "2016-01-01");
+        assertThat(RdfDateIndexJena.get(this.model.getGraph(), this.hasEntry.asNode(), this.startedAt.asNode()))
+                .isNull();
+    }
+
+    /**
+     * Test that an index is resolved once per query execution, later changes of the graph are seen
+     * by the next execution.
+     * @throws Exception
+     */
+    @Test
+    public void testResolvedPerExecution() throws Exception {
+        final ExecutionContext first = this.execCxt();
+        final RdfDateIndexJena index = RdfDateIndexJena.index(first, null, this.startedAt.asNode());
+        this.model.createResource().addProperty(this.startedAt, "2017-01-01", XSDDatatype.XSDdate);
+        assertThat(RdfDateIndexJena.index(first, null, this.startedAt.asNode())).isSameAs(index);
+        assertThat(RdfDateIndexJena.index(first, this.hasEntry.asNode(), this.startedAt.asNode()))
+                .isNotSameAs(index);
+
+        final RdfDateIndexJena changed = RdfDateIndexJena.index(this.execCxt(), null, this.startedAt.asNode());
+        assertThat(changed).isNotSameAs(index);
+        assertThat(changed.size()).isEqualTo(index.size() + 1);
+    }
+
+    /**
+     * Test that first and last dates are only returned, if they are the same as by comparing the literals.
+     * @throws Exception
+     */
+    @Test
+    public void testNotComparable() throws Exception {
+        final Resource plain = this.model.createResource()
+                .addProperty(this.startedAt, "2015-01-01T10:00:00", XSDDatatype.XSDdateTime)
+                .addProperty(this.startedAt, "2015-01-02");
+        final Resource zoned = this.model.createResource()
+                .addProperty(this.startedAt, "2015-01-01T10:00:00Z", XSDDatatype.XSDdateTime)
+                .addProperty(this.startedAt, "2015-01-02T10:00:00", XSDDatatype.XSDdateTime);
+        final Resource tied = this.model.createResource()
+                .addProperty(this.startedAt, "2015-01-01T10:00:00", XSDDatatype.XSDdateTime)
+                .addProperty(this.startedAt, "2015-01-01T10:00:00.0", XSDDatatype.XSDdateTime)
+                .addProperty(this.startedAt, "2015-01-02T10:00:00", XSDDatatype.XSDdateTime);
+
+        final RdfDateIndexJena index = RdfDateIndexJena.index(this.model.getGraph(), null, this.startedAt.asNode());
+        assertThat(index.isComparable(plain.asNode())).isFalse();
+        assertThat(index.first(plain.asNode())).isNull();
+        assertThat(index.isComparable(zoned.asNode())).isFalse();
+        assertThat(index.isComparable(tied.asNode())).isTrue();
+        assertThat(index.first(tied.asNode())).isNull();
+        assertThat(index.last(tied.asNode()).getLiteralLexicalForm()).isEqualTo("2015-01-02T10:00:00");
+
+        assertThat(RdfDateIndexJena.epochMillis(NodeFactory.createLiteral("2015-01-01"))).isNull();
+        assertThat(RdfDateIndexJena.epochMillis(NodeFactory.createLiteral("1970-01-01T00:00:01+01:00", null,
+                XSDDatatype.XSDdateTime))).isEqualTo(-3599000L);
+    }
+
+    /**
+     * Test that the property function finds the same experiments as a filter comparing the dates.
+     * @throws Exception
+     */
+    @Test
+    public void testDateRangeFunction() throws Exception {
+        final String filtered = String.join("", this.prefixes,
+                "SELECT ?exp ?date WHERE { ?exp gn:startedAt ?date . ",
+                "FILTER(?date >= \"2015-03-01T00:00:00\"^^xs:dateTime ",
+                "&& ?date <= \"2015-05-01T10:00:00\"^^xs:dateTime)",
+                " } ORDER BY ?date ?exp");
+        final String indexed = String.join("", this.prefixes,
+                "SELECT ?exp ?date WHERE { ?exp report:dateRange ",
+                "(gn:startedAt \"2015-03-01\"^^xs:date \"2015-05-01T10:00:00\"^^xs:dateTime ?date) } ",
+                "ORDER BY ?date ?exp");
+        final String expected = RdfDateIndexJenaTest.csv(QueryExecutionFactory.create(filtered, this.model)
+                .execSelect());
+        assertThat(expected.split("\n")).hasSize(17);
+
+        assertThat(RdfDateIndexJenaTest.csv(RdfQueryRegistryJena.compile(indexed).execSelect(
+                this.model, new RdfQueryLimits()))).isEqualTo(expected);
+        assertThat(RdfDateIndexJenaTest.csv(QueryExecutionFactory.create(indexed, this.model).execSelect()))
+                .isEqualTo(expected);
+
+        final String bound = String.join("", this.prefixes,
+                "SELECT ?date WHERE { <", GN, "experiment/0> report:dateRange ",
+                "(gn:startedAt \"2015-01-01\"^^xs:date \"2016-01-01\"^^xs:date ?date) }");
+        assertThat(RdfDateIndexJenaTest.csv(RdfQueryRegistryJena.compile(bound).execSelect(
+                this.model, new RdfQueryLimits()))).contains("2015-12-01T10:00:00");
+    }
+
+    private static long epoch(final String date) {
+        return RdfDateIndexJena.epochMillis(NodeFactory.createLiteral(date, null, XSDDatatype.XSDdateTime));
+    }
+
+    private ExecutionContext execCxt() {
+        final Graph graph = this.model.getGraph();
+        final Context context = ARQ.getContext().copy();
+        return new ExecutionContext(context, graph, DatasetGraphFactory.create(graph), QC.getFactory(context));
+    }
+
+    private static String csv(final ResultSet result) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, result);
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfDiskStoreJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfDiskStoreJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path storeFolder = this.testFileFolder.resolve("store");
+    private final File testTtlFile = this.testFileFolder.resolve("test.ttl").toFile();
+
+    /**
+     * Create a test folder and a Turtle test file in the java temp directory.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.write(this.testTtlFile, String.join("",
+                "<http://example.org/s> <http://xmlns.com/foaf/0.1/name> \"Name\" .\n",
+                "<http://example.org/s> <http://xmlns.com/foaf/0.1/knows> _:b .\n"));
+    }
+
+    /**
+     * Release the store and remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfDiskStoreJena.release(this.storeFolder.toString());
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that the store contains the data of the input file and is reused if the file does not change.
+     * @throws Exception
+     */
+    @Test
+    public void testLoad() throws Exception {
+        final RdfDiskStoreJena store = new RdfDiskStoreJena(this.storeFolder.toString());
+
+        final Model model = store.load(this.testTtlFile.getAbsolutePath());
+        assertThat(model.isIsomorphicWith(RDFDataMgr.loadModel(this.testTtlFile.getAbsolutePath()))).isTrue();
+        assertThat(Files.exists(this.storeFolder.resolve("source.fingerprint"))).isTrue();
+
+        final long modified = this.storeFolder.resolve("source.fingerprint").toFile().lastModified();
+        final Model reused = store.load(this.testTtlFile.getAbsolutePath());
+        assertThat(reused.size()).isEqualTo(2);
+        assertThat(this.storeFolder.resolve("source.fingerprint").toFile().lastModified()).isEqualTo(modified);
+    }
+
+    /**
+     * Test that files of the store directory that do not belong to the store survive building the store,
+     * including the input file itself, and that an unmarked TDB directory is not replaced.
+     * @throws Exception
+     */
+    @Test
+    public void testForeignFiles() throws Exception {
+        final File foreign = this.testFileFolder.resolve("notes.txt").toFile();
+        FileUtils.write(foreign, "Keep me");
+        final RdfDiskStoreJena store = new RdfDiskStoreJena(this.testFileFolder.toString());
+
+        assertThat(store.load(this.testTtlFile.getAbsolutePath()).size()).isEqualTo(2);
+        FileUtils.write(this.testTtlFile, "<http://example.org/o> <http://xmlns.com/foaf/0.1/name> \"Other\" .\n");
+        assertThat(store.load(this.testTtlFile.getAbsolutePath()).size()).isEqualTo(1);
+        assertThat(FileUtils.readFileToString(foreign)).isEqualTo("Keep me");
+        assertThat(this.testTtlFile.exists()).isTrue();
+        RdfDiskStoreJena.release(this.testFileFolder.toString());
+
+        final Path unmarked = this.storeFolder.resolve("tdb");
+        FileUtils.write(unmarked.resolve("data.txt").toFile(), "Keep me");
+        RiotException thrown = null;
+        try {
+            new RdfDiskStoreJena(this.storeFolder.toString()).load(this.testTtlFile.getAbsolutePath());
+        } catch (RiotException e) {
+            thrown = e;
+        }
+        assertThat(thrown).isNotNull();
+        assertThat(FileUtils.readFileToString(unmarked.resolve("data.txt").toFile())).isEqualTo("Keep me");
+    }
+
+    /**
+     * Test that the store is built again if the input file changes.
+     * @throws Exception
+     */
+    @Test
+    public void testChangedFile() throws Exception {
+        final RdfDiskStoreJena store = new RdfDiskStoreJena(this.storeFolder.toString());
+        store.load(this.testTtlFile.getAbsolutePath());
+
+        FileUtils.write(this.testTtlFile, "<http://example.org/o> <http://xmlns.com/foaf/0.1/name> \"Other\" .\n");
+
+        final Model model = store.load(this.testTtlFile.getAbsolutePath());
+        assertThat(model.size()).isEqualTo(1);
+        assertThat(model.listObjects().next().asLiteral().getString()).isEqualTo("Other");
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.algebra.Algebra;
+import com.hp.hpl.jena.sparql.algebra.op.OpOrder;
+import com.hp.hpl.jena.sparql.algebra.op.OpProject;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.BindingComparator;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfExternalSortJena} class. Externally sorted results are compared
+ * to the results of the in-memory sort of the SPARQL engine.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfExternalSortJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    private final String query = String.join("",
+            "PREFIX rdfs: <", RdfConstants.RDF_NS_RDFS, "> ",
+            "SELECT ?comment ?label WHERE { ?node rdfs:comment ?comment . OPTIONAL { ?node rdfs:label ?label } } ",
+            "ORDER BY ?comment");
+
+    private Model model;
+
+    /**
+     * Set up a model containing comments with duplicate values, datatypes, languages and unbound labels.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        for (int i = 0; i < 500; i++) {
+            final Resource node = i % 3 == 0 ? this.model.createResource()
+                    : this.model.createResource(String.join("", "http://example.org/", String.valueOf(i)));
+            node.addProperty(RDFS.comment, String.valueOf(i % 50));
+            // Integers of the same number of digits, mixing them with numeric plain literals of a different
+            // length results in an inconsistent sort order and a different order of equal rows.
+            if (i % 4 == 0) {
+                node.addProperty(RDFS.comment, String.valueOf(i % 70 + 1000), XSDDatatype.XSDinteger);
+            } else if (i % 5 == 0) {
+                node.addProperty(RDFS.comment, "Kommentar", "de");
+            }
+            if (i % 2 == 0) {
+                node.addProperty(RDFS.label, String.join("", "Label ", String.valueOf(i)));
+            }
+        }
+    }
+
+    /**
+     * Remove all compiled queries and test files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfQueryRegistryJena.clear();
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that rows sorted in spilled runs are identical to rows sorted in memory
+     * and that the temporary run files are removed.
+     * @throws Exception
+     */
+    @Test
+    public void testSameAsInMemorySort() throws Exception {
+        final String expected = RdfExternalSortJenaTest.csv(
+                QueryExecutionFactory.create(this.query, this.model).execSelect());
+
+        final RdfReportOptions limits = new RdfReportOptions()
+                .setSortRunRows(7).setSortSpillDir(this.testFileFolder.toString());
+        assertThat(RdfExternalSortJenaTest.csv(
+                RdfQueryRegistryJena.compile(this.query).execSelect(this.model, limits))).isEqualTo(expected);
+        assertThat(RdfExternalSortJenaTest.csv(RdfQueryRegistryJena.compile(this.query).execSelect(
+                this.model, limits.setSortRunRows(0)))).isEqualTo(expected);
+        assertThat(RdfExternalSortJenaTest.csv(RdfQueryRegistryJena.compile(this.query).execSelect(
+                this.model, limits.setSortRunRows(100000)))).isEqualTo(expected);
+
+        final File[] remaining = this.testFileFolder.toFile().listFiles();
+        assertThat(remaining).isEmpty();
+    }
+
+    /**
+     * Test that rows are only spilled, if they do not fit into a single run.
+     * @throws Exception
+     */
+    @Test
+    public void testSpilledRuns() throws Exception {
+        final OpProject plan = (OpProject) RdfQueryRegistryJena.compile(this.query).getPlan();
+        final OpOrder order = (OpOrder) plan.getSubOp();
+        final BindingComparator comparator = new BindingComparator(order.getConditions());
+
+        final RdfExternalSortJena inMemory = new RdfExternalSortJena(
+                Algebra.exec(order.getSubOp(), this.model.getGraph()), comparator, 100000, null);
+        assertThat(inMemory.hasNext()).isTrue();
+        assertThat(inMemory.getSpilledRuns()).isEqualTo(0);
+        inMemory.close();
+
+        final RdfExternalSortJena spilled = new RdfExternalSortJena(
+                Algebra.exec(order.getSubOp(), this.model.getGraph()), comparator, 100,
+                this.testFileFolder.toString());
+        assertThat(spilled.hasNext()).isTrue();
+        assertThat(spilled.getSpilledRuns()).isGreaterThan(1);
+        assertThat(this.testFileFolder.toFile().listFiles()).hasSize(spilled.getSpilledRuns());
+        spilled.close();
+        assertThat(this.testFileFolder.toFile().listFiles()).isEmpty();
+    }
+
+    /**
+     * Test that more runs than are merged at once are merged in several passes into the same rows
+     * as the in-memory sort.
+     * @throws Exception
+     */
+    @Test
+    public void testMergePasses() throws Exception {
+        final String expected = RdfExternalSortJenaTest.csv(
+                QueryExecutionFactory.create(this.query, this.model).execSelect());
+        final OpProject plan = (OpProject) RdfQueryRegistryJena.compile(this.query).getPlan();
+        final OpOrder order = (OpOrder) plan.getSubOp();
+
+        final RdfExternalSortJena sorted = new RdfExternalSortJena(
+                Algebra.exec(order.getSubOp(), this.model.getGraph()),
+                new BindingComparator(order.getConditions()), 1, this.testFileFolder.toString());
+        assertThat(RdfExternalSortJenaTest.csv(new ResultSetStream(plan.getVars().stream()
+                .map(Var::getVarName).collect(Collectors.toList()), this.model, sorted))).isEqualTo(expected);
+        assertThat(sorted.getSpilledRuns()).isGreaterThan(RdfExternalSortJena.MAX_MERGE_RUNS);
+        sorted.close();
+        assertThat(this.testFileFolder.toFile().listFiles()).isEmpty();
+    }
+
+    /**
+     * Test that literals read from spilled runs keep their lexical form.
+     * @throws Exception
+     */
+    @Test
+    public void testLexicalForms() throws Exception {
+        final Model numbers = ModelFactory.createDefaultModel();
+        numbers.createResource().addProperty(RDFS.comment, "01", XSDDatatype.XSDinteger);
+        numbers.createResource().addProperty(RDFS.comment, "+2", XSDDatatype.XSDinteger);
+        numbers.createResource().addProperty(RDFS.comment, "1.50", XSDDatatype.XSDdecimal);
+        numbers.createResource().addProperty(RDFS.comment, "1.0E0", XSDDatatype.XSDdouble);
+        final String numberQuery = String.join("",
+                "PREFIX rdfs: <", RdfConstants.RDF_NS_RDFS, "> ",
+                "SELECT ?comment WHERE { ?node rdfs:comment ?comment } ORDER BY ?comment");
+
+        final RdfReportOptions options = new RdfReportOptions()
+                .setSortRunRows(1).setSortSpillDir(this.testFileFolder.toString());
+        final String result = RdfExternalSortJenaTest.csv(
+                RdfQueryRegistryJena.compile(numberQuery).execSelect(numbers, options));
+        assertThat(result).isEqualTo(RdfExternalSortJenaTest.csv(
+                QueryExecutionFactory.create(numberQuery, numbers).execSelect()));
+        assertThat(result).contains("01", "+2", "1.50", "1.0E0");
+    }
+
+    private static String csv(final ResultSet result) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, result);
+        return out.toString();
+    }
+
+}
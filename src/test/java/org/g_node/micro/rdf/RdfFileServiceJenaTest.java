@@ -19,10 +19,14 @@ import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
@@ -134,6 +138,12 @@ public class RdfFileServiceJenaTest {
 
         Model m = RdfFileServiceJena.openModelFromFile(currTestFile.toString());
         assertThat(m.isEmpty()).isFalse();
+
+        final RdfLoadOptions mappedOptions = new RdfLoadOptions().setMemoryMapped(true);
+        assertThat(RdfFileServiceJena.openModelFromFile(currEmptyTestFile.toString(), mappedOptions).isEmpty())
+                .isTrue();
+        assertThat(RdfFileServiceJena.openModelFromFile(currTestFile.toString(), mappedOptions)
+                .isIsomorphicWith(m)).isTrue();
     }
 
     /**
@@ -233,4 +243,131 @@ public class RdfFileServiceJenaTest {
         assertThat(isValidRdfValid).isTrue();
     }
 
+    /**
+     * Test that validating and loading an RDF file in a single parse returns either the
+     * loaded model or the error message of the parser.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadValidRdfFile() throws Exception {
+
+        final File invalidRdfFile = this.testFileFolder.resolve("test.ttl").toFile();
+        FileUtils.write(invalidRdfFile, "I am an invalid RDF file!");
+
+        final RdfLoadResult invalidResult = RdfFileServiceJena.loadValidRdfFile(invalidRdfFile.getAbsolutePath());
+        assertThat(invalidResult.isValid()).isFalse();
+        assertThat(invalidResult.getModel()).isNull();
+        assertThat(invalidResult.getErrorMessage()).contains("Out of place: [KEYWORD");
+        assertThat(this.outStream.toString()).contains("Failed to load file");
+
+        final String miniTTL = "@prefix foaf:  <http://xmlns.com/foaf/0.1/> . _:a foaf:name \"TestName\" .\n";
+        final File validRdfFile = this.testFileFolder.resolve("test.ttl").toFile();
+        FileUtils.write(validRdfFile, miniTTL);
+
+        final RdfLoadResult validResult = RdfFileServiceJena.loadValidRdfFile(validRdfFile.getAbsolutePath());
+        assertThat(validResult.isValid()).isTrue();
+        assertThat(validResult.getErrorMessage()).isEmpty();
+        assertThat(validResult.getModel().size()).isEqualTo(1);
+    }
+
+    /**
+     * Test that gzip, bzip2 and xz compressed RDF files are decompressed transparently
+     * and that damaged compressed files are reported as invalid.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadCompressedRdfFile() throws Exception {
+        final String miniTTL = "@prefix foaf:  <http://xmlns.com/foaf/0.1/> . _:a foaf:name \"TestName\" .\n";
+
+        for (final String ext : new String[] {"gz", "bz2", "xz"}) {
+            final File compressedFile = this.testFileFolder.resolve(String.join("", "test.ttl.", ext)).toFile();
+            final String compressor = "bz2".equals(ext) ? CompressorStreamFactory.BZIP2 : ext;
+            try (OutputStream out = new CompressorStreamFactory()
+                    .createCompressorOutputStream(compressor, new FileOutputStream(compressedFile))) {
+                out.write(miniTTL.getBytes(StandardCharsets.UTF_8));
+            }
+
+            final RdfLoadResult result = RdfFileServiceJena.loadValidRdfFile(compressedFile.getAbsolutePath());
+            assertThat(result.isValid()).isTrue();
+            assertThat(result.getModel().size()).isEqualTo(1);
+
+            final RdfLoadResult mappedResult = RdfFileServiceJena.loadValidRdfFile(
+                    compressedFile.getAbsolutePath(), new RdfLoadOptions().setMemoryMapped(true));
+            assertThat(mappedResult.isValid()).isTrue();
+            assertThat(mappedResult.getModel().size()).isEqualTo(1);
+        }
+
+        final File damagedFile = this.testFileFolder.resolve("damaged.ttl.gz").toFile();
+        FileUtils.write(damagedFile, miniTTL);
+        assertThat(RdfFileServiceJena.loadValidRdfFile(damagedFile.getAbsolutePath()).isValid()).isFalse();
+    }
+
+    /**
+     * Test that loading a file using the load pipeline results in the same model as loading it
+     * on a single thread, including the declared prefixes, and that the pipeline stalls are reported.
+     * @throws Exception
+     */
+    @Test
+    public void testPipelinedLoad() throws Exception {
+        final StringBuilder ttl = new StringBuilder("@prefix foaf: <http://xmlns.com/foaf/0.1/> .\n");
+        for (int i = 0; i < 100; i++) {
+            ttl.append("_:b").append(i).append(" foaf:name \"Name ").append(i).append("\" .\n");
+        }
+        final File ttlFile = this.testFileFolder.resolve("pipeline.ttl").toFile();
+        FileUtils.write(ttlFile, ttl.toString());
+
+        final Model expected = RdfFileServiceJena.openModelFromFile(ttlFile.getAbsolutePath());
+        final Model pipelined = RdfFileServiceJena.openModelFromFile(ttlFile.getAbsolutePath(),
+                new RdfLoadOptions().setPipelineDepth(2).setPipelineBatchSize(7));
+
+        assertThat(pipelined.isIsomorphicWith(expected)).isTrue();
+        assertThat(pipelined.getNsPrefixURI("foaf")).isEqualTo("http://xmlns.com/foaf/0.1/");
+        assertThat(this.outStream.toString()).contains("Pipeline stalls...\t\t(15 batches");
+
+        final File invalidFile = this.testFileFolder.resolve("invalid.ttl").toFile();
+        FileUtils.write(invalidFile, String.join("", ttl.toString(), "I am not valid"));
+        assertThat(RdfFileServiceJena.loadValidRdfFile(invalidFile.getAbsolutePath(),
+                new RdfLoadOptions().setPipelineDepth(2)).isValid()).isFalse();
+    }
+
+    /**
+     * Test that the streaming validation reports the number of parsed triples, the number of bytes read
+     * and the positions of the errors encountered by the parser.
+     * @throws Exception
+     */
+    @Test
+    public void testValidateRdfFile() throws Exception {
+
+        final RdfValidationReport nonExistingReport = RdfFileServiceJena.validateRdfFile("iDoNotExistAtAll", 10);
+        assertThat(nonExistingReport.isValid()).isFalse();
+        assertThat(nonExistingReport.getBytesRead()).isEqualTo(0);
+        assertThat(nonExistingReport.getErrors()).hasSize(1);
+        assertThat(nonExistingReport.getErrors().get(0)).contains("Not found: iDoNotExistAtAll");
+
+        final String invalidTTL = String.join("",
+                "@prefix foaf:  <http://xmlns.com/foaf/0.1/> .\n",
+                "_:a foaf:name \"TestName\" .\n",
+                "I am invalid RDF!\n");
+        final File invalidRdfFile = this.testFileFolder.resolve("testInvalid.ttl").toFile();
+        FileUtils.write(invalidRdfFile, invalidTTL);
+
+        final RdfValidationReport invalidReport =
+                RdfFileServiceJena.validateRdfFile(invalidRdfFile.getAbsolutePath(), 10);
+        assertThat(invalidReport.isValid()).isFalse();
+        assertThat(invalidReport.getTripleCount()).isEqualTo(1);
+        assertThat(invalidReport.getErrors()).hasSize(1);
+        assertThat(invalidReport.getErrors().get(0)).startsWith("[FATAL] [line: 3, col: 1]");
+
+        final String miniTTL = "@prefix foaf:  <http://xmlns.com/foaf/0.1/> . _:a foaf:name \"TestName\" .\n";
+        final File validRdfFile = this.testFileFolder.resolve("test.ttl").toFile();
+        FileUtils.write(validRdfFile, miniTTL);
+
+        final RdfValidationReport validReport = RdfFileServiceJena.validateRdfFile(validRdfFile.getAbsolutePath(), 10);
+        assertThat(validReport.isValid()).isTrue();
+        assertThat(validReport.getTripleCount()).isEqualTo(1);
+        assertThat(validReport.getBytesRead()).isEqualTo(miniTTL.length());
+        assertThat(validReport.getErrors()).isEmpty();
+        assertThat(this.outStream.toString()).contains("1 triples, ");
+    }
+
 }
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfIncrementalLoaderJena} class. Output stream is redirected
+ * from the console to check the log messages of the loader.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfIncrementalLoaderJenaTest {
+
+    private ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+    private PrintStream stdout;
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final File testTtlFile = this.testFileFolder.resolve("test.ttl").toFile();
+    private final String prefixes = String.join("",
+            "@prefix foaf: <http://xmlns.com/foaf/0.1/> .\n",
+            "@base <http://example.org/> .\n");
+
+    /**
+     * Redirect Out stream, set up the main logger and create a Turtle test file in the java temp directory.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.stdout = System.out;
+        this.outStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(this.outStream));
+
+        final Logger rootLogger = Logger.getRootLogger();
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(new ConsoleAppender(new PatternLayout("[%-5p] %m%n")));
+
+        FileUtils.write(this.testTtlFile, String.join("", this.prefixes, "_:a foaf:name \"Name\" .\n"));
+    }
+
+    /**
+     * Reset Out stream to the console and remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        System.setOut(this.stdout);
+
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that only uncompressed local files of line or statement based RDF languages are appendable.
+     * @throws Exception
+     */
+    @Test
+    public void testIsAppendable() throws Exception {
+        assertThat(RdfIncrementalLoaderJena.isAppendable(this.testTtlFile.getAbsolutePath())).isTrue();
+        assertThat(RdfIncrementalLoaderJena.isAppendable(this.testFileFolder.resolve("none.ttl").toString()))
+                .isFalse();
+
+        final File rdfFile = this.testFileFolder.resolve("test.rdf").toFile();
+        FileUtils.write(rdfFile, "");
+        assertThat(RdfIncrementalLoaderJena.isAppendable(rdfFile.getAbsolutePath())).isFalse();
+
+        final File gzFile = this.testFileFolder.resolve("test.ttl.gz").toFile();
+        FileUtils.write(gzFile, "");
+        assertThat(RdfIncrementalLoaderJena.isAppendable(gzFile.getAbsolutePath())).isFalse();
+    }
+
+    /**
+     * Test that appended data using earlier prefixes, base IRI and blank node labels is parsed
+     * into the model of the previous load and that an unchanged file is not parsed again.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadAppendedData() throws Exception {
+        final RdfSnapshotCacheJena cache = this.cache();
+        final String fileName = this.testTtlFile.getAbsolutePath();
+
+        assertThat(RdfIncrementalLoaderJena.loadModel(fileName, cache).size()).isEqualTo(1);
+        assertThat(this.outStream.toString()).contains("Loading complete file...");
+
+        FileUtils.write(this.testTtlFile, "_:a foaf:knows <person> .\n", true);
+        final Model model = RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        assertThat(this.outStream.toString()).contains("Loading appended data...");
+        assertThat(model.size()).isEqualTo(2);
+        assertThat(model.listSubjects().toList()).hasSize(1);
+        assertThat(model.isIsomorphicWith(RDFDataMgr.loadModel(fileName))).isTrue();
+
+        final Model unchanged = RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        assertThat(this.outStream.toString()).contains("File unchanged...");
+        assertThat(unchanged.isIsomorphicWith(model)).isTrue();
+    }
+
+    /**
+     * Test that blank nodes without a label in the appended data are distinct from blank nodes
+     * without a label in the previously loaded data.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadAppendedAnonymousNodes() throws Exception {
+        final RdfSnapshotCacheJena cache = this.cache();
+        final String fileName = this.testTtlFile.getAbsolutePath();
+        FileUtils.write(this.testTtlFile, "[] foaf:name \"First\" .\n", true);
+        assertThat(RdfIncrementalLoaderJena.loadModel(fileName, cache).size()).isEqualTo(2);
+
+        FileUtils.write(this.testTtlFile, "[] foaf:name \"Second\" .\n", true);
+        final Model model = RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        assertThat(this.outStream.toString()).contains("Loading appended data...");
+        assertThat(model.size()).isEqualTo(3);
+        assertThat(model.listSubjects().toList()).hasSize(3);
+        assertThat(model.isIsomorphicWith(RDFDataMgr.loadModel(fileName))).isTrue();
+    }
+
+    /**
+     * Test that files with paths differing only in case keep separate parser states.
+     * @throws Exception
+     */
+    @Test
+    public void testCaseSensitivePaths() throws Exception {
+        final RdfSnapshotCacheJena cache = this.cache();
+        final File upperFile = this.testFileFolder.resolve("TEST.ttl").toFile();
+        FileUtils.write(upperFile, String.join("", this.prefixes, "_:b foaf:name \"Other\" .\n"));
+        final String fileName = this.testTtlFile.getAbsolutePath();
+        RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        RdfIncrementalLoaderJena.loadModel(upperFile.getAbsolutePath(), cache);
+        this.outStream.reset();
+
+        final Model model = RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        assertThat(this.outStream.toString()).contains("File unchanged...");
+        assertThat(model.isIsomorphicWith(RDFDataMgr.loadModel(fileName))).isTrue();
+    }
+
+    /**
+     * Test that the whole file is loaded again if previously loaded data has changed.
+     * @throws Exception
+     */
+    @Test
+    public void testChangedPrefixRegion() throws Exception {
+        final RdfSnapshotCacheJena cache = this.cache();
+        final String fileName = this.testTtlFile.getAbsolutePath();
+        RdfIncrementalLoaderJena.loadModel(fileName, cache);
+
+        FileUtils.write(this.testTtlFile, String.join("",
+                this.prefixes, "_:b foaf:name \"Other\" .\n", "_:b foaf:knows <person> .\n"));
+        this.outStream.reset();
+
+        final Model model = RdfIncrementalLoaderJena.loadModel(fileName, cache);
+        assertThat(this.outStream.toString()).contains("Loading complete file...");
+        assertThat(model.isIsomorphicWith(RDFDataMgr.loadModel(fileName))).isTrue();
+    }
+
+    private RdfSnapshotCacheJena cache() {
+        return new RdfSnapshotCacheJena(
+                this.testFileFolder.resolve("cache").toString(), RdfSnapshotCacheJena.DEFAULT_MAX_SIZE);
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfJsonLinesWriterJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfJsonLinesWriterJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String query = String.join("\n",
+            "PREFIX ex: <http://example.org/>",
+            "SELECT ?s ?value ?missing WHERE {",
+            "  ?s ex:value ?value .",
+            "  OPTIONAL { ?s ex:missing ?missing }",
+            "} ORDER BY ?s");
+    private final String[] values = {"plain, \"quoted\"", "tab\tand\nline\rbreak", "back\\slash \u0001",
+        "Käfig 🐭", ""};
+    private Model model;
+
+    /**
+     * Set up a model with values containing quotes, backslashes and control characters.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final String ns = "http://example.org/";
+        this.model = ModelFactory.createDefaultModel();
+        final Property value = this.model.createProperty(ns, "value");
+        for (int i = 0; i < this.values.length; i++) {
+            this.model.createResource(ns + "s" + i).addProperty(value, this.values[i]);
+        }
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that every row is written as a JSON object on a line of its own,
+     * also if the output buffer has to be flushed within values.
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.jsonl");
+        for (final int bufferSize : new int[] {AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE, 1}) {
+            try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+                assertThat(new RdfJsonLinesWriterJena(bufferSize).write(qexec.execSelect(), outFile)).isEqualTo(5);
+            }
+
+            final List<String> lines = Files.readAllLines(outFile);
+            assertThat(lines).hasSize(this.values.length);
+            assertThat(lines.get(0)).isEqualTo(
+                    "{\"s\":\"http://example.org/s0\",\"value\":\"plain, \\\"quoted\\\"\",\"missing\":null}");
+            assertThat(lines.get(2)).contains("\"back\\\\slash \\u0001\"");
+            for (int i = 0; i < lines.size(); i++) {
+                final JsonObject row = JSON.parse(lines.get(i));
+                assertThat(row.get("s").getAsString().value()).isEqualTo("http://example.org/s" + i);
+                assertThat(row.get("value").getAsString().value()).isEqualTo(this.values[i]);
+                assertThat(row.get("missing").isNull()).isTrue();
+            }
+        }
+    }
+
+}
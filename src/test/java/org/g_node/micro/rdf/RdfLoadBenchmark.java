@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+
+/**
+ * Benchmark comparing the load throughput of stream reads, memory mapped reads and the
+ * pipelined parse and insert for Turtle and N-Triples files. Not run as part of the test suite, run via
+ * 'java -cp [test classpath] org.g_node.micro.rdf.RdfLoadBenchmark [number of subjects] [repetitions]'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfLoadBenchmark {
+
+    private static final String GN = "https://github.com/G-Node/neuro-ontology/";
+
+    public static void main(final String[] args) throws Exception {
+        final int subjects = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final Path dir = Files.createTempDirectory("RdfLoadBenchmark");
+        final Model data = createLogbookModel(subjects);
+
+        for (RDFFormat format : new RDFFormat[] {RDFFormat.TURTLE_BLOCKS, RDFFormat.NTRIPLES}) {
+            final String ext = format == RDFFormat.NTRIPLES ? "nt" : "ttl";
+            final Path file = dir.resolve(String.join("", "benchmark.", ext));
+            try (OutputStream out = new FileOutputStream(file.toFile())) {
+                RDFDataMgr.write(out, data, format);
+            }
+            final double megaBytes = Files.size(file) / (1024.0 * 1024.0);
+            System.out.println(String.format(Locale.ENGLISH, "%s: %d triples, %.1f MB",
+                    file.getFileName(), data.size(), megaBytes));
+
+            // N-Triples files are loaded in parallel chunks in both modes.
+            run("stream", file.toString(), new RdfLoadOptions(), megaBytes, repetitions);
+            run("mapped", file.toString(), new RdfLoadOptions().setMemoryMapped(true), megaBytes, repetitions);
+            run("pipeline", file.toString(),
+                    new RdfLoadOptions().setPipelineDepth(RdfPipelineStreamJena.DEFAULT_QUEUE_DEPTH),
+                    megaBytes, repetitions);
+
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    private static void run(final String label, final String file, final RdfLoadOptions options,
+                            final double megaBytes, final int repetitions) {
+        // warm up
+        RdfFileServiceJena.openModelFromFile(file, options);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++) {
+            final long start = System.nanoTime();
+            RdfFileServiceJena.openModelFromFile(file, options);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        final double seconds = best / 1e9;
+        System.out.println(String.format(Locale.ENGLISH, "  %-8s best of %d: %.3f s, %.1f MB/s",
+                label, repetitions, seconds, megaBytes / seconds));
+    }
+
+    private static Model createLogbookModel(final int subjects) {
+        final Model m = ModelFactory.createDefaultModel();
+        m.setNsPrefix("gn", GN);
+        final Property hasSubjectID = m.createProperty(GN, "hasSubjectID");
+        final Property hasLogEntry = m.createProperty(GN, "hasSubjectLogEntry");
+        final Property startedAt = m.createProperty(GN, "startedAt");
+        final Property comment = m.createProperty(RdfConstants.RDF_NS_RDFS, "comment");
+
+        for (int i = 0; i < subjects; i++) {
+            final Resource subject = m.createResource(String.join("", GN, "subject/", String.valueOf(i)));
+            subject.addLiteral(hasSubjectID, String.join("", "S", String.valueOf(i)));
+            for (int j = 0; j < 5; j++) {
+                final Resource entry = m.createResource();
+                subject.addProperty(hasLogEntry, entry);
+                entry.addLiteral(startedAt, String.format(Locale.ENGLISH, "2015-%02d-%02dT10:00:00", j + 1, i % 28 + 1));
+                entry.addLiteral(comment, String.join("", "Log entry ", String.valueOf(j), " of subject ",
+                        String.valueOf(i)));
+            }
+        }
+        return m;
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfPartitionWriterJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfPartitionWriterJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String ns = "http://example.org/";
+    private final String query = String.join("\n",
+            "PREFIX ex: <http://example.org/>",
+            "SELECT ?project ?s ?value WHERE {",
+            "  ?s ex:value ?value .",
+            "  OPTIONAL { ?s ex:project ?project }",
+            "} ORDER BY ?value");
+    private Model model;
+
+    /**
+     * Set up a model of 40 subjects spread over 7 projects, every tenth subject does not belong to a project.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        final Property value = this.model.createProperty(this.ns, "value");
+        final Property project = this.model.createProperty(this.ns, "project");
+        for (int i = 0; i < 40; i++) {
+            final Resource s = this.model.createResource(this.ns + "s" + i)
+                    .addProperty(value, String.format("v%02d", i));
+            if (i % 10 != 0) {
+                s.addProperty(project, this.model.createResource(this.ns + "project/p" + i % 7));
+            }
+        }
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that every project is written to a file of its own starting with the header, in the order of
+     * the result, also if only two files can be open at the same time and files have to be reopened.
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final List<Path> files = this.write(new RdfPartitionWriterJena("CSV", "?project", 2, 2), outFile);
+        assertThat(files).hasSize(8);
+        assertThat(Files.exists(outFile)).isFalse();
+
+        final Path p3 = RdfPartitionWriterJena.partitionFile(outFile, this.ns + "project/p3");
+        assertThat(files).contains(p3);
+        assertThat(p3.getFileName().toString()).matches("out_p3_[0-9a-f]{8}\\.csv");
+        final List<String> lines = Files.readAllLines(p3);
+        assertThat(lines.get(0)).isEqualTo("project,s,value");
+        assertThat(lines).hasSize(6);
+        for (int i = 1; i < lines.size(); i++) {
+            assertThat(lines.get(i)).startsWith(this.ns + "project/p3,");
+            if (i > 1) {
+                assertThat(lines.get(i).substring(lines.get(i).lastIndexOf(','))
+                        .compareTo(lines.get(i - 1).substring(lines.get(i - 1).lastIndexOf(',')))).isPositive();
+            }
+        }
+
+        final List<String> unbound = Files.readAllLines(this.testFileFolder.resolve("out__unbound.csv"));
+        assertThat(unbound).containsExactly("project,s,value", ",http://example.org/s0,v00",
+                ",http://example.org/s10,v10", ",http://example.org/s20,v20", ",http://example.org/s30,v30");
+
+        int rows = 0;
+        for (final Path file : files) {
+            rows += Files.readAllLines(file).size() - 1;
+        }
+        assertThat(rows).isEqualTo(40);
+    }
+
+    /**
+     * Test that compressed files reopened in append mode are read as a single file.
+     * @throws Exception
+     */
+    @Test
+    public void testWriteCompressed() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.tsv.gz");
+
+        final List<Path> files = this.write(new RdfPartitionWriterJena("tsv", "project", 1, 1), outFile);
+        assertThat(files).hasSize(8);
+
+        final Path p3 = RdfPartitionWriterJena.partitionFile(outFile, this.ns + "project/p3");
+        assertThat(p3.getFileName().toString()).endsWith(".tsv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(p3))) {
+            final List<String> lines = Arrays.asList(
+                    new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8).split("\n"));
+            assertThat(lines.get(0)).isEqualTo("project\ts\tvalue");
+            assertThat(lines).hasSize(6);
+        }
+    }
+
+    /**
+     * Test that a partition column that is not a result variable is rejected.
+     * @throws Exception
+     */
+    @Test
+    public void testUnknownColumn() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        boolean rejected = false;
+        try {
+            this.write(new RdfPartitionWriterJena("CSV", "missing"), this.testFileFolder.resolve("out.csv"));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertThat(rejected).isTrue();
+    }
+
+    /**
+     * Test that partition values are turned into distinct filenames.
+     * @throws Exception
+     */
+    @Test
+    public void testPartitionName() throws Exception {
+        assertThat(RdfPartitionWriterJena.partitionName("Project-1.a")).isEqualTo("Project-1.a");
+        assertThat(RdfPartitionWriterJena.partitionName(null)).isEqualTo("_unbound");
+        assertThat(RdfPartitionWriterJena.partitionName("a b")).matches("a_b_[0-9a-f]{8}");
+        assertThat(RdfPartitionWriterJena.partitionName("a/b")).isNotEqualTo(
+                RdfPartitionWriterJena.partitionName("c#b"));
+        assertThat(RdfPartitionWriterJena.partitionName("")).matches("_[0-9a-f]{8}");
+        assertThat(RdfPartitionWriterJena.partitionName(new String(new char[100]).replace('\0', 'x')))
+                .hasSize(64 + 9);
+
+        final Path file = Paths.get("dir", "report.csv.gz");
+        assertThat(RdfPartitionWriterJena.partitionFile(file, "p1")).isEqualTo(Paths.get("dir", "report_p1.csv.gz"));
+        assertThat(RdfPartitionWriterJena.partitionFile(Paths.get("report"), "p1")).isEqualTo(Paths.get("report_p1"));
+    }
+
+    private List<Path> write(final RdfPartitionWriterJena writer, final Path outFile) throws Exception {
+        try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+            return writer.write(qexec.execSelect(), outFile);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.impl.WrappedGraph;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import java.util.function.Consumer;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfPipelineStreamJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RdfPipelineStreamJenaTest {
+
+    private final RdfLoadOptions options = new RdfLoadOptions().setPipelineDepth(1).setPipelineBatchSize(1);
+
+    /**
+     * Test that an exception of the insert thread, that is not a Jena exception, does not block the
+     * parser and is rethrown when the pipeline is closed.
+     * @throws Exception
+     */
+    @Test(timeout = 10000)
+    public void testInsertFailure() throws Exception {
+        final IllegalStateException error = new IllegalStateException("Graph is broken");
+        RiotException thrown = null;
+        try {
+            RdfPipelineStreamJena.load(this.failingGraph(error), this.options, this.parser(null));
+        } catch (RiotException e) {
+            thrown = e;
+        }
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getCause()).isSameAs(error);
+    }
+
+    /**
+     * Test that a parser exception is not masked by a failure of the insert thread, which is
+     * added as suppressed exception instead.
+     * @throws Exception
+     */
+    @Test(timeout = 10000)
+    public void testParserFailure() throws Exception {
+        final RiotException parseError = new RiotException("Invalid data");
+        RiotException thrown = null;
+        try {
+            RdfPipelineStreamJena.load(
+                    this.failingGraph(new IllegalStateException("Graph is broken")), this.options,
+                    this.parser(parseError));
+        } catch (RiotException e) {
+            thrown = e;
+        }
+        assertThat(thrown).isSameAs(parseError);
+        assertThat(thrown.getSuppressed()).hasSize(1);
+        assertThat(thrown.getSuppressed()[0].getCause()).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Graph failing on every insert.
+     * @param error Exception thrown by the graph.
+     * @return Graph.
+     */
+    private Graph failingGraph(final RuntimeException error) {
+        return new WrappedGraph(GraphFactory.createDefaultGraph()) {
+            @Override
+            public void add(final Triple t) {
+                throw error;
+            }
+        };
+    }
+
+    /**
+     * Parser sending more triples than fit into the queue of the pipeline.
+     * @param error Exception thrown after all triples have been sent, null if no exception is thrown.
+     * @return Parser.
+     */
+    private Consumer<StreamRDF> parser(final RiotException error) {
+        return dest -> {
+            for (int i = 0; i < 100; i++) {
+                dest.triple(Triple.create(NodeFactory.createURI("http://example.org/s" + i),
+                        NodeFactory.createURI("http://example.org/p"), NodeFactory.createLiteral("o")));
+            }
+            if (error != null) {
+                throw error;
+            }
+        };
+    }
+
+}
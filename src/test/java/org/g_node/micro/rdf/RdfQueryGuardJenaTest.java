@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfQueryGuardJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfQueryGuardJenaTest {
+
+    private final String query = "SELECT ?s ?o WHERE { ?s ?p ?o } ORDER BY ?o";
+
+    private Model model;
+
+    /**
+     * Set up a model containing 1000 comments.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        for (int i = 0; i < 1000; i++) {
+            this.model.createResource().addProperty(RDFS.comment, String.valueOf(i));
+        }
+    }
+
+    /**
+     * Remove all compiled queries after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfQueryRegistryJena.clear();
+    }
+
+    /**
+     * Test that queries within their limits return all rows.
+     * @throws Exception
+     */
+    @Test
+    public void testWithinLimits() throws Exception {
+        final RdfQueryLimits limits = new RdfQueryLimits()
+                .setMaxRows(1000).setTimeoutMillis(60000).setMaxHeapPercent(100);
+        assertThat(limits.isUnlimited()).isFalse();
+        assertThat(new RdfQueryLimits().isUnlimited()).isTrue();
+
+        assertThat(ResultSetFormatter.consume(
+                RdfQueryRegistryJena.compile(this.query).execSelect(this.model, limits))).isEqualTo(1000);
+        assertThat(ResultSetFormatter.consume(RdfQueryGuardJena.guard(
+                QueryExecutionFactory.create(this.query, this.model).execSelect(), limits))).isEqualTo(1000);
+    }
+
+    /**
+     * Test that a query is cancelled after exceeding its row budget.
+     * @throws Exception
+     */
+    @Test
+    public void testRowBudget() throws Exception {
+        final RdfQueryLimits limits = new RdfQueryLimits().setMaxRows(999);
+
+        final Throwable thrown = catchThrowable(() -> ResultSetFormatter.consume(
+                RdfQueryRegistryJena.compile(this.query).execSelect(this.model, limits)));
+        assertThat(thrown).isInstanceOf(RdfQueryLimitException.class);
+        assertThat(((RdfQueryLimitException) thrown).getLimit()).isEqualTo("row budget of 999 rows");
+
+        assertThat(catchThrowable(() -> ResultSetFormatter.consume(RdfQueryGuardJena.guard(
+                QueryExecutionFactory.create(this.query, this.model).execSelect(), limits))))
+                .isInstanceOf(RdfQueryLimitException.class);
+    }
+
+    /**
+     * Test that a query is cancelled after exceeding its timeout, even before it returns its first row.
+     * @throws Exception
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        final String crossJoin = "SELECT * WHERE { ?a ?b ?c . ?d ?e ?f . ?g ?h ?i } ORDER BY ?c ?f ?i";
+        final RdfQueryLimits limits = new RdfQueryLimits().setTimeoutMillis(200);
+
+        final ResultSet result = RdfQueryRegistryJena.compile(crossJoin).execSelect(this.model, limits);
+        final long start = System.currentTimeMillis();
+        final Throwable thrown = catchThrowable(result::hasNext);
+
+        assertThat(thrown).isInstanceOf(RdfQueryLimitException.class);
+        assertThat(thrown.getMessage()).isEqualTo("Query cancelled, timeout of 200 ms exceeded.");
+        assertThat(System.currentTimeMillis() - start).isLessThan(30000);
+    }
+
+    /**
+     * Test that a query is cancelled, if the heap still in use after a garbage collection during the query
+     * exceeds its heap limit.
+     * @throws Exception
+     */
+    @Test
+    public void testHeapLimit() throws Exception {
+        final byte[] retained = new byte[(int) Math.min(Runtime.getRuntime().maxMemory() / 20, 1 << 30)];
+        final RdfQueryLimits limits = new RdfQueryLimits().setMaxHeapPercent(1);
+
+        final ResultSet result = RdfQueryRegistryJena.compile(this.query).execSelect(this.model, limits);
+        System.gc();
+        Thread.sleep(500);
+        final Throwable thrown = catchThrowable(() -> ResultSetFormatter.consume(result));
+
+        assertThat(thrown).isInstanceOf(RdfQueryLimitException.class);
+        assertThat(((RdfQueryLimitException) thrown).getLimit()).isEqualTo("heap limit of 1% of the maximum heap");
+        assertThat(retained).isNotEmpty();
+    }
+
+}
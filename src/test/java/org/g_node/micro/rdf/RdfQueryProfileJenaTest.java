@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfQueryProfileJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfQueryProfileJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String query = String.join("\n",
+            "PREFIX ex: <http://example.org/>",
+            "SELECT ?s ?name ?comment WHERE {",
+            "  ?s a ex:Subject ; ex:name ?name .",
+            "  OPTIONAL { ?s ex:log ?log . ?log ex:comment ?comment }",
+            "} ORDER BY ?name ?comment");
+    private Model model;
+
+    /**
+     * Set up a model with five subjects, two of them with a commented log entry.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final String ns = "http://example.org/";
+        this.model = ModelFactory.createDefaultModel();
+        final Property name = this.model.createProperty(ns, "name");
+        final Property log = this.model.createProperty(ns, "log");
+        final Property comment = this.model.createProperty(ns, "comment");
+        for (int i = 0; i < 5; i++) {
+            final Resource subject = this.model.createResource(String.join("", ns, "s", String.valueOf(i)))
+                    .addProperty(com.hp.hpl.jena.vocabulary.RDF.type, this.model.createResource(ns + "Subject"))
+                    .addProperty(name, String.join("", "Subject ", String.valueOf(i)));
+            if (i % 2 == 1) {
+                subject.addProperty(log, this.model.createResource().addProperty(comment, "Comment"));
+            }
+        }
+        this.model.createResource(ns + "other").addProperty(name, "Not a subject");
+    }
+
+    /**
+     * Remove all created folders and files and compiled queries after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfQueryRegistryJena.clear();
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that a profiled query returns the same rows and counts the rows of every operator and triple pattern.
+     * @throws Exception
+     */
+    @Test
+    public void testProfile() throws Exception {
+        final RdfCompiledQueryJena compiled = RdfQueryRegistryJena.compile(this.query);
+        final String expected = this.csv(compiled, null);
+
+        final RdfQueryProfileJena profile = new RdfQueryProfileJena();
+        assertThat(profile.isEmpty()).isTrue();
+        assertThat(this.csv(compiled, profile)).isEqualTo(expected);
+        assertThat(profile.isEmpty()).isFalse();
+
+        final List<String> operators = profile.getProbes().stream()
+                .map(RdfQueryProfileJena.Probe::getDescription).collect(Collectors.toList());
+        assertThat(operators).contains("conditional (index left join, OPTIONAL)", "bgp (2 triple patterns)");
+
+        final RdfQueryProfileJena.Probe conditional = profile.getProbes().get(
+                operators.indexOf("conditional (index left join, OPTIONAL)"));
+        assertThat(conditional.getRuns()).isEqualTo(1);
+        assertThat(conditional.getRowsOut()).isEqualTo(5);
+
+        final List<RdfQueryProfileJena.Probe> optional = profile.getProbes().get(
+                operators.lastIndexOf("bgp (2 triple patterns)")).getTriples();
+        assertThat(optional.get(0).getDescription()).isEqualTo("?s ex:log ?log");
+        assertThat(optional.get(0).getRuns()).isEqualTo(5);
+        assertThat(optional.get(0).getRowsIn()).isEqualTo(5);
+        assertThat(optional.get(0).getRowsOut()).isEqualTo(2);
+        assertThat(optional.get(1).getRowsIn()).isEqualTo(2);
+        assertThat(optional.get(1).getRowsOut()).isEqualTo(2);
+
+        assertThat(profile.toString()).startsWith("  total ms    self ms").contains("  conditional (index left join");
+
+        final String profileFile = this.testFileFolder.resolve("out.csv.profile").toString();
+        Files.createDirectories(this.testFileFolder);
+        profile.save(profileFile);
+        assertThat(new String(Files.readAllBytes(Paths.get(profileFile)), StandardCharsets.UTF_8))
+                .isEqualTo(profile.toString());
+    }
+
+    /**
+     * Test that the explanation contains the parsed algebra, the optimized plan and the evaluation order.
+     * @throws Exception
+     */
+    @Test
+    public void testExplain() throws Exception {
+        final String explained = RdfQueryRegistryJena.compile(this.query).explain();
+        assertThat(explained).contains("Parsed algebra:\n", "(leftjoin", "Optimized plan:\n", "(conditional",
+                "Evaluation:\n", "    conditional (index left join, OPTIONAL)\n", "      bgp (2 triple patterns)\n",
+                "        ?s ex:log ?log\n", "        ?log ex:comment ?comment\n");
+        assertThat(explained.indexOf("        ?s ex:log ?log\n"))
+                .isLessThan(explained.indexOf("        ?log ex:comment ?comment\n"));
+    }
+
+    private String csv(final RdfCompiledQueryJena compiled, final RdfQueryProfileJena profile) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, compiled.execSelect(this.model, new RdfReportOptions(), profile));
+        return out.toString();
+    }
+
+}
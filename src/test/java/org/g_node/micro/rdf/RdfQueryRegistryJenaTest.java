@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QueryParseException;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfQueryRegistryJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfQueryRegistryJenaTest {
+
+    private final String query = String.join("",
+            "PREFIX rdfs: <", RdfConstants.RDF_NS_RDFS, "> ",
+            "SELECT ?node ?comment WHERE { ?node rdfs:comment ?comment . FILTER(?comment != \"b\") } ",
+            "ORDER BY ?comment");
+
+    /**
+     * Remove all compiled queries after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        RdfQueryRegistryJena.clear();
+    }
+
+    /**
+     * Test that a query is compiled once and the compiled query is reused afterwards.
+     * @throws Exception
+     */
+    @Test
+    public void testCompileOnce() throws Exception {
+        assertThat(RdfQueryRegistryJena.isCompiled(this.query)).isFalse();
+
+        final RdfCompiledQueryJena compiled = RdfQueryRegistryJena.compile(this.query);
+        assertThat(RdfQueryRegistryJena.isCompiled(this.query)).isTrue();
+        assertThat(compiled.isSelect()).isTrue();
+        assertThat(RdfQueryRegistryJena.compile(this.query)).isSameAs(compiled);
+
+        final RdfCompiledQueryJena other = RdfQueryRegistryJena.compile(this.query.replace("\"b\"", "\"c\""));
+        assertThat(other).isNotSameAs(compiled);
+        assertThat(other.getKey()).isNotEqualTo(compiled.getKey());
+
+        assertThat(RdfQueryRegistryJena.compile("CONSTRUCT WHERE { ?s ?p ?o }").isSelect()).isFalse();
+    }
+
+    /**
+     * Test that an invalid query is not added to the registry.
+     * @throws Exception
+     */
+    @Test
+    public void testInvalidQuery() throws Exception {
+        final String invalidQuery = "I am not a query";
+
+        final Throwable thrown = catchThrowable(() -> RdfQueryRegistryJena.compile(invalidQuery));
+        assertThat(thrown).isInstanceOf(QueryParseException.class);
+        assertThat(RdfQueryRegistryJena.isCompiled(invalidQuery)).isFalse();
+    }
+
+    /**
+     * Test that the compiled query plan returns the same results as a regular query execution,
+     * also when it is executed repeatedly.
+     * @throws Exception
+     */
+    @Test
+    public void testExecSelect() throws Exception {
+        final Model model = ModelFactory.createDefaultModel();
+        for (final String comment : new String[] {"c", "a", "b"}) {
+            final Resource r = model.createResource(String.join("", RdfConstants.RDF_NS_RDFS, "node_", comment));
+            r.addProperty(RDFS.comment, comment);
+        }
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(expected, QueryExecutionFactory.create(this.query, model).execSelect());
+
+        final RdfCompiledQueryJena compiled = RdfQueryRegistryJena.compile(this.query);
+        for (int i = 0; i < 2; i++) {
+            final ResultSet result = compiled.execSelect(model);
+            assertThat(result.getResultVars()).containsExactly("node", "comment");
+
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            ResultSetFormatter.outputAsCSV(actual, result);
+            assertThat(actual.toString()).isEqualTo(expected.toString());
+        }
+        assertThat(expected.toString()).contains("node_a").contains("node_c").doesNotContain("node_b");
+    }
+
+    /**
+     * Test that a page of the rows is taken from the sorted rows within the LIMIT and OFFSET of the query
+     * and that a streamed query returns the same rows without changing the compiled query. Streamed queries
+     * with their own LIMIT or OFFSET keep their order, since it selects their rows.
+     * @throws Exception
+     */
+    @Test
+    public void testExecSelectPaged() throws Exception {
+        final Model model = ModelFactory.createDefaultModel();
+        for (final String comment : new String[] {"e", "c", "a", "d", "f", "b"}) {
+            final Resource r = model.createResource(String.join("", RdfConstants.RDF_NS_RDFS, "node_", comment));
+            r.addProperty(RDFS.comment, comment);
+        }
+        final RdfCompiledQueryJena compiled = RdfQueryRegistryJena.compile(this.query);
+
+        assertThat(this.comments(compiled.execSelect(model, new RdfReportOptions().setOffset(1).setLimit(2))))
+                .isEqualTo("cd");
+        assertThat(this.comments(compiled.execSelect(model, new RdfReportOptions().setOffset(3)))).isEqualTo("ef");
+        assertThat(this.comments(compiled.execSelect(model, new RdfReportOptions().setOffset(9)))).isEmpty();
+
+        final String streamed = this.comments(compiled.execSelect(model, new RdfReportOptions().setStreamed(true)));
+        assertThat(streamed).hasSize(5);
+        assertThat(streamed.chars().sorted().collect(StringBuilder::new, StringBuilder::appendCodePoint,
+                StringBuilder::append).toString()).isEqualTo("acdef");
+        assertThat(compiled.getQuery().hasOrderBy()).isTrue();
+        assertThat(this.comments(compiled.execSelect(model))).isEqualTo("acdef");
+
+        final RdfCompiledQueryJena limited = RdfQueryRegistryJena.compile(
+                String.join("", this.query, " LIMIT 3 OFFSET 1"));
+        assertThat(this.comments(limited.execSelect(model, new RdfReportOptions().setOffset(1).setLimit(5))))
+                .isEqualTo("de");
+        assertThat(this.comments(limited.execSelect(model, new RdfReportOptions().setOffset(4)))).isEmpty();
+        assertThat(this.comments(limited.execSelect(model, new RdfReportOptions().setStreamed(true).setLimit(2))))
+                .isEqualTo("cd");
+        assertThat(this.comments(limited.execSelect(model, new RdfReportOptions().setStreamed(true))))
+                .isEqualTo("cde");
+    }
+
+    private String comments(final ResultSet result) {
+        final StringBuilder comments = new StringBuilder();
+        while (result.hasNext()) {
+            comments.append(result.next().getLiteral("comment").getString());
+        }
+        return comments.toString();
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfResultCacheJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfResultCacheJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path cacheFolder = this.testFileFolder.resolve("cache");
+    private final File testTtlFile = this.testFileFolder.resolve("test.ttl").toFile();
+    private final Path outFile = this.testFileFolder.resolve("out.csv");
+    private final List<String> settings = Collections.singletonList("CSV");
+
+    /**
+     * Create a test folder and a Turtle test file in the java temp directory.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.write(this.testTtlFile,
+                "<http://example.org/s> <http://xmlns.com/foaf/0.1/name> \"Name\" .\n");
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that keys depend on the content of the input file, the normalized query and the settings.
+     * @throws Exception
+     */
+    @Test
+    public void testKey() throws Exception {
+        final String query = "SELECT ?s WHERE { ?s ?p ?o }";
+        final String fingerprint = RdfResultCacheJena.fingerprint(this.testTtlFile.getAbsolutePath());
+        final String key = RdfResultCacheJena.key(fingerprint, query, this.settings);
+
+        assertThat(RdfResultCacheJena.key(fingerprint, "# comment\nSELECT  ?s\nWHERE {?s ?p ?o}", this.settings))
+                .isEqualTo(key);
+        assertThat(RdfResultCacheJena.key(fingerprint, "SELECT ?o WHERE { ?s ?p ?o }", this.settings))
+                .isNotEqualTo(key);
+        assertThat(RdfResultCacheJena.key(fingerprint, query, Arrays.asList("CSV", "NATIVE")))
+                .isNotEqualTo(key);
+        assertThat(RdfResultCacheJena.key(fingerprint, "SELECT ?s WHERE { ?s ?p \"a\" }", this.settings))
+                .isNotEqualTo(RdfResultCacheJena.key(fingerprint, "SELECT ?s WHERE { ?s ?p \"A\" }", this.settings));
+        assertThat(RdfResultCacheJena.normalizeQuery(" not  a\nquery ")).isEqualTo("not a query");
+
+        FileUtils.write(this.testTtlFile, "<http://example.org/s> <http://example.org/p> \"o\" .\n", true);
+        final String changed = RdfResultCacheJena.fingerprint(this.testTtlFile.getAbsolutePath());
+        assertThat(RdfResultCacheJena.key(changed, query, this.settings)).isNotEqualTo(key);
+        assertThat(RdfResultCacheJena.fingerprint(this.testFileFolder.resolve("missing.ttl").toString())).isNull();
+    }
+
+    /**
+     * Test that an output file is restored from the cache and that restored files do not change the cache.
+     * @throws Exception
+     */
+    @Test
+    public void testStoreAndRestore() throws Exception {
+        final RdfResultCacheJena cache =
+                new RdfResultCacheJena(this.cacheFolder.toString(), RdfResultCacheJena.DEFAULT_MAX_SIZE);
+
+        assertThat(cache.restore("key", this.outFile.toString())).isFalse();
+        cache.store("key", this.outFile.toString());
+        assertThat(cache.entryPath("key")).doesNotExist();
+
+        FileUtils.write(this.outFile.toFile(), "s\nhttp://example.org/s\n");
+        cache.store("key", this.outFile.toString());
+        assertThat(cache.entryPath("key")).exists();
+
+        FileUtils.write(this.outFile.toFile(), "changed");
+        assertThat(cache.restore("key", this.outFile.toString())).isTrue();
+        assertThat(this.outFile).hasContent("s\nhttp://example.org/s");
+
+        cache.detach(this.outFile.toString());
+        assertThat(this.outFile).doesNotExist();
+        FileUtils.write(this.outFile.toFile(), "changed");
+        assertThat(cache.entryPath("key")).hasContent("s\nhttp://example.org/s");
+    }
+
+    /**
+     * Test that least recently used entries are removed if the cache exceeds its maximum size.
+     * @throws Exception
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final RdfResultCacheJena cache = new RdfResultCacheJena(this.cacheFolder.toString(), 15);
+        FileUtils.write(this.outFile.toFile(), "0123456789");
+
+        cache.store("first", this.outFile.toString());
+        assertThat(cache.entryPath("first").toFile().setLastModified(System.currentTimeMillis() - 60000)).isTrue();
+        cache.store("second", this.outFile.toString());
+
+        assertThat(cache.entryPath("first")).doesNotExist();
+        assertThat(cache.entryPath("second")).exists();
+    }
+
+}
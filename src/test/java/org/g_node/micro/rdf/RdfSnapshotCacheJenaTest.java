@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfSnapshotCacheJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfSnapshotCacheJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path cacheFolder = this.testFileFolder.resolve("cache");
+    private final File testTtlFile = this.testFileFolder.resolve("test.ttl").toFile();
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    /**
+     * Create a test folder and a Turtle test file in the java temp directory.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.write(this.testTtlFile,
+                "<http://example.org/s> <http://xmlns.com/foaf/0.1/name> \"Name\" .\n");
+        this.parseCount.set(0);
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that a file is parsed only once and loaded from its snapshot afterwards.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadFromSnapshot() throws Exception {
+        final RdfSnapshotCacheJena cache =
+                new RdfSnapshotCacheJena(this.cacheFolder.toString(), RdfSnapshotCacheJena.DEFAULT_MAX_SIZE);
+
+        final Model parsed = cache.load(this.testTtlFile.getAbsolutePath(), this.parser(this.testTtlFile));
+        assertThat(this.parseCount.get()).isEqualTo(1);
+        assertThat(this.countSnapshots()).isEqualTo(1);
+
+        final Model cached = cache.load(this.testTtlFile.getAbsolutePath(), this.parser(this.testTtlFile));
+        assertThat(this.parseCount.get()).isEqualTo(1);
+        assertThat(cached.isIsomorphicWith(parsed)).isTrue();
+    }
+
+    /**
+     * Test that a changed file results in a different snapshot key and is parsed again.
+     * @throws Exception
+     */
+    @Test
+    public void testChangedFile() throws Exception {
+        final RdfSnapshotCacheJena cache =
+                new RdfSnapshotCacheJena(this.cacheFolder.toString(), RdfSnapshotCacheJena.DEFAULT_MAX_SIZE);
+        final String key = RdfSnapshotCacheJena.fingerprint(this.testTtlFile.getAbsolutePath());
+        assertThat(key).isNotNull();
+        assertThat(RdfSnapshotCacheJena.fingerprint(this.testFileFolder.resolve("iDoNotExist.ttl").toString())).isNull();
+
+        cache.load(this.testTtlFile.getAbsolutePath(), this.parser(this.testTtlFile));
+
+        FileUtils.write(this.testTtlFile,
+                "<http://example.org/s> <http://xmlns.com/foaf/0.1/name> \"Other name\" .\n");
+        assertThat(RdfSnapshotCacheJena.fingerprint(this.testTtlFile.getAbsolutePath())).isNotEqualTo(key);
+
+        final Model model = cache.load(this.testTtlFile.getAbsolutePath(), this.parser(this.testTtlFile));
+        assertThat(this.parseCount.get()).isEqualTo(2);
+        assertThat(model.listObjects().next().asLiteral().getString()).isEqualTo("Other name");
+    }
+
+    /**
+     * Test that least recently used snapshots are removed if the maximum cache size is exceeded
+     * and that the most recent snapshot is always kept.
+     * @throws Exception
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final RdfSnapshotCacheJena cache = new RdfSnapshotCacheJena(this.cacheFolder.toString(), 1);
+
+        final File otherTtlFile = this.testFileFolder.resolve("other.ttl").toFile();
+        FileUtils.write(otherTtlFile, "<http://example.org/o> <http://xmlns.com/foaf/0.1/name> \"Other\" .\n");
+
+        cache.load(this.testTtlFile.getAbsolutePath(), this.parser(this.testTtlFile));
+        assertThat(this.countSnapshots()).isEqualTo(1);
+
+        cache.load(otherTtlFile.getAbsolutePath(), this.parser(otherTtlFile));
+        assertThat(this.countSnapshots()).isEqualTo(1);
+
+        cache.load(otherTtlFile.getAbsolutePath(), this.parser(otherTtlFile));
+        assertThat(this.parseCount.get()).isEqualTo(2);
+    }
+
+    /**
+     * Loader used by the tests, counts how often a file is actually parsed.
+     * @param file RDF file that is parsed.
+     * @return Loader returning the model of the provided file.
+     */
+    private Supplier<Model> parser(final File file) {
+        return () -> {
+            this.parseCount.incrementAndGet();
+            return RDFDataMgr.loadModel(file.getAbsolutePath());
+        };
+    }
+
+    /**
+     * Count the snapshot files in the cache folder.
+     * @return Number of snapshot files.
+     * @throws Exception
+     */
+    private long countSnapshots() throws Exception {
+        try (Stream<Path> files = Files.list(this.cacheFolder)) {
+            return files.filter(p -> p.toString().endsWith(".rt")).count();
+        }
+    }
+
+}
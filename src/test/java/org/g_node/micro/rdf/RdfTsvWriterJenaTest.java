@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.rdf;
+
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RdfTsvWriterJena} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RdfTsvWriterJenaTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = this.getClass().getSimpleName();
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String query = String.join("\n",
+            "PREFIX ex: <http://example.org/>",
+            "SELECT ?s ?value ?missing WHERE {",
+            "  ?s ex:value ?value .",
+            "  OPTIONAL { ?s ex:missing ?missing }",
+            "} ORDER BY ?s");
+    private Model model;
+
+    /**
+     * Set up a model with values containing tabs, line breaks and backslashes.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final String ns = "http://example.org/";
+        final String[] values = {"plain, \"quoted\"", "tab\tseparated", "line\nbreak\r", "back\\slash",
+            String.join("", "long ", new String(new char[100]).replace('\0', 'x'), "\tä")};
+        this.model = ModelFactory.createDefaultModel();
+        final Property value = this.model.createProperty(ns, "value");
+        for (int i = 0; i < values.length; i++) {
+            this.model.createResource(ns + "s" + i).addProperty(value, values[i]);
+        }
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Test that every row is written to a line of its own and that values are escaped,
+     * also if the output buffer has to be flushed within values.
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        final Path outFile = this.testFileFolder.resolve("out.tsv");
+        for (final int bufferSize : new int[] {AbstractRdfResultWriterJena.DEFAULT_BUFFER_SIZE, 1}) {
+            try (QueryExecution qexec = QueryExecutionFactory.create(this.query, this.model)) {
+                assertThat(new RdfTsvWriterJena(bufferSize).write(qexec.execSelect(), outFile)).isEqualTo(5);
+            }
+
+            final String content = new String(Files.readAllBytes(outFile), StandardCharsets.UTF_8);
+            assertThat(content).doesNotContain("\r");
+            final List<String> lines = Files.readAllLines(outFile);
+            assertThat(lines).hasSize(6);
+            assertThat(lines.get(0)).isEqualTo("s\tvalue\tmissing");
+            assertThat(lines.get(1)).isEqualTo("http://example.org/s0\tplain, \"quoted\"\t");
+            assertThat(lines.get(2)).isEqualTo("http://example.org/s1\ttab\\tseparated\t");
+            assertThat(lines.get(3)).isEqualTo("http://example.org/s2\tline\\nbreak\\r\t");
+            assertThat(lines.get(4)).isEqualTo("http://example.org/s3\tback\\\\slash\t");
+            assertThat(lines.get(5)).startsWith("http://example.org/s4\tlong xxx").endsWith("xxx\\tä\t");
+        }
+    }
+
+}
@@ -13,11 +13,18 @@ package org.g_node.reporter.LKTLogbook;
 import com.hp.hpl.jena.query.QueryParseException;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -25,6 +32,7 @@ import org.apache.log4j.PatternLayout;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import org.g_node.App;
+import org.g_node.micro.rdf.RdfDiskStoreJena;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -115,7 +123,7 @@ public class LktCliControllerTest {
         final String[] cliArgs = new String[5];
         cliArgs[0] = useCase;
         cliArgs[1] = "-r";
-        cliArgs[2] = "val";
+        cliArgs[2] = "subjects";
         cliArgs[3] = "-i";
         cliArgs[4] = testNotRdfFile.getAbsolutePath();
 
@@ -227,6 +235,41 @@ public class LktCliControllerTest {
         assertThat(thrown).isInstanceOf(QueryParseException.class).hasMessageContaining(errorMessage);
     }
 
+    @Test
+    public void testCustomQueryCompiledBeforeLoad() throws Exception {
+        final String useCase = "lkt";
+
+        final File notQueryFile = this.testFileFolder.resolve("testQuery.txt").toFile();
+        FileUtils.write(notQueryFile, "I am not a query file!");
+        final Path cacheDir = this.testFileFolder.resolve("cache");
+
+        final String[] cliArgs = new String[9];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = notQueryFile.getAbsolutePath();
+        cliArgs[7] = "--snapshot-cache";
+        cliArgs[8] = cacheDir.toString();
+
+        catchThrowable(() -> App.main(cliArgs));
+        assertThat(this.outStream.toString()).contains("Invalid query: Lexical error");
+        assertThat(this.outStream.toString()).doesNotContain("Writing snapshot...");
+
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        FileUtils.write(notQueryFile, "CONSTRUCT WHERE { ?s ?p ?o }");
+        final String[] constructArgs = Arrays.copyOf(cliArgs, 11);
+        constructArgs[9] = "-o";
+        constructArgs[10] = outFile.toString();
+
+        App.main(constructArgs);
+        assertThat(this.outStream.toString()).contains("Invalid query: only SELECT queries are supported.");
+        assertThat(this.outStream.toString()).doesNotContain("Writing snapshot...");
+        assertThat(Files.exists(outFile)).isFalse();
+    }
+
     @Test
     public void testCheckOutputFile() throws Exception {
         final String useCase = "lkt";
@@ -279,4 +322,559 @@ public class LktCliControllerTest {
         assertThat(Files.exists(outFile)).isTrue();
     }
 
+    @Test
+    public void testValidateReport() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[7];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "validate";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("1 triples, ");
+        assertThat(Files.exists(outFile)).isFalse();
+    }
+
+    @Test
+    public void testMemoryMappedInput() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[8];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "-m";
+
+        App.main(cliArgs);
+        assertThat(Files.exists(outFile)).isTrue();
+    }
+
+    @Test
+    public void testSnapshotCache() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path cacheDir = this.testFileFolder.resolve("cache");
+
+        final String[] cliArgs = new String[11];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--snapshot-cache";
+        cliArgs[8] = cacheDir.toString();
+        cliArgs[9] = "--snapshot-cache-size";
+        cliArgs[10] = "10";
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Writing snapshot...");
+        assertThat(Files.exists(outFile)).isTrue();
+
+        Files.delete(outFile);
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Loading snapshot...");
+        assertThat(Files.exists(outFile)).isTrue();
+
+        Files.delete(outFile);
+        cliArgs[10] = "none";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("'none' is not a supported value of command line option");
+        assertThat(Files.exists(outFile)).isFalse();
+    }
+
+    @Test
+    public void testDiskStore() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path storeDir = this.testFileFolder.resolve("store");
+
+        final String[] cliArgs = new String[9];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--store";
+        cliArgs[8] = storeDir.toString();
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Building store...");
+        assertThat(Files.exists(outFile)).isTrue();
+
+        Files.delete(outFile);
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Using store...");
+        assertThat(Files.exists(outFile)).isTrue();
+
+        RdfDiskStoreJena.release(storeDir.toString());
+    }
+
+    @Test
+    public void testCompressedInput() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path gzFile = this.testFileFolder.resolve("test.ttl.gz");
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzFile))) {
+            Files.copy(this.testRdfFile.toPath(), out);
+        }
+
+        final String[] cliArgs = new String[7];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = gzFile.toString();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).doesNotContain("cannot be read");
+        assertThat(Files.exists(outFile)).isTrue();
+    }
+
+    @Test
+    public void testIncrementalInput() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path cacheDir = this.testFileFolder.resolve("cache");
+
+        final String[] cliArgs = new String[10];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--incremental";
+        cliArgs[8] = "--snapshot-cache";
+        cliArgs[9] = cacheDir.toString();
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Loading complete file...");
+        assertThat(Files.exists(outFile)).isTrue();
+
+        Files.delete(outFile);
+        App.main(Arrays.copyOf(cliArgs, 8));
+        assertThat(this.outStream.toString()).contains("Option -incremental requires the option -snapshot-cache.");
+        assertThat(Files.exists(outFile)).isFalse();
+    }
+
+    @Test
+    public void testFrozenModel() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path frozenOutFile = this.testFileFolder.resolve("frozen.csv");
+
+        final String[] cliArgs = new String[8];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "experiments";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--freeze";
+
+        App.main(Arrays.copyOf(cliArgs, 7));
+        cliArgs[6] = frozenOutFile.toString();
+        App.main(cliArgs);
+
+        assertThat(Files.exists(frozenOutFile)).isTrue();
+        assertThat(Files.readAllLines(frozenOutFile)).isEqualTo(Files.readAllLines(outFile));
+    }
+
+    @Test
+    public void testReportEngine() throws Exception {
+        final String useCase = "lkt";
+        final File subjectsFile = this.testFileFolder.resolve("subjects.ttl").toFile();
+        FileUtils.write(subjectsFile, String.join("\n",
+                "@prefix gn: <https://github.com/G-Node/neuro-ontology/> .",
+                "@prefix foaf: <http://xmlns.com/foaf/0.1/> .",
+                "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .",
+                "<s1> a gn:Subject ; gn:hasSubjectID \"S1\" ; gn:hasSpeciesName \"gerbil\" ;",
+                "  gn:hasScientificName \"Meriones\" ; gn:hasSex \"male\" ; gn:hasBirthDate \"2014-01-01\" ;",
+                "  gn:hasWithdrawalDate \"2014-02-01\" ; gn:hasPermit [ gn:hasNumber \"P-1\" ] ;",
+                "  gn:hasSubjectLogEntry [ gn:startedAt \"2015-01-01\" ; gn:hasExperimenter <e1> ; rdfs:comment \"a\" ],",
+                "    [ gn:startedAt \"2015-02-01\" ; gn:hasExperimenter <e1> ; rdfs:comment \"Ausgeschleust\" ] .",
+                "<e1> foaf:name \"Experimenter\" ."));
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path sparqlOutFile = this.testFileFolder.resolve("sparql.csv");
+
+        final String[] cliArgs = new String[9];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = subjectsFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "subjects";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--engine";
+        cliArgs[8] = "sparql";
+
+        App.main(Arrays.copyOf(cliArgs, 7));
+        assertThat(this.outStream.toString()).contains("Start native report...");
+        cliArgs[6] = sparqlOutFile.toString();
+        App.main(cliArgs);
+
+        assertThat(Files.readAllLines(outFile)).hasSize(2);
+        assertThat(Files.readAllLines(sparqlOutFile)).isEqualTo(Files.readAllLines(outFile));
+
+        cliArgs[8] = "check";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Check native report...");
+        assertThat(this.outStream.toString()).doesNotContain("Native report differs");
+        assertThat(Files.readAllLines(sparqlOutFile)).isEqualTo(Files.readAllLines(outFile));
+
+        cliArgs[8] = "none";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("'none' is not a supported value of command line option");
+    }
+
+    @Test
+    public void testMultipleReports() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[7];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "all";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+
+        App.main(cliArgs);
+        assertThat(this.testFileFolder.resolve("out_experiments.csv")).exists();
+        assertThat(this.testFileFolder.resolve("out_subjects.csv")).exists();
+        assertThat(this.outStream.toString()).contains("Report EXPERIMENTS finished in ");
+        assertThat(this.outStream.toString()).contains("Report SUBJECTS finished in ");
+
+        cliArgs[4] = "subjects, validate";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Report VALIDATE cannot be combined with other reports.");
+
+        cliArgs[4] = "subjects,none";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("'none' is not a supported value of command line option");
+    }
+
+    @Test
+    public void testReportLimits() throws Exception {
+        final String useCase = "lkt";
+        final File queryFile = this.testFileFolder.resolve("query.rq").toFile();
+        FileUtils.write(queryFile, "SELECT ?s ?p ?o WHERE { ?s ?p ?o }");
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[11];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = queryFile.getAbsolutePath();
+        cliArgs[7] = "-o";
+        cliArgs[8] = outFile.toString();
+        cliArgs[9] = "--max-rows";
+        cliArgs[10] = "1";
+
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).doesNotContain("Report cancelled");
+        assertThat(outFile).exists();
+        Files.delete(outFile);
+
+        FileUtils.write(this.testRdfFile, " . <http://a> <http://b> \"c\" .", true);
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Report cancelled: row budget of 1 rows exceeded.");
+        assertThat(outFile).doesNotExist();
+
+        cliArgs[9] = "--max-heap";
+        cliArgs[10] = "101";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Option -max-heap has to be a percentage between 1 and 100.");
+
+        cliArgs[9] = "--timeout";
+        cliArgs[10] = "0";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("'0' is not a supported value of command line option '-timeout'");
+    }
+
+    @Test
+    public void testResultCache() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path cacheDir = this.testFileFolder.resolve("results");
+
+        final String[] cliArgs = new String[10];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "all";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--result-cache";
+        cliArgs[8] = cacheDir.toString();
+        cliArgs[9] = "--refresh";
+
+        App.main(Arrays.copyOf(cliArgs, 9));
+        assertThat(this.outStream.toString()).contains("Caching report...").doesNotContain("restored from cache");
+        assertThat(this.testFileFolder.resolve("out_subjects.csv")).exists();
+
+        this.outStream.reset();
+        Files.delete(this.testFileFolder.resolve("out_subjects.csv"));
+        App.main(Arrays.copyOf(cliArgs, 9));
+        assertThat(this.outStream.toString()).contains("Report SUBJECTS restored from cache...")
+                .contains("Report EXPERIMENTS restored from cache...").doesNotContain("Validated file");
+        assertThat(this.testFileFolder.resolve("out_subjects.csv")).exists();
+
+        this.outStream.reset();
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Caching report...").doesNotContain("restored from cache");
+
+        this.outStream.reset();
+        cliArgs[9] = "--no-cache";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).doesNotContain("Caching report...").doesNotContain("from cache");
+
+        this.outStream.reset();
+        FileUtils.write(this.testRdfFile, " . <http://a> <http://b> \"c\" .", true);
+        App.main(Arrays.copyOf(cliArgs, 9));
+        assertThat(this.outStream.toString()).contains("Caching report...").doesNotContain("restored from cache");
+
+        App.main(new String[] {useCase, "-i", this.testRdfFile.getAbsolutePath(), "-r", "all", "--refresh"});
+        assertThat(this.outStream.toString()).contains("Option -refresh requires the option -result-cache.");
+    }
+
+    @Test
+    public void testExplainAndProfile() throws Exception {
+        final String useCase = "lkt";
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+        final Path profileFile = this.testFileFolder.resolve("out.csv.profile");
+
+        final String[] cliArgs = new String[10];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "subjects";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--explain";
+        cliArgs[8] = "--engine";
+        cliArgs[9] = "sparql";
+
+        App.main(Arrays.copyOf(cliArgs, 8));
+        assertThat(this.outStream.toString()).contains("Explain query...").contains("Optimized plan:")
+                .contains("is created by the native reporter").doesNotContain("Start native report...");
+        assertThat(outFile).doesNotExist();
+
+        this.outStream.reset();
+        cliArgs[7] = "--profile";
+        App.main(cliArgs);
+        assertThat(outFile).exists();
+        assertThat(profileFile).exists();
+        assertThat(Files.readAllLines(profileFile).get(0)).contains("rows out").endsWith("operator");
+    }
+
+    @Test
+    public void testOutputFormats() throws Exception {
+        final String useCase = "lkt";
+        final File queryFile = this.testFileFolder.resolve("query.rq").toFile();
+        FileUtils.write(queryFile, "SELECT ?s ?o WHERE { ?s <http://xmlns.com/foaf/0.1/name> ?o }");
+        final Path outFile = this.testFileFolder.resolve("out");
+
+        final String[] cliArgs = new String[11];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = queryFile.getAbsolutePath();
+        cliArgs[7] = "-o";
+        cliArgs[8] = outFile.toString();
+        cliArgs[9] = "-f";
+        cliArgs[10] = "tsv";
+
+        App.main(cliArgs);
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("out.tsv")))
+                .containsExactly("s\to", "_:b0\tMainName");
+
+        cliArgs[10] = "JSONL";
+        App.main(cliArgs);
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("out.jsonl")))
+                .containsExactly("{\"s\":\"_:b0\",\"o\":\"MainName\"}");
+    }
+
+    @Test
+    public void testCompress() throws Exception {
+        final String useCase = "lkt";
+        final File queryFile = this.testFileFolder.resolve("query.rq").toFile();
+        FileUtils.write(queryFile, "SELECT ?s ?o WHERE { ?s <http://xmlns.com/foaf/0.1/name> ?o }");
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[11];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = queryFile.getAbsolutePath();
+        cliArgs[7] = "-o";
+        cliArgs[8] = outFile.toString();
+        cliArgs[9] = "-compress";
+        cliArgs[10] = "gzip";
+
+        App.main(cliArgs);
+        assertThat(outFile).doesNotExist();
+        final Path gzFile = this.testFileFolder.resolve("out.csv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzFile))) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("s,o\r\n_:b0,MainName\r\n");
+        }
+
+        cliArgs[10] = "xz";
+        App.main(cliArgs);
+        assertThat(this.testFileFolder.resolve("out.csv.xz")).exists();
+
+        Files.delete(gzFile);
+        cliArgs[10] = "zstd";
+        App.main(cliArgs);
+        assertThat(gzFile).doesNotExist();
+        assertThat(this.testFileFolder.resolve("out.csv.zstd")).doesNotExist();
+    }
+
+    @Test
+    public void testStreamPaged() throws Exception {
+        final String useCase = "lkt";
+        final File rdfFile = this.testFileFolder.resolve("names.ttl").toFile();
+        FileUtils.write(rdfFile, String.join("\n", "@prefix foaf: <http://xmlns.com/foaf/0.1/> .",
+                "<a> foaf:name \"A\" . <b> foaf:name \"B\" . <c> foaf:name \"C\" . <d> foaf:name \"D\" ."));
+        final File queryFile = this.testFileFolder.resolve("query.rq").toFile();
+        FileUtils.write(queryFile, "SELECT ?o WHERE { ?s <http://xmlns.com/foaf/0.1/name> ?o } ORDER BY DESC(?o)");
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[14];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = rdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = queryFile.getAbsolutePath();
+        cliArgs[7] = "-o";
+        cliArgs[8] = outFile.toString();
+        cliArgs[9] = "-limit";
+        cliArgs[10] = "2";
+        cliArgs[11] = "-offset";
+        cliArgs[12] = "1";
+        cliArgs[13] = "-stream";
+
+        App.main(Arrays.copyOf(cliArgs, 13));
+        assertThat(Files.readAllLines(outFile)).containsExactly("o", "C", "B");
+
+        App.main(cliArgs);
+        assertThat(Files.readAllLines(outFile)).hasSize(3);
+
+        cliArgs[10] = "0";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString())
+                .contains("'0' is not a supported value of command line option '-limit'.");
+    }
+
+    @Test
+    public void testPartitionBy() throws Exception {
+        final String useCase = "lkt";
+        final File queryFile = this.testFileFolder.resolve("query.rq").toFile();
+        FileUtils.write(queryFile, "SELECT ?s ?o WHERE { ?s <http://xmlns.com/foaf/0.1/name> ?o }");
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[13];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = this.testRdfFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "custom";
+        cliArgs[5] = "-c";
+        cliArgs[6] = queryFile.getAbsolutePath();
+        cliArgs[7] = "-o";
+        cliArgs[8] = outFile.toString();
+        cliArgs[9] = "-partition-by";
+        cliArgs[10] = "?o";
+        cliArgs[11] = "-max-open-files";
+        cliArgs[12] = "1";
+
+        App.main(cliArgs);
+        assertThat(outFile).doesNotExist();
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("out_MainName.csv")))
+                .containsExactly("s,o", "_:b0,MainName");
+
+        cliArgs[10] = "missing";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString())
+                .contains("Option -partition-by: missing is not a result variable of report CUSTOM.");
+
+        cliArgs[10] = "o";
+        cliArgs[12] = "0";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString())
+                .contains("'0' is not a supported value of command line option '-max-open-files'.");
+    }
+
+    @Test
+    public void testExitKeywords() throws Exception {
+        final String useCase = "lkt";
+        final File subjectsFile = this.testFileFolder.resolve("subjects.ttl").toFile();
+        FileUtils.write(subjectsFile, String.join("\n",
+                "@prefix gn: <https://github.com/G-Node/neuro-ontology/> .",
+                "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .",
+                "<s1> a gn:Subject ; gn:hasSubjectID \"S1\" ; gn:hasSpeciesName \"gerbil\" ;",
+                "  gn:hasScientificName \"Meriones\" ; gn:hasSex \"male\" ; gn:hasBirthDate \"2014-01-01\" ;",
+                "  gn:hasWithdrawalDate \"2014-02-01\" ; gn:hasPermit [ gn:hasNumber \"P-1\" ] ;",
+                "  gn:hasSubjectLogEntry [ gn:startedAt \"2015-01-01\" ; rdfs:comment \"Tier verstorben\" ] ."));
+        final Path outFile = this.testFileFolder.resolve("out.csv");
+
+        final String[] cliArgs = new String[9];
+        cliArgs[0] = useCase;
+        cliArgs[1] = "-i";
+        cliArgs[2] = subjectsFile.getAbsolutePath();
+        cliArgs[3] = "-r";
+        cliArgs[4] = "subjects";
+        cliArgs[5] = "-o";
+        cliArgs[6] = outFile.toString();
+        cliArgs[7] = "--exit-keywords";
+        cliArgs[8] = "Euthanasie, VERSTORBEN";
+
+        App.main(Arrays.copyOf(cliArgs, 7));
+        assertThat(Files.readAllLines(outFile).get(1)).doesNotContain("Tier verstorben");
+
+        App.main(cliArgs);
+        assertThat(Files.readAllLines(outFile).get(1)).endsWith(",Tier verstorben");
+        assertThat(this.outStream.toString()).contains("Found exit comments of 1 log entries...");
+
+        cliArgs[8] = " , ";
+        App.main(cliArgs);
+        assertThat(this.outStream.toString()).contains("Option -exit-keywords requires at least one keyword.");
+        LktExitCommentJena.setKeywords(LktExitCommentJena.DEFAULT_KEYWORDS);
+    }
+
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfQueryRegistryJena;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LktExitCommentJena} class. Exit comments found by the property function
+ * are compared to the comments found by the regular expression filter it replaces.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LktExitCommentJenaTest {
+
+    private final String prefixes = String.join("",
+            "PREFIX rdfs: <", RdfConstants.RDF_NS_RDFS, "> ",
+            "PREFIX report: <", RdfConstants.RDF_NS_REPORT, "> ");
+
+    private Model model;
+
+    /**
+     * Register the property function and set up a model containing comments of different datatypes,
+     * languages and cases.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        LktExitCommentJena.register();
+        this.model = ModelFactory.createDefaultModel();
+        final String[] comments = {"Euthanasie", "Tier ausgeschleust", "EUTHANASIE am 1.1.", "Kommentar",
+            "Zweite\nZeile Ausgeschleust", "Euthanasi", ""};
+        for (int i = 0; i < comments.length; i++) {
+            final Resource entry = this.model.createResource(String.join("", "http://example.org/", String.valueOf(i)));
+            entry.addProperty(RDFS.comment, comments[i]);
+            entry.addProperty(RDFS.comment, comments[i], "de");
+            entry.addProperty(RDFS.comment, comments[i], XSDDatatype.XSDstring);
+            entry.addProperty(RDFS.comment, this.model.createResource(String.join("", "http://example.org/",
+                    comments[i].replaceAll("\\s", ""))));
+        }
+        this.model.createResource().addProperty(RDFS.comment, "Euthanasie", XSDDatatype.XSDtoken);
+    }
+
+    /**
+     * Reset the exit keywords and remove all compiled queries after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        LktExitCommentJena.setKeywords(LktExitCommentJena.DEFAULT_KEYWORDS);
+        RdfQueryRegistryJena.clear();
+    }
+
+    /**
+     * Test that the property function finds the same comments as the regular expression filter.
+     * @throws Exception
+     */
+    @Test
+    public void testSameAsRegex() throws Exception {
+        final String filtered = String.join("", this.prefixes, "SELECT ?e ?c WHERE { ?e rdfs:comment ?c . ",
+                "FILTER regex(?c, \".*(Euthanasie|Ausgeschleust).*\", \"i\") } ORDER BY ?e ?c");
+        final String unbound = String.join("", this.prefixes,
+                "SELECT ?e ?c WHERE { ?e report:exitComment ?c } ORDER BY ?e ?c");
+        final String bound = String.join("", this.prefixes,
+                "SELECT ?e ?c WHERE { ?e rdfs:label ?l . OPTIONAL { ?e report:exitComment ?c } } ORDER BY ?e ?c");
+
+        final String expected = this.csv(filtered);
+        assertThat(expected).contains("_:b0,Euthanasie").doesNotContain("Kommentar").doesNotContain("Euthanasi\n");
+        assertThat(this.csv(unbound)).isEqualTo(expected);
+        assertThat(LktExitCommentJena.index(this.model.getGraph()).all()).hasSize(5);
+
+        this.model.listSubjectsWithProperty(RDFS.comment).toList()
+                .forEach(r -> r.addProperty(RDFS.label, "Entry"));
+        assertThat(this.csv(bound)).contains("http://example.org/1,Tier ausgeschleust", "http://example.org/3,\r\n")
+                .doesNotContain("Kommentar");
+    }
+
+    /**
+     * Test that configured keywords replace the default keywords.
+     * @throws Exception
+     */
+    @Test
+    public void testKeywords() throws Exception {
+        final String query = String.join("", this.prefixes,
+                "SELECT ?e ?c WHERE { ?e report:exitComment ?c } ORDER BY ?e ?c");
+        assertThat(LktExitCommentJena.getKeywords()).isEqualTo(LktExitCommentJena.DEFAULT_KEYWORDS);
+
+        LktExitCommentJena.setKeywords(Arrays.asList("kommentar"));
+        assertThat(this.csv(query)).contains("Kommentar").doesNotContain("Euthanasie");
+    }
+
+    private String csv(final String query) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, QueryExecutionFactory.create(query, this.model).execSelect());
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.g_node.micro.rdf.FrozenGraphJena;
+import org.g_node.micro.rdf.RdfConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LktExperimentsReporterJena} class. The report rows are compared
+ * to the rows of the SPARQL query {@link LktQueries#EXPERIMENTS_QUERY}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LktExperimentsReporterJenaTest {
+
+    private static final String GN = RdfConstants.RDF_NS_GN_ONT;
+
+    private Model model;
+    private Resource project;
+    private Resource experimenter;
+
+    /**
+     * Set up a model containing a project with complete and incomplete experiments.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        this.experimenter = this.model.createResource().addProperty(
+                this.model.createProperty(RdfConstants.RDF_NS_FOAF, "name"), "Experimenter A");
+        this.project = this.model.createResource(String.join("", GN, "project/p1"))
+                .addProperty(RDF.type, this.model.createResource(String.join("", GN, "Project")))
+                .addProperty(RDFS.label, "Project A")
+                .addProperty(this.gn("hasProvenance"), this.model.createResource());
+
+        final Resource s1 = this.addSubject("S1");
+        final Resource s2 = this.addSubject("S2");
+        this.addExperiment("Experiment 1", "2015-01-01T10:00:00", s2, true);
+        this.addExperiment("Experiment 2", "2015-02-01T10:00:00", s1, false);
+        this.addExperiment("Experiment 3", "2015-01-15T10:00:00", s1, true);
+
+        // Experiment without subject is not part of the report.
+        this.addExperiment("Experiment 4", "2015-03-01T10:00:00", null, true);
+        // Subject without permit number is not part of the report.
+        final Resource s3 = this.addSubject("S3");
+        s3.removeAll(this.gn("hasPermit"));
+        this.addExperiment("Experiment 5", "2015-03-01T10:00:00", s3, true);
+    }
+
+    /**
+     * Test that the native report contains the same rows in the same order as the SPARQL report.
+     * @throws Exception
+     */
+    @Test
+    public void testSameAsQuery() throws Exception {
+        final String expected = LktExperimentsReporterJenaTest.queryCsv(this.model);
+        assertThat(expected).contains("Experiment 1").contains("Experiment 2").contains("Experiment 3")
+                .doesNotContain("Experiment 4").doesNotContain("Experiment 5");
+
+        assertThat(LktExperimentsReporterJenaTest.csv(LktExperimentsReporterJena.createReport(this.model)))
+                .isEqualTo(expected);
+        assertThat(LktExperimentsReporterJenaTest.csv(LktExperimentsReporterJena.createReport(
+                ModelFactory.createModelForGraph(new FrozenGraphJena(this.model.getGraph())))))
+                .isEqualTo(expected);
+    }
+
+    /**
+     * Test that additional provenances and projects multiply the rows like in the SPARQL query,
+     * and that rows with an ambiguous order are not reported.
+     * @throws Exception
+     */
+    @Test
+    public void testMultipleRows() throws Exception {
+        this.project.addProperty(this.gn("hasProvenance"), this.model.createResource());
+
+        final String expected = LktExperimentsReporterJenaTest.queryCsv(this.model);
+        assertThat(expected.split("Experiment 1,").length).isEqualTo(3);
+        assertThat(LktExperimentsReporterJenaTest.csv(LktExperimentsReporterJena.createReport(this.model)))
+                .isEqualTo(expected);
+
+        // Rows with the same project, subject and date but different experiments have no defined order.
+        this.addExperiment("Experiment 6", "2015-01-01T10:00:00", this.addSubject("S2"), true);
+        assertThat(LktExperimentsReporterJena.createReport(this.model)).isNull();
+    }
+
+    private Resource addSubject(final String id) {
+        final Resource permit = this.model.createResource().addProperty(this.gn("hasNumber"), "P-1");
+        return this.model.createResource(String.join("", GN, "subject/", id))
+                .addProperty(RDF.type, this.model.createResource(String.join("", GN, "Subject")))
+                .addProperty(this.gn("hasSubjectID"), id)
+                .addProperty(this.gn("hasSex"), "female")
+                .addProperty(this.gn("hasBirthDate"), "2014-01-01", XSDDatatype.XSDdate)
+                .addProperty(this.gn("hasWithdrawalDate"), "2014-03-01", XSDDatatype.XSDdate)
+                .addProperty(this.gn("hasPermit"), permit);
+    }
+
+    private void addExperiment(final String label, final String date, final Resource subject,
+                               final boolean withParadigm) {
+        final Resource experiment = this.model.createResource()
+                .addProperty(RDFS.label, label)
+                .addProperty(this.gn("startedAt"), date, XSDDatatype.XSDdateTime)
+                .addProperty(this.gn("hasExperimenter"), this.experimenter)
+                .addProperty(RDFS.comment, "Comment");
+        if (subject != null) {
+            experiment.addProperty(this.gn("hasSubject"), subject);
+        }
+        if (withParadigm) {
+            experiment.addProperty(this.gn("hasParadigm"), "Paradigm")
+                    .addProperty(this.gn("hasParadigmSpecifics"), "Specifics");
+        }
+        this.project.addProperty(this.gn("hasExperiment"), experiment);
+    }
+
+    private Property gn(final String localName) {
+        return this.model.createProperty(GN, localName);
+    }
+
+    private static String queryCsv(final Model model) {
+        return csv(QueryExecutionFactory.create(LktQueries.EXPERIMENTS_QUERY, model).execSelect());
+    }
+
+    private static String csv(final ResultSet result) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, result);
+        return out.toString();
+    }
+
+}
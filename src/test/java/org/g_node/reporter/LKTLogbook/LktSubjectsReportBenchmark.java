@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfQueryRegistryJena;
+
+/**
+ * Benchmark comparing the SUBJECTS report created by the SPARQL query {@link LktQueries#SUBJECTS_QUERY}
+ * and by the {@link LktSubjectsReporterJena}. Not run as part of the test suite, run via
+ * 'java -cp [test classpath] org.g_node.reporter.LKTLogbook.LktSubjectsReportBenchmark
+ * [number of subjects] [repetitions]'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LktSubjectsReportBenchmark {
+
+    private static final String GN = RdfConstants.RDF_NS_GN_ONT;
+
+    public static void main(final String[] args) throws Exception {
+        final int subjects = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final Model model = createLogbookModel(subjects);
+        System.out.println(String.format(Locale.ENGLISH, "%d subjects, %d triples", subjects, model.size()));
+
+        final byte[] sparql = run("SPARQL", model, repetitions,
+                m -> RdfQueryRegistryJena.compile(LktQueries.SUBJECTS_QUERY).execSelect(m));
+        final byte[] report = run("native", model, repetitions, LktSubjectsReporterJena::createReport);
+
+        System.out.println(String.format(Locale.ENGLISH, "  identical CSV: %b", Arrays.equals(sparql, report)));
+    }
+
+    private static byte[] run(final String label, final Model model, final int repetitions,
+                              final Function<Model, ResultSet> report) {
+        long best = Long.MAX_VALUE;
+        byte[] csv = new byte[0];
+        for (int r = 0; r < repetitions; r++) {
+            final long start = System.nanoTime();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ResultSetFormatter.outputAsCSV(out, report.apply(model));
+            best = Math.min(best, System.nanoTime() - start);
+            csv = out.toByteArray();
+        }
+        System.out.println(String.format(Locale.ENGLISH, "  %-6s best of %d: %.3f s (%d bytes)",
+                label, repetitions, best / 1e9, csv.length));
+        return csv;
+    }
+
+    private static Model createLogbookModel(final int subjects) {
+        final Model m = ModelFactory.createDefaultModel();
+        final Property name = m.createProperty(RdfConstants.RDF_NS_FOAF, "name");
+        final Resource[] experimenters = new Resource[10];
+        for (int i = 0; i < experimenters.length; i++) {
+            experimenters[i] = m.createResource(GN + "experimenter/" + i).addProperty(name, "Experimenter " + i);
+        }
+
+        for (int i = 0; i < subjects; i++) {
+            final Resource permit = m.createResource().addProperty(m.createProperty(GN, "hasNumber"), "P-" + i % 5);
+            final Resource subject = m.createResource(GN + "subject/" + i)
+                    .addProperty(RDF.type, m.createResource(GN + "Subject"))
+                    .addProperty(m.createProperty(GN, "hasSubjectID"), String.format(Locale.ENGLISH, "S%06d", i))
+                    .addProperty(m.createProperty(GN, "hasSpeciesName"), "Mongolian gerbil")
+                    .addProperty(m.createProperty(GN, "hasScientificName"), "Meriones unguiculatus")
+                    .addProperty(m.createProperty(GN, "hasSex"), i % 2 == 0 ? "female" : "male")
+                    .addProperty(m.createProperty(GN, "hasBirthDate"), "2014-01-01", XSDDatatype.XSDdate)
+                    .addProperty(m.createProperty(GN, "hasWithdrawalDate"), "2014-03-01", XSDDatatype.XSDdate)
+                    .addProperty(m.createProperty(GN, "hasPermit"), permit);
+            for (int j = 0; j < 10; j++) {
+                final String comment = j == 9 ? "Tier ausgeschleust" : "Log entry " + j;
+                final Resource entry = m.createResource()
+                        .addProperty(m.createProperty(GN, "startedAt"), String.format(Locale.ENGLISH,
+                                "2015-%02d-%02dT10:00:00", j + 1, i % 28 + 1), XSDDatatype.XSDdateTime)
+                        .addProperty(m.createProperty(GN, "hasExperimenter"), experimenters[(i + j) % 10])
+                        .addProperty(RDFS.comment, comment);
+                subject.addProperty(m.createProperty(GN, "hasSubjectLogEntry"), entry);
+            }
+        }
+        return m;
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.reporter.LKTLogbook;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFormatter;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.ByteArrayOutputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.g_node.micro.rdf.FrozenGraphJena;
+import org.g_node.micro.rdf.RdfConstants;
+import org.g_node.micro.rdf.RdfDateIndexJena;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LktSubjectsReporterJena} class. The report rows are compared
+ * to the rows of the SPARQL query {@link LktQueries#SUBJECTS_QUERY}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LktSubjectsReporterJenaTest {
+
+    private static final String GN = RdfConstants.RDF_NS_GN_ONT;
+
+    private Model model;
+    private Resource experimenterA;
+    private Resource experimenterB;
+
+    /**
+     * Set up a model containing subjects with complete and incomplete log entries.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.model = ModelFactory.createDefaultModel();
+        this.experimenterA = this.model.createResource().addProperty(
+                this.model.createProperty(RdfConstants.RDF_NS_FOAF, "name"), "Experimenter A");
+        this.experimenterB = this.model.createResource().addProperty(
+                this.model.createProperty(RdfConstants.RDF_NS_FOAF, "name"), "Experimenter B");
+
+        final Resource s2 = this.addSubject("S2");
+        this.addEntry(s2, "2015-03-01T10:00:00", this.experimenterA, "First entry");
+        this.addEntry(s2, "2015-05-01T10:00:00", this.experimenterB, "Tier euthanasiert");
+        this.addEntry(s2, "2015-04-01T10:00:00", this.experimenterB, null);
+
+        final Resource s1 = this.addSubject("S1");
+        this.addEntry(s1, "2015-01-01T10:00:00", null, "No experimenter");
+        this.addEntry(s1, "2015-02-01T10:00:00", this.experimenterA, null);
+
+        final Resource s10 = this.addSubject("S10");
+        this.addEntry(s10, "2015-06-01T10:00:00", this.experimenterA, "AUSGESCHLEUST");
+
+        // Subject without log entries is not part of the report.
+        this.addSubject("S3");
+        // Subject without permit number is not part of the report.
+        final Resource s4 = this.addSubject("S4");
+        this.addEntry(s4, "2015-06-01T10:00:00", this.experimenterA, "Comment");
+        s4.removeAll(this.gn("hasPermit"));
+    }
+
+    /**
+     * Test that the native report contains the same rows in the same order as the SPARQL report.
+     * @throws Exception
+     */
+    @Test
+    public void testSameAsQuery() throws Exception {
+        final String expected = LktSubjectsReporterJenaTest.queryCsv(this.model);
+        assertThat(expected).contains("S1").contains("S10").contains("S2").doesNotContain("S3").doesNotContain("S4");
+
+        assertThat(LktSubjectsReporterJenaTest.csv(LktSubjectsReporterJena.createReport(this.model)))
+                .isEqualTo(expected);
+        assertThat(LktSubjectsReporterJenaTest.csv(LktSubjectsReporterJena.createReport(
+                ModelFactory.createModelForGraph(new FrozenGraphJena(this.model.getGraph())))))
+                .isEqualTo(expected);
+    }
+
+    /**
+     * Test that multiple rows of a subject are reported, as long as their order is unambiguous.
+     * @throws Exception
+     */
+    @Test
+    public void testMultipleRows() throws Exception {
+        final Resource s5 = this.addSubject("S5");
+        this.addEntry(s5, "2015-01-01T10:00:00", this.experimenterA, "Entry");
+        this.addEntry(s5, "2015-01-01T10:00:00", this.experimenterA, "Entry");
+
+        final String expected = LktSubjectsReporterJenaTest.queryCsv(this.model);
+        assertThat(expected.split("S5,").length).isEqualTo(5);
+        assertThat(LktSubjectsReporterJenaTest.csv(LktSubjectsReporterJena.createReport(this.model)))
+                .isEqualTo(expected);
+
+        // Rows with the same subject id and different values have no defined order.
+        this.addEntry(s5, "2015-01-02T10:00:00", this.experimenterB, "Ausgeschleust");
+        this.addEntry(s5, "2015-01-03T10:00:00", this.experimenterB, "Euthanasie");
+        assertThat(LktSubjectsReporterJena.createReport(this.model)).isNull();
+    }
+
+    /**
+     * Test that dates with the same value but a different lexical form are matched like in the SPARQL query.
+     * @throws Exception
+     */
+    @Test
+    public void testSameValueDates() throws Exception {
+        final Resource s6 = this.addSubject("S6");
+        this.addEntry(s6, "2015-01-01T10:00:00", this.experimenterA, "Entry");
+        this.addEntry(s6, "2015-01-01T10:00:00.000", this.experimenterA, "Entry");
+
+        assertThat(LktSubjectsReporterJenaTest.csv(LktSubjectsReporterJena.createReport(this.model)))
+                .isEqualTo(LktSubjectsReporterJenaTest.queryCsv(this.model));
+    }
+
+    /**
+     * Test that the report is the same, if first and last log entries are looked up in the date index.
+     * @throws Exception
+     */
+    @Test
+    public void testIndexedDates() throws Exception {
+        final Resource s6 = this.addSubject("S6");
+        this.addEntry(s6, "2015-01-01T10:00:00", this.experimenterA, "Entry");
+        this.addEntry(s6, "2015-01-01T10:00:00.000", this.experimenterA, "Entry");
+        final Resource s7 = this.addSubject("S7");
+        this.addEntry(s7, "2015-01-01T10:00:00Z", this.experimenterA, "Entry");
+        this.addEntry(s7, "2015-01-01T09:00:00", this.experimenterB, "Entry");
+        this.addEntry(s7, "2015-01-02T09:00:00+02:00", this.experimenterB, "Ausgeschleust");
+
+        LktReporterJena.indexDates(this.model);
+        final RdfDateIndexJena index = RdfDateIndexJena.get(this.model.getGraph(),
+                this.gn("hasSubjectLogEntry").asNode(), this.gn("startedAt").asNode());
+        assertThat(index.isComparable(this.model.createResource(String.join("", GN, "subject/S2")).asNode()))
+                .isTrue();
+        assertThat(index.isComparable(s7.asNode())).isFalse();
+
+        assertThat(LktSubjectsReporterJenaTest.csv(LktSubjectsReporterJena.createReport(this.model)))
+                .isEqualTo(LktSubjectsReporterJenaTest.queryCsv(this.model));
+    }
+
+    private Resource addSubject(final String id) {
+        final Resource permit = this.model.createResource().addProperty(this.gn("hasNumber"), "P-1");
+        return this.model.createResource(String.join("", GN, "subject/", id))
+                .addProperty(RDF.type, this.model.createResource(String.join("", GN, "Subject")))
+                .addProperty(this.gn("hasSubjectID"), id)
+                .addProperty(this.gn("hasSpeciesName"), "Mongolian gerbil")
+                .addProperty(this.gn("hasScientificName"), "Meriones unguiculatus")
+                .addProperty(this.gn("hasSex"), "female")
+                .addProperty(this.gn("hasBirthDate"), "2014-01-01", XSDDatatype.XSDdate)
+                .addProperty(this.gn("hasWithdrawalDate"), "2014-03-01", XSDDatatype.XSDdate)
+                .addProperty(this.gn("hasPermit"), permit);
+    }
+
+    private void addEntry(final Resource subject, final String date, final Resource experimenter,
+                          final String comment) {
+        final Resource entry = this.model.createResource()
+                .addProperty(this.gn("startedAt"), date, XSDDatatype.XSDdateTime);
+        if (experimenter != null) {
+            entry.addProperty(this.gn("hasExperimenter"), experimenter);
+        }
+        if (comment != null) {
+            entry.addProperty(RDFS.comment, comment);
+        }
+        subject.addProperty(this.gn("hasSubjectLogEntry"), entry);
+    }
+
+    private Property gn(final String localName) {
+        return this.model.createProperty(GN, localName);
+    }
+
+    private static String queryCsv(final Model model) {
+        return csv(QueryExecutionFactory.create(LktQueries.SUBJECTS_QUERY, model).execSelect());
+    }
+
+    private static String csv(final ResultSet result) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetFormatter.outputAsCSV(out, result);
+        return out.toString();
+    }
+
+}
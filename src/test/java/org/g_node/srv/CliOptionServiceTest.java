@@ -10,7 +10,9 @@
 
 package org.g_node.srv;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import org.apache.commons.cli.Option;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -137,6 +139,282 @@ public class CliOptionServiceTest {
         this.assertOption(altDescOption, shortOpt, longOpt, altDesc, isRequired, hasArgument, hasArguments);
     }
 
+    /**
+     * Test option letter, long option text, description, use of alternative description as well as
+     * isRequired, hasArgument and hasArguments state of the memory map CLI option.
+     * @throws Exception
+     */
+    @Test
+    public void testMemoryMapOpt() throws Exception {
+        final String shortOpt = "m";
+        final String longOpt = "memory-map";
+        final String desc = "Optional: Read the input file from memory mapped regions";
+        final String altDesc = "Different message.";
+        final Boolean isRequired = false;
+        final Boolean hasArgument = false;
+        final Boolean hasArguments = false;
+
+        final Option defaultOption = CliOptionService.getMemoryMapOption("");
+        this.assertOption(defaultOption, shortOpt, longOpt, desc, isRequired, hasArgument, hasArguments);
+
+        final Option altDescOption = CliOptionService.getMemoryMapOption(altDesc);
+        this.assertOption(altDescOption, shortOpt, longOpt, altDesc, isRequired, hasArgument, hasArguments);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the snapshot cache CLI options.
+     * @throws Exception
+     */
+    @Test
+    public void testSnapshotCacheOpt() throws Exception {
+        final String altDesc = "Different message.";
+        final Boolean isRequired = false;
+        final Boolean hasArgument = true;
+        final Boolean hasArguments = false;
+
+        final Option cacheOption = CliOptionService.getSnapshotCacheOption("");
+        assertThat(cacheOption.getOpt()).isNull();
+        assertThat(cacheOption.getLongOpt()).isEqualTo("snapshot-cache");
+        assertThat(cacheOption.getDescription()).contains("Optional: Directory of the binary snapshot cache");
+        assertThat(cacheOption.isRequired()).isEqualTo(isRequired);
+        assertThat(cacheOption.hasArg()).isEqualTo(hasArgument);
+        assertThat(cacheOption.hasArgs()).isEqualTo(hasArguments);
+        assertThat(CliOptionService.getSnapshotCacheOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option sizeOption = CliOptionService.getSnapshotCacheSizeOption("");
+        assertThat(sizeOption.getOpt()).isNull();
+        assertThat(sizeOption.getLongOpt()).isEqualTo("snapshot-cache-size");
+        assertThat(sizeOption.getDescription()).contains("Optional: Maximum size of the binary snapshot cache");
+        assertThat(sizeOption.isRequired()).isEqualTo(isRequired);
+        assertThat(sizeOption.hasArg()).isEqualTo(hasArgument);
+        assertThat(sizeOption.hasArgs()).isEqualTo(hasArguments);
+        assertThat(CliOptionService.getSnapshotCacheSizeOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the store CLI option.
+     * @throws Exception
+     */
+    @Test
+    public void testStoreOpt() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option defaultOption = CliOptionService.getStoreOption("");
+        assertThat(defaultOption.getOpt()).isNull();
+        assertThat(defaultOption.getLongOpt()).isEqualTo("store");
+        assertThat(defaultOption.getDescription()).contains("Optional: Directory of a disk backed store");
+        assertThat(defaultOption.isRequired()).isFalse();
+        assertThat(defaultOption.hasArg()).isTrue();
+        assertThat(defaultOption.hasArgs()).isFalse();
+
+        assertThat(CliOptionService.getStoreOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the incremental loading CLI option.
+     * @throws Exception
+     */
+    @Test
+    public void testIncrementalOpt() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option defaultOption = CliOptionService.getIncrementalOption("");
+        assertThat(defaultOption.getOpt()).isNull();
+        assertThat(defaultOption.getLongOpt()).isEqualTo("incremental");
+        assertThat(defaultOption.getDescription()).contains("Optional: Parse only data appended to the input file");
+        assertThat(defaultOption.isRequired()).isFalse();
+        assertThat(defaultOption.hasArg()).isFalse();
+        assertThat(defaultOption.hasArgs()).isFalse();
+
+        assertThat(CliOptionService.getIncrementalOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the load pipeline CLI options.
+     * @throws Exception
+     */
+    @Test
+    public void testPipelineOpt() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option depthOption = CliOptionService.getPipelineDepthOption("");
+        assertThat(depthOption.getOpt()).isNull();
+        assertThat(depthOption.getLongOpt()).isEqualTo("pipeline-depth");
+        assertThat(depthOption.getDescription()).contains("Optional: Insert parsed triples into the model");
+        assertThat(depthOption.isRequired()).isFalse();
+        assertThat(depthOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getPipelineDepthOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option batchOption = CliOptionService.getPipelineBatchOption("");
+        assertThat(batchOption.getOpt()).isNull();
+        assertThat(batchOption.getLongOpt()).isEqualTo("pipeline-batch");
+        assertThat(batchOption.getDescription()).contains("Optional: Number of triples per batch");
+        assertThat(batchOption.isRequired()).isFalse();
+        assertThat(batchOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getPipelineBatchOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the freeze CLI option.
+     * @throws Exception
+     */
+    @Test
+    public void testFreezeOpt() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option defaultOption = CliOptionService.getFreezeOption("");
+        assertThat(defaultOption.getOpt()).isNull();
+        assertThat(defaultOption.getLongOpt()).isEqualTo("freeze");
+        assertThat(defaultOption.getDescription()).contains("Optional: Convert the loaded data into a compact");
+        assertThat(defaultOption.isRequired()).isFalse();
+        assertThat(defaultOption.hasArg()).isFalse();
+
+        assertThat(CliOptionService.getFreezeOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    @Test
+    public void testEngineOpt() throws Exception {
+        final String altDesc = "Different message.";
+        final Set<String> engines = new HashSet<>(Arrays.asList("NATIVE", "SPARQL"));
+
+        final Option defaultOption = CliOptionService.getEngineOption("", engines);
+        assertThat(defaultOption.getOpt()).isNull();
+        assertThat(defaultOption.getLongOpt()).isEqualTo("engine");
+        assertThat(defaultOption.getDescription()).contains("Optional: Engine used to create reports.");
+        assertThat(defaultOption.getDescription()).contains(engines.toString());
+        assertThat(defaultOption.isRequired()).isFalse();
+        assertThat(defaultOption.hasArg()).isTrue();
+
+        assertThat(CliOptionService.getEngineOption(altDesc, engines).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the report limit CLI options.
+     * @throws Exception
+     */
+    @Test
+    public void testLimitOpts() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option timeoutOption = CliOptionService.getTimeoutOption("");
+        assertThat(timeoutOption.getOpt()).isNull();
+        assertThat(timeoutOption.getLongOpt()).isEqualTo("timeout");
+        assertThat(timeoutOption.getDescription()).contains("Optional: Maximum time in seconds");
+        assertThat(timeoutOption.isRequired()).isFalse();
+        assertThat(timeoutOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getTimeoutOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option rowsOption = CliOptionService.getMaxRowsOption("");
+        assertThat(rowsOption.getOpt()).isNull();
+        assertThat(rowsOption.getLongOpt()).isEqualTo("max-rows");
+        assertThat(rowsOption.getDescription()).contains("Optional: Maximum number of result rows");
+        assertThat(rowsOption.isRequired()).isFalse();
+        assertThat(rowsOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getMaxRowsOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option heapOption = CliOptionService.getMaxHeapOption("");
+        assertThat(heapOption.getOpt()).isNull();
+        assertThat(heapOption.getLongOpt()).isEqualTo("max-heap");
+        assertThat(heapOption.getDescription()).contains("Optional: Percentage of the maximum heap size");
+        assertThat(heapOption.isRequired()).isFalse();
+        assertThat(heapOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getMaxHeapOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Tests the long option, description, alternative description,
+     * isRequired, hasArgument and hasArguments state of the sort CLI options.
+     * @throws Exception
+     */
+    @Test
+    public void testSortOpts() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option rowsOption = CliOptionService.getSortRunRowsOption("");
+        assertThat(rowsOption.getOpt()).isNull();
+        assertThat(rowsOption.getLongOpt()).isEqualTo("sort-run-rows");
+        assertThat(rowsOption.getDescription()).contains("Optional: Maximum number of report rows sorted in memory.");
+        assertThat(rowsOption.isRequired()).isFalse();
+        assertThat(rowsOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getSortRunRowsOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option dirOption = CliOptionService.getSortDirOption("");
+        assertThat(dirOption.getOpt()).isNull();
+        assertThat(dirOption.getLongOpt()).isEqualTo("sort-dir");
+        assertThat(dirOption.getDescription()).contains("Optional: Directory of the temporary files");
+        assertThat(dirOption.isRequired()).isFalse();
+        assertThat(dirOption.hasArg()).isTrue();
+        assertThat(CliOptionService.getSortDirOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    /**
+     * Test that the exit keywords option is optional and takes an argument.
+     * @throws Exception
+     */
+    @Test
+    public void testExitKeywordsOpt() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option option = CliOptionService.getExitKeywordsOption("");
+        assertThat(option.getOpt()).isNull();
+        assertThat(option.getLongOpt()).isEqualTo("exit-keywords");
+        assertThat(option.getDescription()).contains("Optional: Comma separated keywords marking the exit comment");
+        assertThat(option.isRequired()).isFalse();
+        assertThat(option.hasArg()).isTrue();
+        assertThat(CliOptionService.getExitKeywordsOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    @Test
+    public void testResultCacheOpts() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option cacheOpt = CliOptionService.getResultCacheOption("");
+        assertThat(cacheOpt.getLongOpt()).isEqualTo("result-cache");
+        assertThat(cacheOpt.getDescription()).contains("Optional: Directory of the report result cache.");
+        assertThat(cacheOpt.hasArg()).isTrue();
+        assertThat(CliOptionService.getResultCacheOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option sizeOpt = CliOptionService.getResultCacheSizeOption("");
+        assertThat(sizeOpt.getLongOpt()).isEqualTo("result-cache-size");
+        assertThat(sizeOpt.getDescription()).contains("Optional: Maximum size of the report result cache in MB.");
+        assertThat(sizeOpt.hasArg()).isTrue();
+        assertThat(CliOptionService.getResultCacheSizeOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option noCacheOpt = CliOptionService.getNoCacheOption("");
+        assertThat(noCacheOpt.getLongOpt()).isEqualTo("no-cache");
+        assertThat(noCacheOpt.hasArg()).isFalse();
+        assertThat(CliOptionService.getNoCacheOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option refreshOpt = CliOptionService.getRefreshOption("");
+        assertThat(refreshOpt.getLongOpt()).isEqualTo("refresh");
+        assertThat(refreshOpt.getDescription()).contains("Requires a result cache directory.");
+        assertThat(refreshOpt.hasArg()).isFalse();
+        assertThat(CliOptionService.getRefreshOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
+    @Test
+    public void testExplainProfileOpts() throws Exception {
+        final String altDesc = "Different message.";
+
+        final Option explainOpt = CliOptionService.getExplainOption("");
+        assertThat(explainOpt.getLongOpt()).isEqualTo("explain");
+        assertThat(explainOpt.getDescription()).contains("Optional: Print the parsed algebra, the optimized plan");
+        assertThat(explainOpt.hasArg()).isFalse();
+        assertThat(CliOptionService.getExplainOption(altDesc).getDescription()).isEqualTo(altDesc);
+
+        final Option profileOpt = CliOptionService.getProfileOption("");
+        assertThat(profileOpt.getLongOpt()).isEqualTo("profile");
+        assertThat(profileOpt.getDescription()).contains("Optional: Measure rows and time of every operator");
+        assertThat(profileOpt.hasArg()).isFalse();
+        assertThat(CliOptionService.getProfileOption(altDesc).getDescription()).isEqualTo(altDesc);
+    }
+
     /**
      * Main assertions of all option arguments.
      * @param opt The actual {@link Option}.
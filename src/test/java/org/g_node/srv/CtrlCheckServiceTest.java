@@ -159,4 +159,17 @@ public class CtrlCheckServiceTest {
         ));
     }
 
+    /**
+     * Test that a value is a number not smaller than a provided minimum. Return true if it is, false otherwise.
+     * @throws Exception
+     */
+    @Test
+    public void testIsSupportedNumericCliArgValue() throws Exception {
+        assertThat(CtrlCheckService.isSupportedNumericCliArgValue("10", 1, "")).isTrue();
+        assertThat(CtrlCheckService.isSupportedNumericCliArgValue("1", 1, "")).isTrue();
+
+        assertThat(CtrlCheckService.isSupportedNumericCliArgValue("0", 1, "")).isFalse();
+        assertThat(CtrlCheckService.isSupportedNumericCliArgValue("ten", 1, "")).isFalse();
+    }
+
 }